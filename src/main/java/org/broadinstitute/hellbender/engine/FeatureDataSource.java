@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.engine;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.intel.genomicsdb.model.GenomicsDBExportConfiguration;
 import com.intel.genomicsdb.reader.GenomicsDBFeatureReader;
 import htsjdk.samtools.SAMSequenceDictionary;
@@ -7,6 +8,7 @@ import htsjdk.samtools.util.IOUtil;
 import htsjdk.tribble.*;
 import htsjdk.variant.bcf2.BCF2Codec;
 import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFCodec;
 import htsjdk.variant.vcf.VCFHeader;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -20,6 +22,8 @@ import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.broadinstitute.hellbender.utils.nio.SeekableByteChannelPrefetcher;
+import org.broadinstitute.hellbender.utils.variant.GVCFBlockIndex;
+import org.broadinstitute.hellbender.utils.variant.GVCFBlockIndexedReader;
 import static org.broadinstitute.hellbender.tools.genomicsdb.GenomicsDBUtils.*;
 
 import java.io.File;
@@ -117,6 +121,13 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
      */
     private final boolean supportsRandomAccess;
 
+    /**
+     * Feature reader used for queries and traversals by interval. This is {@link #featureReader} unless this
+     * datasource is a local block-compressed GVCF with a {@link GVCFBlockIndex} next to it, in which case
+     * queries seek straight to the first overlapping record instead of decoding everything in the tabix bin.
+     */
+    private final FeatureReader<T> queryReader;
+
     /**
      * Default value for queryLookaheadBases, if none is specified. This is designed to be large enough
      * so that in typical usage (ie., query intervals with gradually increasing start locations) there will
@@ -270,6 +281,9 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
             throw new UserException.MissingIndex(featureInput.toString(), "Support for unindexed block-compressed files has been temporarily disabled. Try running IndexFeatureFile on the input.");
         }
 
+        final FeatureReader<T> gvcfBlockIndexedReader = hasIndex ? getGVCFBlockIndexedReader(featureInput, targetFeatureType) : null;
+        this.queryReader = gvcfBlockIndexedReader != null ? gvcfBlockIndexedReader : featureReader;
+
         this.currentIterator = null;
         this.intervalsForTraversal = null;
         this.queryCache = new FeatureCache<>();
@@ -277,6 +291,35 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
     }
 
 
+    @SuppressWarnings("unchecked")
+    private static <T extends Feature> FeatureReader<T> getGVCFBlockIndexedReader(final FeatureInput<T> featureInput, final Class<? extends Feature> targetFeatureType) {
+        final String featurePath = featureInput.getFeaturePath();
+        if (!VCFCodec.class.equals(featureInput.getFeatureCodecClass()) || !IOUtil.hasBlockCompressedExtension(featurePath)
+                || BucketUtils.isRemoteStorageUrl(featurePath)) {
+            return null;
+        }
+        final Path path = IOUtils.getPath(featurePath);
+        final Path blockIndexPath = GVCFBlockIndex.getIndexPath(path);
+        if (!Files.exists(blockIndexPath)) {
+            return null;
+        }
+        final GVCFBlockIndex blockIndex;
+        try {
+            blockIndex = GVCFBlockIndex.read(blockIndexPath);
+        } catch (final UserException e) {
+            logger.warn("Ignoring unreadable GVCF block index " + blockIndexPath.toUri() + ": " + e.getMessage());
+            return null;
+        }
+        if (!blockIndex.matches(path)) {
+            logger.warn("Ignoring GVCF block index " + blockIndexPath.toUri() + " since " + featureInput +
+                    " has changed since the index was created. Re-run IndexFeatureFile to recreate it.");
+            return null;
+        }
+        logger.info("Using GVCF block index " + blockIndexPath.toUri() + " for queries on " + featureInput);
+        final VCFCodec codec = (VCFCodec) getCodecForFeatureInput(featureInput, targetFeatureType);
+        return (FeatureReader<T>) new GVCFBlockIndexedReader(path, blockIndex, codec);
+    }
+
     @SuppressWarnings("unchecked")
     private static <T extends Feature> FeatureReader<T> getFeatureReader(final FeatureInput<T> featureInput, final Class<? extends Feature> targetFeatureType,
                                                                          final Function<SeekableByteChannel, SeekableByteChannel> cloudWrapper,
@@ -433,7 +476,7 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
 
         try {
             // Save the iterator returned so that we can close it properly later
-            currentIterator = intervalsForTraversal != null ? new FeatureIntervalIterator<>(intervalsForTraversal, featureReader, featureInput.getFeaturePath())
+            currentIterator = intervalsForTraversal != null ? new FeatureIntervalIterator<>(intervalsForTraversal, queryReader, featureInput.getFeaturePath())
                     : featureReader.iterator();
             return currentIterator;
         } catch (final IOException e) {
@@ -525,7 +568,7 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
         final SimpleInterval queryInterval = new SimpleInterval(interval.getContig(), interval.getStart(), Math.addExact(interval.getEnd(), queryLookaheadBases));
 
         // Query iterator over our reader will be immediately closed after re-populating our cache
-        try (final CloseableTribbleIterator<T> queryIter = featureReader.query(queryInterval.getContig(), queryInterval.getStart(), queryInterval.getEnd())) {
+        try (final CloseableTribbleIterator<T> queryIter = queryReader.query(queryInterval.getContig(), queryInterval.getStart(), queryInterval.getEnd())) {
             queryCache.fill(queryIter, queryInterval);
         } catch (final IOException e) {
             throw new GATKException("Error querying file " + featureInput + " over interval " + interval, e);
@@ -550,6 +593,14 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
         return featureReader.getHeader();
     }
 
+    /**
+     * @return the reader used for queries, which differs from the one used for iteration when a GVCF block index is used
+     */
+    @VisibleForTesting
+    public FeatureReader<T> getQueryReader() {
+        return queryReader;
+    }
+
     /**
      * Permanently close this data source, invalidating any open iteration over it, and making it invalid for future
      * iterations and queries.
@@ -565,6 +616,9 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
             if (featureReader != null) {
                 featureReader.close();
             }
+            if (queryReader != featureReader) {
+                queryReader.close();
+            }
         } catch (final IOException e) {
             throw new GATKException("Error closing Feature reader for input " + featureInput);
         }
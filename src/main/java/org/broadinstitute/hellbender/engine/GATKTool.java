@@ -1,14 +1,17 @@
 package org.broadinstitute.hellbender.engine;
 
+import htsjdk.samtools.Defaults;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMProgramRecord;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.SamReaderFactory;
+import htsjdk.samtools.util.IOUtil;
 import htsjdk.samtools.util.Locatable;
 import htsjdk.tribble.Feature;
 import htsjdk.variant.variantcontext.writer.Options;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import htsjdk.variant.vcf.VCFHeaderLine;
+import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
 import org.broadinstitute.barclay.argparser.CommandLinePluginDescriptor;
@@ -37,6 +40,7 @@ import org.broadinstitute.hellbender.utils.read.ReadUtils;
 import org.broadinstitute.hellbender.utils.read.SAMFileGATKReadWriter;
 import org.broadinstitute.hellbender.utils.reference.ReferenceUtils;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
+import org.broadinstitute.hellbender.utils.variant.writers.ParallelBlockCompressedVCFWriter;
 
 import java.io.File;
 import java.nio.file.Path;
@@ -120,6 +124,12 @@ public abstract class GATKTool extends CommandLineProgram {
             doc = "If true, don't emit genotype fields when writing vcf file output.", optional = true)
     public boolean outputSitesOnlyVCFs = false;
 
+    @Advanced
+    @Argument(fullName = StandardArgumentDefinitions.VARIANT_OUTPUT_COMPRESSION_THREADS_LONG_NAME,
+            doc = "Number of threads compressing block-compressed (.vcf.gz) VCF output. Values above 1 compress blocks in parallel.",
+            optional = true, minValue = 1)
+    public int variantOutputCompressionThreads = 1;
+
     /**
      * Master sequence dictionary to be used instead of all other dictionaries (if provided).
      */
@@ -801,6 +811,16 @@ public abstract class GATKTool extends CommandLineProgram {
             options.add(Options.DO_NOT_WRITE_GENOTYPES);
         }
 
+        if (variantOutputCompressionThreads > 1 && IOUtil.hasBlockCompressedExtension(outFile.getPath())) {
+            return new ParallelBlockCompressedVCFWriter(
+                    outFile,
+                    sequenceDictionary,
+                    variantOutputCompressionThreads,
+                    Defaults.COMPRESSION_LEVEL,
+                    createOutputVariantMD5,
+                    options.toArray(new Options[options.size()]));
+        }
+
         return GATKVariantContextUtils.createVCFWriter(
                 outFile,
                 sequenceDictionary,
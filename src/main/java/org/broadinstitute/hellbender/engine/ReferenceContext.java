@@ -403,6 +403,17 @@ public final class ReferenceContext implements Iterable<Byte> {
      * Returns null when, at the ends of a contig, we cannot expand the window to the requested size
      */
     public String getKmerAround(final int center, final int numBasesOnEachSide){
+        final byte[] kmer = getKmerBasesAround(center, numBasesOnEachSide);
+        return kmer == null ? null : new String(kmer);
+    }
+
+    /**
+     * Get the bases of a kmer around a position in reference, as returned by {@link #getKmerAround} but without
+     * building a String
+     *
+     * Returns null when, at the ends of a contig, we cannot expand the window to the requested size
+     */
+    public byte[] getKmerBasesAround(final int center, final int numBasesOnEachSide){
         Utils.validateArg(center >= 1, () -> "start position must be positive");
         Utils.validateArg(window.getStart() <= center && center <= window.getEnd(), "position must be smaller than end position");
 
@@ -413,6 +424,6 @@ public final class ReferenceContext implements Iterable<Byte> {
             return null;
         }
 
-        return new String(getBases(newWindow));
+        return getBases(newWindow);
     }
 }
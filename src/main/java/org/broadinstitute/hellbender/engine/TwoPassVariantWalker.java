@@ -31,8 +31,10 @@ public abstract class TwoPassVariantWalker extends VariantWalker {
         afterFirstPass();
 
         // Second pass
-        logger.info("Starting second pass through the variants");
-        traverseVariants(countingVariantFilter, readFilter, this::secondPassApply);
+        if (requiresSecondPass()) {
+            logger.info("Starting second pass through the variants");
+            traverseVariants(countingVariantFilter, readFilter, this::secondPassApply);
+        }
 
         logger.info(countingVariantFilter.getSummaryLine());
         logger.info(readFilter.getSummaryLine());
@@ -57,6 +59,14 @@ public abstract class TwoPassVariantWalker extends VariantWalker {
      */
     protected abstract void afterFirstPass();
 
+    /**
+     * Tools that keep everything they need from the first pass in memory may override this to skip re-reading
+     * the variants, in which case {@link #secondPassApply} is never called.
+     *
+     * @return whether to make the second pass through the variants after {@link #afterFirstPass}
+     */
+    protected boolean requiresSecondPass() { return true; }
+
     /**
      *
      * Having seen all of the variants in a vcf, make a second pass through the variants
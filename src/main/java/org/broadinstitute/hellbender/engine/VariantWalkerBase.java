@@ -2,6 +2,7 @@ package org.broadinstitute.hellbender.engine;
 
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
 import htsjdk.variant.vcf.VCFHeader;
 import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
 import org.broadinstitute.hellbender.engine.filters.CountingVariantFilter;
@@ -39,6 +40,17 @@ public abstract class VariantWalkerBase extends GATKTool {
     @Override
     public String getProgressMeterRecordLabel() { return "variants"; }
 
+    /**
+     * Does this tool read or write the genotypes of the driving variants? Defaults to true.
+     *
+     * Genotypes of VCF records are decoded lazily, and records whose genotypes were never decoded are written out by
+     * copying the genotype text, so tools that filter or rewrite sites pass genotypes through cheaply as long as they
+     * don't look at them. Tools that only use site-level fields and don't write the records out can return false:
+     * genotypes are then dropped before variants reach the filters, transformers and {@link #apply}, so nothing
+     * decodes them by accident, and the genotype text of records with many samples is released right away.
+     */
+    public boolean requiresGenotypes() { return true; }
+
     @Override
     void initializeFeatures() {
 
@@ -125,12 +137,15 @@ public abstract class VariantWalkerBase extends GATKTool {
     /**
      * Returns a stream over the variants, which are:
      *
-     * 1. Transformed with {@link #makePreVariantFilterTransformer()}.
+     * 1. Transformed with {@link #makePreVariantFilterTransformer()}, after dropping genotypes if the tool doesn't
+     *    {@link #requiresGenotypes() require them}.
      * 2. Filtered with {@code filter}.
      * 3. Transformed with {@link #makePostVariantFilterTransformer()}.
      */
     protected Stream<VariantContext> getTransformedVariantStream(final VariantFilter filter) {
-        final VariantTransformer preTransformer  = makePreVariantFilterTransformer();
+        final VariantTransformer genotypeDropper = VariantWalkerBase::dropGenotypes;
+        final VariantTransformer preTransformer  = requiresGenotypes() ? makePreVariantFilterTransformer()
+                : makePreVariantFilterTransformer().compose(genotypeDropper);
         final VariantTransformer postTransformer = makePostVariantFilterTransformer();
         return StreamSupport.stream(getSpliteratorForDrivingVariants(), false)
                 .map(preTransformer)
@@ -138,6 +153,10 @@ public abstract class VariantWalkerBase extends GATKTool {
                 .map(postTransformer);
     }
 
+    private static VariantContext dropGenotypes(final VariantContext variant) {
+        return variant.hasGenotypes() ? new VariantContextBuilder(variant).noGenotypes().make() : variant;
+    }
+
     /**
      * Implementation of variant-based traversal.
      * Subclasses can override to provide their own behavior but default implementation should be suitable for most uses.
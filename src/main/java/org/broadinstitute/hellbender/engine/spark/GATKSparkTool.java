@@ -75,6 +75,7 @@ public abstract class GATKSparkTool extends SparkCommandLineProgram {
     private static final long serialVersionUID = 1L;
 
     public static final String BAM_PARTITION_SIZE_LONG_NAME = "bam-partition-size";
+    public static final String USE_BAM_INDEX_FOR_SPLITS_LONG_NAME = "use-bam-index-for-splits";
     public static final String NUM_REDUCERS_LONG_NAME = "num-reducers";
     public static final String SHARDED_OUTPUT_LONG_NAME = "sharded-output";
     public static final String OUTPUT_SHARD_DIR_LONG_NAME = "output-shard-tmp-dir";
@@ -95,6 +96,12 @@ public abstract class GATKSparkTool extends SparkCommandLineProgram {
             optional = true)
     protected long bamPartitionSplitSize = 0;
 
+    @Argument(doc = "When reading a BAM file that has a .bam.bai index, derive record-aligned partition boundaries from the index " +
+            "instead of guessing them by scanning the file. This removes the need for a .splitting-bai, which is still preferred if present.",
+            fullName = USE_BAM_INDEX_FOR_SPLITS_LONG_NAME,
+            optional = true)
+    protected boolean useBamIndexForSplits = false;
+
 
     @ArgumentCollection
     protected SequenceDictionaryValidationArgumentCollection sequenceDictionaryValidationArguments = getSequenceDictionaryValidationArgumentCollection();
@@ -276,7 +283,9 @@ public abstract class GATKSparkTool extends SparkCommandLineProgram {
         // TODO: This if statement is a temporary hack until #959 gets resolved.
         if (readInput.endsWith(".adam")) {
             try {
-                return readsSource.getADAMReads(readInput, traversalParameters, getHeaderForReads());
+                // the tool's projection only covers its default read filters, so read every field if the user enabled others
+                final List<String> fieldsToRead = hasUserEnabledReadFilters() ? null : getADAMReadFieldsToRead();
+                return readsSource.getADAMReads(readInput, traversalParameters, getHeaderForReads(), fieldsToRead);
             } catch (IOException e) {
                 throw new UserException("Failed to read ADAM file " + readInput, e);
             }
@@ -286,7 +295,7 @@ public abstract class GATKSparkTool extends SparkCommandLineProgram {
                 throw new UserException.MissingReference("A reference file is required when using CRAM files.");
             }
             final String refPath = hasReference() ?  referenceArguments.getReferenceFileName() : null;
-            return readsSource.getParallelReads(readInput, refPath, traversalParameters, bamPartitionSplitSize);
+            return readsSource.getParallelReads(readInput, refPath, traversalParameters, bamPartitionSplitSize, useBamIndexForSplits);
         }
     }
 
@@ -394,6 +403,27 @@ public abstract class GATKSparkTool extends SparkCommandLineProgram {
         return Arrays.asList(new WellformedReadFilter());
     }
 
+    /**
+     * Returns the names of the ADAM {@code AlignmentRecord} fields that this tool (including its default read filters)
+     * uses, when reading ADAM input. Columns for other fields are never read from the Parquet files, and those fields
+     * are left unset in the reads. The contig, position, and mapped fields are always read. Tools that only need a few
+     * fields (such as flags and qualities) can override this to avoid decoding full records. If the user enables
+     * additional read filters, all fields are read.
+     *
+     * @return names of the fields to read, or null to read all fields. Default implementation returns null.
+     */
+    public List<String> getADAMReadFieldsToRead() {
+        return null;
+    }
+
+    private boolean hasUserEnabledReadFilters() {
+        final GATKReadFilterPluginDescriptor readFilterPlugin =
+                getCommandLineParser().getPluginDescriptor(GATKReadFilterPluginDescriptor.class);
+        final Set<String> defaultFilterNames = readFilterPlugin.getDefaultInstances().stream()
+                .map(filter -> filter.getClass().getName()).collect(Collectors.toSet());
+        return readFilterPlugin.getResolvedInstances().stream().anyMatch(filter -> !defaultFilterNames.contains(filter.getClass().getName()));
+    }
+
     /**
      * @see GATKTool#useVariantAnnotations()
      */
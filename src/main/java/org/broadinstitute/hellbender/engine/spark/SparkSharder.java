@@ -16,6 +16,8 @@ import org.apache.spark.api.java.function.MapFunction;
 import org.apache.spark.broadcast.Broadcast;
 import org.apache.spark.rdd.PartitionCoalescer;
 import org.apache.spark.rdd.RDD;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.broadinstitute.hellbender.engine.Shard;
 import org.broadinstitute.hellbender.engine.ShardBoundary;
 import org.broadinstitute.hellbender.engine.ShardBoundaryShard;
@@ -28,6 +30,7 @@ import scala.reflect.ClassTag;
 import scala.reflect.ClassTag$;
 
 import javax.annotation.Nullable;
+import java.io.Serializable;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -37,6 +40,10 @@ import static org.broadinstitute.hellbender.utils.IntervalUtils.overlaps;
  * Utility methods for sharding {@link Locatable} objects (such as reads) for given intervals, without using a shuffle.
  */
 public class SparkSharder {
+    private static final Logger logger = LogManager.getLogger(SparkSharder.class);
+
+    private static final long DENSITY_SAMPLE_SEED = 47382911L;
+
     /**
      * Create an RDD of {@link Shard} from an RDD of coordinate sorted {@link Locatable} <i>without using a shuffle</i>.
      * Each shard contains the {@link Locatable} objects that overlap it (including overlapping only padding).
@@ -107,6 +114,217 @@ public class SparkSharder {
         });
     }
 
+    /**
+     * Split any shard whose estimated number of {@link Locatable} objects exceeds <code>maxLocatablesPerShard</code> into
+     * smaller shards of roughly equal estimated work, so that high-depth regions do not produce straggler tasks.
+     * The density is estimated from a random sample of the start positions of the locatables, which is counted into a
+     * histogram of <code>minShardSize</code> base bins per shard on the executors, so only one histogram per partition
+     * is sent back to the driver. A summary of the estimated per-shard cost is logged.
+     * @param locatables the RDD of {@link Locatable}
+     * @param sequenceDictionary the sequence dictionary to use to find contig lengths
+     * @param shardBoundaries the {@link ShardBoundary} objects to split, must be coordinate sorted and not overlapping
+     * @param sampleFraction the fraction of locatables to sample when estimating density, in (0, 1]
+     * @param maxLocatablesPerShard the estimated number of locatables above which a shard is split
+     * @param minShardSize shards will not be split into pieces smaller than this many bases
+     * @param <L> the {@link Locatable} type
+     * @return coordinate sorted shard boundaries covering the same territory as <code>shardBoundaries</code>
+     */
+    public static <L extends Locatable> List<ShardBoundary> splitDenseShards(JavaRDD<L> locatables, SAMSequenceDictionary sequenceDictionary,
+                                                                           List<ShardBoundary> shardBoundaries, double sampleFraction,
+                                                                           long maxLocatablesPerShard, int minShardSize) {
+        Utils.validateArg(sampleFraction > 0.0 && sampleFraction <= 1.0, "sampleFraction must be in (0, 1]");
+        Utils.validateArg(minShardSize > 0, "minShardSize must be > 0");
+        JavaRDD<L> sample = sampleFraction < 1.0 ? locatables.sample(false, sampleFraction, DENSITY_SAMPLE_SEED) : locatables;
+        Broadcast<ShardLayout> layoutBroadcast = JavaSparkContext.fromSparkContext(locatables.context()).broadcast(new ShardLayout(shardBoundaries));
+        ShardDensityHistogram histogram = sample.aggregate(new ShardDensityHistogram(minShardSize),
+                (partitionHistogram, locatable) -> layoutBroadcast.getValue().add(partitionHistogram, locatable),
+                ShardDensityHistogram::merge);
+        return splitDenseShards(histogram, 1.0 / sampleFraction, sequenceDictionary, shardBoundaries, maxLocatablesPerShard, minShardSize);
+    }
+
+    /**
+     * Split dense shards given a histogram of sampled locatable start positions, each of which stands for <code>scale</code>
+     * locatables. A dense shard is cut at the bins holding quantiles of the sampled starts inside it, so each piece
+     * carries a similar estimated number of locatables. Each piece keeps the padding of the shard it came from.
+     */
+    static List<ShardBoundary> splitDenseShards(ShardDensityHistogram histogram, double scale, SAMSequenceDictionary sequenceDictionary,
+                                                List<ShardBoundary> shardBoundaries, long maxLocatablesPerShard, int minShardSize) {
+        Utils.validateArg(maxLocatablesPerShard > 0, "maxLocatablesPerShard must be > 0");
+        Utils.validateArg(minShardSize > 0, "minShardSize must be > 0");
+
+        List<ShardBoundary> result = new ArrayList<>(shardBoundaries.size());
+        long[] estimatedCosts = new long[shardBoundaries.size()];
+        int numSplit = 0;
+        for (int i = 0; i < shardBoundaries.size(); i++) {
+            ShardBoundary shard = shardBoundaries.get(i);
+            int[] binCounts = histogram.getBinCounts(i);
+            long numSampled = binCounts == null ? 0 : Arrays.stream(binCounts).asLongStream().sum();
+            long estimatedCost = Math.round(numSampled * scale);
+            estimatedCosts[i] = estimatedCost;
+            int shardLength = shard.getEnd() - shard.getStart() + 1;
+            int maxPieces = (int) Math.min((estimatedCost + maxLocatablesPerShard - 1) / maxLocatablesPerShard, shardLength / minShardSize);
+            if (maxPieces < 2) {
+                result.add(shard);
+                continue;
+            }
+            List<ShardBoundary> pieces = splitShard(shard, binCounts, histogram.getBinSize(), numSampled, maxPieces, minShardSize, sequenceDictionary);
+            if (pieces.size() > 1) {
+                numSplit++;
+                logger.debug(String.format("Split shard %s with an estimated %d locatables into %d shards", shard.getInterval(), estimatedCost, pieces.size()));
+            }
+            result.addAll(pieces);
+        }
+
+        if (estimatedCosts.length > 0) {
+            long[] sortedCosts = estimatedCosts.clone();
+            Arrays.sort(sortedCosts);
+            logger.info(String.format("Estimated locatables per shard: median %d, max %d over %d shards; split %d dense shards into %d shards in total",
+                    sortedCosts[sortedCosts.length / 2], sortedCosts[sortedCosts.length - 1], sortedCosts.length, numSplit, result.size()));
+        }
+        return result;
+    }
+
+    /**
+     * Cut a shard into at most <code>maxPieces</code> pieces at the start of the bins holding quantiles of the sampled
+     * start positions within it. Cuts that would produce a piece smaller than <code>minShardSize</code> are dropped.
+     */
+    private static List<ShardBoundary> splitShard(ShardBoundary shard, int[] binCounts, int binSize, long numSampled, int maxPieces,
+                                                  int minShardSize, SAMSequenceDictionary sequenceDictionary) {
+        int padding = Math.max(shard.getStart() - shard.getPaddedInterval().getStart(), shard.getPaddedInterval().getEnd() - shard.getEnd());
+        List<ShardBoundary> pieces = new ArrayList<>(maxPieces);
+        int pieceStart = shard.getStart();
+        int bin = 0;
+        long sampledBeforeBin = 0;
+        for (int k = 1; k < maxPieces; k++) {
+            // index of the sampled start to cut at, which is always less than numSampled
+            long quantile = k * numSampled / maxPieces;
+            while (sampledBeforeBin + binCounts[bin] <= quantile) {
+                sampledBeforeBin += binCounts[bin];
+                bin++;
+            }
+            int cut = shard.getStart() + bin * binSize;
+            if (cut - pieceStart < minShardSize || shard.getEnd() - cut + 1 < minShardSize) {
+                continue;
+            }
+            pieces.add(makeShardBoundary(shard.getContig(), pieceStart, cut - 1, padding, sequenceDictionary));
+            pieceStart = cut;
+        }
+        if (pieces.isEmpty()) {
+            return Collections.singletonList(shard);
+        }
+        pieces.add(makeShardBoundary(shard.getContig(), pieceStart, shard.getEnd(), padding, sequenceDictionary));
+        return pieces;
+    }
+
+    private static ShardBoundary makeShardBoundary(String contig, int start, int end, int padding, SAMSequenceDictionary sequenceDictionary) {
+        SimpleInterval interval = new SimpleInterval(contig, start, end);
+        return new ShardBoundary(interval, interval.expandWithinContig(padding, sequenceDictionary));
+    }
+
+    /**
+     * The unpadded extent of each shard, for finding the shard a position falls in on the executors.
+     */
+    static final class ShardLayout implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] starts;
+        private final int[] ends;
+        // the range of shard indexes on each contig, as {from, to} with to exclusive
+        private final Map<String, int[]> shardRangeByContig = new HashMap<>();
+
+        ShardLayout(List<ShardBoundary> shardBoundaries) {
+            starts = new int[shardBoundaries.size()];
+            ends = new int[shardBoundaries.size()];
+            for (int i = 0; i < shardBoundaries.size(); i++) {
+                ShardBoundary shard = shardBoundaries.get(i);
+                starts[i] = shard.getStart();
+                ends[i] = shard.getEnd();
+                shardRangeByContig.computeIfAbsent(shard.getContig(), contig -> new int[2])[1] = i + 1;
+                if (i == 0 || !shard.getContig().equals(shardBoundaries.get(i - 1).getContig())) {
+                    shardRangeByContig.get(shard.getContig())[0] = i;
+                }
+            }
+        }
+
+        /**
+         * Count the start position of a locatable in the histogram, if it falls in a shard.
+         * @return the histogram
+         */
+        ShardDensityHistogram add(ShardDensityHistogram histogram, Locatable locatable) {
+            int[] range = locatable.getContig() == null ? null : shardRangeByContig.get(locatable.getContig());
+            if (range == null || locatable.getStart() <= 0) {
+                return histogram;
+            }
+            int position = locatable.getStart();
+            int shardIndex = lowerBound(starts, range[0], range[1], position + 1) - 1;
+            if (shardIndex >= range[0] && position <= ends[shardIndex]) {
+                histogram.add(shardIndex, position - starts[shardIndex], ends[shardIndex] - starts[shardIndex] + 1);
+            }
+            return histogram;
+        }
+    }
+
+    /**
+     * Counts of sampled start positions in bins of a fixed number of bases within each shard, keyed by shard index.
+     */
+    static final class ShardDensityHistogram implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final int binSize;
+        private final Map<Integer, int[]> binCountsByShard = new HashMap<>();
+
+        ShardDensityHistogram(int binSize) {
+            Utils.validateArg(binSize > 0, "binSize must be > 0");
+            this.binSize = binSize;
+        }
+
+        int getBinSize() {
+            return binSize;
+        }
+
+        /**
+         * @return the counts in each bin of the given shard, or null if nothing was counted in it
+         */
+        int[] getBinCounts(int shardIndex) {
+            return binCountsByShard.get(shardIndex);
+        }
+
+        void add(int shardIndex, int offsetInShard, int shardLength) {
+            binCountsByShard.computeIfAbsent(shardIndex, index -> new int[(shardLength + binSize - 1) / binSize])[offsetInShard / binSize]++;
+        }
+
+        ShardDensityHistogram merge(ShardDensityHistogram other) {
+            Utils.validateArg(binSize == other.binSize, "histograms must have the same bin size");
+            other.binCountsByShard.forEach((shardIndex, otherCounts) -> {
+                int[] counts = binCountsByShard.putIfAbsent(shardIndex, otherCounts);
+                if (counts != null) {
+                    for (int bin = 0; bin < counts.length; bin++) {
+                        counts[bin] += otherCounts[bin];
+                    }
+                }
+            });
+            return this;
+        }
+    }
+
+    /**
+     * @return the index of the first value in <code>sortedValues[from, to)</code> that is greater than or equal to
+     * <code>key</code>, or <code>to</code> if there is none
+     */
+    private static int lowerBound(int[] sortedValues, int from, int to, int key) {
+        int lo = from;
+        int hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedValues[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
     /**
      * Join an RDD of locatables with a set of intervals, and apply a function to process the locatables that overlap each interval.
      * @param ctx the Spark Context
@@ -0,0 +1,211 @@
+package org.broadinstitute.hellbender.engine.spark.datasources;
+
+import com.google.common.annotations.VisibleForTesting;
+import htsjdk.samtools.BamFileIoUtils;
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.SAMTextHeaderCodec;
+import htsjdk.samtools.util.BinaryCodec;
+import htsjdk.samtools.util.BlockCompressedOutputStream;
+import htsjdk.samtools.util.BlockCompressedStreamConstants;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+import org.seqdoop.hadoop_bam.SplittingBAMIndexer;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Merges the headerless BAM part files written by {@link ReadsSparkSink} into a single BAM file.
+ *
+ * The size of every part is known before anything is copied, so each part is copied straight to its final offset in
+ * the output using positional writes, and the parts are copied in parallel. The per-part splitting indexes are merged
+ * by shifting their virtual offsets, so the merged output never has to be re-read.
+ *
+ * Positional writes need a random-access file system, so this is only used for output on the local file system.
+ */
+final class ParallelBamPartsMerger {
+    private static final Logger logger = LogManager.getLogger(ParallelBamPartsMerger.class);
+
+    private static final String PART_PREFIX = "part-";
+    private static final byte[] BAM_MAGIC = "BAM\1".getBytes(StandardCharsets.US_ASCII);
+
+    private ParallelBamPartsMerger() {}
+
+    /**
+     * @return true if parts on the given paths can be merged by this class
+     */
+    static boolean canMerge(final String partDirectory, final String outputFile) {
+        return !BucketUtils.isRemoteStorageUrl(partDirectory) && !BucketUtils.isRemoteStorageUrl(outputFile);
+    }
+
+    /**
+     * Merge the BAM parts in <code>partDirectory</code> into <code>outputFile</code>, and delete the part directory.
+     * @param partDirectory the directory of headerless BAM parts
+     * @param outputFile the BAM file to write
+     * @param header the header to write at the start of the output
+     * @param mergeSplittingIndexes if true, merge the per-part splitting indexes into a splitting index for the output
+     * @return true if the parts were merged, or false if a part's splitting index could not be found, in which case
+     *         nothing has been written
+     */
+    static boolean mergeParts(final String partDirectory, final String outputFile, final SAMFileHeader header,
+                              final boolean mergeSplittingIndexes) throws IOException {
+        final Path partPath = IOUtils.getPath(partDirectory);
+        final List<Path> parts;
+        try (final Stream<Path> files = Files.list(partPath)) {
+            parts = files.filter(p -> p.getFileName().toString().startsWith(PART_PREFIX)
+                                    && p.getFileName().toString().endsWith(BamFileIoUtils.BAM_FILE_EXTENSION))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        final List<Path> partIndexes = new ArrayList<>();
+        if (mergeSplittingIndexes) {
+            for (final Path part : parts) {
+                final Path partIndex = findPartSplittingIndex(part);
+                if (partIndex == null) {
+                    logger.info("Could not find a splitting index for " + part + ", merging parts serially");
+                    return false;
+                }
+                partIndexes.add(partIndex);
+            }
+        }
+
+        final byte[] headerBytes = getHeaderBytes(header);
+        final long[] partOffsets = new long[parts.size() + 1];
+        partOffsets[0] = headerBytes.length;
+        for (int i = 0; i < parts.size(); i++) {
+            partOffsets[i + 1] = partOffsets[i] + Files.size(parts.get(i));
+        }
+
+        final Path outputPath = IOUtils.getPath(outputFile);
+        try (final FileChannel out = FileChannel.open(outputPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // write the terminator first so the file has its final length, since transferFrom won't write past the end of a file
+            writeFully(out, BlockCompressedStreamConstants.EMPTY_GZIP_BLOCK, partOffsets[parts.size()]);
+            writeFully(out, headerBytes, 0);
+            IntStream.range(0, parts.size()).parallel().forEach(i -> copyPart(parts.get(i), out, partOffsets[i]));
+        }
+
+        if (mergeSplittingIndexes) {
+            final List<long[]> partVirtualOffsets = new ArrayList<>(partIndexes.size());
+            for (final Path partIndex : partIndexes) {
+                partVirtualOffsets.add(readSplittingIndex(partIndex));
+            }
+            final long outputLength = partOffsets[parts.size()] + BlockCompressedStreamConstants.EMPTY_GZIP_BLOCK.length;
+            writeSplittingIndex(IOUtils.getPath(outputFile + SplittingBAMIndexer.OUTPUT_FILE_EXTENSION),
+                    mergeSplittingIndexes(partVirtualOffsets, partOffsets, outputLength));
+        }
+
+        BucketUtils.deleteRecursively(partDirectory);
+        return true;
+    }
+
+    /**
+     * Combine per-part splitting indexes into an index for the merged file. Each part index ends with an entry holding
+     * the length of the part, which is dropped; the other virtual offsets are shifted by the offset of the part in the
+     * merged file. The merged index ends with an entry holding the length of the merged file.
+     * @param partVirtualOffsets the virtual offsets of each part's splitting index, in part order
+     * @param partOffsets the byte offset of each part in the merged file
+     * @param outputLength the length of the merged file
+     * @return the virtual offsets of the merged splitting index
+     */
+    @VisibleForTesting
+    static long[] mergeSplittingIndexes(final List<long[]> partVirtualOffsets, final long[] partOffsets, final long outputLength) {
+        final int numOffsets = partVirtualOffsets.stream().mapToInt(offsets -> Math.max(offsets.length - 1, 0)).sum();
+        final long[] merged = new long[numOffsets + 1];
+        int n = 0;
+        for (int i = 0; i < partVirtualOffsets.size(); i++) {
+            final long[] offsets = partVirtualOffsets.get(i);
+            final long shift = partOffsets[i] << 16;
+            for (int j = 0; j < offsets.length - 1; j++) {
+                merged[n++] = offsets[j] + shift;
+            }
+        }
+        merged[n] = outputLength << 16;
+        return merged;
+    }
+
+    private static Path findPartSplittingIndex(final Path part) {
+        final String name = part.getFileName().toString();
+        for (final String candidate : new String[]{"." + name + SplittingBAMIndexer.OUTPUT_FILE_EXTENSION, name + SplittingBAMIndexer.OUTPUT_FILE_EXTENSION}) {
+            final Path partIndex = part.resolveSibling(candidate);
+            if (Files.exists(partIndex)) {
+                return partIndex;
+            }
+        }
+        return null;
+    }
+
+    private static byte[] getHeaderBytes(final SAMFileHeader header) throws IOException {
+        final StringWriter headerText = new StringWriter();
+        new SAMTextHeaderCodec().encode(headerText, header);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        // the stream is flushed rather than closed, since closing would write a terminator block after the header
+        final BlockCompressedOutputStream compressed = new BlockCompressedOutputStream(bytes, (File) null);
+        final BinaryCodec codec = new BinaryCodec(compressed);
+        codec.writeBytes(BAM_MAGIC);
+        codec.writeString(headerText.toString(), true, false);
+        codec.writeInt(header.getSequenceDictionary().size());
+        for (final SAMSequenceRecord sequence : header.getSequenceDictionary().getSequences()) {
+            codec.writeString(sequence.getSequenceName(), true, true);
+            codec.writeInt(sequence.getSequenceLength());
+        }
+        compressed.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void copyPart(final Path part, final FileChannel out, final long offset) {
+        try (final FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+            final long size = in.size();
+            long copied = 0;
+            while (copied < size) {
+                final long transferred = out.transferFrom(in, offset + copied, size - copied);
+                if (transferred <= 0) {
+                    throw new IOException("No bytes transferred at offset " + (offset + copied));
+                }
+                copied += transferred;
+            }
+        } catch (final IOException e) {
+            throw new GATKException("Failed to copy BAM part " + part + " into merged output", e);
+        }
+    }
+
+    private static void writeFully(final FileChannel out, final byte[] bytes, final long offset) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            out.write(buffer, offset + buffer.position());
+        }
+    }
+
+    private static long[] readSplittingIndex(final Path partIndex) throws IOException {
+        final long[] offsets = new long[(int) (Files.size(partIndex) / Long.BYTES)];
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(partIndex)))) {
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = in.readLong();
+            }
+        }
+        return offsets;
+    }
+
+    private static void writeSplittingIndex(final Path index, final long[] offsets) throws IOException {
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(index)))) {
+            for (final long offset : offsets) {
+                out.writeLong(offset);
+            }
+        }
+    }
+}
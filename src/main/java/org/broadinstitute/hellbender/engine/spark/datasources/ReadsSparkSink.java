@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.engine.spark.datasources;
 
+import com.google.common.annotations.VisibleForTesting;
 import htsjdk.samtools.BamFileIoUtils;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMRecord;
@@ -240,7 +241,8 @@ public final class ReadsSparkSink {
                 outputFile, Void.class, AlignmentRecord.class, AvroParquetOutputFormat.class, job.getConfiguration());
     }
 
-    private static void saveAsShardedHadoopFiles(
+    @VisibleForTesting
+    static void saveAsShardedHadoopFiles(
             final JavaSparkContext ctx, final String outputFile, final String referenceFile,
             final SAMFormat samOutputFormat, final JavaRDD<SAMRecord> reads, final SAMFileHeader header,
             final boolean writeHeader) {
@@ -290,6 +292,11 @@ public final class ReadsSparkSink {
         final String outputPartsDirectory = (outputPartsDir == null)? getDefaultPartsDirectory(outputFile)  : outputPartsDir;
         saveAsShardedHadoopFiles(ctx, outputPartsDirectory, referenceFile, samOutputFormat, sortedReads,  header, false);
         logger.info("Finished sorting the bam file and dumping read shards to disk, proceeding to merge the shards into a single file using the master thread");
+        if (samOutputFormat == SAMFormat.BAM && ParallelBamPartsMerger.canMerge(outputPartsDirectory, outputFile)
+                && ParallelBamPartsMerger.mergeParts(outputPartsDirectory, outputFile, header, ctx.hadoopConfiguration().getBoolean(BAMOutputFormat.WRITE_SPLITTING_BAI, false))) {
+            logger.info("Finished merging shards into a single output bam");
+            return;
+        }
         SAMFileMerger.mergeParts(outputPartsDirectory, outputFile, samOutputFormat, header);
         logger.info("Finished merging shards into a single output bam");
     }
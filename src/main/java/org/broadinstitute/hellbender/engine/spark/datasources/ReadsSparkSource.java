@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.engine.spark.datasources;
 
+import com.google.common.annotations.VisibleForTesting;
 import htsjdk.samtools.*;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
@@ -13,7 +14,12 @@ import org.apache.hadoop.mapreduce.JobContext;
 import org.apache.hadoop.mapreduce.lib.input.FileSplit;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.avro.Schema;
 import org.apache.parquet.avro.AvroParquetInputFormat;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.Operators;
+import org.apache.parquet.hadoop.ParquetInputFormat;
+import org.apache.parquet.io.api.Binary;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
@@ -33,9 +39,17 @@ import org.seqdoop.hadoop_bam.util.SAMHeaderReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.apache.parquet.filter2.predicate.FilterApi.*;
 
 /** Loads the reads from disk either serially (using samReaderFactory) or in parallel using Hadoop-BAM.
  * The parallel code is a modified version of the example writing code from Hadoop-BAM.
@@ -44,6 +58,16 @@ public final class ReadsSparkSource implements Serializable {
     private static final long serialVersionUID = 1L;
     private static final String HADOOP_PART_PREFIX = "part-";
 
+    // ADAM AlignmentRecord fields used for predicate pushdown; positions are 0-based, with an exclusive end
+    private static final String ADAM_CONTIG_FIELD = "contigName";
+    private static final String ADAM_START_FIELD = "start";
+    private static final String ADAM_END_FIELD = "end";
+    private static final String ADAM_MAPPED_FIELD = "readMapped";
+    // fields that are always read, since they are needed to select reads by interval
+    private static final List<String> ADAM_POSITION_FIELDS = Arrays.asList(ADAM_CONTIG_FIELD, ADAM_START_FIELD, ADAM_END_FIELD, ADAM_MAPPED_FIELD);
+    // above this many intervals, push down one span per contig rather than one predicate per interval
+    private static final int MAX_ADAM_PUSHDOWN_INTERVALS = 100;
+
     private transient final JavaSparkContext ctx;
     private ValidationStringency validationStringency = ReadConstants.DEFAULT_READ_VALIDATION_STRINGENCY;
 
@@ -108,6 +132,23 @@ public final class ReadsSparkSource implements Serializable {
      * @return RDD of (SAMRecord-backed) GATKReads from the file.
      */
     public JavaRDD<GATKRead> getParallelReads(final String readFileName, final String referencePath, final TraversalParameters traversalParameters, final long splitSize) {
+        return getParallelReads(readFileName, referencePath, traversalParameters, splitSize, false);
+    }
+
+    /**
+     * Loads Reads using Hadoop-BAM. For local files, bam must have the fully-qualified path,
+     * i.e., file:///path/to/bam.bam.
+     * @param readFileName file to load
+     * @param referencePath Reference path or null if not available. Reference is required for CRAM files.
+     * @param traversalParameters parameters controlling which reads to include. If <code>null</code> then all the reads (both mapped and unmapped) will be returned.
+     * @param splitSize maximum bytes of bam file to read into a single partition, increasing this will result in fewer partitions. A value of zero means
+     *                  use the default split size (determined by the Hadoop input format, typically the size of one HDFS block).
+     * @param useBamIndexForSplits if true, and the input is a BAM with a standard .bam.bai index, calculate record-aligned split
+     *                             boundaries from the linear index rather than guessing them by scanning BGZF blocks.
+     *                             Ignored if a .splitting-bai is present, since that is always preferred.
+     * @return RDD of (SAMRecord-backed) GATKReads from the file.
+     */
+    public JavaRDD<GATKRead> getParallelReads(final String readFileName, final String referencePath, final TraversalParameters traversalParameters, final long splitSize, final boolean useBamIndexForSplits) {
         SAMFileHeader header = getHeader(readFileName, referencePath);
 
         // use the Hadoop configuration attached to the Spark context to maintain cumulative settings
@@ -127,6 +168,11 @@ public final class ReadsSparkSource implements Serializable {
             } else {
                 BAMInputFormat.setTraversalParameters(conf, traversalParameters.getIntervalsForTraversal(), traversalParameters.traverseUnmappedReads());
             }
+            final boolean useBaiSplits = useBamIndexForSplits && hasBamIndex(readFileName);
+            if (useBamIndexForSplits && !useBaiSplits) {
+                logger.warn("No .bam.bai index found for " + readFileName + ", split boundaries will be guessed from the BAM file");
+            }
+            BAMInputFormat.setEnableBAISplitCalculator(conf, useBaiSplits);
         }
 
         rdd2 = ctx.newAPIHadoopFile(
@@ -144,6 +190,16 @@ public final class ReadsSparkSource implements Serializable {
         return fixPartitionsIfQueryGrouped(ctx, header, reads);
     }
 
+    /**
+     * @return true if the given file is a BAM with a <code>reads.bam.bai</code> index. Hadoop-BAM only looks for the index
+     * under that name, so a <code>reads.bai</code> index is not enough to calculate splits from.
+     */
+    @VisibleForTesting
+    boolean hasBamIndex(final String bamFileName) {
+        return bamFileName.endsWith(BamFileIoUtils.BAM_FILE_EXTENSION)
+                && SparkUtils.pathExists(ctx, new Path(bamFileName + BAMIndex.BAMIndexSuffix));
+    }
+
     private static JavaRDD<GATKRead> fixPartitionsIfQueryGrouped(JavaSparkContext ctx, SAMFileHeader header, JavaRDD<GATKRead> reads) {
         if( ReadUtils.isReadNameGroupedBam(header)) {
             return SparkUtils.putReadsWithTheSameNameInTheSamePartition(header, reads, ctx);
@@ -182,8 +238,31 @@ public final class ReadsSparkSource implements Serializable {
      * @return RDD of (ADAM-backed) GATKReads from the file.
      */
     public JavaRDD<GATKRead> getADAMReads(final String inputPath, final TraversalParameters traversalParameters, final SAMFileHeader header) throws IOException {
+        return getADAMReads(inputPath, traversalParameters, header, null);
+    }
+
+    /**
+     * Loads ADAM reads stored as Parquet. The traversal intervals are pushed down to Parquet as a filter on contig and
+     * position, so row groups that cannot contain overlapping reads are skipped without being decoded.
+     * @param inputPath path to the Parquet data
+     * @param traversalParameters parameters controlling which reads to include. If <code>null</code> then all the reads (both mapped and unmapped) will be returned.
+     * @param header the header for the reads
+     * @param fieldsToRead names of the {@link AlignmentRecord} fields to read, or <code>null</code> to read all fields.
+     *                     Columns for other fields are never read, and those fields are left unset in the returned reads.
+     *                     The contig, position, and mapped fields are always read.
+     * @return RDD of (ADAM-backed) GATKReads from the file.
+     */
+    public JavaRDD<GATKRead> getADAMReads(final String inputPath, final TraversalParameters traversalParameters, final SAMFileHeader header,
+                                          final List<String> fieldsToRead) throws IOException {
         Job job = Job.getInstance(ctx.hadoopConfiguration());
         AvroParquetInputFormat.setAvroReadSchema(job, AlignmentRecord.getClassSchema());
+        if (fieldsToRead != null) {
+            AvroParquetInputFormat.setRequestedProjection(job, makeADAMProjection(fieldsToRead));
+        }
+        final FilterPredicate filterPredicate = makeADAMFilterPredicate(traversalParameters);
+        if (filterPredicate != null) {
+            ParquetInputFormat.setFilterPredicate(job.getConfiguration(), filterPredicate);
+        }
         Broadcast<SAMFileHeader> bHeader;
         if (header == null) {
             bHeader= ctx.broadcast(null);
@@ -194,12 +273,72 @@ public final class ReadsSparkSource implements Serializable {
         JavaRDD<AlignmentRecord> recordsRdd = ctx.newAPIHadoopFile(
                 inputPath, AvroParquetInputFormat.class, Void.class, AlignmentRecord.class, job.getConfiguration())
                 .values();
-        JavaRDD<GATKRead> readsRdd = recordsRdd.map(record -> new BDGAlignmentRecordToGATKReadAdapter(record, bHeader.getValue()));
-        JavaRDD<GATKRead> filteredRdd = readsRdd.filter(record -> samRecordOverlaps(record.convertToSAMRecord(header), traversalParameters));
+        // select reads by the position fields of the records, which are read even with a projection, before converting them
+        JavaRDD<GATKRead> filteredRdd = recordsRdd
+                .filter(record -> alignmentRecordOverlaps(record, traversalParameters))
+                .map(record -> new BDGAlignmentRecordToGATKReadAdapter(record, bHeader.getValue()));
 
         return fixPartitionsIfQueryGrouped(ctx, header, filteredRdd);
     }
 
+    /**
+     * @return an Avro schema containing only the given fields of the {@link AlignmentRecord} schema
+     */
+    @VisibleForTesting
+    static Schema makeADAMProjection(final List<String> fieldsToRead) {
+        final Schema schema = AlignmentRecord.getClassSchema();
+        final Set<String> fieldNames = new LinkedHashSet<>(ADAM_POSITION_FIELDS);
+        fieldNames.addAll(fieldsToRead);
+        final List<Schema.Field> fields = new ArrayList<>(fieldNames.size());
+        for (final String fieldName : fieldNames) {
+            final Schema.Field field = schema.getField(fieldName);
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown ADAM read field: " + fieldName);
+            }
+            fields.add(new Schema.Field(field.name(), field.schema(), field.doc(), field.defaultVal()));
+        }
+        final Schema projection = Schema.createRecord(schema.getName(), schema.getDoc(), schema.getNamespace(), schema.isError());
+        projection.setFields(fields);
+        return projection;
+    }
+
+    /**
+     * Make a Parquet filter that keeps every ADAM read that {@link #alignmentRecordOverlaps} could keep. The filter is only
+     * used to skip data, so it may let through reads that don't overlap, but must never drop reads that do.
+     * @return the filter, or <code>null</code> if all reads must be read
+     */
+    static FilterPredicate makeADAMFilterPredicate(final TraversalParameters traversalParameters) {
+        if (traversalParameters == null || traversalParameters.getIntervalsForTraversal() == null
+                || traversalParameters.getIntervalsForTraversal().isEmpty()) {
+            return null; // either all reads are wanted, or only unmapped ones, which have no position to filter on
+        }
+        List<SimpleInterval> intervals = traversalParameters.getIntervalsForTraversal();
+        if (intervals.size() > MAX_ADAM_PUSHDOWN_INTERVALS) {
+            intervals = intervals.stream()
+                    .collect(Collectors.groupingBy(SimpleInterval::getContig, LinkedHashMap::new, Collectors.toList()))
+                    .entrySet().stream()
+                    .map(e -> new SimpleInterval(e.getKey(),
+                            e.getValue().stream().mapToInt(SimpleInterval::getStart).min().getAsInt(),
+                            e.getValue().stream().mapToInt(SimpleInterval::getEnd).max().getAsInt()))
+                    .collect(Collectors.toList());
+        }
+        final Operators.BinaryColumn contig = binaryColumn(ADAM_CONTIG_FIELD);
+        final Operators.LongColumn start = longColumn(ADAM_START_FIELD);
+        final Operators.LongColumn end = longColumn(ADAM_END_FIELD);
+        FilterPredicate predicate = null;
+        for (final SimpleInterval interval : intervals) {
+            // reads with no end (such as unmapped reads placed next to their mate) are matched on start alone
+            final FilterPredicate overlaps = and(
+                    and(eq(contig, Binary.fromString(interval.getContig())), lt(start, (long) interval.getEnd())),
+                    or(eq(end, (Long) null), gt(end, (long) interval.getStart() - 1)));
+            predicate = predicate == null ? overlaps : or(predicate, overlaps);
+        }
+        if (traversalParameters.traverseUnmappedReads()) {
+            predicate = or(predicate, or(eq(contig, (Binary) null), eq(start, (Long) null)));
+        }
+        return predicate;
+    }
+
     /**
      * Loads the header using Hadoop-BAM.
      * @param filePath path to the bam.
@@ -281,6 +420,36 @@ public final class ReadsSparkSource implements Serializable {
         }
     }
 
+    /**
+     * The equivalent of {@link #samRecordOverlaps} for an ADAM record, which uses only its contig, position, and mapped
+     * fields, so that it neither needs the other fields nor converts the record. Positions in ADAM are 0-based, with an
+     * exclusive end.
+     */
+    @VisibleForTesting
+    static boolean alignmentRecordOverlaps(final AlignmentRecord record, final TraversalParameters traversalParameters) {
+        if (traversalParameters == null) {
+            return true;
+        }
+        final boolean unmapped = !Boolean.TRUE.equals(record.getReadMapped());
+        final Long start = record.getStart();
+        if (traversalParameters.traverseUnmappedReads() && unmapped && start == null) {
+            return true; // include record if unmapped records should be traversed and record is unmapped
+        }
+        final List<SimpleInterval> intervals = traversalParameters.getIntervalsForTraversal();
+        if (intervals == null || intervals.isEmpty() || record.getContigName() == null || start == null) {
+            return false; // no intervals means 'no mapped reads'
+        }
+        // as in htsjdk's SamReader, an unmapped read is returned if its coordinate for the purpose of sorting is in the query region
+        final long oneBasedStart = start + 1;
+        final long oneBasedEnd = unmapped || record.getEnd() == null ? oneBasedStart : Math.max(oneBasedStart, record.getEnd());
+        for (final SimpleInterval interval : intervals) {
+            if (interval.getContig().equals(record.getContigName()) && interval.getStart() <= oneBasedEnd && oneBasedStart <= interval.getEnd()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Tests if a given SAMRecord overlaps any interval in a collection. This is only used as a fallback option for
      * formats that don't support query-by-interval natively at the Hadoop-BAM layer.
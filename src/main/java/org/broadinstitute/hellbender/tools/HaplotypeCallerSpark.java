@@ -12,6 +12,7 @@ import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.api.java.function.FlatMapFunction;
 import org.apache.spark.broadcast.Broadcast;
+import org.apache.spark.storage.StorageLevel;
 import org.broadinstitute.barclay.argparser.*;
 import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
@@ -120,6 +121,18 @@ public final class HaplotypeCallerSpark extends GATKSparkTool {
         @Argument(fullName = AssemblyRegionWalker.PROPAGATION_LONG_NAME, doc="Upper limit on how many bases away probability mass can be moved around when calculating the boundaries between active and inactive assembly regions", optional = true)
         public int maxProbPropagationDistance = HaplotypeCaller.DEFAULT_MAX_PROB_PROPAGATION_DISTANCE;
 
+        @Advanced
+        @Argument(fullName = "persist-assembly-regions", doc = "Persist the assembly regions (with their reads) to executor local disk, so that retried or speculative tasks do not have to reload reads and recompute activity profiles.", optional = true)
+        public boolean persistAssemblyRegions = false;
+
+        @Advanced
+        @Argument(fullName = "max-reads-per-read-shard", doc = "Split read shards whose estimated number of reads exceeds this value into smaller shards of similar estimated work. Set to 0 to disable.", optional = true)
+        public long maxReadsPerReadShard = 0;
+
+        @Advanced
+        @Argument(fullName = "read-shard-density-sample-fraction", doc = "Fraction of reads sampled to estimate read density when splitting dense read shards. Must be greater than 0.", optional = true, minValue = 0.0, maxValue = 1.0)
+        public double readShardDensitySampleFraction = 0.01;
+
     }
 
     @ArgumentCollection
@@ -148,6 +161,15 @@ public final class HaplotypeCallerSpark extends GATKSparkTool {
         return referenceConfidenceMode? HaplotypeCallerEngine.filterReferenceConfidenceAnnotations(annotations): annotations;
     }
 
+    @Override
+    protected void onStartup() {
+        super.onStartup();
+        if (shardingArgs.readShardDensitySampleFraction <= 0.0) {
+            throw new CommandLineException.BadArgumentValue("read-shard-density-sample-fraction",
+                    String.valueOf(shardingArgs.readShardDensitySampleFraction), "The sample fraction must be greater than 0");
+        }
+    }
+
     @Override
     protected void runTool(final JavaSparkContext ctx) {
         //TODO remove me when https://github.com/broadinstitute/gatk/issues/4303 are fixed
@@ -204,13 +226,29 @@ public final class HaplotypeCallerSpark extends GATKSparkTool {
         final ReferenceSequenceFile driverReferenceSequenceFile = new CachingIndexedFastaSequenceFile(referencePath);
         final HaplotypeCallerEngine hcEngine = new HaplotypeCallerEngine(hcArgs, false, false, header, driverReferenceSequenceFile, variantannotatorEngine);
         final String referenceFileName = referencePath.getFileName().toString();
-        final JavaRDD<VariantContext> variants = callVariantsWithHaplotypeCaller(ctx, reads, header, referenceFileName, intervals, hcArgs, shardingArgs, variantannotatorEngine);
-        variants.cache(); // without caching, computations are run twice as a side effect of finding partition boundaries for sorting
+        validateHaplotypeCallerArgs(hcArgs);
+
+        final Broadcast<HaplotypeCallerArgumentCollection> hcArgsBroadcast = ctx.broadcast(hcArgs);
+        final Broadcast<VariantAnnotatorEngine> annotatorEngineBroadcast = ctx.broadcast(variantannotatorEngine);
+
+        final JavaRDD<Tuple2<AssemblyRegion, SimpleInterval>> assemblyRegions =
+                createAssemblyRegions(ctx, reads, header, referenceFileName, intervals, shardingArgs, hcArgsBroadcast, annotatorEngineBroadcast);
+        if (shardingArgs.persistAssemblyRegions) {
+            // the regions are stored serialized by partition, so a failed calling task only has to re-read its own blocks
+            assemblyRegions.persist(StorageLevel.DISK_ONLY());
+        }
         try {
+            final JavaRDD<VariantContext> variants = assemblyRegions.mapPartitions(callVariantsFromAssemblyRegions(header, referenceFileName, hcArgsBroadcast, annotatorEngineBroadcast));
+            variants.cache(); // without caching, computations are run twice as a side effect of finding partition boundaries for sorting
             VariantsSparkSink.writeVariants(ctx, output, variants, hcEngine.makeVCFHeader(header.getSequenceDictionary(), new HashSet<>()),
                     hcArgs.emitReferenceConfidence == ReferenceConfidenceMode.GVCF, hcArgs.GVCFGQBands, hcArgs.genotypeArgs.samplePloidy);
         } catch (IOException e) {
             throw new UserException.CouldNotCreateOutputFile(output, "writing failed", e);
+        } finally {
+            if (shardingArgs.persistAssemblyRegions) {
+                // every variant has been written, so the regions are no longer needed
+                assemblyRegions.unpersist();
+            }
         }
     }
 
@@ -227,7 +265,8 @@ public final class HaplotypeCallerSpark extends GATKSparkTool {
      * @param hcArgs haplotype caller arguments
      * @param shardingArgs arguments to control how the assembly regions are sharded
      * @param variantannotatorEngine
-     * @return an RDD of Variants
+     * @return an RDD of Variants. The assembly regions are not persisted, even if {@code shardingArgs} asks for it,
+     *         since they could only be released once the caller is done with the variants.
      */
     public static JavaRDD<VariantContext> callVariantsWithHaplotypeCaller(
             final JavaSparkContext ctx,
@@ -238,25 +277,47 @@ public final class HaplotypeCallerSpark extends GATKSparkTool {
             final HaplotypeCallerArgumentCollection hcArgs,
             final ShardingArgumentCollection shardingArgs,
             final VariantAnnotatorEngine variantannotatorEngine) {
-        Utils.validateArg(hcArgs.dbsnp.dbsnp == null, "HaplotypeCallerSpark does not yet support -D or --dbsnp arguments" );
-        Utils.validateArg(hcArgs.comps.isEmpty(), "HaplotypeCallerSpark does not yet support -comp or --comp arguments" );
-        Utils.validateArg(hcArgs.bamOutputPath == null, "HaplotypeCallerSpark does not yet support -bamout or --bamOutput");
+        validateHaplotypeCallerArgs(hcArgs);
 
         final Broadcast<HaplotypeCallerArgumentCollection> hcArgsBroadcast = ctx.broadcast(hcArgs);
 
         final Broadcast<VariantAnnotatorEngine> annotatorEngineBroadcast = ctx.broadcast(variantannotatorEngine);
 
-        final List<ShardBoundary> shardBoundaries = getShardBoundaries(header, intervals, shardingArgs.readShardSize, shardingArgs.readShardPadding);
+        return createAssemblyRegions(ctx, reads, header, referenceFileName, intervals, shardingArgs, hcArgsBroadcast, annotatorEngineBroadcast)
+                .mapPartitions(callVariantsFromAssemblyRegions(header, referenceFileName, hcArgsBroadcast, annotatorEngineBroadcast));
+    }
+
+    private static void validateHaplotypeCallerArgs(final HaplotypeCallerArgumentCollection hcArgs) {
+        Utils.validateArg(hcArgs.dbsnp.dbsnp == null, "HaplotypeCallerSpark does not yet support -D or --dbsnp arguments" );
+        Utils.validateArg(hcArgs.comps.isEmpty(), "HaplotypeCallerSpark does not yet support -comp or --comp arguments" );
+        Utils.validateArg(hcArgs.bamOutputPath == null, "HaplotypeCallerSpark does not yet support -bamout or --bamOutput");
+    }
+
+    /**
+     * Shard the reads and find the assembly regions of each shard, each paired with the non-padded boundary of its shard
+     */
+    private static JavaRDD<Tuple2<AssemblyRegion, SimpleInterval>> createAssemblyRegions(
+            final JavaSparkContext ctx,
+            final JavaRDD<GATKRead> reads,
+            final SAMFileHeader header,
+            final String referenceFileName,
+            final List<SimpleInterval> intervals,
+            final ShardingArgumentCollection shardingArgs,
+            final Broadcast<HaplotypeCallerArgumentCollection> hcArgsBroadcast,
+            final Broadcast<VariantAnnotatorEngine> annotatorEngineBroadcast) {
+        List<ShardBoundary> shardBoundaries = getShardBoundaries(header, intervals, shardingArgs.readShardSize, shardingArgs.readShardPadding);
+        if (shardingArgs.maxReadsPerReadShard > 0) {
+            shardBoundaries = SparkSharder.splitDenseShards(reads, header.getSequenceDictionary(), shardBoundaries,
+                    shardingArgs.readShardDensitySampleFraction, shardingArgs.maxReadsPerReadShard, shardingArgs.maxAssemblyRegionSize);
+        }
 
         final int maxReadLength = reads.map(r -> r.getEnd() - r.getStart() + 1).reduce(Math::max);
 
         final JavaRDD<Shard<GATKRead>> readShards = SparkSharder.shard(ctx, reads, GATKRead.class, header.getSequenceDictionary(), shardBoundaries, maxReadLength);
 
-        final JavaRDD<Tuple2<AssemblyRegion, SimpleInterval>> assemblyRegions = readShards
+        return readShards
                 .mapPartitions(shardsToAssemblyRegions(referenceFileName,
                                                        hcArgsBroadcast, shardingArgs, header, annotatorEngineBroadcast));
-
-        return assemblyRegions.mapPartitions(callVariantsFromAssemblyRegions(header, referenceFileName, hcArgsBroadcast, annotatorEngineBroadcast));
     }
 
     /**
@@ -7,6 +7,7 @@ import htsjdk.tribble.index.Index;
 import htsjdk.tribble.index.IndexFactory;
 import htsjdk.tribble.index.tabix.TabixIndex;
 import htsjdk.tribble.util.TabixUtils;
+import htsjdk.variant.variantcontext.VariantContext;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.broadinstitute.barclay.argparser.Argument;
@@ -19,9 +20,11 @@ import org.broadinstitute.hellbender.engine.FeatureManager;
 import org.broadinstitute.hellbender.engine.ProgressMeter;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.codecs.ProgressReportingDelegatingCodec;
+import org.broadinstitute.hellbender.utils.variant.GVCFBlockIndex;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 
 /**
  * This tool creates an index file for the various kinds of feature-containing files supported by GATK (such as VCF
@@ -56,6 +59,14 @@ public final class IndexFeatureFile extends CommandLineProgram {
               optional = true)
     public File outputFile;
 
+    @Argument(fullName = GVCF_BLOCK_INDEX_LONG_NAME,
+              doc = "Also write a GVCF block index (" + GVCFBlockIndex.FILE_EXTENSION + ") next to a block-compressed VCF. " +
+                    "Queries on GVCFs with a block index decode only the records overlapping the query, which avoids " +
+                    "decoding long runs of reference blocks.",
+              optional = true)
+    public boolean createGVCFBlockIndex = false;
+
+    public static final String GVCF_BLOCK_INDEX_LONG_NAME = "gvcf-block-index";
     public static final int OPTIMAL_GVCF_INDEX_BIN_SIZE = 128000;
     public static final String GVCF_FILE_EXTENSION = ".g.vcf";
 
@@ -79,6 +90,15 @@ public final class IndexFeatureFile extends CommandLineProgram {
         }
 
         logger.info("Successfully wrote index to " + indexFile.getAbsolutePath());
+
+        if (createGVCFBlockIndex) {
+            if (!IOUtil.hasBlockCompressedExtension(featureFile) || !VariantContext.class.equals(codec.getFeatureType())) {
+                throw new UserException.BadInput("A GVCF block index can only be created for a block-compressed VCF");
+            }
+            final Path blockIndexPath = GVCFBlockIndex.getIndexPath(featureFile.toPath());
+            GVCFBlockIndex.create(featureFile.toPath()).write(blockIndexPath);
+            logger.info("Successfully wrote GVCF block index to " + blockIndexPath.toAbsolutePath());
+        }
         return indexFile.getAbsolutePath();
     }
 
@@ -10,6 +10,7 @@ import com.intel.genomicsdb.model.GenomicsDBImportConfiguration;
 import com.intel.genomicsdb.GenomicsDBUtils;
 import com.intel.genomicsdb.model.ImportConfig;
 import com.intel.genomicsdb.model.BatchCompletionCallbackFunctionArgument;
+import com.googlecode.protobuf.format.JsonFormat;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.util.Locatable;
 import htsjdk.tribble.AbstractFeatureReader;
@@ -19,8 +20,12 @@ import htsjdk.tribble.TribbleException;
 import htsjdk.tribble.readers.LineIterator;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFCodec;
+import htsjdk.variant.vcf.VCFFilterHeaderLine;
+import htsjdk.variant.vcf.VCFFormatHeaderLine;
 import htsjdk.variant.vcf.VCFHeader;
 import htsjdk.variant.vcf.VCFHeaderLine;
+import htsjdk.variant.vcf.VCFIDHeaderLine;
+import htsjdk.variant.vcf.VCFInfoHeaderLine;
 import htsjdk.variant.vcf.VCFUtils;
 import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
@@ -40,9 +45,13 @@ import org.broadinstitute.hellbender.utils.nio.SeekableByteChannelPrefetcher;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.nio.channels.SeekableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.function.Function;
@@ -108,6 +117,16 @@ import java.net.URISyntaxException;
  *       --reader-threads 5
  *  </pre>
  *
+ *  Add samples to an existing workspace, giving the intervals that were used to create it.
+ *
+ *  <pre>
+ *    gatk --java-options "-Xmx4g -Xms4g" GenomicsDBImport \
+ *      -V data/gvcfs/daughter.g.vcf.gz \
+ *      --genomicsdb-update-workspace-path my_database \
+ *      --tmp-dir=/path/to/large/tmp \
+ *      -L 20
+ *  </pre>
+ *
  *  The sample map is a tab-delimited text file with sample_name--tab--path_to_sample_vcf per line. Using a sample map
  *  saves the tool from having to download the GVCF headers in order to determine the sample names. Sample names in
  *  the sample name map file may have non-tab whitespace, but may not begin or end with whitespace.
@@ -124,6 +143,10 @@ import java.net.URISyntaxException;
  *     <li>At least one interval must be provided</li>
  *     <li>Input GVCFs cannot contain multiple entries for a single genomic position</li>
  *     <li>The --genomicsdb-workspace-path must point to a non-existent or empty directory.</li>
+ *     <li>When adding samples with --genomicsdb-update-workspace-path, the intervals must be exactly those used to create
+ *     the workspace, and the new GVCFs may not introduce INFO, FORMAT or FILTER fields that aren't in the workspace header.
+ *     If an update fails, restore the workspace from a backup before retrying: the samples already in the workspace are
+ *     untouched, but partially imported data for the new samples may remain in its arrays.</li>
  *     <li>GenomicsDBImport uses temporary disk storage during import. The amount of temporary disk storage required can exceed the space available, especially when specifying a large number of intervals. The command line argument `--tmp-dir` can be used to specify an alternate temporary storage location with sufficient space..</li>
  * </ul>
  *
@@ -139,10 +162,12 @@ import java.net.URISyntaxException;
 public final class GenomicsDBImport extends GATKTool {
 
     private static final long DEFAULT_VCF_BUFFER_SIZE_PER_SAMPLE = 16*1024L;
+    private static final long MIN_VCF_BUFFER_SIZE_PER_SAMPLE = 1024L;
     private static final long DEFAULT_SEGMENT_SIZE = 1048576L;
     private static final int DEFAULT_ZERO_BATCH_SIZE = 0;
 
     public static final String WORKSPACE_ARG_LONG_NAME = "genomicsdb-workspace-path";
+    public static final String INCREMENTAL_WORKSPACE_ARG_LONG_NAME = "genomicsdb-update-workspace-path";
     public static final String SEGMENT_SIZE_ARG_LONG_NAME = "genomicsdb-segment-size";
     public static final String OVERWRITE_WORKSPACE_LONG_NAME = "overwrite-existing-genomicsdb-workspace";
 
@@ -154,13 +179,31 @@ public final class GenomicsDBImport extends GATKTool {
     public static final String VALIDATE_SAMPLE_MAP_LONG_NAME = "validate-sample-name-map";
     public static final String VCF_INITIALIZER_THREADS_LONG_NAME = "reader-threads";
     public static final String MAX_NUM_INTERVALS_TO_IMPORT_IN_PARALLEL = "max-num-intervals-to-import-in-parallel";
+    public static final String MAX_TOTAL_VCF_BUFFER_SIZE_ARG_NAME = "genomicsdb-max-total-vcf-buffer-size";
     public static final int INTERVAL_LIST_SIZE_WARNING_THRESHOLD = 100;
 
+    // arrays are named after their partition bounds, contig$start$end
+    private static final String ARRAY_NAME_SEPARATOR = "$";
+    // suffix of the files written by the importer when adding samples, which are merged into the workspace's files on success
+    private static final String INCREMENTAL_IMPORT_FILE_SUFFIX = ".incremental";
+
     @Argument(fullName = WORKSPACE_ARG_LONG_NAME,
               doc = "Workspace for GenomicsDB. Must be a POSIX file system path, but can be a relative path." +
-                      " Must be an empty or non-existent directory.")
+                      " Must be an empty or non-existent directory. Either this or " + INCREMENTAL_WORKSPACE_ARG_LONG_NAME +
+                      " must be specified.",
+              optional = true,
+              mutex = {INCREMENTAL_WORKSPACE_ARG_LONG_NAME})
     private String workspace;
 
+    @Argument(fullName = INCREMENTAL_WORKSPACE_ARG_LONG_NAME,
+              doc = "Existing GenomicsDB workspace to add new samples to. The samples are appended to the arrays of the " +
+                      "workspace without rewriting the samples already in it. The same intervals that were used to create " +
+                      "the workspace must be given, and the new samples must not already be in the workspace. Either this or " +
+                      WORKSPACE_ARG_LONG_NAME + " must be specified.",
+              optional = true,
+              mutex = {WORKSPACE_ARG_LONG_NAME, OVERWRITE_WORKSPACE_LONG_NAME})
+    private String incrementalImportWorkspace;
+
     @Argument(fullName = SEGMENT_SIZE_ARG_LONG_NAME,
               doc = "Buffer size in bytes allocated for GenomicsDB attributes during " +
                     "import. Should be large enough to hold data from one site. " +
@@ -192,7 +235,8 @@ public final class GenomicsDBImport extends GATKTool {
               doc = "Will overwrite given workspace if it exists. " +
                     "Otherwise a new workspace is created. " +
                     "Defaults to false",
-              optional = true)
+              optional = true,
+              mutex = {INCREMENTAL_WORKSPACE_ARG_LONG_NAME})
     private Boolean overwriteExistingWorkspace = false;
 
     @Argument(fullName = BATCHSIZE_ARG_LONG_NAME,
@@ -253,6 +297,19 @@ public final class GenomicsDBImport extends GATKTool {
             minValue = 1)
     private int maxNumIntervalsToImportInParallel = 1;
 
+    @Advanced
+    @Argument(fullName = MAX_TOTAL_VCF_BUFFER_SIZE_ARG_NAME,
+            shortName = MAX_TOTAL_VCF_BUFFER_SIZE_ARG_NAME,
+            doc = "Upper bound in bytes on the VCF buffers held at once across all intervals imported in parallel. " +
+                  "If set, the per-sample buffer size (--" + VCF_BUFFER_SIZE_ARG_NAME + ") is reduced so that every " +
+                  "sample in a batch of every concurrently imported interval fits in this budget. 0 means no bound",
+            optional = true,
+            minValue = 0L)
+    private long maxTotalVcfBufferSize = 0L;
+
+    // number of intervals actually imported at once, never more than the number of intervals
+    private int numIntervalsToImportInParallel = 1;
+
     //executor service used when vcfInitializerThreads > 1
     private ExecutorService inputPreloadExecutorService;
 
@@ -307,10 +364,19 @@ public final class GenomicsDBImport extends GATKTool {
     // Path to combined VCF header file to be written by GenomicsDBImporter
     private String vcfHeaderFile;
 
-    // GenomicsDB callset map protobuf structure containing all callset names
-    // used to write the callset json file on traversal success
+    // GenomicsDB callset map protobuf structure containing the callsets already in the workspace when adding samples,
+    // merged with the new callsets to write the callset json file on traversal success
     private GenomicsDBCallsetsMapProto.CallsetMappingPB callsetMappingPB;
 
+    // when adding samples to a workspace, the row each new sample is imported to
+    private Map<String, Long> newCallsetRows;
+
+    // header of the workspace when adding samples
+    private VCFHeader existingWorkspaceHeader;
+
+    // true when adding samples to an existing workspace
+    private boolean doIncrementalImport = false;
+
     //in-progress batchCount
     private int batchCount = 1;
 
@@ -322,6 +388,10 @@ public final class GenomicsDBImport extends GATKTool {
     @Override
     public void onStartup() {
         assertVariantPathsOrSampleNameFileWasSpecified();
+        assertWorkspaceWasSpecified();
+        if (doIncrementalImport) {
+            loadExistingWorkspace();
+        }
         initializeHeaderAndSampleMappings();
         initializeIntervals();
         super.onStartup();
@@ -334,6 +404,82 @@ public final class GenomicsDBImport extends GATKTool {
         }
     }
 
+    private void assertWorkspaceWasSpecified() {
+        if (workspace == null && incrementalImportWorkspace == null) {
+            throw new CommandLineException.MissingArgument(WORKSPACE_ARG_LONG_NAME,
+                                                       "One of --" + WORKSPACE_ARG_LONG_NAME + " or --" + INCREMENTAL_WORKSPACE_ARG_LONG_NAME + " must be specified" );
+        }
+        if (incrementalImportWorkspace != null) {
+            workspace = incrementalImportWorkspace;
+            doIncrementalImport = true;
+        }
+    }
+
+    /**
+     * Read the callsets and the header of the workspace that samples are being added to
+     */
+    private void loadExistingWorkspace() {
+        final String workspaceDir = BucketUtils.makeFilePathAbsolute(workspace);
+        if (Files.exists(IOUtils.getPath(IOUtils.appendPathToDir(workspaceDir, GenomicsDBConstants.DEFAULT_ARRAY_NAME)))) {
+            throw new UserException.BadInput("Workspace " + workspace + " holds a single array written by an older version of this tool, " +
+                    "and samples can't be added to it. Re-import all samples into a new workspace instead.");
+        }
+        final Path callsetJSON = IOUtils.getPath(IOUtils.appendPathToDir(workspaceDir, GenomicsDBConstants.DEFAULT_CALLSETMAP_FILE_NAME));
+        final Path vcfHeader = IOUtils.getPath(IOUtils.appendPathToDir(workspaceDir, GenomicsDBConstants.DEFAULT_VCFHEADER_FILE_NAME));
+        if (!Files.exists(callsetJSON) || !Files.exists(vcfHeader)) {
+            throw new UserException.BadInput("Workspace " + workspace + " was not created by this tool: " +
+                    GenomicsDBConstants.DEFAULT_CALLSETMAP_FILE_NAME + " and " + GenomicsDBConstants.DEFAULT_VCFHEADER_FILE_NAME + " are required");
+        }
+        callsetMappingPB = readCallsetMapJSONFile(callsetJSON);
+        try (final FeatureReader<VariantContext> reader = AbstractFeatureReader.getFeatureReader(vcfHeader.toAbsolutePath().toUri().toString(), new VCFCodec(), false)) {
+            existingWorkspaceHeader = (VCFHeader) reader.getHeader();
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile(vcfHeader, e);
+        }
+        logger.info("Adding samples to workspace " + workspace + " which holds " + callsetMappingPB.getCallsetsCount() + " samples");
+    }
+
+    private static GenomicsDBCallsetsMapProto.CallsetMappingPB readCallsetMapJSONFile(final Path callsetJSON) {
+        final GenomicsDBCallsetsMapProto.CallsetMappingPB.Builder callsetMapBuilder = GenomicsDBCallsetsMapProto.CallsetMappingPB.newBuilder();
+        try (final Reader reader = Files.newBufferedReader(callsetJSON)) {
+            JsonFormat.merge(reader, callsetMapBuilder);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile(callsetJSON, e);
+        }
+        return callsetMapBuilder.build();
+    }
+
+    /**
+     * The arrays of the workspace were created with the fields and contigs of its header, so new samples may not
+     * bring new ones, and samples already in the workspace can't be added again
+     */
+    private void assertNewSamplesCanBeAddedToWorkspace() {
+        final Set<String> existingSamples = callsetMappingPB.getCallsetsList().stream()
+                .map(GenomicsDBCallsetsMapProto.SampleIDToTileDBIDMap::getSampleName)
+                .collect(Collectors.toSet());
+        final List<String> duplicateSamples = sampleNameToVcfPath.keySet().stream().filter(existingSamples::contains).collect(Collectors.toList());
+        if (!duplicateSamples.isEmpty()) {
+            throw new UserException.BadInput("Samples already in workspace " + workspace + ": " + String.join(", ", duplicateSamples));
+        }
+
+        final Set<String> existingFilters = existingWorkspaceHeader.getFilterLines().stream().map(VCFFilterHeaderLine::getID).collect(Collectors.toSet());
+        final List<String> newFields = mergedHeaderLines.stream()
+                .filter(line -> line instanceof VCFInfoHeaderLine && !existingWorkspaceHeader.hasInfoLine(((VCFInfoHeaderLine) line).getID())
+                        || line instanceof VCFFormatHeaderLine && !existingWorkspaceHeader.hasFormatLine(((VCFFormatHeaderLine) line).getID())
+                        || line instanceof VCFFilterHeaderLine && !existingFilters.contains(((VCFFilterHeaderLine) line).getID()))
+                .map(line -> line.getKey() + "=" + ((VCFIDHeaderLine) line).getID())
+                .collect(Collectors.toList());
+        if (!newFields.isEmpty()) {
+            throw new UserException.BadInput("The new samples have header fields that are not in workspace " + workspace + ": " + String.join(", ", newFields));
+        }
+
+        final SAMSequenceDictionary existingDictionary = existingWorkspaceHeader.getSequenceDictionary();
+        if (mergedHeaderSequenceDictionary != null && existingDictionary != null && !mergedHeaderSequenceDictionary.isSameDictionary(existingDictionary)) {
+            throw new UserException.IncompatibleSequenceDictionaries("the contigs of the new samples differ from those of workspace " + workspace,
+                    "new samples", mergedHeaderSequenceDictionary, "workspace", existingDictionary);
+        }
+    }
+
     /**
      * sets the values of mergedHeaderLines, mergedHeaderSequenceDictionary, and sampleNameToVcfPath
      */
@@ -378,6 +524,13 @@ public final class GenomicsDBImport extends GATKTool {
             mergedHeaderSequenceDictionary = header.getSequenceDictionary();
         }
 
+        if (doIncrementalImport) {
+            assertNewSamplesCanBeAddedToWorkspace();
+            // the workspace header describes the arrays being appended to, so it is used as is
+            mergedHeaderLines = new LinkedHashSet<>(existingWorkspaceHeader.getMetaDataInInputOrder());
+            mergedHeaderSequenceDictionary = existingWorkspaceHeader.getSequenceDictionary();
+        }
+
         mergedHeaderLines.addAll(getDefaultToolVCFHeaderLines());
 
         if ( mergedHeaderSequenceDictionary == null) {
@@ -476,7 +629,7 @@ public final class GenomicsDBImport extends GATKTool {
      */
     @Override
     public void onTraversalStart() {
-        String workspaceDir = BucketUtils.makeFilePathAbsolute(overwriteOrCreateWorkspace());
+        String workspaceDir = BucketUtils.makeFilePathAbsolute(doIncrementalImport ? workspace : overwriteOrCreateWorkspace());
         vidMapJSONFile = IOUtils.appendPathToDir(workspaceDir, GenomicsDBConstants.DEFAULT_VIDMAP_FILE_NAME);
         callsetMapJSONFile = IOUtils.appendPathToDir(workspaceDir, GenomicsDBConstants.DEFAULT_CALLSETMAP_FILE_NAME);
         vcfHeaderFile = IOUtils.appendPathToDir(workspaceDir, GenomicsDBConstants.DEFAULT_VCFHEADER_FILE_NAME);
@@ -486,6 +639,10 @@ public final class GenomicsDBImport extends GATKTool {
         logger.info("Complete VCF Header will be written to " + vcfHeaderFile);
         logger.info("Importing to array - " + workspaceDir + "/" + GenomicsDBConstants.DEFAULT_ARRAY_NAME);
 
+        numIntervalsToImportInParallel = Math.min(maxNumIntervalsToImportInParallel, intervals.size());
+        if (numIntervalsToImportInParallel > 1) {
+            logger.info("Importing up to " + numIntervalsToImportInParallel + " intervals in parallel");
+        }
         initializeInputPreloadExecutorService();
     }
 
@@ -495,7 +652,8 @@ public final class GenomicsDBImport extends GATKTool {
                     .setNameFormat("readerInitializer-thread-%d")
                     .setDaemon(true)
                     .build();
-            this.inputPreloadExecutorService = Executors.newFixedThreadPool(vcfInitializerThreads, threadFactory);
+            // every interval being imported opens its own batch of readers, so give each of them a full set of threads
+            this.inputPreloadExecutorService = Executors.newFixedThreadPool(vcfInitializerThreads * numIntervalsToImportInParallel, threadFactory);
         } else {
             inputPreloadExecutorService = null;
         }
@@ -509,7 +667,8 @@ public final class GenomicsDBImport extends GATKTool {
                 : getFeatureReadersSerially(sampleNameToVcfPath, batchSize, index);
     }
 
-    private Void logMessageOnBatchCompletion(final BatchCompletionCallbackFunctionArgument arg) {
+    // called from the GenomicsDB import threads, one per interval being imported in parallel
+    private synchronized Void logMessageOnBatchCompletion(final BatchCompletionCallbackFunctionArgument arg) {
         progressMeter.update(intervals.get(0));
         logger.info("Done importing batch " + arg.batchCount + "/" + arg.totalBatchCount);
         this.batchCount = arg.batchCount + 1;
@@ -540,20 +699,122 @@ public final class GenomicsDBImport extends GATKTool {
         GenomicsDBImportConfiguration.ImportConfiguration.Builder importConfigurationBuilder =
                 GenomicsDBImportConfiguration.ImportConfiguration.newBuilder();
         importConfigurationBuilder.addAllColumnPartitions(partitions);
-        importConfigurationBuilder.setSizePerColumnPartition(vcfBufferSizePerSample);
-        importConfigurationBuilder.setFailIfUpdating(true);
+        importConfigurationBuilder.setSizePerColumnPartition(getVcfBufferSizePerSample(batchSize));
+        importConfigurationBuilder.setFailIfUpdating(!doIncrementalImport);
+        if (doIncrementalImport) {
+            // new samples get the rows following those already in the workspace
+            final long firstNewRowIdx = getNextCallsetRowIdx();
+            newCallsetRows = assignNewCallsetRows(firstNewRowIdx);
+            importConfigurationBuilder.setLbCallsetRowIdx(firstNewRowIdx);
+        }
         importConfigurationBuilder.setSegmentSize(segmentSize);
         importConfigurationBuilder.setConsolidateTiledbArrayAfterLoad(doConsolidation);
         ImportConfig importConfig = new ImportConfig(importConfigurationBuilder.build(), validateSampleToReaderMap, true,
                 batchSize, mergedHeaderLines, sampleNameToVcfPath, this::createSampleToReaderMap);
-        importConfig.setOutputCallsetmapJsonFile(callsetMapJSONFile);
-        importConfig.setOutputVidmapJsonFile(vidMapJSONFile);
-        importConfig.setOutputVcfHeaderFile(vcfHeaderFile);
+        importConfig.setOutputCallsetmapJsonFile(getImporterOutputFile(callsetMapJSONFile));
+        importConfig.setOutputVidmapJsonFile(getImporterOutputFile(vidMapJSONFile));
+        importConfig.setOutputVcfHeaderFile(getImporterOutputFile(vcfHeaderFile));
         importConfig.setUseSamplesInOrder(true);
         importConfig.setFunctionToCallOnBatchCompletion(this::logMessageOnBatchCompletion);
         return importConfig;
     }
 
+    /**
+     * When adding samples the importer's files only describe the new samples, so they are written next to the
+     * workspace's files and merged into them once the import succeeds.
+     */
+    private String getImporterOutputFile(final String workspaceFile) {
+        return doIncrementalImport ? workspaceFile + INCREMENTAL_IMPORT_FILE_SUFFIX : workspaceFile;
+    }
+
+    private long getNextCallsetRowIdx() {
+        return callsetMappingPB.getCallsetsList().stream().mapToLong(GenomicsDBCallsetsMapProto.SampleIDToTileDBIDMap::getRowIdx).max().orElse(-1L) + 1;
+    }
+
+    /**
+     * The importer writes the new samples, in the order of the sample map, to consecutive rows starting at
+     * <code>firstRowIdx</code>. Those rows are checked against the rows used in the workspace here, before the import
+     * writes anything to its arrays: a clash found afterwards would leave array data that callset.json can't describe.
+     *
+     * @return the row each new sample will be imported to
+     */
+    private Map<String, Long> assignNewCallsetRows(final long firstRowIdx) {
+        final Map<Long, String> usedRows = new HashMap<>();
+        for (final GenomicsDBCallsetsMapProto.SampleIDToTileDBIDMap callset : callsetMappingPB.getCallsetsList()) {
+            usedRows.put(callset.getRowIdx(), callset.getSampleName());
+        }
+        final Map<String, Long> newRows = new LinkedHashMap<>();
+        long rowIdx = firstRowIdx;
+        for (final String sampleName : sampleNameToVcfPath.keySet()) {
+            if (usedRows.containsKey(rowIdx)) {
+                throw new UserException.BadInput("Sample " + sampleName + " would be imported to row " + rowIdx +
+                        " which is already used by sample " + usedRows.get(rowIdx) + " in workspace " + workspace);
+            }
+            newRows.put(sampleName, rowIdx++);
+        }
+        return newRows;
+    }
+
+    /**
+     * Append the callsets of the new samples to the workspace's callset json file. The vid map and header written by
+     * the importer were generated from the workspace header, so the workspace's own files still apply and are kept.
+     */
+    private void mergeCallsetsIntoWorkspace() {
+        final GenomicsDBCallsetsMapProto.CallsetMappingPB newCallsets =
+                readCallsetMapJSONFile(IOUtils.getPath(getImporterOutputFile(callsetMapJSONFile)));
+        for (final GenomicsDBCallsetsMapProto.SampleIDToTileDBIDMap callset : newCallsets.getCallsetsList()) {
+            if (!Long.valueOf(callset.getRowIdx()).equals(newCallsetRows.get(callset.getSampleName()))) {
+                throw new GATKException("Sample " + callset.getSampleName() + " was imported to row " + callset.getRowIdx() +
+                        " rather than to the row assigned to it, " + newCallsetRows.get(callset.getSampleName()));
+            }
+        }
+        final GenomicsDBCallsetsMapProto.CallsetMappingPB mergedCallsets = callsetMappingPB.toBuilder()
+                .addAllCallsets(newCallsets.getCallsetsList())
+                .build();
+        try {
+            // replace callset.json in one step, so that it never describes only part of the workspace
+            final Path callsetMapPath = IOUtils.getPath(callsetMapJSONFile);
+            final Path tempCallsetMapPath = IOUtils.getPath(callsetMapJSONFile + INCREMENTAL_IMPORT_FILE_SUFFIX + ".tmp");
+            Files.write(tempCallsetMapPath, JsonFormat.printToString(mergedCallsets).getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(tempCallsetMapPath, callsetMapPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (final AtomicMoveNotSupportedException e) {
+                logger.warn("The file system of " + callsetMapJSONFile + " does not support atomic moves; replacing it non-atomically");
+                Files.move(tempCallsetMapPath, callsetMapPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+            for (final String workspaceFile : Arrays.asList(callsetMapJSONFile, vidMapJSONFile, vcfHeaderFile)) {
+                Files.deleteIfExists(IOUtils.getPath(getImporterOutputFile(workspaceFile)));
+            }
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile("Could not write " + callsetMapJSONFile, e);
+        }
+        logger.info("Workspace " + workspace + " now holds " + mergedCallsets.getCallsetsCount() + " samples");
+    }
+
+    /**
+     * Each interval imported in parallel holds a buffer for every sample in its current batch, so when a total bound is
+     * given the per-sample buffer is shrunk until all of the concurrent buffers fit in it.
+     */
+    private long getVcfBufferSizePerSample(final int batchSize) {
+        if (maxTotalVcfBufferSize == 0L) {
+            return vcfBufferSizePerSample;
+        }
+        final long concurrentBuffers = (long) batchSize * numIntervalsToImportInParallel;
+        final long bufferSize = Math.min(vcfBufferSizePerSample, maxTotalVcfBufferSize / concurrentBuffers);
+        if (bufferSize < MIN_VCF_BUFFER_SIZE_PER_SAMPLE) {
+            throw new CommandLineException.BadArgumentValue(MAX_TOTAL_VCF_BUFFER_SIZE_ARG_NAME, String.valueOf(maxTotalVcfBufferSize),
+                    "too small to give each of " + concurrentBuffers + " concurrent sample buffers (" + batchSize +
+                    " samples per batch x " + numIntervalsToImportInParallel + " intervals in parallel) at least " +
+                    MIN_VCF_BUFFER_SIZE_PER_SAMPLE + " bytes; reduce --" + BATCHSIZE_ARG_LONG_NAME + " or --" +
+                    MAX_NUM_INTERVALS_TO_IMPORT_IN_PARALLEL);
+        }
+        if (bufferSize < vcfBufferSizePerSample) {
+            logger.info("Reducing the VCF buffer size per sample to " + bufferSize + " bytes to fit " + concurrentBuffers +
+                    " concurrent sample buffers in " + maxTotalVcfBufferSize + " bytes");
+        }
+        return bufferSize;
+    }
+
     /**
      * A complete traversal from start to finish. This method will import all samples
      * specified in the input GVCF files.
@@ -570,7 +831,7 @@ public final class GenomicsDBImport extends GATKTool {
         GenomicsDBImporter importer;
         try {
             importer = new GenomicsDBImporter(importConfig);
-            importer.executeImport(maxNumIntervalsToImportInParallel);
+            importer.executeImport(numIntervalsToImportInParallel);
         } catch (final IOException e) {
             throw new UserException("Error initializing GenomicsDBImporter", e);
         } catch (final IllegalArgumentException iae) {
@@ -582,6 +843,9 @@ public final class GenomicsDBImport extends GATKTool {
 
     @Override
     public Object onTraversalSuccess() {
+        if (doIncrementalImport) {
+            mergeCallsetsIntoWorkspace();
+        }
         if (batchSize == DEFAULT_ZERO_BATCH_SIZE) {
             logger.info("Import completed!");
         } else {
@@ -610,7 +874,10 @@ public final class GenomicsDBImport extends GATKTool {
             futures.put(sampleName, inputPreloadExecutorService.submit(() -> {
                 final Path variantPath = IOUtils.getPath(sampleNametoPath.get(sampleName).toString());
                 try {
-                    return new InitializedQueryWrapper(getReaderFromPath(variantPath), intervals.get(0));
+                    // the batch callback doesn't say which interval it's loading, so the query can only be started
+                    // early when there is a single interval; otherwise opening the reader still loads header and index
+                    final FeatureReader<VariantContext> reader = getReaderFromPath(variantPath);
+                    return intervals.size() == 1 ? new InitializedQueryWrapper(reader, intervals.get(0)) : reader;
                 } catch (final IOException e) {
                     throw new UserException.CouldNotReadInputFile("Couldn't read file: " + variantPath.toUri(), e);
                 }
@@ -764,11 +1031,28 @@ public final class GenomicsDBImport extends GATKTool {
             }
             simpleIntervalList.forEach(interval -> intervals.add(new ChromosomeInterval(interval.getContig(),
                     interval.getStart(), interval.getEnd())));
+            if (doIncrementalImport) {
+                assertIntervalsMatchWorkspaceArrays();
+            }
         } else {
             throw new UserException("No intervals specified");
         }
     }
 
+    /**
+     * Samples can only be added to existing arrays, so each interval must be the bounds of one of them
+     */
+    private void assertIntervalsMatchWorkspaceArrays() {
+        final String workspaceDir = BucketUtils.makeFilePathAbsolute(workspace);
+        for (final ChromosomeInterval interval : intervals) {
+            final String arrayName = interval.getContig() + ARRAY_NAME_SEPARATOR + interval.getStart() + ARRAY_NAME_SEPARATOR + interval.getEnd();
+            if (!Files.isDirectory(IOUtils.getPath(IOUtils.appendPathToDir(workspaceDir, arrayName)))) {
+                throw new UserException.BadInput("Interval " + new SimpleInterval(interval) + " does not match an array in workspace " + workspace +
+                        "; samples can only be added with the intervals that were used to create the workspace");
+            }
+        }
+    }
+
     @Override
     public void onShutdown(){
         if(inputPreloadExecutorService != null) {
@@ -70,6 +70,15 @@ public final class MeanQualityByCycleSpark extends GATKSparkTool {
         return Collections.singletonList(ReadFilterLibrary.ALLOW_ALL_READS);
     }
 
+    /**
+     * Only the base qualities and the flags used by the histograms and by {@link MetricsReadFilter} are needed.
+     */
+    @Override
+    public List<String> getADAMReadFieldsToRead() {
+        return Arrays.asList("qual", "origQual", "readPaired", "readInFragment", "readNegativeStrand",
+                "failedVendorQualityChecks", "primaryAlignment", "secondaryAlignment", "supplementaryAlignment");
+    }
+
     @VisibleForTesting
     static final class HistogramGenerator implements Serializable {
         private static final long serialVersionUID = 1L;
@@ -113,6 +113,9 @@ public final class CombineGVCFs extends MultiVariantWalkerGroupedOnStart {
     @ArgumentCollection
     protected DbsnpArgumentCollection dbsnp = new DbsnpArgumentCollection();
 
+    // Number of reference bases fetched at a time when closing intermediate sites
+    private static final int REFERENCE_CHUNK_SIZE = 10_000;
+
     // State that gets accumulated between calls of apply()
     private final LinkedList<VariantContext> variantContextsOverlappingCurrentMerge = new LinkedList<>();
     private final Set<String> samples = new HashSet<>();
@@ -160,44 +163,96 @@ public final class CombineGVCFs extends MultiVariantWalkerGroupedOnStart {
      */
     @VisibleForTesting
     void createIntermediateVariants(SimpleInterval intervalToClose) {
-        resizeReferenceIfNeeded(intervalToClose);
+        // For each stopped loc that is within the interval being closed, create a fake QueuedContextState and pass it to endPreviousStats.
+        // The reference bases are fetched in chunks starting at the stop sites that need them, so the work done here is
+        // bounded by the number of stop sites rather than by the length of the interval, which may span a long reference block.
+        byte[] referenceChunk = null;
+        int referenceChunkStart = 0;
+        final PrimitiveIterator.OfInt stopSites = getStopSites(intervalToClose, variantContextsOverlappingCurrentMerge, multipleAtWhichToBreakBands);
+        while (stopSites.hasNext()) {
+            final int stoppedLoc = stopSites.nextInt();
+            SimpleInterval loc = new SimpleInterval(intervalToClose.getContig(), stoppedLoc, stoppedLoc);
+            if (isWithinInterval(loc)) {
+                if (referenceChunk == null || stoppedLoc + 1 >= referenceChunkStart + referenceChunk.length) {
+                    referenceChunkStart = stoppedLoc;
+                    referenceChunk = storedReferenceContext.getBases(new SimpleInterval(intervalToClose.getContig(), stoppedLoc, stoppedLoc + REFERENCE_CHUNK_SIZE - 1));
+                }
+                final int offset = stoppedLoc - referenceChunkStart;
+                byte[] refBases = Arrays.copyOfRange(referenceChunk, offset, Math.min(offset + 2, referenceChunk.length));
+                endPreviousStates(loc, refBases, Collections.emptyList(), true);
+            }
+        }
+
+    }
 
-        // Break up the GVCF according to the provided reference blocking scheme
-        // The values returned from getIntermediateStopSites represent a proposed set of stop sites that may include
-        // intervals that are outside the actual interval being closed. These sites are filtered out below.
-        // Note: Precomputing these is really inefficient when large reference blocks are closed with
-        // fine band resolution because it results in very large collections of stop sites (tens or hundreds of millions)
-        // that must subsequently be sorted.
-        final Set<Integer> sitesToStop = getIntermediateStopSites(intervalToClose, multipleAtWhichToBreakBands);
+    /**
+     * Iterate in order over the sites within intervalToClose at which the given variant contexts must be broken up:
+     * the end of each variant context, every site spanned by a variant context with a true alt allele, and the band
+     * stop sites given by breakBandMultiple.  Band stop sites are generated between the variant stop sites as the
+     * iteration proceeds, so a long reference block closed with a fine band multiple never needs all of its stop
+     * sites in memory at once.
+     */
+    @VisibleForTesting
+    static PrimitiveIterator.OfInt getStopSites(final SimpleInterval intervalToClose, final Collection<VariantContext> variantContexts,
+                                                final int breakBandMultiple) {
+        final int start = intervalToClose.getStart();
+        final int end = intervalToClose.getEnd();
 
-        // If any variant contexts ended (or were spanning deletions) the last context compute where we should stop them
-        for (VariantContext vc : variantContextsOverlappingCurrentMerge) {
+        // ranges of consecutive stop sites within the interval, as {first site, last site}
+        final List<int[]> variantStopRanges = new ArrayList<>(variantContexts.size());
+        for (VariantContext vc : variantContexts) {
 
             // Asking if the number of alleles > 2 is a shorthand for a variant being present, as we expect <non-ref>
             // symbolic alleles to be present in all VariantContext. This might also be the case if we saw a spanning
             // deletion that reads into the current site, as we would expect ReferenceConfidenceVariantContextMerger to
             // insert symbolic alleles for those spanning variants.
             if (vc.getNAlleles() > 2) {
-                for (int i = vc.getStart(); i <= vc.getEnd(); i++ ) {
-                    sitesToStop.add(i);
+                final int rangeStart = Math.max(vc.getStart(), start);
+                final int rangeEnd = Math.min(vc.getEnd(), end);
+                if (rangeStart <= rangeEnd) {
+                    variantStopRanges.add(new int[] {rangeStart, rangeEnd});
                 }
-            } else if (vc.getEnd() <= intervalToClose.getEnd()) {
-                sitesToStop.add(vc.getEnd());
+            } else if (vc.getEnd() >= start && vc.getEnd() <= end) {
+                variantStopRanges.add(new int[] {vc.getEnd(), vc.getEnd()});
             }
         }
+        variantStopRanges.sort(Comparator.comparingInt(range -> range[0]));
 
-        List<Integer> stoppedLocs = new ArrayList<>(sitesToStop);
-        stoppedLocs.sort(Comparator.naturalOrder());
+        return new PrimitiveIterator.OfInt() {
+            private int rangeIndex = 0;
+            private int next = findNextStopSite(start);
 
-        // For each stopped loc that is within the interval being closed, create a fake QueuedContextState and pass it to endPreviousStats
-        for (int stoppedLoc : stoppedLocs) {
-            SimpleInterval loc = new SimpleInterval(intervalToClose.getContig(), stoppedLoc, stoppedLoc);
-            if (( stoppedLoc <= intervalToClose.getEnd() && stoppedLoc>= intervalToClose.getStart()) && isWithinInterval(loc)) {
-                byte[] refBases = Arrays.copyOfRange(storedReferenceContext.getBases(), stoppedLoc - storedReferenceContext.getWindow().getStart(), stoppedLoc - storedReferenceContext.getWindow().getStart() + 2);
-                endPreviousStates(loc, refBases, Collections.emptyList(), true);
+            // the first stop site at or after from, or Integer.MAX_VALUE if there is none
+            private int findNextStopSite(final int from) {
+                while (rangeIndex < variantStopRanges.size() && variantStopRanges.get(rangeIndex)[1] < from) {
+                    rangeIndex++;
+                }
+                final int nextVariantStop = rangeIndex < variantStopRanges.size() ? Math.max(from, variantStopRanges.get(rangeIndex)[0]) : Integer.MAX_VALUE;
+                // we split before a multiple of the band, so the last site of the interval is never a band stop site
+                final int nextBandStop = breakBandMultiple > 0 ? getNextBandStopSite(from, breakBandMultiple) : Integer.MAX_VALUE;
+                return Math.min(nextVariantStop, nextBandStop < end ? nextBandStop : Integer.MAX_VALUE);
             }
-        }
 
+            @Override
+            public boolean hasNext() {
+                return next <= end;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final int stopSite = next;
+                next = stopSite == end ? Integer.MAX_VALUE : findNextStopSite(stopSite + 1);
+                return stopSite;
+            }
+        };
+    }
+
+    // Get the first band stop site at or after the given site, ie the site before the next multiple of the band
+    private static int getNextBandStopSite(final int site, final int breakBandMultiple) {
+        return (int) Math.min(((long) site / breakBandMultiple + 1) * breakBandMultiple - 1, Integer.MAX_VALUE);
     }
 
     // Get any intermediate stop sites based on the break band multiple.
@@ -208,29 +263,17 @@ public final class CombineGVCFs extends MultiVariantWalkerGroupedOnStart {
         if ( breakBandMultiple > 0) {
             // if the intermediate interval to close starts before the end of the first band multiple,
             // create the first stop position at the end of the band multiple
-            for (int blockEndPosition = intervalToClose.getStart() < (breakBandMultiple + 1) ?
+            final int firstBlockEndPosition = intervalToClose.getStart() < (breakBandMultiple + 1) ?
                     Math.max(2, breakBandMultiple) :
                     (intervalToClose.getStart() / breakBandMultiple) * breakBandMultiple;
-                 blockEndPosition <= intervalToClose.getEnd();
-                 blockEndPosition += breakBandMultiple) {
-                sitesToStop.add(blockEndPosition - 1); // Subtract 1 here because we want to split before this base
+            // Subtract 1 here because we want to split before this base
+            for (int site = firstBlockEndPosition - 1; site < intervalToClose.getEnd(); site = getNextBandStopSite(site + 1, breakBandMultiple)) {
+                sitesToStop.add(site);
             }
         }
         return sitesToStop;
     }
 
-    /**
-     * Resize {@link #storedReferenceContext} to cover at least as much as intervalToClose
-     * @param intervalToClose
-     */
-    private void resizeReferenceIfNeeded(SimpleInterval intervalToClose) {
-        final int leftEdge = storedReferenceContext.getInterval().getStart() - intervalToClose.getStart();
-        final int rightEdge = intervalToClose.getEnd() - storedReferenceContext.getInterval().getEnd();
-
-        storedReferenceContext.setWindow(Math.max(1, leftEdge), Math.max(1, rightEdge));
-    }
-
-
     @Override
     public void onTraversalStart() {
         // create the annotation engine
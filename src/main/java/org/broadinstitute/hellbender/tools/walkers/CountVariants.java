@@ -38,6 +38,11 @@ public final class CountVariants extends VariantWalker{
             "Because it counts the number of rows in the VCF, it does not necessarily reflect the number of variant " +
             "alleles. The count is returned at the end of the standard out.";
 
+    @Override
+    public boolean requiresGenotypes() {
+        return false;
+    }
+
     @Override
     public void apply( VariantContext variant, ReadsContext readsContext, ReferenceContext referenceContext, FeatureContext featureContext ) {
         count++;
@@ -24,6 +24,7 @@ import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Perform joint genotyping on one or more samples pre-called with HaplotypeCaller
@@ -89,6 +90,8 @@ public final class GenotypeGVCFs extends VariantWalker {
     public static final String ONLY_OUTPUT_CALLS_STARTING_IN_INTERVALS_FULL_NAME = "only-output-calls-starting-in-intervals";
     public static final String ALL_SITES_LONG_NAME = "include-non-variant-sites";
     public static final String ALL_SITES_SHORT_NAME = "all-sites";
+    public static final String GENOTYPING_THREADS_LONG_NAME = "genotyping-threads";
+    public static final String GENOTYPING_BATCH_SIZE_LONG_NAME = "genotyping-batch-size";
     private static final String GVCF_BLOCK = "GVCFBlock";
 
     @Argument(fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME, shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
@@ -118,6 +121,25 @@ public final class GenotypeGVCFs extends VariantWalker {
     @ArgumentCollection
     private final DbsnpArgumentCollection dbsnp = new DbsnpArgumentCollection();
 
+    /**
+     * When greater than 1, sites are merged and genotyped in batches on this many threads, each with its own genotyping
+     * engine. Sites are still annotated from the reference and dbSNP, and written, in order on the main thread, so the
+     * output is the same as with a single thread.
+     */
+    @Advanced
+    @Argument(fullName = GENOTYPING_THREADS_LONG_NAME,
+            doc = "Number of threads to use for genotyping sites",
+            optional = true,
+            minValue = 1)
+    private int genotypingThreads = 1;
+
+    @Advanced
+    @Argument(fullName = GENOTYPING_BATCH_SIZE_LONG_NAME,
+            doc = "Number of sites to genotype together when using more than one genotyping thread",
+            optional = true,
+            minValue = 1)
+    private int genotypingBatchSize = 1000;
+
     // the genotyping engine
     private GenotypingEngine<?> genotypingEngine;
     // the annotation engine
@@ -125,6 +147,11 @@ public final class GenotypeGVCFs extends VariantWalker {
 
     private ReferenceConfidenceVariantContextMerger merger;
 
+    // used when genotyping on more than one thread
+    private ForkJoinPool genotypingPool;
+    private ThreadLocal<SiteGenotyper> threadGenotypers;
+    private final List<PendingSite> pendingSites = new ArrayList<>();
+
     private VariantContextWriter vcfWriter;
 
     /** these are used when {@link #onlyOutputCallsStartingInIntervals) is true */
@@ -159,14 +186,52 @@ public final class GenotypeGVCFs extends VariantWalker {
 
         annotationEngine = new VariantAnnotatorEngine(makeVariantAnnotations(), dbsnp.dbsnp, Collections.emptyList(), false);
 
-        // We only want the engine to generate the AS_QUAL key if we are using AlleleSpecific annotations.
-        genotypingEngine = new MinimalGenotypingEngine(createUAC(), samples, new GeneralPloidyFailOverAFCalculatorProvider(genotypeArgs), annotationEngine.isRequestedReducibleRawKey(GATKVCFConstants.AS_QUAL_KEY));
+        final SiteGenotyper genotyper = new SiteGenotyper(samples);
+        genotypingEngine = genotyper.genotypingEngine;
+        merger = genotyper.merger;
 
-        merger = new ReferenceConfidenceVariantContextMerger(annotationEngine, getHeaderForVariants());
+        if (genotypingThreads > 1) {
+            logger.info("Genotyping batches of " + genotypingBatchSize + " sites on " + genotypingThreads + " threads");
+            genotypingPool = new ForkJoinPool(genotypingThreads);
+            threadGenotypers = ThreadLocal.withInitial(() -> new SiteGenotyper(samples));
+        }
 
         setupVCFWriter(inputVCFHeader, samples);
     }
 
+    /**
+     * The merger and genotyping engine used to genotype sites. These hold caches that are not thread-safe, so each
+     * genotyping thread has its own.
+     */
+    private final class SiteGenotyper {
+        private final GenotypingEngine<?> genotypingEngine;
+        private final ReferenceConfidenceVariantContextMerger merger;
+
+        private SiteGenotyper(final SampleList samples) {
+            // We only want the engine to generate the AS_QUAL key if we are using AlleleSpecific annotations.
+            genotypingEngine = new MinimalGenotypingEngine(createUAC(), samples, new GeneralPloidyFailOverAFCalculatorProvider(genotypeArgs), annotationEngine.isRequestedReducibleRawKey(GATKVCFConstants.AS_QUAL_KEY));
+            merger = new ReferenceConfidenceVariantContextMerger(annotationEngine, getHeaderForVariants());
+        }
+    }
+
+    /**
+     * A site waiting in a batch to be genotyped and written
+     */
+    private static final class PendingSite {
+        private final VariantContext variant;
+        private final Byte refBase;
+        private final ReferenceContext ref;
+        private final FeatureContext features;
+        private VariantContext genotyped;
+
+        private PendingSite(final VariantContext variant, final Byte refBase, final ReferenceContext ref, final FeatureContext features) {
+            this.variant = variant;
+            this.refBase = refBase;
+            this.ref = ref;
+            this.features = features;
+        }
+    }
+
     private static boolean annotationShouldBeSkippedForHomRefSites(VariantAnnotation annotation) {
         return annotation instanceof RankSumTest || annotation instanceof RMSMappingQuality || annotation instanceof AS_RMSMappingQuality;
     }
@@ -200,8 +265,34 @@ public final class GenotypeGVCFs extends VariantWalker {
     @Override
     public void apply(VariantContext variant, ReadsContext reads, ReferenceContext ref, FeatureContext features) {
         ref.setWindow(10, 10); //TODO this matches the gatk3 behavior but may be unnecessary
-        final VariantContext mergedVC = merger.merge(Collections.singletonList(variant), variant, includeNonVariants ? ref.getBase() : null, true, false);
-        final VariantContext regenotypedVC = regenotypeVC(mergedVC, ref, features, includeNonVariants);
+        final Byte refBase = includeNonVariants ? ref.getBase() : null;
+        if (genotypingPool == null) {
+            annotateAndWrite(genotypeSite(variant, refBase, merger, genotypingEngine), ref, features);
+        } else {
+            pendingSites.add(new PendingSite(variant, refBase, ref, features));
+            if (pendingSites.size() >= genotypingBatchSize) {
+                processPendingSites();
+            }
+        }
+    }
+
+    /**
+     * Genotype the pending sites in parallel, then annotate and write them in order. Annotation stays on this thread
+     * because it queries the reference and feature data sources, which are not thread-safe.
+     */
+    private void processPendingSites() {
+        genotypingPool.submit(() -> pendingSites.parallelStream().forEach(site -> {
+            final SiteGenotyper genotyper = threadGenotypers.get();
+            site.genotyped = genotypeSite(site.variant, site.refBase, genotyper.merger, genotyper.genotypingEngine);
+        })).join();
+        for (final PendingSite site : pendingSites) {
+            annotateAndWrite(site.genotyped, site.ref, site.features);
+        }
+        pendingSites.clear();
+    }
+
+    private void annotateAndWrite(final VariantContext genotypedVC, final ReferenceContext ref, final FeatureContext features) {
+        final VariantContext regenotypedVC = genotypedVC == null ? null : annotateSite(genotypedVC, ref, features, includeNonVariants);
         if (regenotypedVC != null) {
             final SimpleInterval variantStart = new SimpleInterval(regenotypedVC.getContig(), regenotypedVC.getStart(), regenotypedVC.getStart());
             if (!onlyOutputCallsStartingInIntervals || intervals.stream().anyMatch(interval -> interval.contains    (variantStart))) {
@@ -210,36 +301,41 @@ public final class GenotypeGVCFs extends VariantWalker {
         }
     }
 
-
-
     /**
-     * Re-genotype (and re-annotate) a combined genomic VC
-     * @return a new VariantContext or null if the site turned monomorphic and we don't want such sites
+     * Merge and re-genotype a combined genomic VC. This does not use the reference or feature contexts, so it is safe
+     * to call from any thread given a merger and genotyping engine owned by that thread.
+     * @return a new VariantContext to be annotated by {@link #annotateSite}, or null if the site turned monomorphic and we don't want such sites
      */
-    private VariantContext  regenotypeVC(final VariantContext originalVC, final ReferenceContext ref, final FeatureContext features, boolean includeNonVariants) {
+    private VariantContext genotypeSite(final VariantContext variant, final Byte refBase,
+                                        final ReferenceConfidenceVariantContextMerger merger, final GenotypingEngine<?> genotypingEngine) {
+        final VariantContext originalVC = merger.merge(Collections.singletonList(variant), variant, refBase, true, false);
         Utils.nonNull(originalVC);
 
-        final VariantContext result;
         if ( originalVC.isVariant()  && originalVC.getAttributeAsInt(VCFConstants.DEPTH_KEY,0) > 0 ) {
             // only re-genotype polymorphic sites
-            final VariantContext regenotypedVC = calculateGenotypes(originalVC);
+            final VariantContext regenotypedVC = calculateGenotypes(originalVC, genotypingEngine);
             if (isProperlyPolymorphic(regenotypedVC)) {
                 // Note that reversetrimAlleles must be performed after the annotations are finalized because the reducible annotation data maps
                 // were generated and keyed on the un reverseTrimmed alleles from the starting VariantContexts. Thus reversing the order will make
                 // it difficult to recover the data mapping due to the keyed alleles no longer being present in the variant context.
                 final VariantContext withGenotypingAnnotations = addGenotypingAnnotations(originalVC.getAttributes(), regenotypedVC);
                 final VariantContext withAnnotations = annotationEngine.finalizeAnnotations(withGenotypingAnnotations, originalVC);
-                result = GATKVariantContextUtils.reverseTrimAlleles(withAnnotations);
+                return GATKVariantContextUtils.reverseTrimAlleles(withAnnotations);
             } else if (includeNonVariants) {
-                result = originalVC;
+                return originalVC;
             } else {
                 return null;
             }
         } else {
-            result = originalVC;
+            return originalVC;
         }
+    }
 
-
+    /**
+     * Re-annotate a VC produced by {@link #genotypeSite}
+     * @return a new VariantContext or null if the site turned monomorphic and we don't want such sites
+     */
+    private VariantContext annotateSite(final VariantContext result, final ReferenceContext ref, final FeatureContext features, boolean includeNonVariants) {
         // if it turned monomorphic then we either need to ignore or fix such sites
         // Note that the order of these actions matters and is different for polymorphic and monomorphic sites.
         // For polymorphic sites we need to make sure e.g. the SB tag is sent to the annotation engine and then removed later.
@@ -258,7 +354,7 @@ public final class GenotypeGVCFs extends VariantWalker {
         }
     }
 
-    private VariantContext calculateGenotypes(VariantContext vc){
+    private static VariantContext calculateGenotypes(VariantContext vc, final GenotypingEngine<?> genotypingEngine){
         /*
          * Query the VariantContext for the appropriate model.  If type == MIXED, one would want to use model = BOTH.
          * However GenotypingEngine.getAlleleFrequencyPriors throws an exception if you give it anything but a SNP or INDEL model.
@@ -393,8 +489,19 @@ public final class GenotypeGVCFs extends VariantWalker {
         return uac;
     }
 
+    @Override
+    public Object onTraversalSuccess() {
+        if (genotypingPool != null) {
+            processPendingSites();
+        }
+        return null;
+    }
+
     @Override
     public void closeTool() {
+        if ( genotypingPool != null ) {
+            genotypingPool.shutdown();
+        }
         if ( vcfWriter != null) {
             vcfWriter.close();
         }
@@ -1,15 +1,17 @@
 package org.broadinstitute.hellbender.tools.walkers.annotator;
 
 import com.google.common.primitives.Ints;
+import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.VariantContext;
 import org.broadinstitute.barclay.help.DocumentedFeature;
 import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
 import org.broadinstitute.hellbender.utils.help.HelpConstants;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 
-import java.util.List;
-import java.util.OptionalInt;
+import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * Median mapping quality of reads supporting each alt allele.
@@ -36,4 +38,16 @@ public class MappingQuality extends PerAlleleAnnotation implements StandardMutec
         Utils.nonNull(read);
         return OptionalInt.of(read.getMappingQuality());
     }
+
+    @Override
+    protected Map<Allele, List<Integer>> getValuesByAllele(final VariantContext vc, final ReadLikelihoods<Allele> likelihoods, final String sample) {
+        return SharedAnnotationData.mappingQualitiesByAllele(likelihoods, sample).entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey,
+                        entry -> entry.getValue().stream().filter(PerAlleleAnnotation::isUsableMappingQuality).collect(Collectors.toList())));
+    }
+
+    @Override
+    public Set<SharedAnnotationData.Product> getRequiredSharedData() {
+        return EnumSet.of(SharedAnnotationData.Product.MAPPING_QUALITIES);
+    }
 }
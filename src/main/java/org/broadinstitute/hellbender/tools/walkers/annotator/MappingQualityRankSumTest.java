@@ -1,17 +1,19 @@
 package org.broadinstitute.hellbender.tools.walkers.annotator;
 
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFInfoHeaderLine;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
 import org.broadinstitute.barclay.help.DocumentedFeature;
 import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
 import org.broadinstitute.hellbender.utils.help.HelpConstants;
 import org.broadinstitute.hellbender.utils.pileup.PileupElement;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFHeaderLines;
 
-import java.util.Collections;
-import java.util.List;
-import java.util.OptionalDouble;
+import java.util.*;
 
 
 /**
@@ -48,4 +50,20 @@ public final class MappingQualityRankSumTest extends RankSumTest implements Stan
         // default to returning the same value
         return OptionalDouble.of(p.getMappingQual());
     }
+
+    @Override
+    protected void fillQualsFromLikelihood(VariantContext vc, ReadLikelihoods<Allele> likelihoods, DoubleArrayList refQuals, DoubleArrayList altQuals, int refLoc) {
+        for (final Map.Entry<Allele, List<Integer>> entry : SharedAnnotationData.mappingQualitiesByAllele(likelihoods).entrySet()) {
+            final Allele allele = entry.getKey();
+            if (allele.isReference() || vc.hasAllele(allele)) {
+                final DoubleArrayList quals = allele.isReference() ? refQuals : altQuals;
+                entry.getValue().stream().filter(RankSumTest::isUsableMappingQuality).mapToDouble(Integer::doubleValue).forEach(quals::add);
+            }
+        }
+    }
+
+    @Override
+    public Set<SharedAnnotationData.Product> getRequiredSharedData() {
+        return EnumSet.of(SharedAnnotationData.Product.MAPPING_QUALITIES);
+    }
 }
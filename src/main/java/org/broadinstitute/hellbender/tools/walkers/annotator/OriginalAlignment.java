@@ -17,7 +17,9 @@ import org.broadinstitute.hellbender.utils.variant.GATKVCFHeaderLines;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Original Alignment annotation counts the number of alt reads where the original alignment contig doesn't match the current alignment contig
@@ -50,7 +52,7 @@ public class OriginalAlignment extends GenotypeAnnotation implements StandardMut
         }
         final int indexOfMaxLod = MathUtils.maxElementIndex(lods);
         final Allele altAlelle = vc.getAlternateAllele(indexOfMaxLod);
-        final Collection<ReadLikelihoods<Allele>.BestAllele> bestAlleles = likelihoods.bestAllelesBreakingTies(g.getSampleName());
+        final Collection<ReadLikelihoods<Allele>.BestAllele> bestAlleles = SharedAnnotationData.bestAllelesBreakingTies(likelihoods, g.getSampleName());
         final String currentContig = ref.getInterval().getContig();
 
         final long nonChrMAlt = bestAlleles.stream()
@@ -69,4 +71,9 @@ public class OriginalAlignment extends GenotypeAnnotation implements StandardMut
     public List<String> getKeyNames() {
         return Collections.singletonList(KEY);
     }
+
+    @Override
+    public Set<SharedAnnotationData.Product> getRequiredSharedData() {
+        return EnumSet.of(SharedAnnotationData.Product.BEST_ALLELES);
+    }
 }
@@ -48,6 +48,11 @@ public final class OxoGReadCounts extends GenotypeAnnotation implements Standard
         return Arrays.asList(GATKVCFConstants.F1R2_KEY, GATKVCFConstants.F2R1_KEY);
     }
 
+    @Override
+    public Set<SharedAnnotationData.Product> getRequiredSharedData() {
+        return EnumSet.of(SharedAnnotationData.Product.BEST_ALLELES);
+    }
+
     @Override
     public List<VCFFormatHeaderLine> getDescriptions() {
         return Arrays.asList(
@@ -74,7 +79,7 @@ public final class OxoGReadCounts extends GenotypeAnnotation implements Standard
         final Map<Allele, MutableInt> f2r1Counts = likelihoods.alleles().stream()
                 .collect(Collectors.toMap(a -> a, a -> new MutableInt(0)));
 
-        Utils.stream(likelihoods.bestAllelesBreakingTies(g.getSampleName()))
+        Utils.stream(SharedAnnotationData.bestAllelesBreakingTies(likelihoods, g.getSampleName()))
                 .filter(ba -> ba.isInformative() && isUsableRead(ba.read))
                 .forEach(ba -> (ReadUtils.isF2R1(ba.read) ? f2r1Counts : f1r2Counts).get(ba.allele).increment());
 
@@ -37,13 +37,7 @@ public abstract class PerAlleleAnnotation extends GenotypeAnnotation {
             return;
         }
 
-        final Map<Allele, List<Integer>> values = likelihoods.alleles().stream()
-                .collect(Collectors.toMap(a -> a, a -> new ArrayList<>()));
-
-        Utils.stream(likelihoods.bestAllelesBreakingTies(g.getSampleName()))
-                .filter(ba -> ba.isInformative() && isUsableRead(ba.read))
-                .forEach(ba -> getValueForRead(ba.read, vc).ifPresent(v -> values.get(ba.allele).add(v)));
-
+        final Map<Allele, List<Integer>> values = getValuesByAllele(vc, likelihoods, g.getSampleName());
         final int[] statistics = vc.getAlleles().stream().filter(this::includeAllele).mapToInt(a -> aggregate(values.get(a))).toArray();
         gb.attribute(getVcfKey(), statistics);
     }
@@ -55,8 +49,26 @@ public abstract class PerAlleleAnnotation extends GenotypeAnnotation {
     // this is false by default but implementations may wish to override
     protected boolean includeRefAllele() { return false; }
 
+    /**
+     * @return the values of the sample's usable informative reads, keyed by the best allele of each read.  Every allele
+     *         of the likelihoods is a key.
+     */
+    protected Map<Allele, List<Integer>> getValuesByAllele(final VariantContext vc, final ReadLikelihoods<Allele> likelihoods, final String sample) {
+        final Map<Allele, List<Integer>> values = likelihoods.alleles().stream()
+                .collect(Collectors.toMap(a -> a, a -> new ArrayList<>()));
+
+        Utils.stream(SharedAnnotationData.bestAllelesBreakingTies(likelihoods, sample))
+                .filter(ba -> ba.isInformative() && isUsableRead(ba.read))
+                .forEach(ba -> getValueForRead(ba.read, vc).ifPresent(v -> values.get(ba.allele).add(v)));
+        return values;
+    }
+
     private static boolean isUsableRead(final GATKRead read) {
-        return read.getMappingQuality() != 0 && read.getMappingQuality() != QualityUtils.MAPPING_QUALITY_UNAVAILABLE;
+        return isUsableMappingQuality(read.getMappingQuality());
+    }
+
+    protected static boolean isUsableMappingQuality(final int mappingQuality) {
+        return mappingQuality != 0 && mappingQuality != QualityUtils.MAPPING_QUALITY_UNAVAILABLE;
     }
 
     @Override
@@ -67,6 +79,11 @@ public abstract class PerAlleleAnnotation extends GenotypeAnnotation {
     @Override
     public List<String> getKeyNames() { return Arrays.asList(getVcfKey()); }
 
+    @Override
+    public Set<SharedAnnotationData.Product> getRequiredSharedData() {
+        return EnumSet.of(SharedAnnotationData.Product.BEST_ALLELES);
+    }
+
     protected abstract OptionalInt getValueForRead(final GATKRead read, final VariantContext vc);
     protected abstract int aggregate(final List<Integer> values);
     protected abstract String getVcfKey();
@@ -20,7 +20,9 @@ import org.spark_project.guava.collect.Range;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Potential polymorphic NuMT annotation compares the number of alts to the autosomal coverage
@@ -68,7 +70,7 @@ public class PolymorphicNuMT extends GenotypeAnnotation implements Annotation {
         }
         final int indexOfMaxLod = MathUtils.maxElementIndex(lods);
         final Allele altAlelle = vc.getAlternateAllele(indexOfMaxLod);
-        Collection<ReadLikelihoods<Allele>.BestAllele> bestAlleles = likelihoods.bestAllelesBreakingTies(g.getSampleName());
+        Collection<ReadLikelihoods<Allele>.BestAllele> bestAlleles = SharedAnnotationData.bestAllelesBreakingTies(likelihoods, g.getSampleName());
         final long numAltReads = bestAlleles.stream().filter(ba -> ba.isInformative() && ba.allele.equals(altAlelle)).count();
         if ( autosomalHetRange.contains(numAltReads) || autosomalHomAltRange.contains(numAltReads) ) {
             gb.attribute(GATKVCFConstants.POTENTIAL_POLYMORPHIC_NUMT_KEY, "true");
@@ -82,4 +84,9 @@ public class PolymorphicNuMT extends GenotypeAnnotation implements Annotation {
     public List<String> getKeyNames() {
         return Collections.singletonList(KEY);
     }
+
+    @Override
+    public Set<SharedAnnotationData.Product> getRequiredSharedData() {
+        return EnumSet.of(SharedAnnotationData.Product.BEST_ALLELES);
+    }
 }
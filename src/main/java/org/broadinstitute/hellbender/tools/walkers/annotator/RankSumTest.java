@@ -1,9 +1,9 @@
 package org.broadinstitute.hellbender.tools.walkers.annotator;
 
-import com.google.common.primitives.Doubles;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.GenotypesContext;
 import htsjdk.variant.variantcontext.VariantContext;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
 import org.broadinstitute.hellbender.utils.MannWhitneyU;
 import org.broadinstitute.hellbender.utils.QualityUtils;
@@ -33,8 +33,8 @@ public abstract class RankSumTest extends InfoFieldAnnotation implements Annotat
             return Collections.emptyMap();
         }
 
-        final List<Double> refQuals = new ArrayList<>();
-        final List<Double> altQuals = new ArrayList<>();
+        final DoubleArrayList refQuals = new DoubleArrayList();
+        final DoubleArrayList altQuals = new DoubleArrayList();
 
         final int refLoc = vc.getStart();
 
@@ -68,7 +68,7 @@ public abstract class RankSumTest extends InfoFieldAnnotation implements Annotat
         final MannWhitneyU mannWhitneyU = new MannWhitneyU();
 
         // we are testing that set1 (the alt bases) have lower quality scores than set2 (the ref bases)
-        final MannWhitneyU.Result result = mannWhitneyU.test(Doubles.toArray(altQuals), Doubles.toArray(refQuals), MannWhitneyU.TestType.FIRST_DOMINATES);
+        final MannWhitneyU.Result result = mannWhitneyU.test(altQuals.toDoubleArray(), refQuals.toDoubleArray(), MannWhitneyU.TestType.FIRST_DOMINATES);
         final double zScore = result.getZ();
 
         if (Double.isNaN(zScore)) {
@@ -78,8 +78,8 @@ public abstract class RankSumTest extends InfoFieldAnnotation implements Annotat
         }
     }
 
-    protected void fillQualsFromLikelihood(VariantContext vc, ReadLikelihoods<Allele> likelihoods, List<Double> refQuals, List<Double> altQuals, int refLoc) {
-        for (final ReadLikelihoods<Allele>.BestAllele bestAllele : likelihoods.bestAllelesBreakingTies()) {
+    protected void fillQualsFromLikelihood(VariantContext vc, ReadLikelihoods<Allele> likelihoods, DoubleArrayList refQuals, DoubleArrayList altQuals, int refLoc) {
+        for (final ReadLikelihoods<Allele>.BestAllele bestAllele : SharedAnnotationData.bestAllelesBreakingTies(likelihoods)) {
             final GATKRead read = bestAllele.read;
             final Allele allele = bestAllele.allele;
             if (bestAllele.isInformative() && isUsableRead(read, refLoc)) {
@@ -126,7 +126,14 @@ public abstract class RankSumTest extends InfoFieldAnnotation implements Annotat
      */
     protected boolean isUsableRead(final GATKRead read, final int refLoc) {
         Utils.nonNull(read);
-        return read.getMappingQuality() != 0 && read.getMappingQuality() != QualityUtils.MAPPING_QUALITY_UNAVAILABLE;
+        return isUsableMappingQuality(read.getMappingQuality());
+    }
+
+    /**
+     * @return true if a read with this mapping quality is meaningful for comparison
+     */
+    protected static boolean isUsableMappingQuality(final int mappingQuality) {
+        return mappingQuality != 0 && mappingQuality != QualityUtils.MAPPING_QUALITY_UNAVAILABLE;
     }
 
     /**
@@ -139,4 +146,8 @@ public abstract class RankSumTest extends InfoFieldAnnotation implements Annotat
      */
     protected abstract OptionalDouble getElementForPileupElement(final PileupElement p, final int refLoc);
 
+    @Override
+    public Set<SharedAnnotationData.Product> getRequiredSharedData() {
+        return EnumSet.of(SharedAnnotationData.Product.BEST_ALLELES);
+    }
 }
@@ -44,6 +44,11 @@ public class ReadOrientationArtifact extends GenotypeAnnotation implements Orien
         return Arrays.asList(GATKVCFConstants.ROF_POSTERIOR_KEY, GATKVCFConstants.ROF_PRIOR_KEY, GATKVCFConstants.ROF_TYPE_KEY);
     }
 
+    @Override
+    public Set<SharedAnnotationData.Product> getRequiredSharedData() {
+        return EnumSet.of(SharedAnnotationData.Product.BEST_ALLELES);
+    }
+
     @Override
     public List<VCFFormatHeaderLine> getDescriptions() {
         return Arrays.asList(
@@ -94,7 +99,7 @@ public class ReadOrientationArtifact extends GenotypeAnnotation implements Orien
         int altCount = 0;
         int altF1R2 = 0;
 
-        final Collection<ReadLikelihoods<Allele>.BestAllele> bestAlleles = likelihoods.bestAllelesBreakingTies(g.getSampleName());
+        final Collection<ReadLikelihoods<Allele>.BestAllele> bestAlleles = SharedAnnotationData.bestAllelesBreakingTies(likelihoods, g.getSampleName());
         for (ReadLikelihoods<Allele>.BestAllele bestAllele : bestAlleles){
             final Allele allele = bestAllele.allele;
 
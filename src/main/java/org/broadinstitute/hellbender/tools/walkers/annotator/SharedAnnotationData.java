@@ -0,0 +1,154 @@
+package org.broadinstitute.hellbender.tools.walkers.annotator;
+
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.VariantContext;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
+
+import java.util.*;
+
+/**
+ * Intermediate data derived from the read likelihoods of a variant that several annotations need, such as the best
+ * allele of each read.  Annotations declare the products they use via {@link VariantAnnotation#getRequiredSharedData()},
+ * and while {@link VariantAnnotatorEngine} annotates a variant each declared product is computed once and shared
+ * among all annotations rather than recomputed by each of them.
+ *
+ * Annotations obtain the products through the static methods of this class, which fall back to computing them
+ * directly when called outside of the engine or with likelihoods other than those being annotated.
+ */
+public final class SharedAnnotationData {
+
+    public enum Product {
+        /**
+         * The best allele of each read, breaking ties in favor of the reference, as given by {@link ReadLikelihoods#bestAllelesBreakingTies}
+         */
+        BEST_ALLELES,
+
+        /**
+         * The forward and reverse counts of informative reads supporting the ref and any alt allele in each sample,
+         * as used by {@link StrandBiasTest#getContingencyTable}
+         */
+        STRAND_COUNTS,
+
+        /**
+         * The mapping qualities of the informative reads supporting each allele, by the best allele of each read
+         */
+        MAPPING_QUALITIES
+    }
+
+    private static final ThreadLocal<SharedAnnotationData> CURRENT = new ThreadLocal<>();
+
+    private final ReadLikelihoods<Allele> likelihoods;
+    private final List<Allele> variantAlleles;
+    private final Set<Product> products;
+
+    private final Map<String, Collection<ReadLikelihoods<Allele>.BestAllele>> bestAllelesBySample = new HashMap<>();
+    private Collection<ReadLikelihoods<Allele>.BestAllele> allBestAlleles = null;
+    private final Map<String, int[]> strandCountsBySample = new HashMap<>();
+    private final Map<String, Map<Allele, List<Integer>>> mappingQualitiesBySample = new HashMap<>();
+    private Map<Allele, List<Integer>> allMappingQualities = null;
+
+    private SharedAnnotationData(final ReadLikelihoods<Allele> likelihoods, final VariantContext vc, final Set<Product> products) {
+        this.likelihoods = likelihoods;
+        this.variantAlleles = vc.getAlleles();
+        this.products = products;
+    }
+
+    /**
+     * Share the given products of these likelihoods among annotations of this variant on the current thread until
+     * {@link #close} is called.
+     */
+    static void open(final ReadLikelihoods<Allele> likelihoods, final VariantContext vc, final Set<Product> products) {
+        Utils.nonNull(likelihoods);
+        Utils.nonNull(vc);
+        Utils.nonNull(products);
+        CURRENT.set(new SharedAnnotationData(likelihoods, vc, EnumSet.copyOf(products)));
+    }
+
+    static void close() {
+        CURRENT.remove();
+    }
+
+    private static SharedAnnotationData shared(final ReadLikelihoods<Allele> likelihoods, final Product product) {
+        final SharedAnnotationData current = CURRENT.get();
+        return current != null && current.likelihoods == likelihoods && current.products.contains(product) ? current : null;
+    }
+
+    /**
+     * @return the best allele of each read of the sample.  The result must not be modified.
+     */
+    public static Collection<ReadLikelihoods<Allele>.BestAllele> bestAllelesBreakingTies(final ReadLikelihoods<Allele> likelihoods, final String sample) {
+        final SharedAnnotationData shared = shared(likelihoods, Product.BEST_ALLELES);
+        return shared == null ? likelihoods.bestAllelesBreakingTies(sample) :
+                shared.bestAllelesBySample.computeIfAbsent(sample, likelihoods::bestAllelesBreakingTies);
+    }
+
+    /**
+     * @return the best allele of each read of every sample.  The result must not be modified.
+     */
+    public static Collection<ReadLikelihoods<Allele>.BestAllele> bestAllelesBreakingTies(final ReadLikelihoods<Allele> likelihoods) {
+        final SharedAnnotationData shared = shared(likelihoods, Product.BEST_ALLELES);
+        if (shared == null) {
+            return likelihoods.bestAllelesBreakingTies();
+        }
+        if (shared.allBestAlleles == null) {
+            final List<ReadLikelihoods<Allele>.BestAllele> result = new ArrayList<>(likelihoods.readCount());
+            for (final String sample : likelihoods.samples()) {
+                result.addAll(bestAllelesBreakingTies(likelihoods, sample));
+            }
+            shared.allBestAlleles = result;
+        }
+        return shared.allBestAlleles;
+    }
+
+    /**
+     * @return the ref forward, ref reverse, alt forward, and alt reverse read counts of the sample.  The result must not be modified.
+     */
+    public static int[] strandCounts(final ReadLikelihoods<Allele> likelihoods, final VariantContext vc, final String sample) {
+        final SharedAnnotationData shared = shared(likelihoods, Product.STRAND_COUNTS);
+        // the counts depend on the variant's alleles, which annotations could in principle change
+        if (shared == null || !shared.variantAlleles.equals(vc.getAlleles())) {
+            return StrandBiasTest.getSampleStrandCounts(likelihoods, vc, sample);
+        }
+        return shared.strandCountsBySample.computeIfAbsent(sample, s -> StrandBiasTest.getSampleStrandCounts(likelihoods, vc, s));
+    }
+
+    /**
+     * @return the mapping qualities of the informative reads of the sample, keyed by the best allele of each read.
+     *         Every allele of the likelihoods is a key.  The result must not be modified.
+     */
+    public static Map<Allele, List<Integer>> mappingQualitiesByAllele(final ReadLikelihoods<Allele> likelihoods, final String sample) {
+        final SharedAnnotationData shared = shared(likelihoods, Product.MAPPING_QUALITIES);
+        return shared == null ? getMappingQualitiesByAllele(likelihoods, bestAllelesBreakingTies(likelihoods, sample)) :
+                shared.mappingQualitiesBySample.computeIfAbsent(sample, s -> getMappingQualitiesByAllele(likelihoods, bestAllelesBreakingTies(likelihoods, s)));
+    }
+
+    /**
+     * @return the mapping qualities of the informative reads of every sample, keyed by the best allele of each read.
+     *         Every allele of the likelihoods is a key.  The result must not be modified.
+     */
+    public static Map<Allele, List<Integer>> mappingQualitiesByAllele(final ReadLikelihoods<Allele> likelihoods) {
+        final SharedAnnotationData shared = shared(likelihoods, Product.MAPPING_QUALITIES);
+        if (shared == null) {
+            return getMappingQualitiesByAllele(likelihoods, bestAllelesBreakingTies(likelihoods));
+        }
+        if (shared.allMappingQualities == null) {
+            shared.allMappingQualities = getMappingQualitiesByAllele(likelihoods, bestAllelesBreakingTies(likelihoods));
+        }
+        return shared.allMappingQualities;
+    }
+
+    private static Map<Allele, List<Integer>> getMappingQualitiesByAllele(final ReadLikelihoods<Allele> likelihoods,
+                                                                          final Collection<ReadLikelihoods<Allele>.BestAllele> bestAlleles) {
+        final Map<Allele, List<Integer>> result = new LinkedHashMap<>();
+        for (final Allele allele : likelihoods.alleles()) {
+            result.put(allele, new ArrayList<>());
+        }
+        for (final ReadLikelihoods<Allele>.BestAllele bestAllele : bestAlleles) {
+            if (bestAllele.isInformative()) {
+                result.get(bestAllele.allele).add(bestAllele.read.getMappingQuality());
+            }
+        }
+        return result;
+    }
+}
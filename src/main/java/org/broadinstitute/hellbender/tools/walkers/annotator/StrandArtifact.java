@@ -63,6 +63,11 @@ public class StrandArtifact extends GenotypeAnnotation implements StandardMutect
         return Arrays.asList(POSTERIOR_PROBABILITIES_KEY, MAP_ALLELE_FRACTIONS_KEY);
     }
 
+    @Override
+    public Set<SharedAnnotationData.Product> getRequiredSharedData() {
+        return EnumSet.of(SharedAnnotationData.Product.BEST_ALLELES);
+    }
+
     @Override
     public void annotate(final ReferenceContext ref,
                          final VariantContext vc,
@@ -92,7 +97,7 @@ public class StrandArtifact extends GenotypeAnnotation implements StandardMutect
         final int indexOfMaxTumorLod = MathUtils.maxElementIndex(tumorLods);
         final Allele altAllele = vc.getAlternateAllele(indexOfMaxTumorLod);
 
-        final Collection<ReadLikelihoods<Allele>.BestAllele> informativeBestAlleles = likelihoods.bestAllelesBreakingTies(g.getSampleName()).stream().
+        final Collection<ReadLikelihoods<Allele>.BestAllele> informativeBestAlleles = SharedAnnotationData.bestAllelesBreakingTies(likelihoods, g.getSampleName()).stream().
                 filter(ba -> ba.isInformative()).collect(Collectors.toList());
         final Map<Strand, List<ReadLikelihoods<Allele>.BestAllele>> altReads = informativeBestAlleles.stream().filter(ba -> ba.allele.equals(altAllele))
                 .collect(Collectors.groupingBy(ba -> ba.read.isReverseStrand() ? Strand.REV : Strand.FWD));
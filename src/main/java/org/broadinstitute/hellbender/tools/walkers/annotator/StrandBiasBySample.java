@@ -19,7 +19,9 @@ import org.broadinstitute.hellbender.utils.variant.GATKVCFHeaderLines;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Number of forward and reverse reads that support REF and ALT alleles
@@ -100,6 +102,11 @@ public final class StrandBiasBySample extends GenotypeAnnotation {
         return Collections.singletonList(GATKVCFConstants.STRAND_BIAS_BY_SAMPLE_KEY);
     }
 
+    @Override
+    public Set<SharedAnnotationData.Product> getRequiredSharedData() {
+        return EnumSet.of(SharedAnnotationData.Product.BEST_ALLELES, SharedAnnotationData.Product.STRAND_COUNTS);
+    }
+
     @Override
     public List<VCFFormatHeaderLine> getDescriptions() {
         return Collections.singletonList(GATKVCFHeaderLines.getFormatLine(getKeyNames().get(0)));
@@ -133,15 +133,9 @@ public abstract class StrandBiasTest extends InfoFieldAnnotation {
             return null;
         }
 
-        final Allele ref = vc.getReference();
-        final List<Allele> allAlts = vc.getAlternateAlleles();
-
         final int[][] table = new int[ARRAY_DIM][ARRAY_DIM];
         for (final String sample : samples) {
-            final int[] sampleTable = new int[ARRAY_SIZE];
-            likelihoods.bestAllelesBreakingTies(sample).stream()
-                    .filter(ba -> ba.isInformative())
-                    .forEach(ba -> updateTable(sampleTable, ba.allele, ba.read, ref, allAlts));
+            final int[] sampleTable = SharedAnnotationData.strandCounts(likelihoods, vc, sample);
             if (passesMinimumThreshold(sampleTable, minCount)) {
                 copyToMainTable(sampleTable, table);
             }
@@ -150,6 +144,24 @@ public abstract class StrandBiasTest extends InfoFieldAnnotation {
         return table;
     }
 
+    /**
+     * @return the ref forward, ref reverse, alt forward, and alt reverse counts of informative reads in one sample
+     */
+    static int[] getSampleStrandCounts(final ReadLikelihoods<Allele> likelihoods, final VariantContext vc, final String sample) {
+        final Allele ref = vc.getReference();
+        final List<Allele> allAlts = vc.getAlternateAlleles();
+        final int[] sampleTable = new int[ARRAY_SIZE];
+        SharedAnnotationData.bestAllelesBreakingTies(likelihoods, sample).stream()
+                .filter(ba -> ba.isInformative())
+                .forEach(ba -> updateTable(sampleTable, ba.allele, ba.read, ref, allAlts));
+        return sampleTable;
+    }
+
+    @Override
+    public Set<SharedAnnotationData.Product> getRequiredSharedData() {
+        return EnumSet.of(SharedAnnotationData.Product.BEST_ALLELES, SharedAnnotationData.Product.STRAND_COUNTS);
+    }
+
     /**
      * Helper method to copy the per-sample table to the main table
      *
@@ -42,6 +42,11 @@ public class UniqueAltReadCount extends GenotypeAnnotation {
         return Collections.singletonList(UNIQUE_ALT_READ_SET_COUNT_KEY);
     }
 
+    @Override
+    public Set<SharedAnnotationData.Product> getRequiredSharedData() {
+        return EnumSet.of(SharedAnnotationData.Product.BEST_ALLELES);
+    }
+
     @Override
     public List<VCFFormatHeaderLine> getDescriptions() {
         return Arrays.asList(new VCFFormatHeaderLine(UNIQUE_ALT_READ_SET_COUNT_KEY, 1, VCFHeaderLineType.Integer,
@@ -61,7 +66,7 @@ public class UniqueAltReadCount extends GenotypeAnnotation {
 
         final Allele altAllele = vc.getAlternateAllele(0); // assume single-allelic
         final String tumorSampleName = g.getSampleName();
-        Collection<ReadLikelihoods<Allele>.BestAllele> tumorBestAlleles = likelihoods.bestAllelesBreakingTies(tumorSampleName);
+        Collection<ReadLikelihoods<Allele>.BestAllele> tumorBestAlleles = SharedAnnotationData.bestAllelesBreakingTies(likelihoods, tumorSampleName);
 
         // Build a map from the (Start Position, Fragment Size) tuple to the count of reads with that
         // start position and fragment size
@@ -1,6 +1,8 @@
 package org.broadinstitute.hellbender.tools.walkers.annotator;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Superclass of all variant annotations.
@@ -12,6 +14,14 @@ public abstract class VariantAnnotation implements Annotation{
      */
     public abstract List<String> getKeyNames();
 
+    /**
+     * Return the intermediate data that this annotation obtains through {@link SharedAnnotationData}, which
+     * {@link VariantAnnotatorEngine} computes once per variant and shares among annotations
+     */
+    public Set<SharedAnnotationData.Product> getRequiredSharedData() {
+        return Collections.emptySet();
+    }
+
     @Override
     public String toString() {
         return getClass().getSimpleName();
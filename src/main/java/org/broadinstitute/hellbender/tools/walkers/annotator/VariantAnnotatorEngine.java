@@ -21,6 +21,7 @@ import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 import java.util.*;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * The class responsible for computing annotations for variants.
@@ -253,6 +254,28 @@ public final class VariantAnnotatorEngine {
         Utils.nonNull(features, "features cannot be null");
         Utils.nonNull(addAnnot, "addAnnot cannot be null");
 
+        // compute the intermediate data that the requested annotations need once for all of them
+        final Set<SharedAnnotationData.Product> sharedProducts = likelihoods == null ? Collections.emptySet() :
+                Stream.<VariantAnnotation>concat(genotypeAnnotations.stream(), infoAnnotations.stream())
+                        .filter(addAnnot)
+                        .flatMap(annotation -> annotation.getRequiredSharedData().stream())
+                        .collect(Collectors.toSet());
+        if (sharedProducts.isEmpty()) {
+            return annotateContextWithSharedData(vc, features, ref, likelihoods, addAnnot);
+        }
+        SharedAnnotationData.open(likelihoods, vc, sharedProducts);
+        try {
+            return annotateContextWithSharedData(vc, features, ref, likelihoods, addAnnot);
+        } finally {
+            SharedAnnotationData.close();
+        }
+    }
+
+    private VariantContext annotateContextWithSharedData(final VariantContext vc,
+                                                         final FeatureContext features,
+                                                         final ReferenceContext ref,
+                                                         final ReadLikelihoods<Allele> likelihoods,
+                                                         final Predicate<VariantAnnotation> addAnnot) {
         // annotate genotypes, creating another new VC in the process
         final VariantContextBuilder builder = new VariantContextBuilder(vc);
         builder.genotypes(annotateGenotypes(ref, vc, likelihoods, addAnnot));
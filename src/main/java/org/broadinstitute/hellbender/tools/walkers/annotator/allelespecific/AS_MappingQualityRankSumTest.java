@@ -1,14 +1,17 @@
 package org.broadinstitute.hellbender.tools.walkers.annotator.allelespecific;
 
+import htsjdk.variant.variantcontext.Allele;
 import org.broadinstitute.barclay.help.DocumentedFeature;
+import org.broadinstitute.hellbender.tools.walkers.annotator.RankSumTest;
+import org.broadinstitute.hellbender.tools.walkers.annotator.SharedAnnotationData;
+import org.broadinstitute.hellbender.utils.CompressedDataList;
 import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
 import org.broadinstitute.hellbender.utils.help.HelpConstants;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.OptionalDouble;
+import java.util.*;
 
 
 /**
@@ -47,4 +50,20 @@ public class AS_MappingQualityRankSumTest extends AS_RankSumTest implements AS_S
         Utils.nonNull(read);
         return OptionalDouble.of(read.getMappingQuality());
     }
+
+    @Override
+    protected void fillPerAlleleValuesFromLikelihood(final ReadLikelihoods<Allele> likelihoods, final Map<Allele, CompressedDataList<Integer>> perAlleleValues, final int refLoc) {
+        for (final Map.Entry<Allele, List<Integer>> entry : SharedAnnotationData.mappingQualitiesByAllele(likelihoods).entrySet()) {
+            final CompressedDataList<Integer> values = perAlleleValues.get(entry.getKey());
+            if (values != null) {
+                entry.getValue().stream().filter(RankSumTest::isUsableMappingQuality).forEach(values::add);
+            }
+        }
+    }
+
+    @Override
+    public Set<SharedAnnotationData.Product> getRequiredSharedData() {
+        // the rank sum itself is still computed from the best alleles
+        return EnumSet.of(SharedAnnotationData.Product.BEST_ALLELES, SharedAnnotationData.Product.MAPPING_QUALITIES);
+    }
 }
@@ -7,6 +7,7 @@ import htsjdk.variant.variantcontext.VariantContext;
 import org.broadinstitute.barclay.help.DocumentedFeature;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
 import org.broadinstitute.hellbender.tools.walkers.annotator.InfoFieldAnnotation;
+import org.broadinstitute.hellbender.tools.walkers.annotator.SharedAnnotationData;
 import org.broadinstitute.hellbender.utils.QualityUtils;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
@@ -179,16 +180,20 @@ public final class AS_RMSMappingQuality extends InfoFieldAnnotation implements A
     @Override
     public List<String> getKeyNames() { return Arrays.asList(GATKVCFConstants.AS_RMS_MAPPING_QUALITY_KEY); }
 
+    @Override
+    public Set<SharedAnnotationData.Product> getRequiredSharedData() {
+        return EnumSet.of(SharedAnnotationData.Product.MAPPING_QUALITIES);
+    }
+
     @Override
     public String getRawKeyName() { return GATKVCFConstants.AS_RAW_RMS_MAPPING_QUALITY_KEY; }
 
     private void getRMSDataFromLikelihoods(final ReadLikelihoods<Allele> likelihoods, ReducibleAnnotationData<Double> myData) {
-        for ( final ReadLikelihoods<Allele>.BestAllele bestAllele : likelihoods.bestAllelesBreakingTies() ) {
-            if (bestAllele.isInformative()) {
-                final int mq = bestAllele.read.getMappingQuality();
+        for ( final Map.Entry<Allele, List<Integer>> entry : SharedAnnotationData.mappingQualitiesByAllele(likelihoods).entrySet() ) {
+            for ( final int mq : entry.getValue() ) {
                 if ( mq != QualityUtils.MAPPING_QUALITY_UNAVAILABLE ) {
-                    final double currSquareSum = myData.hasAttribute(bestAllele.allele) ? (double) myData.getAttribute(bestAllele.allele) : 0;
-                    myData.putAttribute(bestAllele.allele, currSquareSum + mq * mq);
+                    final double currSquareSum = myData.hasAttribute(entry.getKey()) ? (double) myData.getAttribute(entry.getKey()) : 0;
+                    myData.putAttribute(entry.getKey(), currSquareSum + mq * mq);
                 }
             }
         }
@@ -1,10 +1,9 @@
 package org.broadinstitute.hellbender.tools.walkers.annotator.allelespecific;
 
-import com.google.common.primitives.Doubles;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.GenotypesContext;
 import htsjdk.variant.variantcontext.VariantContext;
-import org.apache.commons.lang.ArrayUtils;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
 import org.apache.log4j.Logger;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
 import org.broadinstitute.hellbender.tools.walkers.annotator.*;
@@ -38,8 +37,8 @@ public abstract class AS_RankSumTest extends RankSumTest implements ReducibleAnn
             return Collections.emptyMap();
         }
 
-        final List<Double> refQuals = new ArrayList<>();
-        final List<Double> altQuals = new ArrayList<>();
+        final DoubleArrayList refQuals = new DoubleArrayList();
+        final DoubleArrayList altQuals = new DoubleArrayList();
 
         final int refLoc = vc.getStart();
 
@@ -57,7 +56,7 @@ public abstract class AS_RankSumTest extends RankSumTest implements ReducibleAnn
         final MannWhitneyU mannWhitneyU = new MannWhitneyU();
 
         // we are testing that set1 (the alt bases) have lower quality scores than set2 (the ref bases)
-        final MannWhitneyU.Result result = mannWhitneyU.test(Doubles.toArray(altQuals), Doubles.toArray(refQuals), MannWhitneyU.TestType.FIRST_DOMINATES);
+        final MannWhitneyU.Result result = mannWhitneyU.test(altQuals.toDoubleArray(), refQuals.toDoubleArray(), MannWhitneyU.TestType.FIRST_DOMINATES);
         final double zScore = result.getZ();
 
         if (Double.isNaN(zScore)) {
@@ -160,7 +159,14 @@ public abstract class AS_RankSumTest extends RankSumTest implements ReducibleAnn
         final int refLoc = vc.getStart();
 
         final Map<Allele, CompressedDataList<Integer>> perAlleleValues = myData.getAttributeMap();
-        for ( final ReadLikelihoods<Allele>.BestAllele bestAllele : likelihoods.bestAllelesBreakingTies() ) {
+        fillPerAlleleValuesFromLikelihood(likelihoods, perAlleleValues, refLoc);
+    }
+
+    /**
+     * Add the element of each usable informative read to the values of its best allele, if that allele has values
+     */
+    protected void fillPerAlleleValuesFromLikelihood(final ReadLikelihoods<Allele> likelihoods, final Map<Allele, CompressedDataList<Integer>> perAlleleValues, final int refLoc) {
+        for ( final ReadLikelihoods<Allele>.BestAllele bestAllele : SharedAnnotationData.bestAllelesBreakingTies(likelihoods) ) {
             if (bestAllele.isInformative() && isUsableRead(bestAllele.read, refLoc)) {
                 final OptionalDouble value = getElementForRead(bestAllele.read, refLoc, bestAllele);
                 if (value.isPresent() && value.getAsDouble() != INVALID_ELEMENT_FROM_READ && perAlleleValues.containsKey(bestAllele.allele)) {
@@ -321,30 +327,31 @@ public abstract class AS_RankSumTest extends RankSumTest implements ReducibleAnn
         //shortcut to not try to calculate rank sum if there are no reads that unambiguously support the ref
         if (perAlleleValues.get(ref).isEmpty())
             return perAltRankSumResults;
+        //load refs (series 2) once for all alts
+        final double[] refs = toDoubleArray(perAlleleValues.get(ref));
+        final MannWhitneyU mannWhitneyU = new MannWhitneyU();
         for (final Allele alt : perAlleleValues.keySet()) {
             if (!alt.equals(ref, false)) {
-                final MannWhitneyU mannWhitneyU = new MannWhitneyU();
                 //load alts (series 1)
-                final List<Double> alts = new ArrayList<>();
-                for (final Number qual : perAlleleValues.get(alt)) {
-                    alts.add((double) qual.intValue());
-                }
-                //load refs (series 2)
-                final List<Double> refs = new ArrayList<>();
-                for (final Number qual : perAlleleValues.get(ref)) {
-                    refs.add((double) qual.intValue());
-                }
+                final double[] alts = toDoubleArray(perAlleleValues.get(alt));
 
                 // we are testing that set1 (the alt bases) have lower quality scores than set2 (the ref bases)
-                final MannWhitneyU.Result result = mannWhitneyU.test(ArrayUtils.toPrimitive(alts.toArray(new Double[alts.size()])),
-                        ArrayUtils.toPrimitive(refs.toArray(new Double[refs.size()])),
-                        MannWhitneyU.TestType.FIRST_DOMINATES);
+                // the test sorts its inputs in place, so each alt gets its own copy of the refs
+                final MannWhitneyU.Result result = mannWhitneyU.test(alts, refs.clone(), MannWhitneyU.TestType.FIRST_DOMINATES);
                 perAltRankSumResults.put(alt, result.getZ());
             }
         }
         return perAltRankSumResults;
     }
 
+    private static double[] toDoubleArray(final CompressedDataList<Integer> values) {
+        final DoubleArrayList result = new DoubleArrayList();
+        for (final Number value : values) {
+            result.add(value.intValue());
+        }
+        return result.toDoubleArray();
+    }
+
     public String outputSingletonValueAsHistogram(final Double rankSumValue) {
         Histogram h = new Histogram();
         h.add(rankSumValue);
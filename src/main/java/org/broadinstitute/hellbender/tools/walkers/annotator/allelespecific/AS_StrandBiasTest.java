@@ -5,6 +5,7 @@ import htsjdk.variant.variantcontext.GenotypesContext;
 import htsjdk.variant.variantcontext.VariantContext;
 import org.apache.log4j.Logger;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
+import org.broadinstitute.hellbender.tools.walkers.annotator.SharedAnnotationData;
 import org.broadinstitute.hellbender.tools.walkers.annotator.StrandBiasTest;
 import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
 import org.broadinstitute.hellbender.utils.pileup.PileupElement;
@@ -213,7 +214,7 @@ public abstract class AS_StrandBiasTest extends StrandBiasTest implements Reduci
 
         for (final String sample : likelihoods.samples()) {
             final ReducibleAnnotationData<List<Integer>> sampleTable = new AlleleSpecificAnnotationData<>(vc.getAlleles(),null);
-            likelihoods.bestAllelesBreakingTies(sample).stream()
+            SharedAnnotationData.bestAllelesBreakingTies(likelihoods, sample).stream()
                     .filter(ba -> ba.isInformative())
                     .forEach(ba -> updateTable(ba.allele, ba.read, ref, allAlts, sampleTable));
             if (passesMinimumThreshold(sampleTable, minCount)) {
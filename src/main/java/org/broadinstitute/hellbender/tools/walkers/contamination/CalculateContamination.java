@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.tools.walkers.contamination;
 
+import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.OverlapDetector;
 import org.apache.commons.lang.mutable.MutableDouble;
 import org.apache.commons.lang3.Range;
@@ -24,9 +25,11 @@ import org.broadinstitute.hellbender.utils.SimpleInterval;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
 import java.util.stream.IntStream;
 
 /**
@@ -69,6 +72,12 @@ import java.util.stream.IntStream;
  *   -O contamination.table
  * </pre>
  * <p>
+ *     Either input may be a text table or the binary format written by {@link GetPileupSummaries} for outputs ending in
+ *     {@code .psb}.  Inputs are streamed, and sites that are uncovered or are obviously hom ref are discarded as they are read.
+ *     With {@code --threads} greater than one, segmentation of contigs and estimation of each segment's minor allele
+ *     fraction run in parallel.
+ * </p>
+ * <p>
  *     The resulting table provides the fraction contamination, one line per sample, e.g. SampleID--TAB--Contamination.
  *     The file has no header.
  * </p>
@@ -143,6 +152,13 @@ public class CalculateContamination extends CommandLineProgram {
             doc="The maximum coverage relative to the mean.", optional = true)
     private final double highCoverageRatioThreshold = DEFAULT_HIGH_COVERAGE_RATIO_THRESHOLD;
 
+    public static final String NUM_THREADS_LONG_NAME = "threads";
+    @Argument(fullName = NUM_THREADS_LONG_NAME,
+            doc="The number of threads used to segment contigs and estimate minor allele fractions of segments", optional = true, minValue = 1)
+    private int numThreads = 1;
+
+    private ForkJoinPool pool = null;
+
     private static final double SEGMENTATION_KERNEL_VARIANCE = 0.025;
 
     private static final BiFunction<PileupSummary, PileupSummary, Double> SEGMENTATION_KERNEL = (ps1, ps2) -> {
@@ -153,11 +169,22 @@ public class CalculateContamination extends CommandLineProgram {
 
     @Override
     public Object doWork() {
-        final List<PileupSummary> sites = filterSites(PileupSummary.readFromFile(inputPileupSummariesTable));
+        pool = numThreads > 1 ? new ForkJoinPool(numThreads) : null;
+        try {
+            return calculateAndWriteContamination();
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private Object calculateAndWriteContamination() {
+        final List<PileupSummary> sites = readAndFilterSites(inputPileupSummariesTable);
 
         // used the matched normal to genotype (i.e. find hom alt sites) if available
         final List<PileupSummary> genotypingSites = matchedPileupSummariesTable == null ? sites :
-                filterSites(PileupSummary.readFromFile(matchedPileupSummariesTable));
+                readAndFilterSites(matchedPileupSummariesTable);
 
         // we partition the genome into contiguous allelic copy-number segments in order to infer the local minor
         // allele fraction at each site.  This is important because a minor allele fraction close to 1/2 (neutral)
@@ -167,6 +194,10 @@ public class CalculateContamination extends CommandLineProgram {
         // the hom alts are deduced.
         final List<List<PileupSummary>> genotypingSegments = findSegments(genotypingSites);
 
+        // the minor allele fraction of a segment does not depend on the contamination or the threshold below, so we
+        // compute it once per segment rather than in every iteration
+        final double[] genotypingMinorAlleleFractions = calculateMinorAlleleFractions(genotypingSegments);
+
 
         List<PileupSummary> homAltGenotypingSites = new ArrayList<>();
         final MutableDouble genotypingContamination = new MutableDouble(INITIAL_CONTAMINATION_GUESS);
@@ -175,8 +206,9 @@ public class CalculateContamination extends CommandLineProgram {
             List<List<PileupSummary>> homAltSitesBySegment = Arrays.asList(new ArrayList<>());
             final MutableDouble minorAlleleFractionThreshold = new MutableDouble(STRICT_LOH_MAF_THRESHOLD);
             while (homAltSitesBySegment.stream().mapToInt(List::size).sum() < DESIRED_MINIMUM_HOM_ALT_COUNT && minorAlleleFractionThreshold.doubleValue() > 0) {
-                homAltSitesBySegment = genotypingSegments.stream()
-                        .map(segment -> segmentHomAlts(segment, genotypingContamination.doubleValue(), minorAlleleFractionThreshold.doubleValue()))
+                homAltSitesBySegment = IntStream.range(0, genotypingSegments.size())
+                        .mapToObj(n -> segmentHomAlts(genotypingSegments.get(n), genotypingMinorAlleleFractions[n],
+                                genotypingContamination.doubleValue(), minorAlleleFractionThreshold.doubleValue()))
                         .collect(Collectors.toList());
                 minorAlleleFractionThreshold.subtract(MINOR_ALLELE_FRACTION_STEP_SIZE);
             }
@@ -191,8 +223,11 @@ public class CalculateContamination extends CommandLineProgram {
         if (outputTumorSegmentation != null) {
             final List<List<PileupSummary>> tumorSegments = matchedPileupSummariesTable == null ?
                     genotypingSegments : findSegments(sites);
-            List<MinorAlleleFractionRecord> tumorMinorAlleleFractions = tumorSegments.stream()
-                    .map(this::makeMinorAlleleFractionRecord).collect(Collectors.toList());
+            final double[] tumorSegmentMinorAlleleFractions = matchedPileupSummariesTable == null ?
+                    genotypingMinorAlleleFractions : calculateMinorAlleleFractions(tumorSegments);
+            List<MinorAlleleFractionRecord> tumorMinorAlleleFractions = IntStream.range(0, tumorSegments.size())
+                    .mapToObj(n -> makeMinorAlleleFractionRecord(tumorSegments.get(n), tumorSegmentMinorAlleleFractions[n]))
+                    .collect(Collectors.toList());
             MinorAlleleFractionRecord.writeToFile(tumorMinorAlleleFractions, outputTumorSegmentation);
 
         }
@@ -209,12 +244,24 @@ public class CalculateContamination extends CommandLineProgram {
     private List<List<PileupSummary>> findSegments(final List<PileupSummary> sites) {
         final Map<String, List<PileupSummary>> sitesByContig = sites.stream().collect(Collectors.groupingBy(PileupSummary::getContig));
 
-        return sitesByContig.values().stream()
-                .flatMap(contig -> findContigSegments(contig).stream())
+        return mapInParallel(new ArrayList<>(sitesByContig.values()), this::findContigSegments).stream()
+                .flatMap(List::stream)
                 .filter(segment -> segment.size() >= MIN_SITES_PER_SEGMENT)
                 .collect(Collectors.toList());
     }
 
+    private double[] calculateMinorAlleleFractions(final List<List<PileupSummary>> segments) {
+        return mapInParallel(segments, this::calculateMinorAlleleFraction).stream().mapToDouble(x -> x).toArray();
+    }
+
+    // segments and contigs are independent, so when multiple threads are requested we process them in parallel
+    private <T, R> List<R> mapInParallel(final List<T> items, final Function<T, R> function) {
+        if (pool == null) {
+            return items.stream().map(function).collect(Collectors.toList());
+        }
+        return pool.submit(() -> items.parallelStream().map(function).collect(Collectors.toList())).join();
+    }
+
     // in a biallelic site, essentially every non-ref, non-primary alt base is an error, since there are 2 such possible
     // errors out of 3 total, we multiply by 3/2 to get the total base error rate
     private double errorRate(List<PileupSummary> sites) {
@@ -229,8 +276,8 @@ public class CalculateContamination extends CommandLineProgram {
         return sites.stream().filter(homAltsInMatchedNormalOverlapDetector::overlapsAny).collect(Collectors.toList());
     }
 
-    private List<PileupSummary> segmentHomAlts(final List<PileupSummary> segment, final double contamination, double minimiumMinorAlleleFraction) {
-        final double minorAlleleFraction = calculateMinorAlleleFraction(segment);
+    private List<PileupSummary> segmentHomAlts(final List<PileupSummary> segment, final double minorAlleleFraction,
+                                               final double contamination, double minimiumMinorAlleleFraction) {
         return minorAlleleFraction < minimiumMinorAlleleFraction ? Collections.emptyList() :
                 segment.stream().filter(site -> homAltProbability(site, minorAlleleFraction, contamination) > 0.5).collect(Collectors.toList());
     }
@@ -241,11 +288,10 @@ public class CalculateContamination extends CommandLineProgram {
         return OptimizationUtils.argmax(objective, ALT_FRACTIONS_FOR_SEGMENTATION.getMinimum(), 0.5, 0.4, 0.01, 0.01, 20);
     }
 
-    private MinorAlleleFractionRecord makeMinorAlleleFractionRecord(final List<PileupSummary> segment) {
+    private MinorAlleleFractionRecord makeMinorAlleleFractionRecord(final List<PileupSummary> segment, final double minorAlleleFraction) {
         final String contig = segment.get(0).getContig();
         final int start = segment.get(0).getStart();
         final int end = segment.get(segment.size() - 1).getEnd();
-        final double minorAlleleFraction = calculateMinorAlleleFraction(segment);
         return new MinorAlleleFractionRecord(new SimpleInterval(contig, start, end), minorAlleleFraction);
     }
 
@@ -329,18 +375,32 @@ public class CalculateContamination extends CommandLineProgram {
         return Pair.of(Math.min(contamination, 1.0), standardError);
     }
 
-    private List<PileupSummary> filterSites(final List<PileupSummary> allSites) {
+    private List<PileupSummary> readAndFilterSites(final File pileupSummaries) {
         // Just in case the intervals given to GetPileupSummaries contained un-covered sites, we remove them
-        // so that a bunch of zeroes don't throw off the median coverage
-        final List<PileupSummary> coveredSites = allSites.stream().filter(s -> s.getTotalCount() > MIN_COVERAGE).collect(Collectors.toList());
-        final double[] coverage = coveredSites.stream().mapToDouble(PileupSummary::getTotalCount).toArray();
+        // so that a bunch of zeroes don't throw off the median coverage.  Obvious hom refs, which are the vast
+        // majority of common sites, contribute to the coverage statistics but we need not keep them in memory.
+        final DoubleStream.Builder coverageBuilder = DoubleStream.builder();
+        final List<PileupSummary> candidateSites = new ArrayList<>();
+        try (final CloseableIterator<PileupSummary> iterator = PileupSummary.iterate(pileupSummaries)) {
+            while (iterator.hasNext()) {
+                final PileupSummary site = iterator.next();
+                if (site.getTotalCount() <= MIN_COVERAGE) {
+                    continue;
+                }
+                coverageBuilder.add(site.getTotalCount());
+                if (site.getAltFraction() > ALT_FRACTION_OF_DEFINITE_HOM_REF) {
+                    candidateSites.add(site);
+                }
+            }
+        }
+
+        final double[] coverage = coverageBuilder.build().toArray();
         final double medianCoverage = new Median().evaluate(coverage);
         final double meanCoverage = new Mean().evaluate(coverage);
         final double lowCoverageThreshold = medianCoverage * lowCoverageRatioThreshold;
         final double highCoverageThreshold = meanCoverage * highCoverageRatioThreshold;
-        return coveredSites.stream()
+        return candidateSites.stream()
                 .filter(ps -> ps.getTotalCount() > lowCoverageThreshold && ps.getTotalCount() < highCoverageThreshold)
-                .filter(ps -> ps.getAltFraction() > ALT_FRACTION_OF_DEFINITE_HOM_REF)
                 .collect(Collectors.toList());
     }
 
@@ -19,6 +19,7 @@ import org.broadinstitute.hellbender.utils.GATKProtectedVariantContextUtils;
 import org.broadinstitute.hellbender.utils.pileup.ReadPileup;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -99,6 +100,11 @@ import java.util.List;
  * file that have AF of 0.01 or more.
  * </p>
  *
+ * <p>
+ * For large sets of sites, such as population-scale common SNPs, giving the output a name ending in {@code .psb} writes a
+ * compact binary format instead of the text table.  {@link CalculateContamination} accepts either format.
+ * </p>
+ *
  */
 @CommandLineProgramProperties(
         summary = "Tabulates pileup metrics for inferring contamination",
@@ -121,7 +127,7 @@ public class GetPileupSummaries extends LocusWalker {
 
     @Argument(fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME,
             shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
-            doc="The output table", optional=false)
+            doc="The output table, written in binary format if its name ends with " + PileupSummary.BINARY_EXTENSION, optional=false)
     private File outputTable;
 
     @Argument(fullName = StandardArgumentDefinitions.VARIANT_LONG_NAME, shortName = StandardArgumentDefinitions.VARIANT_SHORT_NAME, doc = "A VCF file containing variants and allele frequencies")
@@ -140,7 +146,7 @@ public class GetPileupSummaries extends LocusWalker {
     @Argument(fullName = MIN_MAPPING_QUALITY_LONG_NAME, shortName = MIN_MAPPING_QUALITY_SHORT_NAME, doc = "Minimum read mapping quality", optional = true)
     private int minMappingQuality = DEFAULT_MINIMUM_MAPPING_QUALITY;
 
-    private final List<PileupSummary> pileupSummaries = new ArrayList<>();
+    private PileupSummary.PileupSummaryWriter writer;
 
     private boolean sawVariantsWithoutAlleleFrequency = false;
     private boolean sawVariantsWithAlleleFrequency = false;
@@ -188,6 +194,12 @@ public class GetPileupSummaries extends LocusWalker {
         if (!alleleFrequencyInHeader) {
             throw new UserException.BadInput("Population vcf does not have an allele frequency (AF) info field in its header.");
         }
+
+        try {
+            writer = PileupSummary.openWriter(outputTable);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile(outputTable, e);
+        }
     }
 
     @Override
@@ -201,7 +213,11 @@ public class GetPileupSummaries extends LocusWalker {
         if ( vc.isBiallelic() && vc.isSNP() && alleleFrequencyInRange(vc) ) {
             final ReadPileup pileup = alignmentContext.getBasePileup()
                     .makeFilteredPileup(pe -> pe.getRead().getMappingQuality() >= minMappingQuality);
-            pileupSummaries.add(new PileupSummary(vc, pileup));
+            try {
+                writer.write(new PileupSummary(vc, pileup));
+            } catch (final IOException e) {
+                throw new UserException.CouldNotCreateOutputFile(outputTable, e);
+            }
         }
     }
 
@@ -210,10 +226,20 @@ public class GetPileupSummaries extends LocusWalker {
         if (sawVariantsWithoutAlleleFrequency && !sawVariantsWithAlleleFrequency) {
             throw new UserException.BadInput("No variants in population vcf had an allele frequency (AF) field.");
         }
-        PileupSummary.writeToFile(pileupSummaries, outputTable);
         return "SUCCESS";
     }
 
+    @Override
+    public void closeTool() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (final IOException e) {
+                throw new UserException.CouldNotCreateOutputFile(outputTable, e);
+            }
+        }
+    }
+
     private boolean alleleFrequencyInRange(final VariantContext vc) {
         if (!vc.hasAttribute(VCFConstants.ALLELE_FREQUENCY_KEY)) {
             if (!sawVariantsWithoutAlleleFrequency) {
@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.tools.walkers.contamination;
 
+import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.Locatable;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFConstants;
@@ -12,8 +13,11 @@ import org.broadinstitute.hellbender.utils.tsv.TableColumnCollection;
 import org.broadinstitute.hellbender.utils.tsv.TableReader;
 import org.broadinstitute.hellbender.utils.tsv.TableWriter;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.OptionalDouble;
 import java.util.stream.StreamSupport;
@@ -90,29 +94,83 @@ public class PileupSummary implements Locatable {
     }
 
 
-    //----- The following two public static methods read and write pileup summary files
+    //----- The following public static methods read and write pileup summary files
+    /**
+     * Files whose names end with this extension are written in the binary format of {@link PileupSummaryBinaryCodec};
+     * all others are written as text tables.
+     */
+    public static final String BINARY_EXTENSION = ".psb";
+
+    public interface PileupSummaryWriter extends Closeable {
+        void write(final PileupSummary record) throws IOException;
+    }
+
+    public static PileupSummaryWriter openWriter(final File output) throws IOException {
+        return output.getName().endsWith(BINARY_EXTENSION) ? new PileupSummaryBinaryCodec.BinaryWriter(output)
+                : new PileupSummaryTableWriter(output);
+    }
+
     public static void writeToFile(final List<PileupSummary> records, final File outputTable) {
-        try ( PileupSummaryTableWriter writer = new PileupSummaryTableWriter(outputTable) ) {
-            writer.writeAllRecords(records);
+        try ( PileupSummaryWriter writer = openWriter(outputTable) ) {
+            for (final PileupSummary record : records) {
+                writer.write(record);
+            }
         } catch (IOException e){
             throw new UserException(String.format("Encountered an IO exception while writing to %s.", outputTable));
         }
     }
 
     public static List<PileupSummary> readFromFile(final File tableFile) {
-        try( PileupSummaryTableReader reader = new PileupSummaryTableReader(tableFile) ) {
-            return reader.toList();
+        final List<PileupSummary> result = new ArrayList<>();
+        try ( CloseableIterator<PileupSummary> iterator = iterate(tableFile) ) {
+            iterator.forEachRemaining(result::add);
+        }
+        return result;
+    }
+
+    /**
+     * Stream the records of a pileup summary file in either the text or binary format without loading the whole file.
+     */
+    public static CloseableIterator<PileupSummary> iterate(final File tableFile) {
+        try {
+            if (PileupSummaryBinaryCodec.isBinaryPileupSummaryFile(tableFile)) {
+                return new PileupSummaryBinaryCodec.BinaryReader(tableFile);
+            }
+
+            final PileupSummaryTableReader reader = new PileupSummaryTableReader(tableFile);
+            final Iterator<PileupSummary> iterator = reader.iterator();
+            return new CloseableIterator<PileupSummary>() {
+                @Override
+                public boolean hasNext() { return iterator.hasNext(); }
+
+                @Override
+                public PileupSummary next() { return iterator.next(); }
+
+                @Override
+                public void close() {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UserException(String.format("Encountered an IO exception while reading from %s.", tableFile));
+                    }
+                }
+            };
         } catch (IOException e){
             throw new UserException(String.format("Encountered an IO exception while reading from %s.", tableFile));
         }
     }
 
     //-------- The following methods are boilerplate for reading and writing pileup summary tables
-    private static class PileupSummaryTableWriter extends TableWriter<PileupSummary> {
+    private static class PileupSummaryTableWriter extends TableWriter<PileupSummary> implements PileupSummaryWriter {
         private PileupSummaryTableWriter(final File output) throws IOException {
             super(output, PileupSummaryTableColumn.COLUMNS);
         }
 
+        @Override
+        public void write(final PileupSummary record) throws IOException {
+            writeRecord(record);
+        }
+
         @Override
         protected void composeLine(final PileupSummary record, final DataLine dataLine) {
             dataLine.set(PileupSummaryTableColumn.CONTIG.toString(), record.getContig())
@@ -0,0 +1,178 @@
+package org.broadinstitute.hellbender.tools.walkers.contamination;
+
+import htsjdk.samtools.util.CloseableIterator;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A compact binary format for pileup summaries, for inputs such as population-scale common SNP sites where the
+ * text table becomes large and slow to parse.
+ *
+ * The file is a magic number followed by blocks of up to {@link #MAX_RECORDS_PER_BLOCK} sites on a single contig
+ * and a terminating block of zero sites.  Each block is its contig name, its number of sites, and then each field
+ * of {@link PileupSummary} as a column over the block's sites.  Blocks are written and read one at a time, so
+ * neither side ever holds more than a block in memory.
+ */
+public final class PileupSummaryBinaryCodec {
+    private static final byte[] MAGIC = {'G', 'P', 'S', 'B', 1};
+
+    static final int MAX_RECORDS_PER_BLOCK = 4096;
+
+    private PileupSummaryBinaryCodec() { }
+
+    /**
+     * @return whether the file begins with the magic number of this format
+     */
+    public static boolean isBinaryPileupSummaryFile(final File file) {
+        try (final InputStream in = new FileInputStream(file)) {
+            final byte[] header = new byte[MAGIC.length];
+            int bytesRead = 0;
+            while (bytesRead < header.length) {
+                final int n = in.read(header, bytesRead, header.length - bytesRead);
+                if (n < 0) {
+                    return false;
+                }
+                bytesRead += n;
+            }
+            return Arrays.equals(header, MAGIC);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile(file, e);
+        }
+    }
+
+    static final class BinaryWriter implements PileupSummary.PileupSummaryWriter {
+        private final DataOutputStream out;
+
+        private String blockContig = null;
+        private int blockSize = 0;
+        private final int[] positions = new int[MAX_RECORDS_PER_BLOCK];
+        private final int[] refCounts = new int[MAX_RECORDS_PER_BLOCK];
+        private final int[] altCounts = new int[MAX_RECORDS_PER_BLOCK];
+        private final int[] otherAltCounts = new int[MAX_RECORDS_PER_BLOCK];
+        private final double[] alleleFrequencies = new double[MAX_RECORDS_PER_BLOCK];
+
+        BinaryWriter(final File output) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(output)));
+            out.write(MAGIC);
+        }
+
+        @Override
+        public void write(final PileupSummary record) throws IOException {
+            Utils.nonNull(record);
+            if (blockSize == MAX_RECORDS_PER_BLOCK || (blockSize > 0 && !blockContig.equals(record.getContig()))) {
+                flushBlock();
+            }
+            blockContig = record.getContig();
+            positions[blockSize] = record.getStart();
+            refCounts[blockSize] = record.getRefCount();
+            altCounts[blockSize] = record.getAltCount();
+            otherAltCounts[blockSize] = record.getOtherAltCount();
+            alleleFrequencies[blockSize] = record.getAlleleFrequency();
+            blockSize++;
+        }
+
+        private void flushBlock() throws IOException {
+            out.writeUTF(blockContig);
+            out.writeInt(blockSize);
+            for (final int[] column : Arrays.asList(positions, refCounts, altCounts, otherAltCounts)) {
+                for (int n = 0; n < blockSize; n++) {
+                    out.writeInt(column[n]);
+                }
+            }
+            for (int n = 0; n < blockSize; n++) {
+                out.writeDouble(alleleFrequencies[n]);
+            }
+            blockSize = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (blockSize > 0) {
+                flushBlock();
+            }
+            // terminating empty block
+            out.writeUTF("");
+            out.writeInt(0);
+            out.close();
+        }
+    }
+
+    static final class BinaryReader implements CloseableIterator<PileupSummary> {
+        private final File file;
+        private final DataInputStream in;
+
+        private String blockContig;
+        private int blockSize = 0;
+        private int blockIndex = 0;
+        private boolean finished = false;
+        private final int[] positions = new int[MAX_RECORDS_PER_BLOCK];
+        private final int[] refCounts = new int[MAX_RECORDS_PER_BLOCK];
+        private final int[] altCounts = new int[MAX_RECORDS_PER_BLOCK];
+        private final int[] otherAltCounts = new int[MAX_RECORDS_PER_BLOCK];
+        private final double[] alleleFrequencies = new double[MAX_RECORDS_PER_BLOCK];
+
+        BinaryReader(final File file) throws IOException {
+            this.file = Utils.nonNull(file);
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            final byte[] header = new byte[MAGIC.length];
+            in.readFully(header);
+            if (!Arrays.equals(header, MAGIC)) {
+                throw new UserException.MalformedFile(file, "not a binary pileup summary file");
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (blockIndex == blockSize && !finished) {
+                readBlock();
+            }
+            return blockIndex < blockSize;
+        }
+
+        @Override
+        public PileupSummary next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final int n = blockIndex++;
+            return new PileupSummary(blockContig, positions[n], refCounts[n], altCounts[n], otherAltCounts[n], alleleFrequencies[n]);
+        }
+
+        private void readBlock() {
+            try {
+                blockContig = in.readUTF();
+                blockSize = in.readInt();
+                blockIndex = 0;
+                if (blockSize < 0 || blockSize > MAX_RECORDS_PER_BLOCK) {
+                    throw new UserException.MalformedFile(file, "invalid block size " + blockSize);
+                }
+                finished = blockSize == 0;
+                for (final int[] column : Arrays.asList(positions, refCounts, altCounts, otherAltCounts)) {
+                    for (int n = 0; n < blockSize; n++) {
+                        column[n] = in.readInt();
+                    }
+                }
+                for (int n = 0; n < blockSize; n++) {
+                    alleleFrequencies[n] = in.readDouble();
+                }
+            } catch (final EOFException e) {
+                throw new UserException.MalformedFile(file, "binary pileup summary file is truncated");
+            } catch (final IOException e) {
+                throw new UserException.CouldNotReadInputFile(file, e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                in.close();
+            } catch (final IOException e) {
+                throw new UserException.CouldNotReadInputFile(file, e);
+            }
+        }
+    }
+}
@@ -21,6 +21,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.PrintStream;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 /*
@@ -34,6 +35,9 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
     private static final int MAX_REPEAT_LENGTH   = 20;
     private static final int MIN_ADJUSTED_QSCORE = 10;
 
+    // placeholder sample for the matrix of likelihoods of distinct reads
+    private static final String DISTINCT_READS_SAMPLE = "distinct-reads";
+
     @VisibleForTesting
     static final double INITIAL_QSCORE = 40.0;
 
@@ -179,8 +183,10 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
         // Add likelihoods for each sample's reads to our result
         final ReadLikelihoods<Haplotype> result = new ReadLikelihoods<>(samples, haplotypes, perSampleReadList);
         final int sampleCount = result.numberOfSamples();
+        // reads with identical bases and qualities, in any sample, share likelihoods against this region's haplotypes
+        final Map<ByteBuffer, double[]> likelihoodsByReadContent = new HashMap<>();
         for (int i = 0; i < sampleCount; i++) {
-            computeReadLikelihoods(result.sampleMatrix(i));
+            computeReadLikelihoods(result.sampleMatrix(i), likelihoodsByReadContent);
         }
 
         result.normalizeLikelihoods(log10globalReadMismappingRate);
@@ -242,16 +248,78 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
         pairHMM.initialize(haplotypes, perSampleReadList, readMaxLength, haplotypeMaxLength);
     }
 
-    private void computeReadLikelihoods(final LikelihoodMatrix<Haplotype> likelihoods) {
+    private void computeReadLikelihoods(final LikelihoodMatrix<Haplotype> likelihoods, final Map<ByteBuffer, double[]> likelihoodsByReadContent) {
         // Modify the read qualities by applying the PCR error model and capping the minimum base,insertion,deletion qualities
         final List<GATKRead> processedReads = modifyReadQualities(likelihoods.reads());
 
+        // Only run the PairHMM on one copy of each distinct processed read that hasn't already been seen in this region
+        final List<ByteBuffer> readContents = new ArrayList<>(processedReads.size());
+        final List<GATKRead> readsToCompute = new ArrayList<>(processedReads.size());
+        final List<ByteBuffer> contentsToCompute = new ArrayList<>(processedReads.size());
+        final Set<ByteBuffer> contentsScheduled = new HashSet<>();
+        for (final GATKRead processedRead : processedReads) {
+            final ByteBuffer content = readContent(processedRead);
+            readContents.add(content);
+            if (!likelihoodsByReadContent.containsKey(content) && contentsScheduled.add(content)) {
+                readsToCompute.add(processedRead);
+                contentsToCompute.add(content);
+            }
+        }
+
+        if (readsToCompute.size() == processedReads.size()) {
+            computeLog10Likelihoods(likelihoods, processedReads);
+            for (int r = 0; r < processedReads.size(); r++) {
+                likelihoodsByReadContent.put(readContents.get(r), readLikelihoods(likelihoods, r));
+            }
+        } else {
+            if (!readsToCompute.isEmpty()) {
+                final LikelihoodMatrix<Haplotype> distinctReadLikelihoods = new ReadLikelihoods<>(new IndexedSampleList(DISTINCT_READS_SAMPLE),
+                        new IndexedAlleleList<>(likelihoods.alleles()), Collections.singletonMap(DISTINCT_READS_SAMPLE, readsToCompute)).sampleMatrix(0);
+                pairHMM.computeLog10Likelihoods(distinctReadLikelihoods, readsToCompute, buildGapContinuationPenalties(readsToCompute, constantGCP));
+                for (int r = 0; r < readsToCompute.size(); r++) {
+                    likelihoodsByReadContent.put(contentsToCompute.get(r), readLikelihoods(distinctReadLikelihoods, r));
+                }
+            }
+
+            for (int r = 0; r < processedReads.size(); r++) {
+                final double[] readLikelihoods = likelihoodsByReadContent.get(readContents.get(r));
+                for (int h = 0; h < readLikelihoods.length; h++) {
+                    likelihoods.set(h, r, readLikelihoods[h]);
+                }
+            }
+        }
+
+        writeDebugLikelihoods(likelihoods);
+    }
+
+    private void computeLog10Likelihoods(final LikelihoodMatrix<Haplotype> likelihoods, final List<GATKRead> processedReads) {
         final Map<GATKRead, byte[]> gapContinuationPenalties = buildGapContinuationPenalties(processedReads, constantGCP);
 
         // Run the PairHMM to calculate the log10 likelihood of each (processed) reads' arising from each haplotype
         pairHMM.computeLog10Likelihoods(likelihoods, processedReads, gapContinuationPenalties);
+    }
 
-        writeDebugLikelihoods(likelihoods);
+    private static double[] readLikelihoods(final LikelihoodMatrix<Haplotype> likelihoods, final int readIndex) {
+        final double[] result = new double[likelihoods.numberOfAlleles()];
+        for (int h = 0; h < result.length; h++) {
+            result[h] = likelihoods.get(h, readIndex);
+        }
+        return result;
+    }
+
+    /**
+     * Everything about a processed read that the PairHMM sees, given that the gap continuation penalty is constant.
+     * The four arrays have the same length, so their concatenation is unambiguous.
+     */
+    private static ByteBuffer readContent(final GATKRead processedRead) {
+        final byte[] bases = processedRead.getBasesNoCopy();
+        final int length = bases.length;
+        final byte[] content = new byte[4 * length];
+        System.arraycopy(bases, 0, content, 0, length);
+        System.arraycopy(processedRead.getBaseQualitiesNoCopy(), 0, content, length, length);
+        System.arraycopy(ReadUtils.getBaseInsertionQualities(processedRead), 0, content, 2 * length, length);
+        System.arraycopy(ReadUtils.getBaseDeletionQualities(processedRead), 0, content, 3 * length, length);
+        return ByteBuffer.wrap(content);
     }
 
     /**
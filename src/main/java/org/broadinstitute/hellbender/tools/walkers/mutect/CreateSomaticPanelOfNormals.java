@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.tools.walkers.mutect;
 
+import com.google.common.collect.Lists;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.MergingIterator;
@@ -10,6 +11,8 @@ import htsjdk.variant.variantcontext.writer.Options;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import htsjdk.variant.vcf.VCFFileReader;
 import htsjdk.variant.vcf.VCFHeader;
+import htsjdk.variant.vcf.VCFHeaderLineType;
+import htsjdk.variant.vcf.VCFInfoHeaderLine;
 import htsjdk.variant.vcf.VCFUtils;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.BetaFeature;
@@ -22,10 +25,12 @@ import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.AssemblyBasedCallerUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 
 import java.io.File;
 import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * Create a panel of normals (PoN) containing germline and artifactual sites for use with Mutect2.
@@ -85,6 +90,9 @@ import java.util.*;
  * <p>By default the tool fails if multiple vcfs have the same sample name, but the --duplicate-sample-strategy argument can be changed to
  *  ALLOW_ALL to allow duplicates or CHOOSE_FIRST to use only the first vcf with a given sample name.</p>
  *
+ * <p>At most --max-vcfs-per-merge vcfs are open at once.  Larger sets of normals are merged in groups into temporary sites-only
+ * vcfs that record the number of normals at each site, and these are merged in turn until few enough remain.</p>
+ *
  */
 @CommandLineProgramProperties(
         summary = "Make a panel of normals (PoN) for use with Mutect2",
@@ -104,6 +112,13 @@ public class CreateSomaticPanelOfNormals extends CommandLineProgram {
 
     public static final String DUPLICATE_SAMPLE_STRATEGY_LONG_NAME = "duplicate-sample-strategy";
 
+    public static final String MAX_VCFS_PER_MERGE_LONG_NAME = "max-vcfs-per-merge";
+
+    public static final int DEFAULT_MAX_VCFS_PER_MERGE = 200;
+
+    // INFO key of the number of normal records at each site in the intermediate vcfs of a hierarchical merge
+    private static final String SITE_COUNT_KEY = "PON_SITE_COUNT";
+
     public enum DuplicateSampleStrategy {
         THROW_ERROR, CHOOSE_FIRST, ALLOW_ALL
     }
@@ -131,6 +146,13 @@ public class CreateSomaticPanelOfNormals extends CommandLineProgram {
             doc="How to handle duplicate samples: THROW_ERROR to fail, CHOOSE_FIRST to use the first vcf with each sample name, ALLOW_ALL to use all samples regardless of duplicate sample names.", optional = false)
     private DuplicateSampleStrategy duplicateSampleStrategy = DuplicateSampleStrategy.THROW_ERROR;
 
+    /**
+     * Maximum number of vcfs to read simultaneously.  More normals than this are merged hierarchically via temporary files.
+     */
+    @Argument(fullName = MAX_VCFS_PER_MERGE_LONG_NAME,
+            doc="Maximum number of vcfs to read simultaneously.", minValue = 2, optional = true)
+    private int maxVcfsPerMerge = DEFAULT_MAX_VCFS_PER_MERGE;
+
     @Argument(fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME,
             shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
             doc="Output vcf", optional = false)
@@ -141,17 +163,15 @@ public class CreateSomaticPanelOfNormals extends CommandLineProgram {
         if (!inputVcfs.stream().map(File::getAbsolutePath).allMatch(path -> path.endsWith(".vcf") || path.endsWith(".vcf.gz") || path.endsWith(".args") )) {
             logger.warn("Some input files don't seem to be .vcf or .args files.  Make sure that any input vcfs list end in .args.");
         }
-        final Collection<CloseableIterator<VariantContext>> iterators = new ArrayList<>(inputVcfs.size());
         final Collection<VCFHeader> headers = new HashSet<>(inputVcfs.size());
-        final VCFHeader headerOfFirstVcf = new VCFFileReader(inputVcfs.get(0), false).getFileHeader();
+        final VCFHeader headerOfFirstVcf = readHeader(inputVcfs.get(0));
         final SAMSequenceDictionary sequenceDictionary = headerOfFirstVcf.getSequenceDictionary();
         final VariantContextComparator comparator = headerOfFirstVcf.getVCFRecordComparator();
 
         final Set<String> samples = new HashSet<>();
+        List<File> vcfsToMerge = new ArrayList<>(inputVcfs.size());
         for (final File vcf : inputVcfs) {
-            final VCFFileReader reader = new VCFFileReader(vcf, false);
-
-            final VCFHeader header = reader.getFileHeader();
+            final VCFHeader header = readHeader(vcf);
             final String sample = header.getGenotypeSamples().get(0);
             if (duplicateSampleStrategy == DuplicateSampleStrategy.THROW_ERROR && samples.contains(sample)) {
                 throw new UserException.BadInput(String.format("Duplicate sample name %s found in multiple input vcfs, the second one being %s.  Consider changing the %s argument", sample, vcf.getAbsolutePath(), DUPLICATE_SAMPLE_STRATEGY_LONG_NAME));
@@ -161,42 +181,94 @@ public class CreateSomaticPanelOfNormals extends CommandLineProgram {
             } else {
                 Utils.validateArg(comparator.isCompatible(header.getContigLines()), () -> vcf.getAbsolutePath() + " has incompatible contigs.");
                 headers.add(header);
-                iterators.add(reader.iterator());
+                vcfsToMerge.add(vcf);
                 samples.add(sample);
             }
         }
 
-        final VariantContextWriter writer = GATKVariantContextUtils.createVCFWriter(outputVcf, sequenceDictionary, false, Options.INDEX_ON_THE_FLY);
-        writer.writeHeader(new VCFHeader(VCFUtils.smartMergeHeaders(headers, false)));
+        final VCFHeader intermediateHeader = new VCFHeader(Collections.singleton(
+                new VCFInfoHeaderLine(SITE_COUNT_KEY, 1, VCFHeaderLineType.Integer, "Number of normal records at this site")));
+        intermediateHeader.setSequenceDictionary(sequenceDictionary);
+        boolean vcfsToMergeAreIntermediate = false;
+        while (vcfsToMerge.size() > maxVcfsPerMerge) {
+            logger.info(String.format("Merging %d vcfs in groups of at most %d", vcfsToMerge.size(), maxVcfsPerMerge));
+            final List<File> intermediateVcfs = new ArrayList<>();
+            for (final List<File> group : Lists.partition(vcfsToMerge, maxVcfsPerMerge)) {
+                final File intermediateVcf = IOUtils.createTempFile("pon-sites", ".vcf.gz");
+                try (final VariantContextWriter writer = GATKVariantContextUtils.createVCFWriter(intermediateVcf, sequenceDictionary, false)) {
+                    writer.writeHeader(intermediateHeader);
+                    mergeVcfs(group, comparator, writer, 1, true);
+                }
+                intermediateVcfs.add(intermediateVcf);
+            }
+
+            if (vcfsToMergeAreIntermediate) {
+                vcfsToMerge.forEach(File::delete);
+            }
+            vcfsToMerge = intermediateVcfs;
+            vcfsToMergeAreIntermediate = true;
+        }
+
+        try (final VariantContextWriter writer = GATKVariantContextUtils.createVCFWriter(outputVcf, sequenceDictionary, false, Options.INDEX_ON_THE_FLY)) {
+            writer.writeHeader(new VCFHeader(VCFUtils.smartMergeHeaders(headers, false)));
+            mergeVcfs(vcfsToMerge, comparator, writer, minSampleCount, false);
+        } finally {
+            if (vcfsToMergeAreIntermediate) {
+                vcfsToMerge.forEach(File::delete);
+            }
+        }
+
+        return "SUCCESS";
+    }
+
+    private static VCFHeader readHeader(final File vcf) {
+        try (final VCFFileReader reader = new VCFFileReader(vcf, false)) {
+            return reader.getFileHeader();
+        }
+    }
+
+    /**
+     * Merge sorted vcfs, writing the sites that occur in at least {@code minCount} records.  Records of intermediate
+     * vcfs count as many times as their {@link #SITE_COUNT_KEY} attribute, and if {@code writeCounts} is true the
+     * output records are given this attribute in turn.
+     */
+    private static void mergeVcfs(final List<File> vcfs, final VariantContextComparator comparator, final VariantContextWriter writer,
+                                  final int minCount, final boolean writeCounts) {
+        final List<VCFFileReader> readers = vcfs.stream().map(vcf -> new VCFFileReader(vcf, false)).collect(Collectors.toList());
+        final List<CloseableIterator<VariantContext>> iterators = readers.stream().map(VCFFileReader::iterator).collect(Collectors.toList());
 
         final MergingIterator<VariantContext> mergingIterator = new MergingIterator<>(comparator, iterators);
         SimpleInterval currentPosition = new SimpleInterval("FAKE", 1, 1);
         final List<VariantContext> variantsAtThisPosition = new ArrayList<>(20);
+        int countAtThisPosition = 0;
         while (mergingIterator.hasNext()) {
             final VariantContext vc = mergingIterator.next();
             if (!currentPosition.overlaps(vc)) {
-                processVariantsAtSamePosition(variantsAtThisPosition, writer);
+                processVariantsAtSamePosition(variantsAtThisPosition, countAtThisPosition, minCount, writeCounts, writer);
                 variantsAtThisPosition.clear();
+                countAtThisPosition = 0;
                 currentPosition = new SimpleInterval(vc.getContig(), vc.getStart(), vc.getStart());
             }
             variantsAtThisPosition.add(vc);
+            countAtThisPosition += vc.getAttributeAsInt(SITE_COUNT_KEY, 1);
         }
-        processVariantsAtSamePosition(variantsAtThisPosition, writer);
+        processVariantsAtSamePosition(variantsAtThisPosition, countAtThisPosition, minCount, writeCounts, writer);
         mergingIterator.close();
-        writer.close();
-
-        return "SUCCESS";
+        readers.forEach(VCFFileReader::close);
     }
 
-    private void processVariantsAtSamePosition(final List<VariantContext> variants, final VariantContextWriter writer) {
-        if (variants.size() >= minSampleCount){
+    private static void processVariantsAtSamePosition(final List<VariantContext> variants, final int count, final int minCount,
+                                                      final boolean writeCount, final VariantContextWriter writer) {
+        if (!variants.isEmpty() && count >= minCount){
             final VariantContext mergedVc = AssemblyBasedCallerUtils.makeMergedVariantContext(variants);
-            final VariantContext outputVc = new VariantContextBuilder()
+            final VariantContextBuilder outputVcb = new VariantContextBuilder()
                     .source(mergedVc.getSource())
                     .loc(mergedVc.getContig(), mergedVc.getStart(), mergedVc.getEnd())
-                    .alleles(mergedVc.getAlleles())
-                    .make();
-            writer.add(outputVc);
+                    .alleles(mergedVc.getAlleles());
+            if (writeCount) {
+                outputVcb.attribute(SITE_COUNT_KEY, count);
+            }
+            writer.add(outputVcb.make());
         }
     }
 }
@@ -5,6 +5,7 @@ import htsjdk.variant.variantcontext.VariantContextBuilder;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import htsjdk.variant.vcf.VCFHeader;
 import htsjdk.variant.vcf.VCFHeaderLine;
+import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
 import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
@@ -23,6 +24,7 @@ import org.broadinstitute.hellbender.utils.variant.GATKVCFHeaderLines;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -63,6 +65,12 @@ import java.util.stream.Collectors;
  *   -O filtered.vcf.gz
  * </pre>
  *
+ * <p>
+ *     By default the input is read twice, once to learn the thresholds of filters that depend on the whole callset
+ *     and once to apply them.  With --single-pass the variants are kept in memory after the first read, which is
+ *     faster for very large callsets, e.g. from hypermutated tumors or tumor-only calling, at the cost of memory.
+ * </p>
+ *
  */
 @CommandLineProgramProperties(
         summary = "Filter somatic SNVs and indels called by Mutect2",
@@ -77,6 +85,16 @@ public final class FilterMutectCalls extends TwoPassVariantWalker {
             doc="The output filtered VCF file", optional=false)
     private final String outputVcf = null;
 
+    public static final String SINGLE_PASS_LONG_NAME = "single-pass";
+
+    /**
+     * Keep the variants and their first-pass filters in memory instead of reading and filtering the input
+     * a second time.  The output is the same, but memory usage grows with the size of the callset.
+     */
+    @Advanced
+    @Argument(fullName = SINGLE_PASS_LONG_NAME, doc = "Hold variants in memory rather than reading the input twice", optional = true)
+    private boolean singlePass = false;
+
     @ArgumentCollection
     protected M2FiltersArgumentCollection MTFAC = new M2FiltersArgumentCollection();
 
@@ -86,6 +104,9 @@ public final class FilterMutectCalls extends TwoPassVariantWalker {
 
     private FilteringFirstPass filteringFirstPass;
 
+    // in single-pass mode, the variants in the same order as their first-pass results in filteringFirstPass
+    private final List<VariantContext> firstPassVariants = new ArrayList<>();
+
     @Override
     public void onTraversalStart() {
         final VCFHeader inputHeader = getHeaderForVariants();
@@ -119,17 +140,41 @@ public final class FilterMutectCalls extends TwoPassVariantWalker {
     public void firstPassApply(final VariantContext vc, final ReadsContext readsContext, final ReferenceContext refContext, final FeatureContext fc) {
         final FilterResult filterResult = filteringEngine.calculateFilters(MTFAC, vc, Optional.empty());
         filteringFirstPass.add(filterResult, vc);
+        if (singlePass) {
+            firstPassVariants.add(vc);
+        }
     }
 
     @Override
     protected void afterFirstPass() {
         filteringFirstPass.learnModelForSecondPass(MTFAC.maxFalsePositiveRate);
         filteringFirstPass.writeM2FilterSummary(MTFAC.mutect2FilteringStatsTable);
+
+        if (singlePass) {
+            final List<FilterResult> firstPassResults = filteringFirstPass.getFilterResults();
+            for (int n = 0; n < firstPassVariants.size(); n++) {
+                final VariantContext vc = firstPassVariants.get(n);
+                final FilterResult filterResult = firstPassResults.get(n);
+                filteringEngine.applySecondPassFilters(MTFAC, vc, filterResult, filteringFirstPass);
+                writeFilteredVariant(vc, filterResult);
+                firstPassVariants.set(n, null);
+            }
+            firstPassVariants.clear();
+        }
+    }
+
+    @Override
+    protected boolean requiresSecondPass() {
+        return !singlePass;
     }
 
     @Override
     public void secondPassApply(final VariantContext vc, final ReadsContext readsContext, final ReferenceContext refContext, final FeatureContext fc) {
         final FilterResult filterResult = filteringEngine.calculateFilters(MTFAC, vc, Optional.of(filteringFirstPass));
+        writeFilteredVariant(vc, filterResult);
+    }
+
+    private void writeFilteredVariant(final VariantContext vc, final FilterResult filterResult) {
         final VariantContextBuilder vcb = new VariantContextBuilder(vc);
 
         vcb.filters(filterResult.getFilters());
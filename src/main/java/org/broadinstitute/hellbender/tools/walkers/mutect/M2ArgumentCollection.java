@@ -40,6 +40,11 @@ public class M2ArgumentCollection extends AssemblyBasedCallerArgumentCollection
     public static final String ANNOTATE_BASED_ON_READS_LONG_NAME = "count-reads";
     public static final String MEDIAN_AUTOSOMAL_COVERAGE_LONG_NAME = "median-autosomal-coverage";
     public static final String MITOCHONDIRA_MODE_LONG_NAME = "mitochondria-mode";
+    public static final String PRE_ASSEMBLY_SCREEN_LONG_NAME = "pre-assembly-screen";
+    public static final String PRE_ASSEMBLY_SCREEN_MIN_ALT_COUNT_LONG_NAME = "pre-assembly-screen-min-alt-count";
+    public static final String PRE_ASSEMBLY_SCREEN_MIN_BASE_QUALITY_LONG_NAME = "pre-assembly-screen-min-base-quality";
+    public static final String PRE_ASSEMBLY_SCREEN_MIN_MAPPING_QUALITY_LONG_NAME = "pre-assembly-screen-min-mapping-quality";
+    public static final String PRE_ASSEMBLY_SCREEN_AUDIT_INTERVAL_LONG_NAME = "pre-assembly-screen-audit-interval";
 
     public static final double DEFAULT_AF_FOR_TUMOR_ONLY_CALLING = 5e-8;
     public static final double DEFAULT_AF_FOR_TUMOR_NORMAL_CALLING = 1e-6;
@@ -48,6 +53,8 @@ public class M2ArgumentCollection extends AssemblyBasedCallerArgumentCollection
     public static final double DEFAULT_MITO_EMISSION_LOD = 0;
     public static final double DEFAULT_INITIAL_LOD = 2.0;
     public static final double DEFAULT_MITO_INITIAL_LOD = 0;
+    public static final int DEFAULT_PRE_ASSEMBLY_SCREEN_MIN_ALT_COUNT = 2;
+    public static final int DEFAULT_PRE_ASSEMBLY_SCREEN_AUDIT_INTERVAL = 100;
 
     //TODO: HACK ALERT HACK ALERT HACK ALERT
     //TODO: GATK4 does not yet have a way to tag inputs, eg -I:tumor tumor.bam -I:normal normal.bam,
@@ -209,4 +216,39 @@ public class M2ArgumentCollection extends AssemblyBasedCallerArgumentCollection
     @Argument(fullName = MEDIAN_AUTOSOMAL_COVERAGE_LONG_NAME, doc="For mitochondrial calling only; Annotate possible polymorphic NuMT based on Poisson distribution given median autosomal coverage", optional = true)
     public double autosomalCoverage;
 
+    /**
+     * Skip active regions without enough cheap pileup evidence for a call before assembling them.  See {@link PreAssemblyScreen}.
+     */
+    @Advanced
+    @Argument(fullName = PRE_ASSEMBLY_SCREEN_LONG_NAME, doc = "Skip active regions whose tumor reads show too little alt evidence before assembly", optional = true)
+    public boolean preAssemblyScreen = false;
+
+    /**
+     * Minimum number of well-mapped tumor reads with a high-quality alt event at some locus for a region to pass the pre-assembly screen.
+     */
+    @Advanced
+    @Argument(fullName = PRE_ASSEMBLY_SCREEN_MIN_ALT_COUNT_LONG_NAME, doc = "Minimum alt read count at some locus to pass the pre-assembly screen", minValue = 1, optional = true)
+    public int preAssemblyScreenMinAltCount = DEFAULT_PRE_ASSEMBLY_SCREEN_MIN_ALT_COUNT;
+
+    /**
+     * Minimum base quality of an alt base counted by the pre-assembly screen.  By default, that of the base quality filter of {@link FilterMutectCalls}.
+     */
+    @Advanced
+    @Argument(fullName = PRE_ASSEMBLY_SCREEN_MIN_BASE_QUALITY_LONG_NAME, doc = "Minimum base quality of alt bases counted by the pre-assembly screen", optional = true)
+    public int preAssemblyScreenMinBaseQuality = M2FiltersArgumentCollection.DEFAULT_MIN_MEDIAN_BASE_QUALITY;
+
+    /**
+     * Minimum mapping quality of an alt read counted by the pre-assembly screen.  By default, that of the mapping quality filter of {@link FilterMutectCalls}.
+     */
+    @Advanced
+    @Argument(fullName = PRE_ASSEMBLY_SCREEN_MIN_MAPPING_QUALITY_LONG_NAME, doc = "Minimum mapping quality of alt reads counted by the pre-assembly screen", optional = true)
+    public int preAssemblyScreenMinMappingQuality = M2FiltersArgumentCollection.DEFAULT_MIN_MEDIAN_MAPPING_QUALITY;
+
+    /**
+     * Every this many regions rejected by the pre-assembly screen one is called anyway in order to estimate the calls lost to the screen.
+     */
+    @Advanced
+    @Argument(fullName = PRE_ASSEMBLY_SCREEN_AUDIT_INTERVAL_LONG_NAME, doc = "Call one of every this many regions rejected by the pre-assembly screen to estimate its sensitivity; 0 to never do so", minValue = 0, optional = true)
+    public int preAssemblyScreenAuditInterval = DEFAULT_PRE_ASSEMBLY_SCREEN_AUDIT_INTERVAL;
+
 }
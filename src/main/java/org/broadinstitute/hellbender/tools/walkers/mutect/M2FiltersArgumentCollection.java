@@ -37,6 +37,9 @@ public class M2FiltersArgumentCollection extends AssemblyBasedCallerArgumentColl
 
     public static final String FILTERING_STATS_LONG_NAME = "stats";
 
+    public static final int DEFAULT_MIN_MEDIAN_MAPPING_QUALITY = 30;
+    public static final int DEFAULT_MIN_MEDIAN_BASE_QUALITY = 20;
+
     /**
      * A table containing tumor segments and the minor allele fraction of germline hets within each segment.
      * This allows us to refine the germline event filter by, for example, not filtering an allele
@@ -89,10 +92,10 @@ public class M2FiltersArgumentCollection extends AssemblyBasedCallerArgumentColl
     public double pcrSlippagePValueThreshold = 0.001;
 
     @Argument(fullName = MIN_MEDIAN_MAPPING_QUALITY_LONG_NAME, optional = true, doc="filter variants for which alt reads' median mapping quality is too low.")
-    public int minMedianMappingQuality = 30;
+    public int minMedianMappingQuality = DEFAULT_MIN_MEDIAN_MAPPING_QUALITY;
 
     @Argument(fullName = MIN_MEDIAN_BASE_QUALITY_LONG_NAME, optional = true, doc="filter variants for which alt reads' median base quality is too low.")
-    public int minMedianBaseQuality = 20;
+    public int minMedianBaseQuality = DEFAULT_MIN_MEDIAN_BASE_QUALITY;
 
     @Argument(fullName = MAX_MEDIAN_FRAGMENT_LENGTH_DIFFERENCE_LONG_NAME, optional = true, doc="filter variants for which alt reads' median fragment length is very different from the median for ref reads.")
     public int maxMedianFragmentLengthDifference = 10000;
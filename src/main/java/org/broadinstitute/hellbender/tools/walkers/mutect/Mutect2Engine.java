@@ -91,6 +91,7 @@ public final class Mutect2Engine implements AssemblyRegionEvaluator {
     private VariantAnnotatorEngine annotationEngine;
     private final SmithWatermanAligner aligner;
     private AssemblyRegionTrimmer trimmer = new AssemblyRegionTrimmer();
+    private final Optional<PreAssemblyScreen> preAssemblyScreen;
 
     /**
      * Create and initialize a new HaplotypeCallerEngine given a collection of HaplotypeCaller arguments, a reads header,
@@ -122,6 +123,9 @@ public final class Mutect2Engine implements AssemblyRegionEvaluator {
         haplotypeBAMWriter = AssemblyBasedCallerUtils.createBamWriter(MTAC, createBamOutIndex, createBamOutMD5, header);
         trimmer.initialize(MTAC.assemblyRegionTrimmerArgs, header.getSequenceDictionary(), MTAC.debug,
                 MTAC.genotypingOutputMode == GenotypingOutputMode.GENOTYPE_GIVEN_ALLELES, false);
+        // given alleles must be genotyped regardless of evidence
+        preAssemblyScreen = MTAC.preAssemblyScreen && MTAC.genotypingOutputMode != GenotypingOutputMode.GENOTYPE_GIVEN_ALLELES ?
+                Optional.of(new PreAssemblyScreen(MTAC, tumorSample, header)) : Optional.empty();
     }
 
     //default M2 read filters.  Cheap ones come first in order to fail fast.
@@ -187,6 +191,23 @@ public final class Mutect2Engine implements AssemblyRegionEvaluator {
             return NO_CALLS;
         }
 
+        if (preAssemblyScreen.isPresent()) {
+            final SimpleInterval span = originalAssemblyRegion.getSpan();
+            final byte[] spanReference = referenceReader.getSubsequenceAt(span.getContig(), span.getStart(), span.getEnd()).getBases();
+            if (!preAssemblyScreen.get().passes(originalAssemblyRegion, spanReference)) {
+                if (!preAssemblyScreen.get().auditFailedRegion()) {
+                    return NO_CALLS;
+                }
+                final List<VariantContext> calls = assembleAndCallRegion(originalAssemblyRegion, referenceContext, featureContext);
+                preAssemblyScreen.get().recordAuditedCalls(calls.size());
+                return calls;
+            }
+        }
+
+        return assembleAndCallRegion(originalAssemblyRegion, referenceContext, featureContext);
+    }
+
+    private List<VariantContext> assembleAndCallRegion(final AssemblyRegion originalAssemblyRegion, final ReferenceContext referenceContext, final FeatureContext featureContext) {
         final List<VariantContext> givenAlleles = MTAC.genotypingOutputMode == GenotypingOutputMode.GENOTYPE_GIVEN_ALLELES ?
                 featureContext.getValues(MTAC.alleles).stream().filter(vc -> MTAC.genotypeFilteredAlleles || vc.isNotFiltered()).collect(Collectors.toList()) :
                 Collections.emptyList();
@@ -247,6 +268,7 @@ public final class Mutect2Engine implements AssemblyRegionEvaluator {
     }
 
     public void shutdown() {
+        preAssemblyScreen.ifPresent(PreAssemblyScreen::logSummary);
         likelihoodCalculationEngine.close();
         aligner.close();
         haplotypeBAMWriter.ifPresent(writer -> writer.close());
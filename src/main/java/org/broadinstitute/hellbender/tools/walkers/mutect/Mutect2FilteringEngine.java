@@ -424,6 +424,20 @@ public class Mutect2FilteringEngine {
         return filterResult;
     }
 
+    /**
+     * Add to the result of {@link #calculateFilters} without first pass information the filters that depend on the
+     * model learned in the first pass.  This gives the same filters as calling {@link #calculateFilters} again with
+     * the first pass but without recomputing the filters that the first pass already applied.
+     */
+    public void applySecondPassFilters(final M2FiltersArgumentCollection MTFAC, final VariantContext vc,
+                                       final FilterResult firstPassFilterResult, final FilteringFirstPass firstPass) {
+        Utils.validate(firstPass.isReadyForSecondPass(), "First pass information has not been processed into a model for the second pass.");
+        if (!MTFAC.mitochondria) {
+            applyFilteredHaplotypeFilter(MTFAC, vc, firstPassFilterResult, Optional.of(firstPass));
+            applyReadOrientationFilter(vc, firstPassFilterResult, Optional.of(firstPass));
+        }
+    }
+
     private int[] getIntArrayTumorField(final VariantContext vc, final String key) {
         return GATKProtectedVariantContextUtils.getAttributeAsIntArray(vc.getGenotype(tumorSample), key, () -> null, 0);
     }
@@ -0,0 +1,166 @@
+package org.broadinstitute.hellbender.tools.walkers.mutect;
+
+import com.google.common.annotations.VisibleForTesting;
+import htsjdk.samtools.CigarElement;
+import htsjdk.samtools.SAMFileHeader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.engine.AssemblyRegion;
+import org.broadinstitute.hellbender.utils.BaseUtils;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
+
+import java.util.Arrays;
+
+/**
+ * A cheap screen of active regions before assembly.  A region passes if at some locus of its active span at least
+ * a minimum number of tumor reads with sufficient mapping quality have a mismatch of sufficient base quality, an indel,
+ * or the boundary of a soft clip.  Regions that fail are unlikely to yield a call that survives the mapping quality,
+ * base quality, and insufficient evidence filters of {@link FilterMutectCalls}.
+ *
+ * Because the screen can cost sensitivity, every so often a region that fails is called anyway and the calls it yields
+ * are counted in order to estimate how many calls the screen loses.
+ */
+public final class PreAssemblyScreen {
+    private static final Logger logger = LogManager.getLogger(PreAssemblyScreen.class);
+
+    private final String tumorSample;
+    private final SAMFileHeader header;
+    private final int minAltCount;
+    private final int minBaseQuality;
+    private final int minMappingQuality;
+    private final int auditInterval;
+
+    private long numRegionsScreened = 0;
+    private long numRegionsFailed = 0;
+    private long numFailedRegionsAudited = 0;
+    private long numAuditedRegionsWithCalls = 0;
+    private long numCallsInAuditedRegions = 0;
+
+    public PreAssemblyScreen(final M2ArgumentCollection MTAC, final String tumorSample, final SAMFileHeader header) {
+        this.tumorSample = Utils.nonNull(tumorSample);
+        this.header = Utils.nonNull(header);
+        minAltCount = MTAC.preAssemblyScreenMinAltCount;
+        minBaseQuality = MTAC.preAssemblyScreenMinBaseQuality;
+        minMappingQuality = MTAC.preAssemblyScreenMinMappingQuality;
+        auditInterval = MTAC.preAssemblyScreenAuditInterval;
+    }
+
+    /**
+     * @param spanReference the reference bases of the region's active span
+     * @return whether the region has enough alt evidence in the tumor to be worth assembling
+     */
+    public boolean passes(final AssemblyRegion region, final byte[] spanReference) {
+        numRegionsScreened++;
+        final int[] altCounts = countAltReads(region, spanReference);
+        final boolean passes = Arrays.stream(altCounts).anyMatch(count -> count >= minAltCount);
+        if (!passes) {
+            numRegionsFailed++;
+        }
+        return passes;
+    }
+
+    /**
+     * Called after a region fails the screen.
+     *
+     * @return whether to call the region anyway in order to audit the screen's sensitivity, in which case the number
+     * of resulting calls must be reported via {@link #recordAuditedCalls}
+     */
+    public boolean auditFailedRegion() {
+        if (auditInterval == 0 || (numRegionsFailed - 1) % auditInterval != 0) {
+            return false;
+        }
+        numFailedRegionsAudited++;
+        return true;
+    }
+
+    public void recordAuditedCalls(final int numCalls) {
+        numCallsInAuditedRegions += numCalls;
+        if (numCalls > 0) {
+            numAuditedRegionsWithCalls++;
+        }
+    }
+
+    public void logSummary() {
+        final long numRegionsSkipped = numRegionsFailed - numFailedRegionsAudited;
+        logger.info(String.format("Pre-assembly screen skipped %d of %d active regions (%.2f%%).", numRegionsSkipped, numRegionsScreened,
+                numRegionsScreened == 0 ? 0.0 : 100.0 * numRegionsSkipped / numRegionsScreened));
+        if (numFailedRegionsAudited > 0) {
+            logger.info(String.format("Of %d audited regions that failed the screen, %d yielded a total of %d calls; an estimated %.1f calls were lost in skipped regions.",
+                    numFailedRegionsAudited, numAuditedRegionsWithCalls, numCallsInAuditedRegions,
+                    (double) numCallsInAuditedRegions * numRegionsSkipped / numFailedRegionsAudited));
+        }
+    }
+
+    /**
+     * @return for each locus of the region's active span, the number of qualifying tumor reads with alt evidence there
+     */
+    @VisibleForTesting
+    int[] countAltReads(final AssemblyRegion region, final byte[] spanReference) {
+        final SimpleInterval span = region.getSpan();
+        Utils.validateArg(spanReference.length == span.size(), "reference bases must cover the active span");
+        final int[] altCounts = new int[span.size()];
+        // the last read counted at each locus, so that a read with several events at a locus is counted once
+        final int[] lastReadCounted = new int[span.size()];
+        Arrays.fill(lastReadCounted, -1);
+
+        int readIndex = 0;
+        for (final GATKRead read : region.getReads()) {
+            readIndex++;
+            if (read.getMappingQuality() < minMappingQuality || !tumorSample.equals(ReadUtils.getSampleName(read, header))) {
+                continue;
+            }
+
+            final byte[] bases = read.getBasesNoCopy();
+            final byte[] quals = read.getBaseQualitiesNoCopy();
+            int refPosition = read.getStart();
+            int readPosition = 0;
+            for (final CigarElement element : read.getCigarElements()) {
+                final int length = element.getLength();
+                switch (element.getOperator()) {
+                    case M:
+                    case EQ:
+                    case X:
+                        for (int n = 0; n < length; n++) {
+                            final int offset = refPosition + n - span.getStart();
+                            if (offset >= 0 && offset < altCounts.length && quals[readPosition + n] >= minBaseQuality
+                                    && BaseUtils.isRegularBase(bases[readPosition + n]) && bases[readPosition + n] != spanReference[offset]) {
+                                countRead(altCounts, lastReadCounted, offset, readIndex);
+                            }
+                        }
+                        readPosition += length;
+                        refPosition += length;
+                        break;
+                    case I:
+                        countRead(altCounts, lastReadCounted, refPosition - 1 - span.getStart(), readIndex);
+                        readPosition += length;
+                        break;
+                    case D:
+                        countRead(altCounts, lastReadCounted, refPosition - 1 - span.getStart(), readIndex);
+                        refPosition += length;
+                        break;
+                    case S:
+                        // a leading clip borders the first aligned base and a trailing clip the last
+                        countRead(altCounts, lastReadCounted, (readPosition == 0 ? refPosition : refPosition - 1) - span.getStart(), readIndex);
+                        readPosition += length;
+                        break;
+                    case N:
+                        refPosition += length;
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        return altCounts;
+    }
+
+    private static void countRead(final int[] altCounts, final int[] lastReadCounted, final int offset, final int readIndex) {
+        if (offset >= 0 && offset < altCounts.length && lastReadCounted[offset] != readIndex) {
+            altCounts[offset]++;
+            lastReadCounted[offset] = readIndex;
+        }
+    }
+}
@@ -2,7 +2,6 @@ package org.broadinstitute.hellbender.tools.walkers.readorientation;
 
 import com.google.common.primitives.Ints;
 import htsjdk.samtools.metrics.MetricsFile;
-import htsjdk.samtools.util.Histogram;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
 import org.broadinstitute.hellbender.cmdline.programgroups.CoverageAnalysisProgramGroup;
@@ -73,8 +72,8 @@ public class CollectF1R2Counts extends LocusWalker {
     @Argument(fullName = MAX_DEPTH_LONG_NAME, doc = "sites with depth higher than this value will be grouped", optional = true)
     private int maxDepth = F1R2FilterConstants.DEFAULT_MAX_DEPTH;
 
-    // For each reference context, count ref sites in a histogram keyed by depth
-    private Map<String, Histogram<Integer>> refSiteHistograms = new HashMap<>(ALL_KMERS.size());
+    // For each reference context index (see {@link F1R2FilterUtils#contextToIndex}), count ref sites by depth
+    private int[][] refSiteDepthCounts;
 
     // Store the total depths of alt sites with alt depth = 1 separately to save memory
     private DepthOneHistograms depthOneAltHistograms;
@@ -97,11 +96,8 @@ public class CollectF1R2Counts extends LocusWalker {
 
     @Override
     public void onTraversalStart() {
-        // Initialize for each reference the histogram of the counts of reference sites by depth
-        ALL_KMERS.forEach(context -> {
-            Histogram<Integer> emptyRefHistogram = F1R2FilterUtils.createRefHistogram(context, maxDepth);
-            refSiteHistograms.put(context, emptyRefHistogram);
-        });
+        // Initialize for each reference context the counts of reference sites by depth
+        refSiteDepthCounts = new int[NUM_KMERS][maxDepth + 1];
 
         depthOneAltHistograms = new DepthOneHistograms(maxDepth);
         // Intentionally not use try-with-resources so that the writer stays open outside of the try block
@@ -116,21 +112,17 @@ public class CollectF1R2Counts extends LocusWalker {
     @Override
     public void apply(final AlignmentContext alignmentContext, final ReferenceContext referenceContext, final FeatureContext featureContext) {
         final int position = referenceContext.getInterval().getStart();
-        final String refContext = referenceContext.getKmerAround(position, F1R2FilterConstants.REF_CONTEXT_PADDING);
-        if (refContext == null){
+        final byte[] refContext = referenceContext.getKmerBasesAround(position, F1R2FilterConstants.REF_CONTEXT_PADDING);
+        if (refContext == null || refContext.length != F1R2FilterConstants.REFERENCE_CONTEXT_SIZE) {
             return;
         }
-        final Nucleotide refBase = F1R2FilterUtils.getMiddleBase(refContext);
 
-        if (refContext.contains("N") || refContext.length() != F1R2FilterConstants.REFERENCE_CONTEXT_SIZE) {
-            return;
-        }
-
-        if (refContext == null) {
-            logger.warn(String.format("Skipped a site with null reference at interval %s, k-mer = %s",
-                    referenceContext.getInterval().toString(), refContext));
+        // The context is used as an array index rather than a string so that no string is built or hashed at ref sites
+        final int refContextIndex = F1R2FilterUtils.contextToIndex(refContext);
+        if (refContextIndex < 0) {
             return;
         }
+        final Nucleotide refBase = Nucleotide.decode(refContext[F1R2FilterConstants.MIDDLE_INDEX]);
 
         final ReadPileup pileup = alignmentContext.getBasePileup().makeFilteredPileup(pe -> pe.getQual() > MINIMUM_BASE_QUALITY);
         final int[] baseCounts = pileup.getBaseCounts();
@@ -149,7 +141,7 @@ public class CollectF1R2Counts extends LocusWalker {
 
         // If the site is ref, we simply update the coverage histogram
         if (referenceSite) {
-            refSiteHistograms.get(refContext).increment(Math.min(depth, maxDepth));
+            refSiteDepthCounts[refContextIndex][Math.min(depth, maxDepth)]++;
             return;
         }
 
@@ -165,12 +157,12 @@ public class CollectF1R2Counts extends LocusWalker {
 
         if (altCount == 1) {
             final ReadOrientation type = altF1R2 == 1 ? F1R2 : F2R1;
-            depthOneAltHistograms.increment(refContext, altBase, type, depth);
+            depthOneAltHistograms.increment(refContextIndex, altBase, type, depth);
             return;
         }
 
         try {
-            altTableWriter.writeRecord(new AltSiteRecord(refContext, refCount, altCount, refF1R2, altF1R2, altBase));
+            altTableWriter.writeRecord(new AltSiteRecord(F1R2FilterUtils.indexToContext(refContextIndex), refCount, altCount, refF1R2, altF1R2, altBase));
         } catch (IOException e) {
             throw new UserException("Encountered an IO Exception writing to the alt data table", e);
         }
@@ -178,7 +170,8 @@ public class CollectF1R2Counts extends LocusWalker {
 
     @Override
     public Object onTraversalSuccess() {
-        refSiteHistograms.values().forEach(h -> refMetricsFile.addHistogram(h));
+        ALL_KMERS.forEach(context -> refMetricsFile.addHistogram(F1R2FilterUtils.fillHistogram(
+                F1R2FilterUtils.createRefHistogram(context, maxDepth), refSiteDepthCounts[F1R2FilterUtils.contextToIndex(context)])));
         refMetricsFile.write(refMetricsOutput);
 
         depthOneAltHistograms.getHistograms().forEach(h -> altMetricsFile.addHistogram(h));
@@ -1,58 +1,62 @@
 package org.broadinstitute.hellbender.tools.walkers.readorientation;
 
 import htsjdk.samtools.util.Histogram;
-import org.apache.commons.lang3.tuple.ImmutablePair;
-import org.apache.commons.lang3.tuple.Pair;
 import org.broadinstitute.hellbender.utils.Nucleotide;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Holds histograms of alt depth=1 sites for reference contexts.
+ *
+ * Counts are kept in a dense array indexed by reference context (see {@link F1R2FilterUtils#contextToIndex}),
+ * alt allele, read orientation and depth, and are only turned into {@link Histogram}s for output.
  */
 public class DepthOneHistograms {
-    private final Map<String, Map<Pair<Nucleotide, ReadOrientation>, Histogram<Integer>>> map;
+    // [reference context][alt allele][read orientation][depth]; the slots where the alt allele is the ref base stay empty
+    private final int[][][][] counts;
     private final int maxDepth;
 
     public DepthOneHistograms(final int maxDepth) {
         this.maxDepth = maxDepth;
-
-        map = new HashMap<>(F1R2FilterConstants.NUM_KMERS);
-
-        // Initialize, for each reference context, the (Alt Allele, Artifact Type) -> Histogram map
-        F1R2FilterConstants.ALL_KMERS.forEach(context -> {
-            map.put(context, new HashMap<>((Nucleotide.STANDARD_BASES.size() - 1) * ReadOrientation.SIZE));
-
-            for (Nucleotide altAllele : Nucleotide.STANDARD_BASES) {
-                // Skip e.g. AGT -> AGT because G is not an alt allele
-
-                if (altAllele == F1R2FilterUtils.getMiddleBase(context)) {
-                    continue;
-                }
-
-                for (ReadOrientation artifactType : ReadOrientation.values()) {
-                    map.get(context).put(new ImmutablePair<>(altAllele, artifactType),
-                            F1R2FilterUtils.createAltHistogram(context, altAllele, artifactType, maxDepth));
-                }
-            }
-        });
+        counts = new int[F1R2FilterConstants.NUM_KMERS][Nucleotide.STANDARD_BASES.size()][ReadOrientation.SIZE][maxDepth + 1];
     }
 
     public Histogram<Integer> get(final String referenceContext, final Nucleotide altAllele, final ReadOrientation orientation) {
-        final Pair<Nucleotide, ReadOrientation> key = new ImmutablePair<>(altAllele, orientation);
-        return map.get(referenceContext).get(key);
+        return F1R2FilterUtils.fillHistogram(F1R2FilterUtils.createAltHistogram(referenceContext, altAllele, orientation, maxDepth),
+                counts[F1R2FilterUtils.contextToIndex(referenceContext)][altAllele.ordinal()][orientation.ordinal()]);
     }
 
     public void increment(final String referenceContext, final Nucleotide altAllele,
                           final ReadOrientation orientation, final int depth) {
-        final int cappedDepth = Math.min(depth, maxDepth);
-        map.get(referenceContext).get(new ImmutablePair<>(altAllele, orientation)).increment(cappedDepth);
+        increment(F1R2FilterUtils.contextToIndex(referenceContext), altAllele, orientation, depth);
     }
 
+    /**
+     * @param referenceContextIndex the index of the reference context given by {@link F1R2FilterUtils#contextToIndex}
+     */
+    public void increment(final int referenceContextIndex, final Nucleotide altAllele,
+                          final ReadOrientation orientation, final int depth) {
+        counts[referenceContextIndex][altAllele.ordinal()][orientation.ordinal()][Math.min(depth, maxDepth)]++;
+    }
+
+    /**
+     * @return a histogram for each reference context, alt allele other than the middle base of the context, and read orientation
+     */
     public List<Histogram<Integer>> getHistograms() {
-        return map.values().stream().flatMap(s -> s.values().stream()).collect(Collectors.toList());
+        final List<Histogram<Integer>> histograms = new ArrayList<>(F1R2FilterConstants.NUM_KMERS * F1R2FilterConstants.numAltHistogramsPerContext);
+        for (final String context : F1R2FilterConstants.ALL_KMERS) {
+            for (final Nucleotide altAllele : Nucleotide.STANDARD_BASES) {
+                // Skip e.g. AGT -> AGT because G is not an alt allele
+                if (altAllele == F1R2FilterUtils.getMiddleBase(context)) {
+                    continue;
+                }
+
+                for (final ReadOrientation orientation : ReadOrientation.values()) {
+                    histograms.add(get(context, altAllele, orientation));
+                }
+            }
+        }
+        return histograms;
     }
 }
@@ -7,6 +7,10 @@ import org.broadinstitute.hellbender.utils.Nucleotide;
 import org.broadinstitute.hellbender.utils.Utils;
 
 public class F1R2FilterUtils {
+    // reference contexts are encoded with 2 bits per base, so a 3-mer is a 6-bit index
+    private static final int BITS_PER_BASE = 2;
+    private static final int BASE_MASK = (1 << BITS_PER_BASE) - 1;
+
     static Histogram<Integer> createAltHistogram(final String refContext, final Nucleotide altAllele, final ReadOrientation type,
                                                  final int maxDepth){
         final Histogram<Integer> h = new Histogram<>(F1R2FilterConstants.binName, tripletToLabel(refContext, altAllele, type));
@@ -20,6 +24,49 @@ public class F1R2FilterUtils {
         return h;
     }
 
+    // Fill a histogram from counts indexed by depth. Reference sites whose bases are all of low quality have depth 0,
+    // so a nonzero count at index 0 adds a bin 0 to the histogram, as incrementing it per site would
+    static Histogram<Integer> fillHistogram(final Histogram<Integer> h, final int[] depthCounts){
+        for (int depth = 0; depth < depthCounts.length; depth++) {
+            if (depthCounts[depth] > 0) {
+                h.increment(depth, depthCounts[depth]);
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Encode a reference context as an index in [0, {@link F1R2FilterConstants#NUM_KMERS}), using 2 bits per base with
+     * the first base the most significant, so that counts can be kept in arrays rather than in maps keyed by strings
+     *
+     * @return the index of the context, or -1 if the context has a base other than A, C, G or T
+     */
+    static int contextToIndex(final byte[] refContext){
+        int index = 0;
+        for (final byte base : refContext) {
+            final Nucleotide nucleotide = Nucleotide.decode(base);
+            if (!nucleotide.isStandard()) {
+                return -1;
+            }
+            // the standard nucleotides A, C, G and T come first, in that order
+            index = (index << BITS_PER_BASE) | nucleotide.ordinal();
+        }
+        return index;
+    }
+
+    static int contextToIndex(final String refContext){
+        return contextToIndex(refContext.getBytes());
+    }
+
+    // Inverse of {@link contextToIndex}
+    static String indexToContext(final int index){
+        final byte[] bases = new byte[F1R2FilterConstants.REFERENCE_CONTEXT_SIZE];
+        for (int i = bases.length - 1, remaining = index; i >= 0; i--, remaining >>= BITS_PER_BASE) {
+            bases[i] = Nucleotide.STANDARD_BASES.get(remaining & BASE_MASK).encodeAsByte();
+        }
+        return new String(bases);
+    }
+
     // Separates an alt histogram label into components
     // e.g. "ATG_C_F1R2" becomes {Ref Context = ATG, Alt Allele = C, Read Orientaiton = F1R2}
     static Triple<String, Nucleotide, ReadOrientation> labelToTriplet(final String label){
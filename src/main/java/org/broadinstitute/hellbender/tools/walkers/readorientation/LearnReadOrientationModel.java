@@ -16,6 +16,8 @@ import org.broadinstitute.hellbender.utils.Utils;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -30,6 +32,15 @@ import java.util.stream.Collectors;
  *   -ref-hist my-tumor-sample-ref.metrics \
  *   -alt-hist my-tumor-sample-alt-depth1.metrics \
  *   -O my-tumor-sample-artifact-prior.tsv
+ *
+ * The outputs of CollectF1R2Counts scattered over intervals may be given directly, and are summed as they are read.
+ *
+ * gatk LearnReadOrientationModel \
+ *   -alt-table shard1-alt.tsv -alt-table shard2-alt.tsv \
+ *   -ref-hist shard1-ref.metrics -ref-hist shard2-ref.metrics \
+ *   -alt-hist shard1-alt-depth1.metrics -alt-hist shard2-alt-depth1.metrics \
+ *   --threads 4 \
+ *   -O my-tumor-sample-artifact-prior.tsv
  */
 @CommandLineProgramProperties(
         summary = "Get the maximum likelihood estimates of artifact prior probabilities in the orientation bias mixture model filter",
@@ -43,18 +54,22 @@ public class LearnReadOrientationModel extends CommandLineProgram {
     public static final String EM_CONVERGENCE_THRESHOLD_LONG_NAME = "convergence-threshold";
     public static final String MAX_EM_ITERATIONS_LONG_NAME = "num-em-iterations";
     public static final String MAX_DEPTH_LONG_NAME = "max-depth";
+    public static final String NUM_THREADS_LONG_NAME = "threads";
 
-    @Argument(fullName = CollectF1R2Counts.REF_SITE_METRICS_LONG_NAME, doc = "histograms of depths over ref sites for each reference context")
-    private File refHistogramTable;
+    @Argument(fullName = CollectF1R2Counts.REF_SITE_METRICS_LONG_NAME, doc = "histograms of depths over ref sites for each reference context. " +
+            "May be given once per scattered run of CollectF1R2Counts, in which case the histograms are summed")
+    private List<File> refHistogramTables;
 
-    @Argument(fullName = CollectF1R2Counts.ALT_DATA_TABLE_LONG_NAME,  doc = "a table of F1R2 and depth counts")
-    private File altDataTable;
+    @Argument(fullName = CollectF1R2Counts.ALT_DATA_TABLE_LONG_NAME,  doc = "a table of F1R2 and depth counts. " +
+            "May be given once per scattered run of CollectF1R2Counts")
+    private List<File> altDataTables;
 
     @Argument(fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME, shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME, doc = "table of artifact priors")
     private File output;
 
-    @Argument(fullName = CollectF1R2Counts.ALT_DEPTH1_HISTOGRAM_LONG_NAME, doc = "histograms of depth 1 alt sites", optional = true)
-    private File altHistogramTable = null;
+    @Argument(fullName = CollectF1R2Counts.ALT_DEPTH1_HISTOGRAM_LONG_NAME, doc = "histograms of depth 1 alt sites. " +
+            "May be given once per scattered run of CollectF1R2Counts, in which case the histograms are summed", optional = true)
+    private List<File> altHistogramTables = new ArrayList<>();
 
     @Argument(fullName = EM_CONVERGENCE_THRESHOLD_LONG_NAME, doc = "Stop the EM when the distance between parameters between iterations falls below this value", optional = true)
     private double converagenceThreshold = DEFAULT_CONVERGENCE_THRESHOLD;
@@ -65,6 +80,9 @@ public class LearnReadOrientationModel extends CommandLineProgram {
     @Argument(fullName = MAX_DEPTH_LONG_NAME, doc = "sites with depth higher than this value will be grouped", optional = true)
     private int maxDepth = F1R2FilterConstants.DEFAULT_MAX_DEPTH;
 
+    @Argument(fullName = NUM_THREADS_LONG_NAME, doc = "number of reference contexts to fit at once", optional = true, minValue = 1)
+    private int numThreads = 1;
+
     List<Histogram<Integer>> refHistograms;
 
     List<Histogram<Integer>> altHistograms;
@@ -73,24 +91,22 @@ public class LearnReadOrientationModel extends CommandLineProgram {
 
     @Override
     protected void onStartup(){
-        final MetricsFile<?, Integer> referenceSiteMetrics = readMetricsFile(refHistogramTable);
-        refHistograms = referenceSiteMetrics.getAllHistograms();
-
-        if (altHistogramTable != null) {
-            final MetricsFile<?, Integer> altSiteMetrics = readMetricsFile(altHistogramTable);
-            altHistograms = altSiteMetrics.getAllHistograms();
-        } else {
-            altHistograms = Collections.emptyList();
-        }
+        refHistograms = sumHistograms(refHistogramTables);
+        altHistograms = sumHistograms(altHistogramTables);
     }
 
     @Override
     public Object doWork(){
         final int defaultInitialListSize = 1_000_000;
 
-        final Map<String, List<AltSiteRecord>> altDesignMatrixByContext =
-                AltSiteRecord.readAltSiteRecords(altDataTable, defaultInitialListSize).stream()
-                        .collect(Collectors.groupingBy(AltSiteRecord::getReferenceContext));
+        final Map<String, List<AltSiteRecord>> altDesignMatrixByContext = new HashMap<>(F1R2FilterConstants.NUM_KMERS);
+        for (final File altDataTable : altDataTables) {
+            AltSiteRecord.readAltSiteRecords(altDataTable, defaultInitialListSize)
+                    .forEach(record -> altDesignMatrixByContext.computeIfAbsent(record.getReferenceContext(), context -> new ArrayList<>()).add(record));
+        }
+
+        // The contexts are independent, so the model for each one is fitted as a separate task
+        final List<Supplier<ArtifactPrior>> fits = new ArrayList<>(F1R2FilterConstants.CANONICAL_KMERS.size());
 
         // Since e.g. G->T under AGT F1R2 is equivalent to C->A under ACT F2R1, combine the data
         for (final String refContext : F1R2FilterConstants.CANONICAL_KMERS){
@@ -127,18 +143,29 @@ public class LearnReadOrientationModel extends CommandLineProgram {
                 continue;
             }
 
-            final LearnReadOrientationModelEngine engine = new LearnReadOrientationModelEngine(
+            fits.add(() -> new LearnReadOrientationModelEngine(
                     combinedRefHistograms,
                     combinedAltHistograms,
                     altDesignMatrix,
                     converagenceThreshold,
                     maxEMIterations,
                     maxDepth,
-                    logger);
-            final ArtifactPrior artifactPrior = engine.learnPriorForArtifactStates();
-            artifactPriorCollection.set(artifactPrior);
+                    logger).learnPriorForArtifactStates());
         }
 
+        final List<ArtifactPrior> artifactPriors;
+        if (numThreads > 1) {
+            final ForkJoinPool pool = new ForkJoinPool(numThreads);
+            try {
+                artifactPriors = pool.submit(() -> fits.parallelStream().map(Supplier::get).collect(Collectors.toList())).join();
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            artifactPriors = fits.stream().map(Supplier::get).collect(Collectors.toList());
+        }
+        artifactPriors.forEach(artifactPriorCollection::set);
+
         artifactPriorCollection.writeArtifactPriors(output);
         return "SUCCESS";
     }
@@ -244,6 +271,22 @@ public class LearnReadOrientationModel extends CommandLineProgram {
         altDesignMatrix.addAll(altDesignMatrixRevComp.stream().map(AltSiteRecord::getReverseComplementOfRecord).collect(Collectors.toList()));
     }
 
+    /**
+     * Read the histograms of each file in turn, summing histograms with the same label across files
+     */
+    private List<Histogram<Integer>> sumHistograms(final List<File> files){
+        final Map<String, Histogram<Integer>> histograms = new LinkedHashMap<>();
+        for (final File file : files) {
+            for (final Histogram<Integer> histogram : readMetricsFile(file).getAllHistograms()) {
+                histograms.merge(histogram.getValueLabel(), histogram, (sum, h) -> {
+                    h.keySet().forEach(depth -> sum.increment(depth, h.get(depth).getValue()));
+                    return sum;
+                });
+            }
+        }
+        return new ArrayList<>(histograms.values());
+    }
+
     private MetricsFile<?, Integer> readMetricsFile(File file){
         final MetricsFile<?, Integer> metricsFile = new MetricsFile<>();
         final Reader reader = IOUtil.openFileForBufferedReading(file);
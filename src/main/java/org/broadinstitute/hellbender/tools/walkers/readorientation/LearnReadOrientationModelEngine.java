@@ -3,7 +3,6 @@ package org.broadinstitute.hellbender.tools.walkers.readorientation;
 import com.google.common.annotations.VisibleForTesting;
 import htsjdk.samtools.util.Histogram;
 import org.apache.commons.lang3.mutable.MutableInt;
-import org.apache.commons.lang3.tuple.ImmutableTriple;
 import org.apache.commons.lang3.tuple.Triple;
 import org.apache.commons.math3.linear.Array2DRowRealMatrix;
 import org.apache.commons.math3.linear.ArrayRealVector;
@@ -41,7 +40,11 @@ public class LearnReadOrientationModelEngine {
      */
     private final RealMatrix altResponsibilities;
 
-    private final Map<Triple<Integer, Nucleotide, ReadOrientation>, double[]> responsibilitiesOfAltDepth1Sites;
+    /**
+     * Responsibilities of alt sites with alt depth = 1, indexed by depth - 1, the alt allele, and the orientation
+     * of the alt read
+     */
+    private final double[][][][] responsibilitiesOfAltDepth1Sites;
 
     /**
      * MAX_COVERAGE by K matrix of responsibilities of a ref site (i.e. ALT Depth = 0, ALT F1R2 = 0)
@@ -129,7 +132,7 @@ public class LearnReadOrientationModelEngine {
         this.altResponsibilities = new Array2DRowRealMatrix(altDesignMatrix.size(), F1R2FilterConstants.NUM_STATES);
 
         // Store responsibilities for each depth and the F1R2/F2R1 of the one alt read
-        this.responsibilitiesOfAltDepth1Sites = new HashMap<>();
+        this.responsibilitiesOfAltDepth1Sites = new double[maxDepth][Nucleotide.STANDARD_BASES.size()][ReadOrientation.SIZE][];
         this.refAllele = F1R2FilterUtils.getMiddleBase(referenceContext);
         this.convergenceThreshold = convergenceThreshold;
         this.maxEMIterations = maxEMIterations;
@@ -205,8 +208,8 @@ public class LearnReadOrientationModelEngine {
 
                     final int f1r2Depth = orientation == ReadOrientation.F1R2 ? 1 : 0;
 
-                    final Triple<Integer, Nucleotide, ReadOrientation> key = createKey(depth, altAllele, orientation);
-                    responsibilitiesOfAltDepth1Sites.put(key, computeResponsibilities(refAllele, altAllele, 1, f1r2Depth, depth, artifactPriors, false));
+                    responsibilitiesOfAltDepth1Sites[i][altAllele.ordinal()][orientation.ordinal()] =
+                            computeResponsibilities(refAllele, altAllele, 1, f1r2Depth, depth, artifactPriors, false);
                 }
             }
         }
@@ -230,7 +233,7 @@ public class LearnReadOrientationModelEngine {
 
 
             final double[] effectiveAltCountsFromHistogram = MathUtils.sumArrayFunction(0, maxDepth,
-                    i -> MathArrays.scale(histogram.get(i + 1).getValue(), responsibilitiesOfAltDepth1Sites.get(createKey(i+1, altAllele, orientation))));
+                    i -> MathArrays.scale(histogram.get(i + 1).getValue(), responsibilitiesOfAltDepth1Sites[i][altAllele.ordinal()][orientation.ordinal()]));
             effectiveAltCountsFromHistograms = MathArrays.ebeAdd(effectiveAltCountsFromHistograms, effectiveAltCountsFromHistogram);
         }
 
@@ -365,8 +368,4 @@ public class LearnReadOrientationModelEngine {
 
         return prior;
     }
-
-    private Triple<Integer, Nucleotide, ReadOrientation> createKey(final int depth, final Nucleotide altAllele, final ReadOrientation orientation){
-        return new ImmutableTriple<>(depth, altAllele, orientation);
-    }
 }
\ No newline at end of file
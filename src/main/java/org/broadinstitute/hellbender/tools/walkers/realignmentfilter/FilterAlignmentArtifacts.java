@@ -20,6 +20,7 @@ import org.broadinstitute.hellbender.engine.VariantWalker;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.tools.walkers.mutect.Mutect2Engine;
 import org.broadinstitute.hellbender.utils.Trilean;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.bwa.BwaMemAlignment;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.ReadUtils;
@@ -29,6 +30,7 @@ import picard.cmdline.programgroups.VariantFilteringProgramGroup;
 
 import java.io.File;
 import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * <p>Filter false positive alignment artifacts from a VCF callset.</p>
@@ -157,22 +159,34 @@ public class FilterAlignmentArtifacts extends VariantWalker {
         final Map<GATKRead, GATKRead> mates = realignmentArgumentCollection.dontUseMates ? null
                 : ReadUtils.getReadToMateMap(readsContext, fragmentSize);
 
-        for (final GATKRead read : readsContext) {
+        // a decision is always reached within this many supporting reads, so we realign them and their mates in a single batch
+        final int maxReadsNeeded = maxFailedRealignments + sufficientGoodRealignments;
+        final List<GATKRead> supportingReads = passesFilter != Trilean.UNKNOWN ? Collections.emptyList() :
+                Utils.stream(readsContext)
+                        .filter(read -> RealignmentEngine.supportsVariant(read, vc, indelStartTolerance))
+                        .limit(maxReadsNeeded)
+                        .collect(Collectors.toList());
+        final List<GATKRead> readsToRealign = new ArrayList<>(supportingReads);
+        if (mates != null) {
+            supportingReads.stream().filter(mates::containsKey).map(mates::get).forEach(readsToRealign::add);
+        }
+        final List<RealignmentEngine.RealignmentResult> realignments = realignmentEngine.realign(readsToRealign);
+
+        int mateIndex = supportingReads.size();
+        for (int n = 0; n < supportingReads.size(); n++) {
             if (passesFilter != Trilean.UNKNOWN) {
                 break;
-            } else if ( !RealignmentEngine.supportsVariant(read, vc, indelStartTolerance)) {
-                continue;
             }
 
-            final RealignmentEngine.RealignmentResult readRealignment = realignmentEngine.realign(read);
+            final GATKRead read = supportingReads.get(n);
+            final RealignmentEngine.RealignmentResult readRealignment = realignments.get(n);
 
             // if there's no mate we go by the read realignment
             if (mates == null || !mates.containsKey(read)) {
                 (readRealignment.isGood() ? succeededRealignmentCount : failedRealignmentCount).increment();
             } else {
                 // check whether the pair maps uniquely
-                final GATKRead mate = mates.get(read);
-                final RealignmentEngine.RealignmentResult mateRealignment = realignmentEngine.realign(mate);
+                final RealignmentEngine.RealignmentResult mateRealignment = realignments.get(mateIndex++);
 
                 final List<BwaMemAlignment> readRealignments = readRealignment.getRealignments();
                 final List<BwaMemAlignment> mateRealignments = mateRealignment.getRealignments();
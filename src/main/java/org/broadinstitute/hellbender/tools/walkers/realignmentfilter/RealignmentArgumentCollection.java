@@ -10,6 +10,8 @@ public class RealignmentArgumentCollection {
     public static final int DEFAULT_MAX_REASONABLE_FRAGMENT_LENGTH = 100000;
     public static final int DEFAULT_MIN_ALIGNER_SCORE_DIFFERENCE = 20;
     public static final int DEFAULT_NUM_REGULAR_CONTIGS = 25;
+    public static final int DEFAULT_BWA_THREADS = 1;
+    public static final int DEFAULT_REALIGNMENT_CACHE_SIZE = 100000;
 
     /**
      * BWA-mem index image created by {@link BwaMemIndexImageCreator}
@@ -59,4 +61,15 @@ public class RealignmentArgumentCollection {
     @Argument(fullName = "seed-split-factor", shortName = "split-factor", doc = "MEMs longer than the minimum seed length times this factor are split and re-seeded.")
     public double splitFactor = DEFAULT_SEED_SPLIT_FACTOR;
 
-}
\ No newline at end of file
+    /**
+     * Number of threads BWA-mem uses to realign each batch of reads
+     */
+    @Argument(fullName = "bwa-threads", doc = "Number of threads BWA-mem uses to realign each batch of reads", minValue = 1, optional = true)
+    public int bwaThreads = DEFAULT_BWA_THREADS;
+
+    /**
+     * Maximum number of realignment results remembered so that reads overlapping several variants are only realigned once
+     */
+    @Argument(fullName = "realignment-cache-size", doc = "Maximum number of read realignments to cache; 0 disables caching", minValue = 0, optional = true)
+    public int realignmentCacheSize = DEFAULT_REALIGNMENT_CACHE_SIZE;
+}
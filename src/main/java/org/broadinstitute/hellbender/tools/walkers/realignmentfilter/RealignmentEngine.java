@@ -11,14 +11,12 @@ import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.math3.util.Pair;
 import org.broadinstitute.hellbender.utils.bwa.BwaMemAligner;
 import org.broadinstitute.hellbender.utils.bwa.BwaMemAlignment;
-import org.broadinstitute.hellbender.utils.bwa.BwaMemIndex;
+import org.broadinstitute.hellbender.utils.bwa.BwaMemIndexCache;
 import org.broadinstitute.hellbender.utils.read.AlignmentUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.ReadUtils;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 public class RealignmentEngine {
@@ -27,16 +25,29 @@ public class RealignmentEngine {
     private final int minAlignerScoreDifference;
     private final int numberOfRegularContigs;
 
+    // realignment results keyed by read name and bases, evicting the least recently used once full
+    private final Map<String, RealignmentResult> realignmentCache;
+
     public RealignmentEngine(final RealignmentArgumentCollection rfac) {
-        final BwaMemIndex index = new BwaMemIndex(rfac.bwaMemIndexImage);
         maxReasonableFragmentLength = rfac.maxReasonableFragmentLength;
         minAlignerScoreDifference = rfac.minAlignerScoreDifference;
         numberOfRegularContigs = rfac.numRegularContigs;
-        aligner = new BwaMemAligner(index);
+        aligner = new BwaMemAligner(BwaMemIndexCache.getInstance(rfac.bwaMemIndexImage));
         aligner.setMinSeedLengthOption(rfac.minSeedLength);
         aligner.setDropRatioOption((float) rfac.dropRatio);
         aligner.setSplitFactorOption((float) rfac.splitFactor);
         aligner.setFlagOption(BwaMemAligner.MEM_F_ALL);
+        aligner.setNThreadsOption(rfac.bwaThreads);
+
+        final int cacheSize = rfac.realignmentCacheSize;
+        realignmentCache = new LinkedHashMap<String, RealignmentResult>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, RealignmentResult> eldest) {
+                return size() > cacheSize;
+            }
+        };
     }
 
     public static boolean supportsVariant(final GATKRead read, final VariantContext vc, int indelStartTolerance) {
@@ -82,13 +93,55 @@ public class RealignmentEngine {
     }
 
     public RealignmentResult realign(final GATKRead read) {
-        final List<BwaMemAlignment> alignments = aligner.alignSeqs(Arrays.asList(read), GATKRead::getBasesNoCopy).get(0);
+        return realign(Collections.singletonList(read)).get(0);
+    }
+
+    /**
+     * Realign a batch of reads.  Reads that were not realigned previously (or whose results have been evicted from the cache)
+     * are sent to BWA-mem together in a single call, which spreads them over the aligner's threads.
+     *
+     * @return the realignment result of each read, in the same order as {@code reads}
+     */
+    public List<RealignmentResult> realign(final List<GATKRead> reads) {
+        final List<String> keys = reads.stream().map(RealignmentEngine::cacheKey).collect(Collectors.toList());
+        final Map<String, RealignmentResult> results = new HashMap<>(reads.size());
+        final List<GATKRead> readsToAlign = new ArrayList<>(reads.size());
+        for (int n = 0; n < reads.size(); n++) {
+            final String key = keys.get(n);
+            if (results.containsKey(key)) {
+                continue;
+            }
+            final RealignmentResult cached = realignmentCache.get(key);
+            results.put(key, cached);
+            if (cached == null) {
+                readsToAlign.add(reads.get(n));
+            }
+        }
+
+        if (!readsToAlign.isEmpty()) {
+            final List<List<BwaMemAlignment>> alignments = aligner.alignSeqs(readsToAlign, GATKRead::getBasesNoCopy);
+            for (int n = 0; n < readsToAlign.size(); n++) {
+                final String key = cacheKey(readsToAlign.get(n));
+                final RealignmentResult result = checkNonAltAlignments(alignments.get(n));
+                results.put(key, result);
+                realignmentCache.put(key, result);
+            }
+        }
 
+        return keys.stream().map(results::get).collect(Collectors.toList());
+    }
+
+    private RealignmentResult checkNonAltAlignments(final List<BwaMemAlignment> alignments) {
         final List<BwaMemAlignment> nonAltAlignments = alignments.size() == 1 ? alignments :
                 alignments.stream().filter(a -> a.getRefId() < numberOfRegularContigs).collect(Collectors.toList());
         return checkAlignments(nonAltAlignments, minAlignerScoreDifference);
     }
 
+    // the name alone is shared by mates and the bases alone by duplicates, so we need both
+    private static String cacheKey(final GATKRead read) {
+        return read.getName() + '/' + new String(read.getBasesNoCopy());
+    }
+
     @VisibleForTesting
     static RealignmentResult checkAlignments(final List<BwaMemAlignment> alignments, int minAlignerScoreDifference) {
         if (alignments.isEmpty()) {
@@ -574,9 +574,6 @@ public final class SelectVariants extends VariantWalker {
                 return;
         }
 
-        // Initialize the cache of PL index to a list of alleles for each ploidy.
-        initalizeAlleleAnyploidIndicesCache(vc);
-
         final VariantContext sub = subsetRecord(vc, preserveAlleles, removeUnusedAlternates);
         final VariantContextBuilder builder = new VariantContextBuilder(vc);
         if ( setFilteredGenotypesToNocall ) {
@@ -1018,6 +1015,10 @@ public final class SelectVariants extends VariantWalker {
             return vc;
         }
 
+        // Initialize the cache of PL index to a list of alleles for each ploidy. This looks at every genotype, so it's
+        // only done once the genotypes have to be decoded anyway, which lets pure site selection write them unparsed.
+        initalizeAlleleAnyploidIndicesCache(vc);
+
         // strip out the alternate alleles that aren't being used
         final VariantContext sub = vc.subContextFromSamples(samples, removeUnusedAlternates);
 
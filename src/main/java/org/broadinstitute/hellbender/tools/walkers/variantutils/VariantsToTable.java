@@ -180,6 +180,9 @@ public final class VariantsToTable extends VariantWalker {
 
     private static final String MISSING_DATA = "NA";
 
+    // site-level fields whose values are computed from the genotypes
+    private static final Set<String> FIELDS_FROM_GENOTYPES = new HashSet<>(Arrays.asList("HET", "HOM-REF", "HOM-VAR", "NO-CALL", "VAR", "NSAMPLES", "NCALLED"));
+
     private SortedSet<String> samples;
     private long nRecords = 0L;
     private PrintStream outputStream = null;
@@ -223,6 +226,11 @@ public final class VariantsToTable extends VariantWalker {
         }
     }
 
+    @Override
+    public boolean requiresGenotypes() {
+        return !genotypeFieldsToTake.isEmpty() || fieldsToTake.stream().anyMatch(FIELDS_FROM_GENOTYPES::contains);
+    }
+
     @Override
     public void apply(final VariantContext vc, final ReadsContext readsContext, final ReferenceContext ref, final FeatureContext featureContext) {
         if ( showFiltered || vc.isNotFiltered() ) {
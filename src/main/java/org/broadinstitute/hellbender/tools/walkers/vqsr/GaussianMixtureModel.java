@@ -10,6 +10,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 import Jama.Matrix;
 
@@ -121,23 +124,41 @@ class GaussianMixtureModel {
     }
 
     public void expectationStep( final List<VariantDatum> data ) {
+        expectationStep(data, null);
+    }
+
+    /**
+     * E step of the variational Bayes EM. The responsibilities of each datum are independent of the other data,
+     * so they are computed in parallel on the given pool (or serially if it is null) with identical results.
+     */
+    public void expectationStep( final List<VariantDatum> data, final ForkJoinPool threadPool ) {
 
         for( final MultivariateGaussian gaussian : gaussians ) {
             gaussian.precomputeDenominatorForVariationalBayes( getSumHyperParameterLambda() );
         }
 
-        for( final VariantDatum datum : data ) {
+        forEachIndex(threadPool, data.size(), datumIndex -> {
+            final VariantDatum datum = data.get(datumIndex);
             final double[] pVarInGaussianLog10 = gaussians.stream().mapToDouble(g -> g.evaluateDatumLog10(datum)).toArray();
             final double[] pVarInGaussianNormalized = MathUtils.normalizeLog10DeleteMePlease( pVarInGaussianLog10, false);
             int gaussianIndex = 0;
             for( final MultivariateGaussian gaussian : gaussians ) {
-                gaussian.assignPVarInGaussian( pVarInGaussianNormalized[gaussianIndex++] );
+                gaussian.assignPVarInGaussian( datumIndex, pVarInGaussianNormalized[gaussianIndex++] );
             }
-        }
+        });
     }
 
     public void maximizationStep( final List<VariantDatum> data ) {
-        gaussians.forEach(g -> g.maximizeGaussian( data, empiricalMu, empiricalSigma, shrinkage, dirichletParameter, priorCounts));
+        maximizationStep(data, null);
+    }
+
+    /**
+     * M step of the variational Bayes EM. Each Gaussian is updated from its own responsibilities, so the Gaussians
+     * are updated in parallel on the given pool (or serially if it is null) with identical results.
+     */
+    public void maximizationStep( final List<VariantDatum> data, final ForkJoinPool threadPool ) {
+        forEachIndex(threadPool, gaussians.size(), gaussianIndex ->
+                gaussians.get(gaussianIndex).maximizeGaussian( data, empiricalMu, empiricalSigma, shrinkage, dirichletParameter, priorCounts));
     }
 
     private double getSumHyperParameterLambda() {
@@ -145,10 +166,28 @@ class GaussianMixtureModel {
     }
 
     public void evaluateFinalModelParameters( final List<VariantDatum> data ) {
-        gaussians.forEach(g -> g.evaluateFinalModelParameters(data));
+        evaluateFinalModelParameters(data, null);
+    }
+
+    public void evaluateFinalModelParameters( final List<VariantDatum> data, final ForkJoinPool threadPool ) {
+        forEachIndex(threadPool, gaussians.size(), gaussianIndex -> gaussians.get(gaussianIndex).evaluateFinalModelParameters(data));
         normalizePMixtureLog10();
     }
 
+    /**
+     * Apply the function to every index in [0, n), in parallel on the given pool, or serially if the pool is null.
+     * The function must not depend on the order in which indices are visited.
+     */
+    static void forEachIndex( final ForkJoinPool threadPool, final int n, final IntConsumer function ) {
+        if( threadPool == null ) {
+            for( int i = 0; i < n; i++ ) {
+                function.accept(i);
+            }
+        } else {
+            threadPool.submit(() -> IntStream.range(0, n).parallel().forEach(function)).join();
+        }
+    }
+
     public double normalizePMixtureLog10() {
         double sumDiff = 0.0;
         final double sumPK = gaussians.stream().mapToDouble(g -> g.sumProb).sum();
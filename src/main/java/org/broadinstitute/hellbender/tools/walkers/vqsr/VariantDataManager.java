@@ -31,6 +31,7 @@ public class VariantDataManager {
     protected final List<TrainingSet> trainingSets;
     private static final double SAFETY_OFFSET = 0.01;     //To use for example as 1/(X + SAFETY_OFFSET) to protect against dividing or taking log of X=0.
     private static final double PRECISION = 0.01;         //To use mainly with MathUtils.compareDoubles(a,b,PRECISION)
+    private static final List<Allele> DUMMY_RECAL_ALLELES = Arrays.asList(Allele.create("N", true), Allele.create("<VQSR>", false));
 
     public VariantDataManager( final List<String> annotationKeys, final VariantRecalibratorArgumentCollection VRAC ) {
         this.data = Collections.emptyList();
@@ -118,6 +119,20 @@ public class VariantDataManager {
         logger.info("Annotation order is: " + annotationKeys.toString());
     }
 
+    /**
+     * Normalize the annotations of a single datum that was decoded after {@link #normalizeData} has been called, so that
+     * its annotations are already in the normalized annotation order, and flag it if it fails the standard deviation
+     * threshold. Used to score variants one at a time without holding the callset in memory.
+     */
+    public void normalizeDatum(final VariantDatum datum) {
+        boolean remove = false;
+        for( int iii = 0; iii < meanVector.length; iii++ ) {
+            datum.annotations[iii] = ( datum.isNull[iii] ? 0.1 * Utils.getRandomGenerator().nextGaussian() : ( datum.annotations[iii] - meanVector[iii] ) / varianceVector[iii] );
+            remove = remove || (Math.abs(datum.annotations[iii]) > VRAC.STD_THRESHOLD);
+        }
+        datum.failingSTDThreshold = remove;
+    }
+
     public double[] getMeanVector() {
         return meanVector;
     }
@@ -455,21 +470,25 @@ public class VariantDataManager {
         // we need to sort in coordinate order in order to produce a valid VCF
         Collections.sort( data, VariantDatum.getComparator(seqDictionary) );
 
-        // create dummy alleles to be used
-        List<Allele> alleles = Arrays.asList(Allele.create("N", true), Allele.create("<VQSR>", false));
-
         for( final VariantDatum datum : data ) {
-            if (VRAC.useASannotations)
-                alleles = Arrays.asList(datum.referenceAllele, datum.alternateAllele); //use the alleles to distinguish between multiallelics in AS mode
-            VariantContextBuilder builder = new VariantContextBuilder("VQSR", datum.loc.getContig(), datum.loc.getStart(), datum.loc.getEnd(), alleles);
-            builder.attribute(VCFConstants.END_KEY, datum.loc.getEnd());
-            builder.attribute(GATKVCFConstants.VQS_LOD_KEY, String.format("%.4f", datum.lod));
-            builder.attribute(GATKVCFConstants.CULPRIT_KEY, (datum.worstAnnotation != -1 ? annotationKeys.get(datum.worstAnnotation) : "NULL"));
-
-            if ( datum.atTrainingSite ) builder.attribute(GATKVCFConstants.POSITIVE_LABEL_KEY, true);
-            if ( datum.atAntiTrainingSite ) builder.attribute(GATKVCFConstants.NEGATIVE_LABEL_KEY, true);
-
-            recalWriter.add(builder.make());
+            writeRecalibrationRecord(recalWriter, datum);
         }
     }
+
+    /**
+     * Write the recal file record for a single datum. Records must be written in coordinate order.
+     */
+    public void writeRecalibrationRecord(final VariantContextWriter recalWriter, final VariantDatum datum) {
+        // use dummy alleles, unless we need the alleles to distinguish between multiallelics in AS mode
+        final List<Allele> alleles = VRAC.useASannotations ? Arrays.asList(datum.referenceAllele, datum.alternateAllele) : DUMMY_RECAL_ALLELES;
+        VariantContextBuilder builder = new VariantContextBuilder("VQSR", datum.loc.getContig(), datum.loc.getStart(), datum.loc.getEnd(), alleles);
+        builder.attribute(VCFConstants.END_KEY, datum.loc.getEnd());
+        builder.attribute(GATKVCFConstants.VQS_LOD_KEY, String.format("%.4f", datum.lod));
+        builder.attribute(GATKVCFConstants.CULPRIT_KEY, (datum.worstAnnotation != -1 ? annotationKeys.get(datum.worstAnnotation) : "NULL"));
+
+        if ( datum.atTrainingSite ) builder.attribute(GATKVCFConstants.POSITIVE_LABEL_KEY, true);
+        if ( datum.atAntiTrainingSite ) builder.attribute(GATKVCFConstants.NEGATIVE_LABEL_KEY, true);
+
+        recalWriter.add(builder.make());
+    }
 }
@@ -43,6 +43,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.PrintStream;
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * Build a recalibration model to score variant quality for filtering purposes
@@ -360,6 +361,22 @@ public class VariantRecalibrator extends MultiVariantWalker {
     @VisibleForTesting
     protected int max_attempts = 1;
 
+    /**
+     * For very large callsets, build the models from bounded reservoir samples of the sites rather than from the whole
+     * callset held in memory. The first pass over the variants keeps a uniform random sample of at most this many
+     * training sites and at most this many other sites, and fits the models to them. The second pass scores every
+     * variant against the models and writes it to the recal file as it goes, keeping only the few fields needed to find
+     * the tranches. When used with --input-model, the first pass is skipped. Since the models are fit to a sample, the
+     * results differ slightly from those of a run without this argument. This argument cannot be combined with
+     * --max-attempts.
+     */
+    @Advanced
+    @Argument(fullName="reservoir-size",
+            doc="If greater than 0, fit the models to reservoir samples of at most this many training sites and this many other sites, then score every variant in a second, streaming pass",
+            optional=true,
+            minValue=0)
+    private int reservoirSize = 0;
+
     /////////////////////////////
     // Debug Arguments
     /////////////////////////////
@@ -393,6 +410,17 @@ public class VariantRecalibrator extends MultiVariantWalker {
     private int numAnnotations;
     private RScriptExecutor rScriptExecutor;
 
+    // state used when fitting the models to reservoir samples and streaming the variants in a second pass
+    private Consumer<VariantDatum> datumConsumer = reduceSum::add;
+    private DatumReservoir trainingReservoir;
+    private DatumReservoir otherReservoir;
+    private boolean isStreamingPass = false;
+    private GaussianMixtureModel streamingGoodModel;
+    private GaussianMixtureModel streamingBadModel;
+    private List<VariantDatum> streamingPositiveTrainingData;
+    private List<VariantDatum> streamingNegativeTrainingData;
+    private final ExpandingArrayList<VariantDatum> streamingTrancheData = new ExpandingArrayList<>();
+
     //---------------------------------------------------------------------------------------------------------------
     //
     // onTraversalStart
@@ -481,6 +509,16 @@ public class VariantRecalibrator extends MultiVariantWalker {
         for ( int iii = 0; iii < REPLICATE * 2; iii++ ) {
             replicate.add(Utils.getRandomGenerator().nextDouble());
         }
+
+        if (reservoirSize > 0) {
+            if (max_attempts > 1) {
+                throw new CommandLineException.BadArgumentValue("max-attempts", String.valueOf(max_attempts),
+                        "Models fit to reservoir samples are not retried, so --max-attempts cannot be used with --reservoir-size");
+            }
+            trainingReservoir = new DatumReservoir(reservoirSize);
+            otherReservoir = new DatumReservoir(reservoirSize);
+            datumConsumer = datum -> (datum.atTrainingSite ? trainingReservoir : otherReservoir).add(datum);
+        }
     }
 
     /**
@@ -514,6 +552,33 @@ public class VariantRecalibrator extends MultiVariantWalker {
     //
     //---------------------------------------------------------------------------------------------------------------
 
+    /**
+     * Makes a single pass over the variants, unless --reservoir-size was specified, in which case the first pass samples
+     * the data used to fit the models and the second pass scores and writes every variant.
+     */
+    @Override
+    public void traverse() {
+        if (reservoirSize == 0) {
+            super.traverse();
+            return;
+        }
+
+        if (inputModel == null) {
+            logger.info("Starting first pass through the variants to sample the data used to fit the models");
+            super.traverse();
+            consumeQueuedVariants();
+            fitModelsToReservoirs();
+        } else {
+            loadModelsForStreaming();
+        }
+
+        logger.info("Starting second pass through the variants to score every variant");
+        isStreamingPass = true;
+        counter = 0;
+        datumConsumer = this::recalibrateAndWriteDatum;
+        super.traverse();
+    }
+
     @Override
     public void apply(final VariantContext vc, final ReadsContext readsContext, final ReferenceContext ref, final FeatureContext featureContext) {
         // Queue up all variant/featureContext pairs that share a start locus, and defer
@@ -542,7 +607,7 @@ public class VariantRecalibrator extends MultiVariantWalker {
 
     private void consumeQueuedVariants() {
         variantsAtLocus.forEach(v -> addVariantDatum(v.left, true, v.right));
-        if (!aggregate.isEmpty()) {
+        if (!aggregate.isEmpty() && !isStreamingPass) {
             // use the first featureContext in the queue for the aggregate resources
             addOverlappingAggregateVariants(aggregate, false, variantsAtLocus.get(0).getRight());
         }
@@ -570,12 +635,12 @@ public class VariantRecalibrator extends MultiVariantWalker {
     private void addVariantDatum(final VariantContext vc, final boolean isInput, final FeatureContext context ) {
         if( vc != null && ( IGNORE_ALL_FILTERS || vc.isNotFiltered() || ignoreInputFilterSet.containsAll(vc.getFilters()) ) ) {
             if( VariantDataManager.checkVariationClass( vc, VRAC.MODE ) && !VRAC.useASannotations) {
-                addDatum(reduceSum, isInput, context, vc, null, null);
+                addDatum(datumConsumer, isInput, context, vc, null, null);
             }
             else if( VRAC.useASannotations ) {
                 for (final Allele allele : vc.getAlternateAlleles()) {
                     if (!GATKVCFConstants.isSpanningDeletion(allele) && VariantDataManager.checkVariationClass(vc, allele, VRAC.MODE)) {
-                        addDatum(reduceSum, isInput, context, vc, vc.getReference(), allele);
+                        addDatum(datumConsumer, isInput, context, vc, vc.getReference(), allele);
                     }
                 }
             }
@@ -584,10 +649,10 @@ public class VariantRecalibrator extends MultiVariantWalker {
 
     /**
      * add a datum representing a variant site (or allele) to the data in {@code variants}, which represents the callset to be recalibrated
-     * @param variants is modified by having a new VariantDatum added to it
+     * @param variants is given the new VariantDatum
      */
     private void addDatum(
-            final ExpandingArrayList<VariantDatum> variants,
+            final Consumer<VariantDatum> variants,
             final boolean isInput,
             final FeatureContext featureContext,
             final VariantContext vc,
@@ -616,9 +681,128 @@ public class VariantRecalibrator extends MultiVariantWalker {
         final double priorFactor = QualityUtils.qualToProb(datum.prior);
         datum.prior = Math.log10(priorFactor) - Math.log10(1.0 - priorFactor);
 
-        variants.add(datum);
+        variants.accept(datum);
+    }
+
+    /**
+     * Fit the positive and negative models to the data sampled during the first pass, the same way they are fit to the
+     * whole callset when not streaming.
+     */
+    private void fitModelsToReservoirs() {
+        final List<VariantDatum> sampledData = new ExpandingArrayList<>();
+        sampledData.addAll(trainingReservoir.getSample());
+        sampledData.addAll(otherReservoir.getSample());
+        logger.info(String.format("Fitting models to %d of %d training sites and %d of %d other sites",
+                trainingReservoir.getSampleSize(), trainingReservoir.getNumSeen(),
+                otherReservoir.getSampleSize(), otherReservoir.getNumSeen()));
+        trainingReservoir.releaseSample();
+        otherReservoir.releaseSample();
+
+        dataManager.setData(sampledData);
+        dataManager.normalizeData(true, annotationOrder);
+
+        streamingPositiveTrainingData = dataManager.getTrainingData();
+        streamingGoodModel = engine.generateModel(streamingPositiveTrainingData, VRAC.MAX_GAUSSIANS);
+        engine.evaluateData(dataManager.getData(), streamingGoodModel, false);
+        streamingNegativeTrainingData = dataManager.selectWorstVariants();
+        streamingBadModel = engine.generateModel(streamingNegativeTrainingData,
+                Math.min(VRAC.MAX_GAUSSIANS_FOR_NEGATIVE_MODEL, VRAC.MAX_GAUSSIANS));
+
+        if (streamingBadModel.failedToConverge || streamingGoodModel.failedToConverge) {
+            throw new UserException(
+                    "NaN LOD value assigned. Clustering with this few variants and these annotations is unsafe. Please consider " + (streamingBadModel.failedToConverge ? "raising the number of variants used to train the negative model (via --minimum-bad-variants 5000, for example)." : "lowering the maximum number of Gaussians allowed for use in the model (via --max-gaussians 4, for example)."));
+        }
+
+        // the sampled data are only kept for plotting
+        dataManager.dropAggregateData();
+        engine.evaluateData(dataManager.getData(), streamingBadModel, true);
+        engine.calculateWorstPerformingAnnotation(dataManager.getData(), streamingGoodModel, streamingBadModel);
+
+        if (outputModel != null) {
+            writeModel(streamingGoodModel, streamingBadModel);
+        }
+    }
+
+    private void loadModelsForStreaming() {
+        logger.info("Using serialized GMMs from file...");
+        // normalizing no data just puts the annotations into the order used by the serialized model
+        dataManager.normalizeData(false, annotationOrder);
+        streamingGoodModel = GMMFromTables(pmmTable, pmcTable, pPMixTable, numAnnotations, 0);
+        streamingBadModel = GMMFromTables(nmmTable, nmcTable, nPMixTable, numAnnotations, 0);
+        streamingPositiveTrainingData = new ExpandingArrayList<>();
+        streamingNegativeTrainingData = new ExpandingArrayList<>();
+    }
+
+    /**
+     * Score a datum in the second pass and write it to the recal file. Only the fields needed to find the tranches
+     * are kept.
+     */
+    private void recalibrateAndWriteDatum(final VariantDatum datum) {
+        if (datum.isAggregate) {
+            return;
+        }
+        dataManager.normalizeDatum(datum);
+        if (!engine.evaluateDatumContrastively(datum, streamingGoodModel, streamingBadModel)) {
+            throw new UserException("NaN LOD value assigned at " + datum.loc + ". Clustering with this few variants and these annotations is unsafe.");
+        }
+        engine.calculateWorstPerformingAnnotation(Collections.singletonList(datum), streamingGoodModel, streamingBadModel);
+        dataManager.writeRecalibrationRecord(recalWriter, datum);
+
+        final VariantDatum trancheDatum = new VariantDatum();
+        trancheDatum.lod = datum.lod;
+        trancheDatum.atTruthSite = datum.atTruthSite;
+        trancheDatum.isKnown = datum.isKnown;
+        trancheDatum.isSNP = datum.isSNP;
+        trancheDatum.isTransition = datum.isTransition;
+        streamingTrancheData.add(trancheDatum);
+    }
+
+    /**
+     * A uniform random sample of bounded size of the data it is given (Vitter's algorithm R).
+     */
+    @VisibleForTesting
+    static final class DatumReservoir {
+        private final int capacity;
+        private List<VariantDatum> sample;
+        private int sampleSize = 0;
+        private long numSeen = 0;
+
+        DatumReservoir(final int capacity) {
+            this.capacity = capacity;
+            this.sample = new ExpandingArrayList<>(Math.min(capacity, 2000));
+        }
+
+        void add(final VariantDatum datum) {
+            numSeen++;
+            if (sample.size() < capacity) {
+                sample.add(datum);
+                sampleSize++;
+            } else {
+                final long index = (long) (Utils.getRandomGenerator().nextDouble() * numSeen);
+                if (index < capacity) {
+                    sample.set((int) index, datum);
+                }
+            }
+        }
+
+        List<VariantDatum> getSample() { return sample; }
+
+        /**
+         * Drops the sampled data once the models have been fit to them. The sample size is kept.
+         */
+        void releaseSample() { sample = Collections.emptyList(); }
+
+        int getSampleSize() { return sampleSize; }
+
+        long getNumSeen() { return numSeen; }
     }
 
+    @VisibleForTesting
+    DatumReservoir getTrainingReservoir() { return trainingReservoir; }
+
+    @VisibleForTesting
+    DatumReservoir getOtherReservoir() { return otherReservoir; }
+
     //---------------------------------------------------------------------------------------------------------------
     //
     // on traversal success
@@ -630,6 +814,15 @@ public class VariantRecalibrator extends MultiVariantWalker {
 
         consumeQueuedVariants(); // finish processing any queued variants
 
+        if (reservoirSize > 0) {
+            writeTranches(streamingTrancheData);
+            if (RSCRIPT_FILE != null) {
+                writeVisualizationScript(streamingPositiveTrainingData, streamingNegativeTrainingData, streamingGoodModel, streamingBadModel);
+            }
+            plotTranches();
+            return true;
+        }
+
         for (int i = 1; i <= max_attempts; i++) {
             try {
                 dataManager.setData(reduceSum);
@@ -666,60 +859,21 @@ public class VariantRecalibrator extends MultiVariantWalker {
                 engine.evaluateData(dataManager.getData(), badModel, true);
 
                 if (outputModel != null) {
-                    final GATKReport report = writeModelReport(goodModel, badModel, USE_ANNOTATIONS);
-                    try (final PrintStream modelReportStream = new PrintStream(outputModel)) {
-                        report.print(modelReportStream);
-                    } catch (FileNotFoundException e) {
-                        throw new UserException.CouldNotCreateOutputFile("File: (" + outputModel + ")", e);
-                    }
+                    writeModel(goodModel, badModel);
                 }
 
                 engine.calculateWorstPerformingAnnotation(dataManager.getData(), goodModel, badModel);
 
 
-                // Find the VQSLOD cutoff values which correspond to the various tranches of calls requested by the user
-                final int nCallsAtTruth = TrancheManager.countCallsAtTruth(dataManager.getData(), Double.NEGATIVE_INFINITY);
-                final TrancheManager.SelectionMetric metric = new TrancheManager.TruthSensitivityMetric(nCallsAtTruth);
-                if ( !scatterTranches ) {
-                    final List<? extends Tranche> tranches = TrancheManager.findTranches(dataManager.getData(), TS_TRANCHES, metric, VRAC.MODE);
-                    tranchesStream.print(TruthSensitivityTranche.printHeader());
-                    tranchesStream.print(Tranche.tranchesString(tranches));
-                }
-                else {
-                    final List<? extends Tranche> tranches = TrancheManager.findVQSLODTranches(dataManager.getData(), VQSLOD_TRANCHES, metric, VRAC.MODE);
-                    tranchesStream.print(VQSLODTranche.printHeader());
-                    tranchesStream.print(Tranche.tranchesString(tranches));
-                }
+                writeTranches(dataManager.getData());
 
                 logger.info("Writing out recalibration table...");
                 dataManager.writeOutRecalibrationTable(recalWriter, getBestAvailableSequenceDictionary());
                 if (RSCRIPT_FILE != null) {
-                    logger.info("Writing out visualization Rscript file...");
-                    createVisualizationScript(dataManager.getRandomDataForPlotting(
-                            1000,
-                            positiveTrainingData,
-                            negativeTrainingData,
-                            dataManager.getEvaluationData()),
-                            goodModel,
-                            badModel,
-                            0.0,
-                            dataManager.getAnnotationKeys().toArray(new String[USE_ANNOTATIONS.size()]));
+                    writeVisualizationScript(positiveTrainingData, negativeTrainingData, goodModel, badModel);
                 }
 
-                if (VRAC.MODE == VariantRecalibratorArgumentCollection.Mode.INDEL) {
-                    // Print out an info message to make it clear why the tranches plot is not generated
-                    logger.info("Tranches plot will not be generated since we are running in INDEL mode");
-                } else if (scatterTranches) {
-                    //skip R plots for scattered tranches because the format is different and the R code parses them
-                    logger.info("Tranches plot will not be generated since we are running in scattered mode");
-                } else if (RSCRIPT_FILE != null) { //we don't use the RSCRIPT_FILE for tranches, but here it's an indicator if we're setup to run R
-                    // Execute the RScript command to plot the table of truth values
-                    rScriptExecutor.addScript(new Resource(PLOT_TRANCHES_RSCRIPT, VariantRecalibrator.class));
-                    rScriptExecutor.addArgs(new File(TRANCHES_FILE).getAbsoluteFile(), TARGET_TITV);
-                    // Print out the command line to make it clear to the user what is being executed and how one might modify it
-                    logger.info("Executing: " + rScriptExecutor.getApproximateCommandLine());
-                    rScriptExecutor.exec();
-                }
+                plotTranches();
                 return true;
             }
             catch (final Exception e) {
@@ -744,6 +898,67 @@ public class VariantRecalibrator extends MultiVariantWalker {
         return false;
     }
 
+    private void writeModel(final GaussianMixtureModel goodModel, final GaussianMixtureModel badModel) {
+        final GATKReport report = writeModelReport(goodModel, badModel, USE_ANNOTATIONS);
+        try (final PrintStream modelReportStream = new PrintStream(outputModel)) {
+            report.print(modelReportStream);
+        } catch (FileNotFoundException e) {
+            throw new UserException.CouldNotCreateOutputFile("File: (" + outputModel + ")", e);
+        }
+    }
+
+    /**
+     * Find the VQSLOD cutoff values which correspond to the various tranches of calls requested by the user
+     */
+    private void writeTranches(final List<VariantDatum> data) {
+        final int nCallsAtTruth = TrancheManager.countCallsAtTruth(data, Double.NEGATIVE_INFINITY);
+        final TrancheManager.SelectionMetric metric = new TrancheManager.TruthSensitivityMetric(nCallsAtTruth);
+        if ( !scatterTranches ) {
+            final List<? extends Tranche> tranches = TrancheManager.findTranches(data, TS_TRANCHES, metric, VRAC.MODE);
+            tranchesStream.print(TruthSensitivityTranche.printHeader());
+            tranchesStream.print(Tranche.tranchesString(tranches));
+        }
+        else {
+            final List<? extends Tranche> tranches = TrancheManager.findVQSLODTranches(data, VQSLOD_TRANCHES, metric, VRAC.MODE);
+            tranchesStream.print(VQSLODTranche.printHeader());
+            tranchesStream.print(Tranche.tranchesString(tranches));
+        }
+    }
+
+    private void writeVisualizationScript(
+            final List<VariantDatum> positiveTrainingData,
+            final List<VariantDatum> negativeTrainingData,
+            final GaussianMixtureModel goodModel,
+            final GaussianMixtureModel badModel) {
+        logger.info("Writing out visualization Rscript file...");
+        createVisualizationScript(dataManager.getRandomDataForPlotting(
+                1000,
+                positiveTrainingData,
+                negativeTrainingData,
+                dataManager.getEvaluationData()),
+                goodModel,
+                badModel,
+                0.0,
+                dataManager.getAnnotationKeys().toArray(new String[USE_ANNOTATIONS.size()]));
+    }
+
+    private void plotTranches() {
+        if (VRAC.MODE == VariantRecalibratorArgumentCollection.Mode.INDEL) {
+            // Print out an info message to make it clear why the tranches plot is not generated
+            logger.info("Tranches plot will not be generated since we are running in INDEL mode");
+        } else if (scatterTranches) {
+            //skip R plots for scattered tranches because the format is different and the R code parses them
+            logger.info("Tranches plot will not be generated since we are running in scattered mode");
+        } else if (RSCRIPT_FILE != null) { //we don't use the RSCRIPT_FILE for tranches, but here it's an indicator if we're setup to run R
+            // Execute the RScript command to plot the table of truth values
+            rScriptExecutor.addScript(new Resource(PLOT_TRANCHES_RSCRIPT, VariantRecalibrator.class));
+            rScriptExecutor.addArgs(new File(TRANCHES_FILE).getAbsoluteFile(), TARGET_TITV);
+            // Print out the command line to make it clear to the user what is being executed and how one might modify it
+            logger.info("Executing: " + rScriptExecutor.getApproximateCommandLine());
+            rScriptExecutor.exec();
+        }
+    }
+
     @Override
     public void closeTool(){
         if (recalWriter != null) {
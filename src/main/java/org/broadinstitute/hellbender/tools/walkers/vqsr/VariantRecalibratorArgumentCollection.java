@@ -65,6 +65,14 @@ final class VariantRecalibratorArgumentCollection {
     @Argument(fullName = "k-means-iterations", doc = "Number of k-means iterations", optional = true)
     public int NUM_KMEANS_ITERATIONS = 100;
 
+    /**
+     * The variational Bayes EM and the evaluation of every variant against the models can be spread over several threads.
+     * The results are identical to those of a single thread.
+     */
+    @Advanced
+    @Argument(fullName = "threads", doc = "Number of threads to use for fitting and evaluating the Gaussian mixture models", optional = true, minValue = 1)
+    public int NUM_THREADS = 1;
+
     /**
      * If a variant has annotations more than -std standard deviations away from mean, it won't be used for building
      * the Gaussian mixture model.
@@ -6,6 +6,7 @@ import org.apache.logging.log4j.LogManager;
 import org.broadinstitute.hellbender.utils.Utils;
 
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 public class VariantRecalibratorEngine {
 
@@ -44,7 +45,12 @@ public class VariantRecalibratorEngine {
                 VRAC.SHRINKAGE,
                 VRAC.DIRICHLET_PARAMETER,
                 VRAC.PRIOR_COUNTS );
-        variationalBayesExpectationMaximization( model, data );
+        final ForkJoinPool threadPool = makeThreadPool();
+        try {
+            variationalBayesExpectationMaximization( model, data, threadPool );
+        } finally {
+            shutdown( threadPool );
+        }
         return model;
     }
 
@@ -60,8 +66,24 @@ public class VariantRecalibratorEngine {
         }
 
         logger.info("Evaluating full set of " + data.size() + " variants...");
+
+        // Data with missing annotations are marginalized using random draws, so those are evaluated serially below,
+        // in order, to keep the sequence of random numbers (and so the results) independent of the number of threads.
+        final double[] lods = new double[data.size()];
+        final ForkJoinPool threadPool = makeThreadPool();
+        try {
+            GaussianMixtureModel.forEachIndex( threadPool, data.size(), datumIndex -> {
+                final VariantDatum datum = data.get(datumIndex);
+                lods[datumIndex] = hasMissingAnnotations( datum ) ? Double.NaN : evaluateDatum( datum, model );
+            });
+        } finally {
+            shutdown( threadPool );
+        }
+
+        int datumIndex = 0;
         for( final VariantDatum datum : data ) {
-            final double thisLod = evaluateDatum( datum, model );
+            final double thisLod = hasMissingAnnotations( datum ) ? evaluateDatum( datum, model ) : lods[datumIndex];
+            datumIndex++;
             if( Double.isNaN(thisLod) ) {
                 logger.warn("Evaluate datum returned a NaN.");
                 model.failedToConverge = true;
@@ -76,6 +98,27 @@ public class VariantRecalibratorEngine {
         }
     }
 
+    /**
+     * Score a single variant against both models, the way {@link #evaluateData} scores a whole callset against the positive
+     * model and then contrastively against the negative model. The variant is marked as an anti-training site if it meets
+     * the criteria used by {@link VariantDataManager#selectWorstVariants}.
+     * @return false if either model evaluated the variant as NaN, in which case its lod is not set
+     */
+    public boolean evaluateDatumContrastively( final VariantDatum datum, final GaussianMixtureModel goodModel, final GaussianMixtureModel badModel ) {
+        final double goodLod = evaluateDatum( datum, goodModel );
+        final double badLod = evaluateDatum( datum, badModel );
+        if( Double.isNaN(goodLod) || Double.isNaN(badLod) ) {
+            return false;
+        }
+        if( !datum.failingSTDThreshold && !Double.isInfinite(goodLod) && goodLod < VRAC.BAD_LOD_CUTOFF ) {
+            datum.atAntiTrainingSite = true;
+        }
+        datum.lod = ( Double.isInfinite(goodLod) ?
+                        ( MIN_ACCEPTABLE_LOD_SCORE + Utils.getRandomGenerator().nextDouble() * MIN_ACCEPTABLE_LOD_SCORE )
+                        : datum.prior + goodLod - badLod );
+        return true;
+    }
+
     public void calculateWorstPerformingAnnotation( final List<VariantDatum> data, final GaussianMixtureModel goodModel, final GaussianMixtureModel badModel ) {
         for( final VariantDatum datum : data ) {
             int worstAnnotation = -1;
@@ -99,21 +142,21 @@ public class VariantRecalibratorEngine {
     // Private Methods used for generating a GaussianMixtureModel
     /////////////////////////////
 
-    private void variationalBayesExpectationMaximization( final GaussianMixtureModel model, final List<VariantDatum> data ) {
+    private void variationalBayesExpectationMaximization( final GaussianMixtureModel model, final List<VariantDatum> data, final ForkJoinPool threadPool ) {
 
         model.initializeRandomModel( data, VRAC.NUM_KMEANS_ITERATIONS );
 
         // The VBEM loop
         model.normalizePMixtureLog10();
-        model.expectationStep( data );
+        model.expectationStep( data, threadPool );
         double currentChangeInMixtureCoefficients;
         int iteration = 0;
         logger.info("Finished iteration " + iteration + ".");
         while( iteration < VRAC.MAX_ITERATIONS ) {
             iteration++;
-            model.maximizationStep( data );
+            model.maximizationStep( data, threadPool );
             currentChangeInMixtureCoefficients = model.normalizePMixtureLog10();
-            model.expectationStep( data );
+            model.expectationStep( data, threadPool );
             if( iteration % 5 == 0 ) { // cut down on the number of output lines so that users can read the warning messages
                 logger.info("Finished iteration " + iteration + ". \tCurrent change in mixture coefficients = " + String.format("%.5f", currentChangeInMixtureCoefficients));
             }
@@ -123,7 +166,20 @@ public class VariantRecalibratorEngine {
             }
         }
 
-        model.evaluateFinalModelParameters( data );
+        model.evaluateFinalModelParameters( data, threadPool );
+    }
+
+    /**
+     * @return a pool with the requested number of threads, or null if only one thread was requested
+     */
+    private ForkJoinPool makeThreadPool() {
+        return VRAC.NUM_THREADS > 1 ? new ForkJoinPool( VRAC.NUM_THREADS ) : null;
+    }
+
+    private static void shutdown( final ForkJoinPool threadPool ) {
+        if( threadPool != null ) {
+            threadPool.shutdown();
+        }
     }
 
     /////////////////////////////
@@ -133,4 +189,13 @@ public class VariantRecalibratorEngine {
     private double evaluateDatum( final VariantDatum datum, final GaussianMixtureModel model ) {
         return model.evaluateDatum( datum );
     }
+
+    private static boolean hasMissingAnnotations( final VariantDatum datum ) {
+        for( final boolean isNull : datum.isNull ) {
+            if( isNull ) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -4,7 +4,8 @@ import org.apache.commons.math3.distribution.AbstractIntegerDistribution;
 import org.apache.commons.math3.distribution.HypergeometricDistribution;
 
 import java.util.Arrays;
-import java.util.stream.DoubleStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Implements the Fisher's exact test for 2x2 tables
@@ -13,6 +14,22 @@ import java.util.stream.DoubleStream;
 public final class FisherExactTest {
     private static final double REL_ERR = 1 - 10e-7;
 
+    // normalized tables sum to less than 2 * 200
+    private static final int MAX_CACHED_TABLE_TOTAL = 400;
+    private static final int MAX_CACHED_DISTRIBUTIONS_PER_THREAD = 1000;
+
+    private static final ThreadLocal<Map<Long, double[]>> LOG_PROBABILITIES_CACHE = ThreadLocal.withInitial(() ->
+            new LinkedHashMap<Long, double[]>(MAX_CACHED_DISTRIBUTIONS_PER_THREAD, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<Long, double[]> eldest) {
+                    return size() > MAX_CACHED_DISTRIBUTIONS_PER_THREAD;
+                }
+            });
+
+    private static final ThreadLocal<double[]> LOG10_PROBABILITIES_BUFFER = ThreadLocal.withInitial(() -> new double[MAX_CACHED_TABLE_TOTAL + 1]);
+
     /**
      * Computes the 2-sided pvalue of the Fisher's exact test on a normalized table that ensures that the sum of
      * all four entries is less than 2 * 200.
@@ -36,13 +53,44 @@ public final class FisherExactTest {
             return 1.0;
         }
 
-        final AbstractIntegerDistribution dist = new HypergeometricDistribution(null, m+n, m, k);
-        final double[] logds = support.mapToDouble(dist::logProbability);
+        final double[] logds = hypergeometricLogProbabilities(m, n, k, support);
         final double threshold = logds[x[0][0] - lo] * REL_ERR;
-        final double[] log10ds = DoubleStream.of(logds).filter(d -> d <= threshold).map(MathUtils::logToLog10).toArray();
-        final double pValue = MathUtils.sumLog10(log10ds);
+
+        // the log10 probabilities of tables no more likely than the observed one, in order, in a per-thread buffer
+        final double[] buffer = LOG10_PROBABILITIES_BUFFER.get();
+        final double[] log10ds = buffer.length < logds.length ? new double[logds.length] : buffer;
+        int numLog10ds = 0;
+        for (final double logd : logds) {
+            if (logd <= threshold) {
+                log10ds[numLog10ds++] = MathUtils.logToLog10(logd);
+            }
+        }
+        final double pValue = Math.pow(10.0, MathUtils.log10SumLog10(log10ds, 0, numLog10ds));
 
         // min is necessary as numerical precision can result in pValue being slightly greater than 1.0
         return Math.min(pValue, 1.0);
     }
+
+    /**
+     * The hypergeometric log probabilities over the support depend only on the row and column sums, which repeat
+     * often among normalized tables, so we cache them per thread for small tables.
+     */
+    private static double[] hypergeometricLogProbabilities(final int m, final int n, final int k, final IndexRange support) {
+        if (m + n > MAX_CACHED_TABLE_TOTAL) {
+            return computeHypergeometricLogProbabilities(m, n, k, support);
+        }
+        final long key = ((long) m * (MAX_CACHED_TABLE_TOTAL + 1) + n) * (MAX_CACHED_TABLE_TOTAL + 1) + k;
+        final Map<Long, double[]> cache = LOG_PROBABILITIES_CACHE.get();
+        double[] logProbabilities = cache.get(key);
+        if (logProbabilities == null) {
+            logProbabilities = computeHypergeometricLogProbabilities(m, n, k, support);
+            cache.put(key, logProbabilities);
+        }
+        return logProbabilities;
+    }
+
+    private static double[] computeHypergeometricLogProbabilities(final int m, final int n, final int k, final IndexRange support) {
+        final AbstractIntegerDistribution dist = new HypergeometricDistribution(null, m+n, m, k);
+        return support.mapToDouble(dist::logProbability);
+    }
 }
@@ -1,6 +1,5 @@
 package org.broadinstitute.hellbender.utils;
 
-import htsjdk.samtools.util.Histogram;
 import org.apache.commons.math3.distribution.NormalDistribution;
 import org.apache.log4j.Logger;
 
@@ -139,42 +138,39 @@ public class MannWhitneyU {
     }
 
     /**
-     * Key for the map from Integer[] to set of all permutations of that array.
+     * Per-thread scratch space holding the merged ranks of both series, so that ranking allocates nothing once the
+     * buffers are large enough.
      */
-    private static class Key {
-        final Integer[] listToPermute;
-
-        private Key(Integer[] listToPermute) {
-            this.listToPermute = listToPermute;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (o == null || getClass() != o.getClass()) return false;
-
-            Key that = (Key) o;
-            return (Arrays.deepEquals(this.listToPermute, that.listToPermute));
-        }
-
-        @Override
-        public int hashCode() {
-            int result = 17;
-            for (Integer i : listToPermute) {
-                result = 31 * result + listToPermute[i];
+    private static final class RankBuffers {
+        private float[] ranks = new float[0];
+        private double[] values = new double[0];
+        private boolean[] fromFirstSeries = new boolean[0];
+        private int length;
+        private boolean hasTies;
+        private double tiesForSigma;
+
+        private void reset(final int length) {
+            if (ranks.length < length) {
+                ranks = new float[length];
+                values = new double[length];
+                fromFirstSeries = new boolean[length];
             }
-            return result;
+            this.length = length;
         }
     }
 
+    private static final ThreadLocal<RankBuffers> RANK_BUFFERS = ThreadLocal.withInitial(RankBuffers::new);
+
     // Constructs a normal distribution; this needs to be a standard normal in order to get a Z-score in the exact case
     private static final double NORMAL_MEAN = 0;
     private static final double NORMAL_SD = 1;
     private static final NormalDistribution NORMAL = new NormalDistribution(NORMAL_MEAN, NORMAL_SD);
 
     /**
-     * A map of an Integer[] of the labels to the set of all possible permutations of those labels.
+     * Without ties the ranks are 1 through n1 + n2, so the exact null distribution of U depends only on n1 and n2.
+     * Maps n1 and n2 to the number of assignments of the first series to ranks with each value of twice the rank sum.
      */
-    private static Map<Key, Set<List<Integer>>> PERMUTATIONS = new ConcurrentHashMap<Key, Set<List<Integer>>>();
+    private static final Map<Long, double[]> UNTIED_RANK_SUM_COUNTS = new ConcurrentHashMap<>();
 
     /**
      * The minimum length for both data series in order to use a normal distribution
@@ -248,31 +244,77 @@ public class MannWhitneyU {
         return new RankedData(ranks, numOfTies);
     }
 
+    /**
+     * Sorts both series in place and ranks them together into this thread's buffers.  This is equivalent to
+     * {@link #calculateRank} followed by {@link #transformTies}, but without allocating.
+     */
+    private static RankBuffers rankIntoBuffers(final double[] series1, final double[] series2) {
+        Arrays.sort(series1);
+        Arrays.sort(series2);
+
+        final RankBuffers buffers = RANK_BUFFERS.get();
+        final int length = series1.length + series2.length;
+        buffers.reset(length);
+        final float[] ranks = buffers.ranks;
+        final double[] values = buffers.values;
+        final boolean[] fromFirstSeries = buffers.fromFirstSeries;
+
+        for (int i = 0, j = 0, r = 0; r < length; r++) {
+            fromFirstSeries[r] = j >= series2.length || (i < series1.length && series1[i] <= series2[j]);
+            values[r] = fromFirstSeries[r] ? series1[i++] : series2[j++];
+            ranks[r] = r + 1;
+        }
+
+        // Now sort out any tie bands
+        buffers.hasTies = false;
+        buffers.tiesForSigma = 0.0;
+        for (int i = 0; i < length; ) {
+            float rank = ranks[i];
+            int count = 1;
+
+            for (int j = i + 1; j < length && values[j] == values[i]; ++j) {
+                rank += ranks[j];
+                ++count;
+            }
+
+            if (count > 1) {
+                rank /= count;
+                for (int j = i; j < i + count; ++j) {
+                    ranks[j] = rank;
+                }
+                buffers.hasTies = true;
+                // see transformTies
+                if (count != length) {
+                    buffers.tiesForSigma += (Math.pow(count, 3)) - count;
+                }
+            }
+
+            // Skip forward the right number of items
+            i += count;
+        }
+
+        return buffers;
+    }
+
     /**
      * Rank both groups together and return a TestStatistic object that includes U1, U2 and number of ties for sigma
      */
     public TestStatistic calculateU1andU2(final double[] series1, final double[] series2) {
-        RankedData ranked = calculateRank(series1, series2);
-        Rank[] ranks = ranked.getRank();
-        ArrayList<Integer> numOfTies = ranked.getNumOfTies();
-        int lengthOfRanks = ranks.length;
-
-        double numOfTiesForSigma = transformTies(lengthOfRanks, numOfTies);
+        return calculateU1andU2(rankIntoBuffers(series1, series2), series1.length, series2.length);
+    }
 
+    private static TestStatistic calculateU1andU2(final RankBuffers ranked, final double n1, final double n2) {
         // Calculate R1 and R2 and U.
         float r1 = 0, r2 = 0;
-        for (Rank rank : ranks) {
-            if (rank.series == 1) r1 += rank.rank;
-            else r2 += rank.rank;
+        for (int r = 0; r < ranked.length; r++) {
+            if (ranked.fromFirstSeries[r]) r1 += ranked.ranks[r];
+            else r2 += ranked.ranks[r];
         }
 
-        double n1 = series1.length;
-        double n2 = series2.length;
         double u1 = r1 - ((n1 * (n1 + 1)) / 2);
         double u2 = r2 - ((n2 * (n2 + 1)) / 2);
 
-        TestStatistic result = new TestStatistic(u1, u2, numOfTiesForSigma);
-        return result;
+        return new TestStatistic(u1, u2, ranked.tiesForSigma);
     }
 
     public double transformTies(int numOfRanks, ArrayList<Integer> numOfTies) {
@@ -379,18 +421,11 @@ public class MannWhitneyU {
             return new Result(Float.NaN, Float.NaN, Float.NaN, Float.NaN);
         }
 
-        double u;
-        double nties;
-
-        if (whichSide == TestType.TWO_SIDED) {
-            TestStatistic result = calculateTwoSidedU(series1, series2);
-            u = result.getTrueU();
-            nties = result.getTies();
-        } else {
-            TestStatistic result = calculateOneSidedU(series1, series2, whichSide);
-            u = result.getTrueU();
-            nties = result.getTies();
-        }
+        final RankBuffers ranked = rankIntoBuffers(series1, series2);
+        final TestStatistic u1AndU2 = calculateU1andU2(ranked, n1, n2);
+        final double u = whichSide == TestType.TWO_SIDED ? Math.min(u1AndU2.getU1(), u1AndU2.getU2()) :
+                (whichSide == TestType.FIRST_DOMINATES ? u1AndU2.getU1() : u1AndU2.getU2());
+        final double nties = u1AndU2.getTies();
 
         double z;
         double p;
@@ -406,141 +441,75 @@ public class MannWhitneyU {
             if (whichSide != TestType.FIRST_DOMINATES) {
                 logger.warn("An exact two-sided MannWhitneyU test was called. Only the one-sided exact test is implemented, use the approximation instead by setting minimumNormalN to 0.");
             }
-            p = permutationTest(series1, series2, u);
+            p = exactPValue(ranked, n1, u);
             z = NORMAL.inverseCumulativeProbability(p);
         }
 
         return new Result(u, z, p, Math.abs(median(series1) - median(series2)));
     }
 
-    private void swap(Integer[] arr, int i, int j) {
-        int temp = arr[i];
-        arr[i] = arr[j];
-        arr[j] = temp;
-    }
-
-    /**
-     * Uses a method that generates permutations in lexicographic order. (https://en.wikipedia.org/wiki/Permutation#Generation_in_lexicographic_order)
-     * @param temp Sorted list of elements to be permuted.
-     * @param allPermutations Empty set that will hold all possible permutations.
-     */
-    private void calculatePermutations(Integer[] temp, Set<List<Integer>> allPermutations) {
-        allPermutations.add(new ArrayList<>(Arrays.asList(temp)));
-        while (true) {
-            int k = -1;
-            for (int i = temp.length - 2; i >= 0; i--) {
-                if (temp[i] < temp[i + 1]) {
-                    k = i;
-                    break;
-                }
-            }
-
-            if (k == -1) {
-                break;
-            }
-
-            int l = -1;
-            for (int i = temp.length - 1; i >= k + 1; i--) {
-                if (temp[k] < temp[i]) {
-                    l = i;
-                    break;
-                }
-            }
-
-            swap(temp, k, l);
-
-            int end = temp.length - 1;
-            for (int begin = k + 1; begin < end; begin++) {
-                swap(temp, begin, end);
-                end--;
-            }
-            allPermutations.add(new ArrayList<>(Arrays.asList(temp)));
-        }
-    }
-
     /**
-     * Checks to see if the permutations have already been computed before creating them from scratch.
-     * @param listToPermute List of tags in numerical order to be permuted
-     * @param numOfPermutations The number of permutations this list will have (n1+n2 choose n1)
-     * @return Set of all possible permutations for the given list.
-     */
-    Set<List<Integer>> getPermutations(final Integer[] listToPermute, int numOfPermutations) {
-        Key key = new Key(listToPermute);
-        Set<List<Integer>> permutations = PERMUTATIONS.get(key);
-        if (permutations == null) {
-            permutations = new HashSet<>(numOfPermutations);
-            calculatePermutations(listToPermute, permutations);
-            PERMUTATIONS.put(key, permutations);
-        }
-        return permutations;
-    }
-
-    /**
-     * Creates histogram of test statistics from a permutation test.
+     * Computes the p-value of a permutation test, in which every assignment of the pooled ranks to the two series is
+     * equally likely.
      *
      * @param series1 Data from group 1
      * @param series2 Data from group 2
      * @param testStatU Test statistic U from observed data
-     * @return P-value based on histogram with u calculated for every possible permutation of group tag.
+     * @return P-value based on the distribution of u over every possible permutation of group tag.
      */
     public double permutationTest(final double[] series1, final double[] series2, final double testStatU) {
-        final Histogram<Double> histo = new Histogram<>();
-        final int n1 = series1.length;
-        final int n2 = series2.length;
-
-        RankedData rankedGroups = calculateRank(series1, series2);
-        Rank[] ranks = rankedGroups.getRank();
-
-        Integer[] firstPermutation = new Integer[n1 + n2];
-
-        for (int i = 0; i < firstPermutation.length; i++) {
-            if (i < n1) {
-                firstPermutation[i] = 0;
-            } else {
-                firstPermutation[i] = 1;
-            }
-        }
-
-        final int numOfPerms = (int) MathUtils.binomialCoefficient(n1 + n2, n2);
-        Set<List<Integer>> allPermutations = getPermutations(firstPermutation, numOfPerms);
-
-        double[] newSeries1 = new double[n1];
-        double[] newSeries2 = new double[n2];
-
-        //iterate over all permutations
-        for (List<Integer> currPerm : allPermutations) {
-            int series1End = 0;
-            int series2End = 0;
-            for (int i = 0; i < currPerm.size(); i++) {
-                int grouping = currPerm.get(i);
-                if (grouping == 0) {
-                    newSeries1[series1End] = ranks[i].rank;
-                    series1End++;
-                } else {
-                    newSeries2[series2End] = ranks[i].rank;
-                    series2End++;
-                }
-            }
-            assert (series1End == n1);
-            assert (series2End == n2);
+        return exactPValue(rankIntoBuffers(series1, series2), series1.length, testStatU);
+    }
 
-            double newU = MathUtils.sum(newSeries1) - ((n1 * (n1 + 1)) / 2.0);
-            histo.increment(newU);
-        }
+    private static double exactPValue(final RankBuffers ranked, final int n1, final double testStatU) {
+        // ranks are whole or half integers, so twice the rank sum of series 1 is an integer
+        final double[] counts = ranked.hasTies ? countRankSums(ranked.ranks, ranked.length, n1) :
+                UNTIED_RANK_SUM_COUNTS.computeIfAbsent(((long) n1 << 32) | (ranked.length - n1), key -> {
+                    final float[] untiedRanks = new float[ranked.length];
+                    for (int r = 0; r < untiedRanks.length; r++) {
+                        untiedRanks[r] = r + 1;
+                    }
+                    return countRankSums(untiedRanks, untiedRanks.length, n1);
+                });
+        final int observedDoubleRankSum = (int) Math.round(2 * (testStatU + (n1 * (n1 + 1)) / 2.0));
 
         /**
          * In order to deal with edge cases where the observed value is also the most extreme value, we are taking half
          * of the count in the observed bin plus everything more extreme (in the FIRST_DOMINATES case the smaller bins)
-         * and dividing by the total count of everything in the histogram. Just using getCumulativeDistribution() gives
+         * and dividing by the total count of every bin. Just using the cumulative distribution gives
          * a p-value of 1 in the most extreme case which doesn't result in a usable z-score.
          */
-        double sumOfAllSmallerBins = histo.get(testStatU).getValue() / 2.0;
-
-        for (final Histogram.Bin<Double> bin : histo.values()) {
-            if (bin.getId() < testStatU) sumOfAllSmallerBins += bin.getValue();
+        double sumOfAllSmallerBins = counts[observedDoubleRankSum] / 2.0;
+        double totalCount = 0;
+        for (int doubleRankSum = 0; doubleRankSum < counts.length; doubleRankSum++) {
+            if (doubleRankSum < observedDoubleRankSum) sumOfAllSmallerBins += counts[doubleRankSum];
+            totalCount += counts[doubleRankSum];
         }
 
-        return sumOfAllSmallerBins / histo.getCount();
+        return sumOfAllSmallerBins / totalCount;
+    }
+
+    /**
+     * @return the number of ways to choose n1 of the given ranks, indexed by twice the sum of the chosen ranks
+     */
+    private static double[] countRankSums(final float[] ranks, final int length, final int n1) {
+        int maxDoubleRankSum = 0;
+        for (int r = 0; r < length; r++) {
+            maxDoubleRankSum += Math.round(2 * ranks[r]);
+        }
+
+        // counts[k][s] is the number of ways to choose k of the ranks seen so far with twice their sum equal to s
+        final double[][] counts = new double[n1 + 1][maxDoubleRankSum + 1];
+        counts[0][0] = 1;
+        for (int r = 0; r < length; r++) {
+            final int doubleRank = Math.round(2 * ranks[r]);
+            for (int k = Math.min(r + 1, n1); k > 0; k--) {
+                for (int sum = maxDoubleRankSum; sum >= doubleRank; sum--) {
+                    counts[k][sum] += counts[k - 1][sum - doubleRank];
+                }
+            }
+        }
+        return counts[n1];
     }
 
 }
@@ -0,0 +1,263 @@
+package org.broadinstitute.hellbender.utils.variant;
+
+import com.google.common.annotations.VisibleForTesting;
+import htsjdk.samtools.seekablestream.SeekablePathStream;
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import htsjdk.variant.vcf.VCFConstants;
+import htsjdk.variant.vcf.VCFHeader;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * A sparse sidecar index for block-compressed GVCFs. Records of each contig are taken in groups of
+ * {@link #RECORDS_PER_ENTRY}, and for every group the index keeps the virtual file offset of its first record and the
+ * largest end (taking the END attribute of reference blocks into account) of any record up to the end of the group.
+ *
+ * Tabix indexes only locate the first block-compressed chunk that may hold records overlapping a query, so a query
+ * inside a long stretch of reference blocks decodes every record from the start of that chunk. With this index the
+ * group holding the first overlapping record is found by binary search, so a query skips at most one group of records
+ * before reaching it. The index takes 12 bytes per group, so it stays small enough to load for every input.
+ *
+ * The index is written next to the GVCF with the extension {@link #FILE_EXTENSION}. It records the size and
+ * modification time of the GVCF it was built from, so that an index left behind by a regenerated GVCF can be detected
+ * with {@link #matches}.
+ */
+public final class GVCFBlockIndex {
+
+    public static final String FILE_EXTENSION = ".gbi";
+
+    /**
+     * Number of consecutive records described by each index entry.
+     */
+    public static final int RECORDS_PER_ENTRY = 64;
+
+    private static final byte[] MAGIC = "GBI\3".getBytes(StandardCharsets.US_ASCII);
+    private static final int INITIAL_CONTIG_CAPACITY = 64;
+    // CHROM, POS, ID, REF, ALT, QUAL, FILTER and INFO; the genotype columns are left unsplit
+    static final int NUM_SITE_COLUMNS = 8;
+    private static final String END_KEY = VCFConstants.END_KEY + "=";
+
+    // size and last modification time in milliseconds of the indexed GVCF
+    private final long gvcfSize;
+    private final long gvcfLastModified;
+    private final Map<String, ContigBlocks> contigs;
+
+    private GVCFBlockIndex(final long gvcfSize, final long gvcfLastModified, final Map<String, ContigBlocks> contigs) {
+        this.gvcfSize = gvcfSize;
+        this.gvcfLastModified = gvcfLastModified;
+        this.contigs = contigs;
+    }
+
+    /**
+     * @return the path at which the block index for the given GVCF is expected
+     */
+    public static Path getIndexPath(final Path gvcf) {
+        return gvcf.resolveSibling(gvcf.getFileName().toString() + FILE_EXTENSION);
+    }
+
+    /**
+     * Build the index for a block-compressed GVCF by reading it once from start to end. Records are only split into
+     * columns, not decoded.
+     */
+    public static GVCFBlockIndex create(final Path gvcf) {
+        Utils.nonNull(gvcf);
+        final Map<String, ContigBlocks> contigs = new LinkedHashMap<>();
+        final long gvcfSize;
+        final long gvcfLastModified;
+        try (final BlockCompressedInputStream in = new BlockCompressedInputStream(new SeekablePathStream(gvcf))) {
+            gvcfSize = Files.size(gvcf);
+            gvcfLastModified = Files.getLastModifiedTime(gvcf).toMillis();
+            ContigBlocks current = null;
+            long offset = in.getFilePointer();
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.isEmpty() && !line.startsWith(VCFHeader.HEADER_INDICATOR)) {
+                    final String[] columns = line.split(VCFConstants.FIELD_SEPARATOR, NUM_SITE_COLUMNS + 1);
+                    final String contig = columns[0];
+                    if (current == null || !current.contig.equals(contig)) {
+                        if (contigs.containsKey(contig)) {
+                            throw new UserException.BadInput(gvcf + " is not sorted: records for contig " + contig + " are not contiguous");
+                        }
+                        current = new ContigBlocks(contig);
+                        contigs.put(contig, current);
+                    }
+                    final int start = Integer.parseInt(columns[1]);
+                    current.addRecord(getEnd(start, columns[3], columns[7]), offset);
+                }
+                offset = in.getFilePointer();
+            }
+            contigs.values().forEach(ContigBlocks::trim);
+        } catch (final IOException | NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new UserException.CouldNotIndexFile(gvcf.toFile(), e);
+        }
+        return new GVCFBlockIndex(gvcfSize, gvcfLastModified, contigs);
+    }
+
+    /**
+     * @return whether the GVCF has the size and modification time of the GVCF this index was built from. If not,
+     *         the GVCF has been changed since, and the index can't be used with it.
+     */
+    public boolean matches(final Path gvcf) {
+        try {
+            return Files.size(gvcf) == gvcfSize && Files.getLastModifiedTime(gvcf).toMillis() == gvcfLastModified;
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile(gvcf, e);
+        }
+    }
+
+    /**
+     * The end of a record is the END attribute if present, otherwise the last base of the reference allele.
+     */
+    @VisibleForTesting
+    static int getEnd(final int start, final String ref, final String info) {
+        final int endKey = info.startsWith(END_KEY) ? 0 : info.indexOf(VCFConstants.INFO_FIELD_SEPARATOR + END_KEY);
+        if (endKey < 0) {
+            return start + ref.length() - 1;
+        }
+        final int valueStart = endKey + (endKey == 0 ? 0 : 1) + END_KEY.length();
+        final int valueEnd = info.indexOf(VCFConstants.INFO_FIELD_SEPARATOR, valueStart);
+        return Integer.parseInt(valueEnd < 0 ? info.substring(valueStart) : info.substring(valueStart, valueEnd));
+    }
+
+    /**
+     * @return the virtual file offset from which to read the records on the contig to find the first one overlapping or
+     *         following the given position, or -1 if there is no such record. Up to {@link #RECORDS_PER_ENTRY} - 1
+     *         records ending before the position may have to be skipped.
+     */
+    public long getQueryStartOffset(final String contig, final int position) {
+        final ContigBlocks blocks = contigs.get(contig);
+        return blocks == null ? -1 : blocks.getQueryStartOffset(position);
+    }
+
+    /**
+     * @return the number of records indexed on the given contig
+     */
+    public long getNumRecords(final String contig) {
+        final ContigBlocks blocks = contigs.get(contig);
+        return blocks == null ? 0 : blocks.numRecords;
+    }
+
+    /**
+     * @return the number of index entries on the given contig
+     */
+    public int getNumEntries(final String contig) {
+        final ContigBlocks blocks = contigs.get(contig);
+        return blocks == null ? 0 : blocks.size;
+    }
+
+    public void write(final Path indexPath) {
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexPath)))) {
+            out.write(MAGIC);
+            out.writeLong(gvcfSize);
+            out.writeLong(gvcfLastModified);
+            out.writeInt(contigs.size());
+            for (final ContigBlocks blocks : contigs.values()) {
+                out.writeUTF(blocks.contig);
+                out.writeLong(blocks.numRecords);
+                out.writeInt(blocks.size);
+                for (int i = 0; i < blocks.size; i++) {
+                    out.writeInt(blocks.maxEnds[i]);
+                    out.writeLong(blocks.offsets[i]);
+                }
+            }
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile("Could not write GVCF block index to " + indexPath.toUri(), e);
+        }
+    }
+
+    public static GVCFBlockIndex read(final Path indexPath) {
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+            final byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new UserException.MalformedFile(indexPath, "Not a GVCF block index, or written by an incompatible version");
+            }
+            final long gvcfSize = in.readLong();
+            final long gvcfLastModified = in.readLong();
+            final int numContigs = in.readInt();
+            final Map<String, ContigBlocks> contigs = new LinkedHashMap<>(numContigs);
+            for (int c = 0; c < numContigs; c++) {
+                final String contig = in.readUTF();
+                final long numRecords = in.readLong();
+                final int size = in.readInt();
+                final int[] maxEnds = new int[size];
+                final long[] offsets = new long[size];
+                for (int i = 0; i < size; i++) {
+                    maxEnds[i] = in.readInt();
+                    offsets[i] = in.readLong();
+                }
+                contigs.put(contig, new ContigBlocks(contig, numRecords, maxEnds, offsets));
+            }
+            return new GVCFBlockIndex(gvcfSize, gvcfLastModified, contigs);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile(indexPath, e);
+        }
+    }
+
+    /**
+     * Index entries of one contig in file order, one per group of {@link #RECORDS_PER_ENTRY} records. Ends are not
+     * necessarily increasing since a record may overlap the next ones, so each entry keeps the running maximum of the
+     * ends up to the last record of its group.
+     */
+    private static final class ContigBlocks {
+        private final String contig;
+        private long numRecords;
+        private int size;
+        private int[] maxEnds;
+        private long[] offsets;
+
+        private ContigBlocks(final String contig) {
+            this.contig = contig;
+            this.maxEnds = new int[INITIAL_CONTIG_CAPACITY];
+            this.offsets = new long[INITIAL_CONTIG_CAPACITY];
+        }
+
+        private ContigBlocks(final String contig, final long numRecords, final int[] maxEnds, final long[] offsets) {
+            this.contig = contig;
+            this.numRecords = numRecords;
+            this.size = maxEnds.length;
+            this.maxEnds = maxEnds;
+            this.offsets = offsets;
+        }
+
+        private void addRecord(final int end, final long offset) {
+            if (numRecords % RECORDS_PER_ENTRY == 0) {
+                if (size == offsets.length) {
+                    maxEnds = Arrays.copyOf(maxEnds, 2 * size);
+                    offsets = Arrays.copyOf(offsets, 2 * size);
+                }
+                maxEnds[size] = size == 0 ? end : maxEnds[size - 1];
+                offsets[size] = offset;
+                size++;
+            }
+            maxEnds[size - 1] = Math.max(maxEnds[size - 1], end);
+            numRecords++;
+        }
+
+        private void trim() {
+            maxEnds = Arrays.copyOf(maxEnds, size);
+            offsets = Arrays.copyOf(offsets, size);
+        }
+
+        private long getQueryStartOffset(final int position) {
+            // first group whose running maximum end reaches the position; no earlier record can overlap it
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (maxEnds[mid] < position) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low == size ? -1 : offsets[low];
+        }
+    }
+}
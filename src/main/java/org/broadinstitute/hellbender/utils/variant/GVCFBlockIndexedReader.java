@@ -0,0 +1,226 @@
+package org.broadinstitute.hellbender.utils.variant;
+
+import com.google.common.annotations.VisibleForTesting;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.seekablestream.SeekablePathStream;
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import htsjdk.tribble.AbstractFeatureReader;
+import htsjdk.tribble.AsciiFeatureCodec;
+import htsjdk.tribble.CloseableTribbleIterator;
+import htsjdk.tribble.FeatureReader;
+import htsjdk.tribble.readers.LineIteratorImpl;
+import htsjdk.tribble.readers.SynchronousLineReader;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFConstants;
+import htsjdk.variant.vcf.VCFHeader;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Queries a block-compressed GVCF using its {@link GVCFBlockIndex}, seeking straight to the group of records holding the
+ * first record overlapping each query and decoding only the records that overlap it. Each open query reads from its own
+ * stream, so queries may be interleaved; the stream of a finished query is kept for the next one. Iteration over the
+ * whole file, which gains nothing from the block index, is delegated to a regular feature reader opened on first use.
+ */
+public final class GVCFBlockIndexedReader implements FeatureReader<VariantContext> {
+
+    private final Path gvcf;
+    private final GVCFBlockIndex index;
+    private final AsciiFeatureCodec<VariantContext> codec;
+    private final VCFHeader header;
+    // streams of the queries still being iterated, and a stream left by a finished query for reuse
+    private final Set<BlockCompressedInputStream> queryStreams = new HashSet<>();
+    private BlockCompressedInputStream idleStream;
+    private FeatureReader<VariantContext> iterationReader = null;
+    private long numQueries = 0;
+
+    /**
+     * @param gvcf a block-compressed GVCF
+     * @param index the block index of the GVCF, which must {@link GVCFBlockIndex#matches match} it
+     * @param codec the codec with which to decode the GVCF
+     */
+    public GVCFBlockIndexedReader(final Path gvcf, final GVCFBlockIndex index, final AsciiFeatureCodec<VariantContext> codec) {
+        this.gvcf = Utils.nonNull(gvcf);
+        this.index = Utils.nonNull(index);
+        this.codec = Utils.nonNull(codec);
+        try {
+            final BlockCompressedInputStream in = new BlockCompressedInputStream(new SeekablePathStream(gvcf));
+            final StringBuilder headerText = new StringBuilder();
+            String line;
+            while ((line = in.readLine()) != null && line.startsWith(VCFHeader.HEADER_INDICATOR)) {
+                headerText.append(line).append('\n');
+            }
+            this.header = (VCFHeader) codec.readActualHeader(new LineIteratorImpl(new SynchronousLineReader(new StringReader(headerText.toString()))));
+            this.idleStream = in;
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile(gvcf, e);
+        }
+    }
+
+    @Override
+    public Object getHeader() {
+        return header;
+    }
+
+    @Override
+    public List<String> getSequenceNames() {
+        return header.getSequenceDictionary() == null ? Collections.emptyList()
+                : header.getSequenceDictionary().getSequences().stream().map(SAMSequenceRecord::getSequenceName).collect(Collectors.toList());
+    }
+
+    /**
+     * Seek to the first record overlapping the interval and iterate over the records overlapping it. Records are
+     * decoded lazily, and iteration stops at the first record starting after the end of the interval.
+     */
+    @Override
+    public CloseableTribbleIterator<VariantContext> query(final String chr, final int start, final int end) {
+        numQueries++;
+        final long offset = index.getQueryStartOffset(chr, start);
+        if (offset < 0) {
+            return new QueryIterator(null, chr, start, end);
+        }
+        try {
+            final BlockCompressedInputStream in = idleStream != null ? idleStream : new BlockCompressedInputStream(new SeekablePathStream(gvcf));
+            idleStream = null;
+            queryStreams.add(in);
+            in.seek(offset);
+            return new QueryIterator(in, chr, start, end);
+        } catch (final IOException e) {
+            throw new GATKException("Error querying " + gvcf.toUri() + " over interval " + new SimpleInterval(chr, start, end), e);
+        }
+    }
+
+    /**
+     * @return the number of queries made through the block index
+     */
+    @VisibleForTesting
+    public long getNumQueries() {
+        return numQueries;
+    }
+
+    private void releaseStream(final BlockCompressedInputStream in) throws IOException {
+        if (queryStreams.remove(in)) {
+            if (idleStream == null) {
+                idleStream = in;
+            } else {
+                in.close();
+            }
+        }
+    }
+
+    @Override
+    public CloseableTribbleIterator<VariantContext> iterator() throws IOException {
+        if (iterationReader == null) {
+            iterationReader = AbstractFeatureReader.getFeatureReader(gvcf.toUri().toString(), codec, false);
+        }
+        return iterationReader.iterator();
+    }
+
+    @Override
+    public void close() {
+        try {
+            for (final BlockCompressedInputStream in : queryStreams) {
+                in.close();
+            }
+            queryStreams.clear();
+            if (idleStream != null) {
+                idleStream.close();
+                idleStream = null;
+            }
+            if (iterationReader != null) {
+                iterationReader.close();
+            }
+        } catch (final IOException e) {
+            throw new GATKException("Error closing " + gvcf.toUri(), e);
+        }
+    }
+
+    private final class QueryIterator implements CloseableTribbleIterator<VariantContext> {
+        private BlockCompressedInputStream in;
+        private final String contig;
+        private final int start;
+        private final int end;
+        private VariantContext next;
+
+        /**
+         * @param in stream positioned at the first record to consider, or null if no record overlaps the query
+         */
+        private QueryIterator(final BlockCompressedInputStream in, final String contig, final int start, final int end) {
+            this.in = in;
+            this.contig = contig;
+            this.start = start;
+            this.end = end;
+            this.next = advance();
+        }
+
+        private VariantContext advance() {
+            if (in == null) {
+                return null;
+            }
+            try {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    // records before the first overlapping one are skipped without being decoded
+                    final String[] columns = line.split(VCFConstants.FIELD_SEPARATOR, GVCFBlockIndex.NUM_SITE_COLUMNS + 1);
+                    final int recordStart = Integer.parseInt(columns[1]);
+                    if (!columns[0].equals(contig) || recordStart > end) {
+                        break;
+                    }
+                    if (GVCFBlockIndex.getEnd(recordStart, columns[3], columns[7]) >= start) {
+                        return codec.decode(line);
+                    }
+                }
+                close();
+                return null;
+            } catch (final IOException e) {
+                throw new GATKException("Error querying " + gvcf.toUri() + " over interval " + new SimpleInterval(contig, start, end), e);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public VariantContext next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            final VariantContext result = next;
+            next = advance();
+            return result;
+        }
+
+        @Override
+        public Iterator<VariantContext> iterator() {
+            return this;
+        }
+
+        @Override
+        public void close() {
+            next = null;
+            if (in != null) {
+                try {
+                    releaseStream(in);
+                } catch (final IOException e) {
+                    throw new GATKException("Error closing " + gvcf.toUri(), e);
+                }
+                in = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package org.broadinstitute.hellbender.utils.variant.writers;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.util.BlockCompressedStreamConstants;
+import htsjdk.samtools.util.Md5CalculatingOutputStream;
+import htsjdk.tribble.Feature;
+import htsjdk.tribble.SimpleFeature;
+import htsjdk.tribble.index.Index;
+import htsjdk.tribble.index.tabix.TabixFormat;
+import htsjdk.tribble.index.tabix.TabixIndexCreator;
+import htsjdk.tribble.util.TabixUtils;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import htsjdk.variant.variantcontext.writer.Options;
+import htsjdk.variant.variantcontext.writer.VariantContextWriter;
+import htsjdk.variant.variantcontext.writer.VariantContextWriterBuilder;
+import htsjdk.variant.vcf.VCFEncoder;
+import htsjdk.variant.vcf.VCFHeader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes block-compressed VCF, compressing BGZF blocks on a pool of threads.
+ *
+ * Records are encoded on the calling thread into 64KB blocks. Each full block is handed to the pool to be deflated,
+ * and compressed blocks are written out in order as they complete. Since a record's offset within its block is known
+ * when it's encoded, the virtual file offset needed by the tabix index is resolved as soon as the compressed blocks
+ * before it have been written, so the index is built while writing rather than by re-reading the output.
+ *
+ * The output is a regular BGZF file: it can be read by anything that reads VCF.gz files produced by htsjdk.
+ */
+public final class ParallelBlockCompressedVCFWriter implements VariantContextWriter {
+
+    private static final Logger logger = LogManager.getLogger(ParallelBlockCompressedVCFWriter.class);
+
+    // the block size used by samtools, small enough that a block stored without compression still fits in a BGZF block
+    @VisibleForTesting
+    static final int UNCOMPRESSED_BLOCK_SIZE = 0xff00;
+
+    // number of blocks being compressed per thread before the writer waits for the oldest one
+    private static final int MAX_PENDING_BLOCKS_PER_THREAD = 4;
+
+    private final File outFile;
+    private final OutputStream out;
+    private final ExecutorService compressionPool;
+    // one deflater per compression thread, owned by this writer so their native memory is released on close
+    private final BlockingQueue<Deflater> deflaters;
+    private final int maxPendingBlocks;
+    private final TabixIndexCreator indexCreator;
+    private final boolean allowMissingFieldsInHeader;
+    private final boolean doNotWriteGenotypes;
+
+    private final Deque<PendingBlock> pendingBlocks = new ArrayDeque<>();
+    private byte[] block = new byte[UNCOMPRESSED_BLOCK_SIZE];
+    private int blockLength = 0;
+    private List<IndexEntry> blockIndexEntries = new ArrayList<>();
+    private long compressedPosition = 0;
+
+    private VCFEncoder encoder;
+    private boolean error = false;
+
+    /**
+     * @param outFile block-compressed VCF to write
+     * @param referenceDictionary dictionary for the tabix index; if null, no index is written
+     * @param numThreads number of threads compressing blocks
+     * @param compressionLevel deflate compression level
+     * @param createMD5 if true, write an MD5 digest of the output next to it
+     * @param options htsjdk writer options; {@link Options#ALLOW_MISSING_FIELDS_IN_HEADER} and
+     *                {@link Options#DO_NOT_WRITE_GENOTYPES} are honored, and an index is only written if
+     *                {@link Options#INDEX_ON_THE_FLY} is given
+     */
+    public ParallelBlockCompressedVCFWriter(final File outFile, final SAMSequenceDictionary referenceDictionary, final int numThreads,
+                                            final int compressionLevel, final boolean createMD5, final Options... options) {
+        this.outFile = Utils.nonNull(outFile);
+        Utils.validateArg(numThreads >= 1, "numThreads must be at least 1");
+        Utils.validateArg(compressionLevel >= Deflater.NO_COMPRESSION && compressionLevel <= Deflater.BEST_COMPRESSION, "invalid compression level " + compressionLevel);
+        final List<Options> optionList = Arrays.asList(options);
+        this.allowMissingFieldsInHeader = optionList.contains(Options.ALLOW_MISSING_FIELDS_IN_HEADER);
+        this.doNotWriteGenotypes = optionList.contains(Options.DO_NOT_WRITE_GENOTYPES);
+        if (optionList.contains(Options.INDEX_ON_THE_FLY) && referenceDictionary == null) {
+            logger.warn("Index creation was requested for " + outFile + " but no reference dictionary was provided, so no index will be written");
+        }
+        this.indexCreator = optionList.contains(Options.INDEX_ON_THE_FLY) && referenceDictionary != null ?
+                new TabixIndexCreator(referenceDictionary, TabixFormat.VCF) : null;
+        this.maxPendingBlocks = numThreads * MAX_PENDING_BLOCKS_PER_THREAD;
+        try {
+            final OutputStream fileStream = new FileOutputStream(outFile);
+            this.out = new BufferedOutputStream(createMD5 ? new Md5CalculatingOutputStream(fileStream, new File(outFile.getAbsolutePath() + ".md5")) : fileStream);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile(outFile, e);
+        }
+        this.deflaters = new ArrayBlockingQueue<>(numThreads);
+        for (int i = 0; i < numThreads; i++) {
+            deflaters.add(new Deflater(compressionLevel, true));
+        }
+        this.compressionPool = Executors.newFixedThreadPool(numThreads,
+                new ThreadFactoryBuilder().setNameFormat("vcfCompressor-thread-%d").setDaemon(true).build());
+    }
+
+    @Override
+    public void writeHeader(final VCFHeader header) {
+        final ByteArrayOutputStream headerText = new ByteArrayOutputStream();
+        final VariantContextWriterBuilder headerWriterBuilder = new VariantContextWriterBuilder().clearOptions().setOutputVCFStream(headerText);
+        if (doNotWriteGenotypes) {
+            headerWriterBuilder.setOption(Options.DO_NOT_WRITE_GENOTYPES);
+        }
+        try (final VariantContextWriter headerWriter = headerWriterBuilder.build()) {
+            headerWriter.writeHeader(header);
+        }
+        setHeader(header);
+        write(headerText.toByteArray());
+    }
+
+    @Override
+    public void setHeader(final VCFHeader header) {
+        final VCFHeader encodedHeader = doNotWriteGenotypes ? new VCFHeader(header.getMetaDataInSortedOrder()) : header;
+        encoder = new VCFEncoder(encodedHeader, allowMissingFieldsInHeader, false);
+    }
+
+    @Override
+    public void add(final VariantContext vc) {
+        if (encoder == null) {
+            throw new IllegalStateException("The header must be written or set before variants are added to " + outFile);
+        }
+        final VariantContext toWrite = doNotWriteGenotypes ? new VariantContextBuilder(vc).noGenotypes().make() : vc;
+        if (indexCreator != null) {
+            blockIndexEntries.add(new IndexEntry(new SimpleFeature(toWrite.getContig(), toWrite.getStart(), toWrite.getEnd()), blockLength));
+        }
+        write((encoder.encode(toWrite) + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void write(final byte[] bytes) {
+        int written = 0;
+        while (written < bytes.length) {
+            final int length = Math.min(bytes.length - written, UNCOMPRESSED_BLOCK_SIZE - blockLength);
+            System.arraycopy(bytes, written, block, blockLength, length);
+            blockLength += length;
+            written += length;
+            if (blockLength == UNCOMPRESSED_BLOCK_SIZE) {
+                submitBlock();
+            }
+        }
+    }
+
+    private void submitBlock() {
+        final byte[] toCompress = block;
+        final int length = blockLength;
+        pendingBlocks.add(new PendingBlock(compressionPool.submit(() -> compressBlock(toCompress, length)), blockIndexEntries));
+        block = new byte[UNCOMPRESSED_BLOCK_SIZE];
+        blockLength = 0;
+        blockIndexEntries = new ArrayList<>();
+        emitBlocks(maxPendingBlocks);
+    }
+
+    /**
+     * Write compressed blocks in order until at most maxPending remain, also writing any that are already done.
+     */
+    private void emitBlocks(final int maxPending) {
+        while (!pendingBlocks.isEmpty() && (pendingBlocks.size() > maxPending || pendingBlocks.peekFirst().compressed.isDone())) {
+            final PendingBlock pending = pendingBlocks.removeFirst();
+            try {
+                final byte[] compressed = pending.compressed.get();
+                if (indexCreator != null) {
+                    for (final IndexEntry entry : pending.indexEntries) {
+                        indexCreator.addFeature(entry.feature, (compressedPosition << 16) | entry.offsetInBlock);
+                    }
+                }
+                out.write(compressed);
+                compressedPosition += compressed.length;
+            } catch (final IOException e) {
+                error = true;
+                throw new UserException.CouldNotCreateOutputFile(outFile, e);
+            } catch (final InterruptedException | ExecutionException e) {
+                error = true;
+                throw new GATKException("Failed to compress a block of " + outFile, e);
+            }
+        }
+    }
+
+    @Override
+    public boolean checkError() {
+        return error;
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (blockLength > 0) {
+                submitBlock();
+            }
+            emitBlocks(0);
+            final long endOfData = compressedPosition << 16;
+            out.write(BlockCompressedStreamConstants.EMPTY_GZIP_BLOCK);
+            out.close();
+            if (indexCreator != null) {
+                final Index index = indexCreator.finalizeIndex(endOfData);
+                index.write(new File(outFile.getAbsolutePath() + TabixUtils.STANDARD_INDEX_EXTENSION));
+            }
+        } catch (final IOException e) {
+            error = true;
+            throw new UserException.CouldNotCreateOutputFile(outFile, e);
+        } finally {
+            shutDownCompression();
+        }
+    }
+
+    /**
+     * Stops the compression threads and releases the deflaters. A deflater still held by a task that didn't stop in
+     * time is left to be released by its finalizer.
+     */
+    private void shutDownCompression() {
+        compressionPool.shutdownNow();
+        try {
+            if (!compressionPool.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.warn("Timed out waiting for the compression threads of " + outFile + " to stop");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Deflater deflater;
+        while ((deflater = deflaters.poll()) != null) {
+            deflater.end();
+        }
+    }
+
+    private byte[] compressBlock(final byte[] data, final int length) throws InterruptedException {
+        final Deflater deflater = deflaters.take();
+        try {
+            return compressBlock(deflater, data, length);
+        } finally {
+            deflaters.add(deflater);
+        }
+    }
+
+    /**
+     * Compress data into one BGZF block with the given raw (nowrap) deflater, storing it uncompressed if deflate
+     * doesn't make it small enough. The deflater is reset before use.
+     */
+    @VisibleForTesting
+    static byte[] compressBlock(final Deflater deflater, final byte[] data, final int length) {
+        final int maxCompressedLength = BlockCompressedStreamConstants.MAX_COMPRESSED_BLOCK_SIZE
+                - BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH - BlockCompressedStreamConstants.BLOCK_FOOTER_LENGTH;
+        final byte[] compressed = new byte[maxCompressedLength];
+        deflater.reset();
+        deflater.setInput(data, 0, length);
+        deflater.finish();
+        int compressedLength = deflater.deflate(compressed, 0, compressed.length);
+        if (!deflater.finished()) {
+            final Deflater noCompression = new Deflater(Deflater.NO_COMPRESSION, true);
+            noCompression.setInput(data, 0, length);
+            noCompression.finish();
+            compressedLength = noCompression.deflate(compressed, 0, compressed.length);
+            noCompression.end();
+        }
+
+        final CRC32 crc = new CRC32();
+        crc.update(data, 0, length);
+
+        final int blockSize = BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH + compressedLength + BlockCompressedStreamConstants.BLOCK_FOOTER_LENGTH;
+        final byte[] block = new byte[blockSize];
+        int i = 0;
+        block[i++] = (byte) BlockCompressedStreamConstants.GZIP_ID1;
+        block[i++] = (byte) BlockCompressedStreamConstants.GZIP_ID2;
+        block[i++] = (byte) BlockCompressedStreamConstants.GZIP_CM_DEFLATE;
+        block[i++] = (byte) BlockCompressedStreamConstants.GZIP_FLG;
+        i += 4; // modification time
+        block[i++] = (byte) BlockCompressedStreamConstants.GZIP_XFL;
+        block[i++] = (byte) BlockCompressedStreamConstants.GZIP_OS_UNKNOWN;
+        i = writeShort(block, i, BlockCompressedStreamConstants.GZIP_XLEN);
+        block[i++] = (byte) BlockCompressedStreamConstants.BGZF_ID1;
+        block[i++] = (byte) BlockCompressedStreamConstants.BGZF_ID2;
+        i = writeShort(block, i, BlockCompressedStreamConstants.BGZF_LEN);
+        i = writeShort(block, i, blockSize - 1);
+        System.arraycopy(compressed, 0, block, i, compressedLength);
+        i += compressedLength;
+        i = writeInt(block, i, (int) crc.getValue());
+        writeInt(block, i, length);
+        return block;
+    }
+
+    private static int writeShort(final byte[] bytes, final int offset, final int value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >> 8);
+        return offset + 2;
+    }
+
+    private static int writeInt(final byte[] bytes, final int offset, final int value) {
+        writeShort(bytes, offset, value);
+        return writeShort(bytes, offset + 2, value >> 16);
+    }
+
+    private static final class PendingBlock {
+        private final Future<byte[]> compressed;
+        private final List<IndexEntry> indexEntries;
+
+        private PendingBlock(final Future<byte[]> compressed, final List<IndexEntry> indexEntries) {
+            this.compressed = compressed;
+            this.indexEntries = indexEntries;
+        }
+    }
+
+    private static final class IndexEntry {
+        private final Feature feature;
+        private final int offsetInBlock;
+
+        private IndexEntry(final Feature feature, final int offsetInBlock) {
+            this.feature = feature;
+            this.offsetInBlock = offsetInBlock;
+        }
+    }
+}
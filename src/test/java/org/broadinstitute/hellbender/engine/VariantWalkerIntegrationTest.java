@@ -157,4 +157,46 @@ public final class VariantWalkerIntegrationTest extends CommandLineProgramTest {
         tool.instanceMain(args);
     }
 
+    @CommandLineProgramProperties(
+            summary = "TestGATKToolWithGenotypes",
+            oneLineSummary = "TestGATKToolWithGenotypes",
+            programGroup = TestProgramGroup.class
+    )
+    private static final class TestGATKToolWithGenotypes extends VariantWalker {
+
+        public static final String REQUIRES_GENOTYPES_LONG_NAME = "requires-genotypes";
+
+        @Argument(fullName=REQUIRES_GENOTYPES_LONG_NAME)
+        boolean requiresGenotypes = true;
+
+        int numVariants = 0;
+
+        @Override
+        public boolean requiresGenotypes() {
+            return requiresGenotypes;
+        }
+
+        @Override
+        public void apply(
+                VariantContext variant,
+                ReadsContext readsContext, ReferenceContext referenceContext, FeatureContext featureContext ) {
+            Assert.assertEquals(variant.hasGenotypes(), requiresGenotypes);
+            numVariants++;
+        }
+    }
+
+    @Test
+    public void testGenotypesAreDroppedWhenNotRequired() throws Exception {
+        final File vcfFile = new File(publicTestDir + "org/broadinstitute/hellbender/engine/vcf_with_genotypes.vcf");
+        for (final boolean requiresGenotypes : new boolean[] {true, false}) {
+            final TestGATKToolWithGenotypes tool = new TestGATKToolWithGenotypes();
+            final String[] args = {
+                    "--variant", vcfFile.getCanonicalPath(),
+                    "--" + TestGATKToolWithGenotypes.REQUIRES_GENOTYPES_LONG_NAME, String.valueOf(requiresGenotypes)
+            };
+            tool.instanceMain(args);
+            Assert.assertTrue(tool.numVariants > 0);
+        }
+    }
+
 }
@@ -372,6 +372,66 @@ public class SparkSharderUnitTest extends GATKBaseTest implements Serializable {
                 ));
     }
 
+    @Test
+    public void testSplitDenseShards() {
+        // Shard 1:1-40 has 20 sampled starts, all in 21-30, so it is split at the bins holding quantiles of those starts.
+        // Shard 1:41-80 has a single start and is left alone.
+        List<ShardBoundary> shardBoundaries = ImmutableList.of(
+                new ShardBoundary(new SimpleInterval("1", 1, 40), new SimpleInterval("1", 1, 42)),
+                new ShardBoundary(new SimpleInterval("1", 41, 80), new SimpleInterval("1", 39, 82)));
+        List<TestRead> sampledReads = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            sampledReads.add(new TestRead(21 + i / 2, 30));
+        }
+        sampledReads.add(new TestRead(50, 60));
+        sampledReads.add(new TestRead("2", 10, 20)); // not in any shard
+
+        // each sampled start stands for 2 reads, so the first shard has an estimated 40 reads; at most 20 per shard gives 2 pieces
+        List<ShardBoundary> split = SparkSharder.splitDenseShards(makeHistogram(shardBoundaries, sampledReads, 5), 2.0, sequenceDictionary, shardBoundaries, 20, 5);
+        assertEquals(split, ImmutableList.of(
+                new ShardBoundary(new SimpleInterval("1", 1, 25), new SimpleInterval("1", 1, 27)),
+                new ShardBoundary(new SimpleInterval("1", 26, 40), new SimpleInterval("1", 24, 42)),
+                shardBoundaries.get(1)));
+
+        // shards are not split into pieces smaller than the minimum shard size
+        assertEquals(SparkSharder.splitDenseShards(makeHistogram(shardBoundaries, sampledReads, 30), 2.0, sequenceDictionary, shardBoundaries, 20, 30), shardBoundaries);
+
+        // nothing is split when every shard is under the limit
+        assertEquals(SparkSharder.splitDenseShards(makeHistogram(shardBoundaries, sampledReads, 5), 1.0, sequenceDictionary, shardBoundaries, 100, 5), shardBoundaries);
+
+        // a cut that would leave a piece smaller than the minimum shard size at the end of the shard is dropped
+        List<TestRead> sampledReadsAtEnd = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            sampledReadsAtEnd.add(new TestRead(78 + i % 3, 80));
+        }
+        assertEquals(SparkSharder.splitDenseShards(makeHistogram(shardBoundaries, sampledReadsAtEnd, 6), 2.0, sequenceDictionary, shardBoundaries, 20, 6), shardBoundaries);
+    }
+
+    @Test(groups = "spark")
+    public void testSplitDenseShardsOfRDD() {
+        JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+        List<ShardBoundary> shardBoundaries = ImmutableList.of(
+                new ShardBoundary(new SimpleInterval("1", 1, 40), new SimpleInterval("1", 1, 42)),
+                new ShardBoundary(new SimpleInterval("1", 41, 80), new SimpleInterval("1", 39, 82)));
+        List<TestRead> reads = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            reads.add(new TestRead(21 + i / 2, 30));
+        }
+        reads.add(new TestRead(50, 60));
+
+        // the histograms of the partitions are merged, so the result does not depend on the partitioning
+        List<ShardBoundary> expected = SparkSharder.splitDenseShards(makeHistogram(shardBoundaries, reads, 5), 1.0, sequenceDictionary, shardBoundaries, 10, 5);
+        assertEquals(expected.size(), 3);
+        assertEquals(SparkSharder.splitDenseShards(ctx.parallelize(reads, 3), sequenceDictionary, shardBoundaries, 1.0, 10, 5), expected);
+    }
+
+    private static SparkSharder.ShardDensityHistogram makeHistogram(List<ShardBoundary> shardBoundaries, List<TestRead> sampledReads, int binSize) {
+        SparkSharder.ShardLayout layout = new SparkSharder.ShardLayout(shardBoundaries);
+        SparkSharder.ShardDensityHistogram histogram = new SparkSharder.ShardDensityHistogram(binSize);
+        sampledReads.forEach(read -> layout.add(histogram, read));
+        return histogram;
+    }
+
     private static class TestRead implements Locatable {
         private static final long serialVersionUID = 1L;
         private final String contig;
@@ -0,0 +1,117 @@
+package org.broadinstitute.hellbender.engine.spark.datasources;
+
+import com.google.common.collect.ImmutableList;
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SamReader;
+import htsjdk.samtools.SamReaderFactory;
+import htsjdk.samtools.ValidationStringency;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.spark.SparkContextFactory;
+import org.seqdoop.hadoop_bam.BAMOutputFormat;
+import org.seqdoop.hadoop_bam.SAMFormat;
+import org.seqdoop.hadoop_bam.SplittingBAMIndexer;
+import org.seqdoop.hadoop_bam.util.SAMFileMerger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class ParallelBamPartsMergerUnitTest extends GATKBaseTest {
+
+    @Test
+    public void testMergeSplittingIndexes() {
+        // part 0 is 100 bytes long with records at (0, 0) and (40, 10), part 1 is empty, part 2 is 50 bytes long with a record at (0, 5)
+        final long[] part0 = {0L, (40L << 16) | 10, 100L << 16};
+        final long[] part1 = {0L};
+        final long[] part2 = {5L, 50L << 16};
+        final long headerLength = 20;
+        final long[] partOffsets = {headerLength, headerLength + 100, headerLength + 100, headerLength + 150};
+
+        final long[] merged = ParallelBamPartsMerger.mergeSplittingIndexes(ImmutableList.of(part0, part1, part2), partOffsets, 198);
+        Assert.assertEquals(merged, new long[]{
+                20L << 16,
+                (60L << 16) | 10,
+                (120L << 16) | 5,
+                198L << 16});
+    }
+
+    @Test
+    public void testMergeSplittingIndexesNoParts() {
+        Assert.assertEquals(ParallelBamPartsMerger.mergeSplittingIndexes(ImmutableList.of(), new long[]{20}, 48), new long[]{48L << 16});
+    }
+
+    @Test(groups = "spark")
+    public void testMergePartsMatchesSerialMerge() throws IOException {
+        final String inputBam = publicTestDir + "org/broadinstitute/hellbender/tools/BQSR/HiSeq.1mb.1RG.2k_lines.bam";
+        final JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+        final ReadsSparkSource readSource = new ReadsSparkSource(ctx);
+        final SAMFileHeader header = readSource.getHeader(inputBam, null);
+        final JavaRDD<SAMRecord> reads = readSource.getParallelReads(inputBam, null)
+                .map(read -> read.convertToSAMRecord(null))
+                .repartition(3);
+
+        // write one set of headerless parts with their splitting indexes, and give each merger its own copy
+        final File tempDir = createTempDir("ParallelBamPartsMergerUnitTest");
+        final String parallelPartsDirectory = new File(tempDir, "parallel.parts").getAbsolutePath();
+        final String serialPartsDirectory = new File(tempDir, "serial.parts").getAbsolutePath();
+        ctx.hadoopConfiguration().setBoolean(BAMOutputFormat.WRITE_SPLITTING_BAI, true);
+        ReadsSparkSink.saveAsShardedHadoopFiles(ctx, parallelPartsDirectory, null, SAMFormat.BAM, reads, header, false);
+        copyDirectory(Paths.get(parallelPartsDirectory), Paths.get(serialPartsDirectory));
+
+        final File parallelOutput = new File(tempDir, "parallel.bam");
+        final File serialOutput = new File(tempDir, "serial.bam");
+        Assert.assertTrue(ParallelBamPartsMerger.mergeParts(parallelPartsDirectory, parallelOutput.getAbsolutePath(), header, true));
+        SAMFileMerger.mergeParts(serialPartsDirectory, serialOutput.getAbsolutePath(), SAMFormat.BAM, header);
+
+        final List<String> parallelReads = readSAMStrings(parallelOutput);
+        Assert.assertEquals(parallelReads.size(), reads.count());
+        Assert.assertEquals(parallelReads, readSAMStrings(serialOutput));
+
+        final long[] parallelIndex = readSplittingIndex(new File(parallelOutput + SplittingBAMIndexer.OUTPUT_FILE_EXTENSION));
+        Assert.assertTrue(parallelIndex.length > 2, "expected an entry for each part");
+        Assert.assertEquals(parallelIndex, readSplittingIndex(new File(serialOutput + SplittingBAMIndexer.OUTPUT_FILE_EXTENSION)));
+        Assert.assertEquals(parallelOutput.length(), serialOutput.length());
+    }
+
+    private static void copyDirectory(final Path from, final Path to) throws IOException {
+        Files.createDirectories(to);
+        try (final Stream<Path> files = Files.list(from)) {
+            for (final Path file : files.collect(Collectors.toList())) {
+                Files.copy(file, to.resolve(file.getFileName()));
+            }
+        }
+    }
+
+    private static List<String> readSAMStrings(final File bam) throws IOException {
+        final List<String> reads = new ArrayList<>();
+        try (final SamReader reader = SamReaderFactory.makeDefault().validationStringency(ValidationStringency.SILENT).open(bam)) {
+            for (final SAMRecord read : reader) {
+                reads.add(read.getSAMString());
+            }
+        }
+        return reads;
+    }
+
+    private static long[] readSplittingIndex(final File index) throws IOException {
+        final long[] offsets = new long[(int) (index.length() / Long.BYTES)];
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(index.toPath())))) {
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = in.readLong();
+            }
+        }
+        return offsets;
+    }
+}
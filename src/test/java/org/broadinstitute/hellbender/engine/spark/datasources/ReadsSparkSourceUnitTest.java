@@ -7,6 +7,7 @@ import htsjdk.samtools.*;
 import org.apache.hadoop.fs.Path;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
+import org.bdgenomics.formats.avro.AlignmentRecord;
 import org.broadinstitute.hellbender.engine.ReadsDataSource;
 import org.broadinstitute.hellbender.engine.TraversalParameters;
 import org.broadinstitute.hellbender.engine.spark.SparkContextFactory;
@@ -15,6 +16,7 @@ import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.ReadConstants;
+import org.broadinstitute.hellbender.utils.read.ReadsWriteFormat;
 import org.broadinstitute.hellbender.utils.read.SAMRecordToGATKReadAdapter;
 import org.broadinstitute.hellbender.GATKBaseTest;
 import org.broadinstitute.hellbender.testutils.MiniClusterUtils;
@@ -24,7 +26,11 @@ import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.testng.Assert.assertEquals;
 
@@ -156,6 +162,40 @@ public class ReadsSparkSourceUnitTest extends GATKBaseTest {
         Assert.assertEquals(smallPartitions.partitions().size(), 2);
     }
 
+    @Test(groups = "spark")
+    public void testPartitionSizingWithBamIndexSplits(){
+
+        String bam = dirBQSR + "HiSeq.1mb.1RG.2k_lines.alternate.bam"; //file is ~220 kB, and has a .bai
+        JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+
+        ReadsSparkSource readSource = new ReadsSparkSource(ctx);
+        List<GATKRead> guessedSplitReads = readSource.getParallelReads(bam, null, null, 100 * 1024, false).collect();
+        JavaRDD<GATKRead> indexSplitReads = readSource.getParallelReads(bam, null, null, 100 * 1024, true); // 100 kB
+        Assert.assertTrue(indexSplitReads.partitions().size() > 1);
+        Assert.assertEquals(indexSplitReads.collect(), guessedSplitReads);
+    }
+
+    @Test(groups = "spark")
+    public void testHasBamIndex() throws IOException {
+        final File dir = createTempDir("hasBamIndex");
+        final File bam = new File(dir, "reads.bam");
+        final File sam = new File(dir, "reads.sam");
+        Assert.assertTrue(bam.createNewFile());
+        Assert.assertTrue(sam.createNewFile());
+        final ReadsSparkSource readSource = new ReadsSparkSource(SparkContextFactory.getTestSparkContext());
+
+        // a sibling reads.bai is not picked up by Hadoop-BAM, so it does not count
+        Assert.assertTrue(new File(dir, "reads.bai").createNewFile());
+        Assert.assertFalse(readSource.hasBamIndex(bam.getAbsolutePath()));
+
+        Assert.assertTrue(new File(dir, "reads.bam.bai").createNewFile());
+        Assert.assertTrue(readSource.hasBamIndex(bam.getAbsolutePath()));
+
+        Assert.assertTrue(new File(dir, "reads.sam.bai").createNewFile());
+        Assert.assertFalse(readSource.hasBamIndex(sam.getAbsolutePath()));
+        Assert.assertFalse(readSource.hasBamIndex("r"));
+    }
+
     @Test(groups = "spark")
     public void testReadFromFileAndHDFS() throws Exception {
         final File bam = getTestFile("hdfs_file_test.bam");
@@ -219,6 +259,84 @@ public class ReadsSparkSourceUnitTest extends GATKBaseTest {
         }
     }
 
+    @Test
+    public void testADAMFilterPredicate() {
+        Assert.assertNull(ReadsSparkSource.makeADAMFilterPredicate(null));
+        Assert.assertNull(ReadsSparkSource.makeADAMFilterPredicate(new TraversalParameters(Collections.emptyList(), true)));
+
+        final List<SimpleInterval> intervals = ImmutableList.of(new SimpleInterval("1", 100, 200), new SimpleInterval("2", 5, 10));
+        Assert.assertNotNull(ReadsSparkSource.makeADAMFilterPredicate(new TraversalParameters(intervals, false)));
+        Assert.assertNotEquals(ReadsSparkSource.makeADAMFilterPredicate(new TraversalParameters(intervals, true)),
+                ReadsSparkSource.makeADAMFilterPredicate(new TraversalParameters(intervals, false)));
+
+        // many intervals are pushed down as a single span per contig
+        final List<SimpleInterval> manyIntervals = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            manyIntervals.add(new SimpleInterval("1", 1000 + 10 * i, 1005 + 10 * i));
+        }
+        Assert.assertEquals(ReadsSparkSource.makeADAMFilterPredicate(new TraversalParameters(manyIntervals, false)),
+                ReadsSparkSource.makeADAMFilterPredicate(new TraversalParameters(ImmutableList.of(new SimpleInterval("1", 1000, 2995)), false)));
+    }
+
+    @Test
+    public void testAlignmentRecordOverlaps() {
+        // ADAM positions are 0-based with an exclusive end, so this read covers 1-based positions 100-150
+        final AlignmentRecord mapped = AlignmentRecord.newBuilder().setContigName("1").setStart(99L).setEnd(150L).setReadMapped(true).build();
+        final AlignmentRecord placedUnmapped = AlignmentRecord.newBuilder().setContigName("1").setStart(99L).setReadMapped(false).build();
+        final AlignmentRecord unplacedUnmapped = AlignmentRecord.newBuilder().setReadMapped(false).build();
+
+        Assert.assertTrue(ReadsSparkSource.alignmentRecordOverlaps(mapped, null));
+        for (final SimpleInterval overlapping : Arrays.asList(new SimpleInterval("1", 1, 100), new SimpleInterval("1", 150, 200), new SimpleInterval("1", 120, 130))) {
+            Assert.assertTrue(ReadsSparkSource.alignmentRecordOverlaps(mapped, new TraversalParameters(ImmutableList.of(overlapping), false)), overlapping.toString());
+        }
+        for (final SimpleInterval disjoint : Arrays.asList(new SimpleInterval("1", 1, 99), new SimpleInterval("1", 151, 200), new SimpleInterval("2", 100, 150))) {
+            Assert.assertFalse(ReadsSparkSource.alignmentRecordOverlaps(mapped, new TraversalParameters(ImmutableList.of(disjoint), false)), disjoint.toString());
+        }
+        // unmapped reads placed with their mates are matched on their start alone
+        Assert.assertTrue(ReadsSparkSource.alignmentRecordOverlaps(placedUnmapped, new TraversalParameters(ImmutableList.of(new SimpleInterval("1", 100, 100)), false)));
+        Assert.assertFalse(ReadsSparkSource.alignmentRecordOverlaps(placedUnmapped, new TraversalParameters(ImmutableList.of(new SimpleInterval("1", 101, 150)), false)));
+        Assert.assertTrue(ReadsSparkSource.alignmentRecordOverlaps(unplacedUnmapped, new TraversalParameters(Collections.emptyList(), true)));
+        Assert.assertFalse(ReadsSparkSource.alignmentRecordOverlaps(unplacedUnmapped, new TraversalParameters(ImmutableList.of(new SimpleInterval("1", 1, 200)), false)));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testADAMProjectionOfUnknownField() {
+        ReadsSparkSource.makeADAMProjection(Collections.singletonList("notAField"));
+    }
+
+    @Test(groups = "spark")
+    public void testADAMProjection() throws IOException {
+        final JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+        final ReadsSparkSource readSource = new ReadsSparkSource(ctx);
+        final String inputBam = dirBQSR + "HiSeq.1mb.1RG.2k_lines.alternate.bam";
+        final SAMFileHeader header = readSource.getHeader(inputBam, null);
+        final File adamDirectory = new File(createTempDir("testADAMProjection"), "reads.adam");
+        ReadsSparkSink.writeReads(ctx, adamDirectory.getAbsolutePath(), null,
+                readSource.getParallelReads(inputBam, null).filter(read -> !read.isUnmapped()), header, ReadsWriteFormat.ADAM);
+
+        final List<GATKRead> allReads = readSource.getADAMReads(adamDirectory.getAbsolutePath(), null, header).collect();
+        final GATKRead middleRead = allReads.get(allReads.size() / 2);
+        final SimpleInterval interval = new SimpleInterval(middleRead.getContig(), middleRead.getStart(), middleRead.getStart() + 500);
+        final List<GATKRead> expectedReads = allReads.stream().filter(interval::overlaps).collect(Collectors.toList());
+        Assert.assertTrue(expectedReads.size() > 1 && expectedReads.size() < allReads.size());
+
+        final List<GATKRead> projectedReads = readSource.getADAMReads(adamDirectory.getAbsolutePath(),
+                new TraversalParameters(ImmutableList.of(interval), false), header, Arrays.asList("qual", "readNegativeStrand")).collect();
+        Assert.assertEquals(projectedReads.size(), expectedReads.size());
+        for (int i = 0; i < projectedReads.size(); i++) {
+            final GATKRead projected = projectedReads.get(i);
+            final GATKRead expected = expectedReads.get(i);
+            // the position fields and the requested fields are read, and no others
+            Assert.assertEquals(projected.getContig(), expected.getContig());
+            Assert.assertEquals(projected.getStart(), expected.getStart());
+            Assert.assertEquals(projected.isReverseStrand(), expected.isReverseStrand());
+            Assert.assertEquals(projected.getBaseQualities(), expected.getBaseQualities());
+            Assert.assertNotNull(expected.getName());
+            Assert.assertNull(projected.getName());
+            Assert.assertEquals(projected.getMappingQuality(), ReadConstants.NO_MAPPING_QUALITY);
+        }
+    }
+
     @Test(groups = "spark")
     public void testIntervalsWithUnmapped() throws IOException {
         String bam = publicTestDir + "org/broadinstitute/hellbender/engine/CEUTrio.HiSeq.WGS.b37.NA12878.snippet_with_unmapped.bam";
@@ -3,7 +3,11 @@ package org.broadinstitute.hellbender.tools;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.Genotype;
 import htsjdk.variant.variantcontext.GenotypeBuilder;
+import htsjdk.variant.variantcontext.VariantContext;
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.broadcast.Broadcast;
+import org.apache.spark.storage.StorageLevel;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.engine.spark.datasources.ReferenceMultiSparkSource;
 import org.broadinstitute.hellbender.engine.spark.datasources.ReferenceWindowFunctions;
@@ -14,6 +18,7 @@ import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.HaplotypeCall
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.GATKBaseTest;
 import org.broadinstitute.hellbender.testutils.SparkTestUtils;
+import org.broadinstitute.hellbender.testutils.VariantContextTestUtils;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -21,6 +26,7 @@ import org.testng.annotations.Test;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
 
 import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.HaplotypeCallerIntegrationTest;
 
@@ -60,6 +66,34 @@ public class HaplotypeCallerSparkIntegrationTest extends CommandLineProgramTest
         Assert.assertTrue(concordance >= 0.99, "Concordance with GATK 3.8 in VCF mode is < 99% (" +  concordance + ")");
     }
 
+    /*
+     * Test that persisting the assembly regions doesn't change the calls, and that the persisted regions are released
+     */
+    @Test
+    public void testPersistedAssemblyRegions() throws Exception {
+        final File output = createTempFile("testPersistedAssemblyRegions", ".vcf");
+        final File persistedOutput = createTempFile("testPersistedAssemblyRegions.persisted", ".vcf");
+        final String[] args = {
+                "-I", NA12878_20_21_WGS_bam,
+                "-R", b37_reference_20_21,
+                "-L", "20:10000000-10020000",
+                "-pairHMM", "AVX_LOGLESS_CACHING"
+        };
+
+        Utils.resetRandomGenerator();
+        runCommandLine(ArrayUtils.addAll(args, "-O", output.getAbsolutePath()));
+        Utils.resetRandomGenerator();
+        runCommandLine(ArrayUtils.addAll(args, "-O", persistedOutput.getAbsolutePath(), "--persist-assembly-regions"));
+
+        final List<VariantContext> variants = VariantContextTestUtils.readEntireVCFIntoMemory(output.getAbsolutePath()).getRight();
+        Assert.assertFalse(variants.isEmpty());
+        VariantContextTestUtils.assertEqualVariants(VariantContextTestUtils.readEntireVCFIntoMemory(persistedOutput.getAbsolutePath()).getRight(), variants);
+
+        final JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+        Assert.assertTrue(ctx.getPersistentRDDs().values().stream().noneMatch(rdd -> rdd.getStorageLevel().equals(StorageLevel.DISK_ONLY())),
+                "the persisted assembly regions were not released");
+    }
+
     /**
      * Test that in VCF mode we're >= 99% concordant with GATK3.8 results
      * THIS TEST explodes with an exception because Allele-Specific annotations are not supported in vcf mode yet.
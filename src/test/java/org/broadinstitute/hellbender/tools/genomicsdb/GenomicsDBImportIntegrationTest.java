@@ -151,6 +151,67 @@ public final class GenomicsDBImportIntegrationTest extends CommandLineProgramTes
         testGenomicsDBImporter(LOCAL_GVCFS, MULTIPLE_INTERVALS, COMBINED_MULTI_INTERVAL, b38_reference_20_21, true, 1);
     }
 
+    @Test
+    public void testGenomicsDBImportFileInputsWithMultipleIntervalsInParallel() throws IOException {
+        final String workspace = createTempDir("genomicsdb-tests-").getAbsolutePath() + "/workspace";
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addArgument(GenomicsDBImport.WORKSPACE_ARG_LONG_NAME, workspace);
+        MULTIPLE_INTERVALS.forEach(interval -> args.addArgument("L", IntervalUtils.locatableToString(interval)));
+        LOCAL_GVCFS.forEach(vcf -> args.addArgument("V", vcf));
+        args.addArgument(GenomicsDBImport.VCF_INITIALIZER_THREADS_LONG_NAME, "2");
+        args.addArgument(GenomicsDBImport.MAX_NUM_INTERVALS_TO_IMPORT_IN_PARALLEL, String.valueOf(MULTIPLE_INTERVALS.size()));
+        args.addArgument(GenomicsDBImport.MAX_TOTAL_VCF_BUFFER_SIZE_ARG_NAME, String.valueOf(64 * 1024L * LOCAL_GVCFS.size()));
+        runCommandLine(args);
+
+        checkJSONFilesAreWritten(workspace);
+        checkGenomicsDBAgainstExpected(workspace, MULTIPLE_INTERVALS, COMBINED_MULTI_INTERVAL, b38_reference_20_21, true, ATTRIBUTES_TO_IGNORE);
+    }
+
+    @Test(expectedExceptions = CommandLineException.BadArgumentValue.class)
+    public void testTotalVCFBufferSizeTooSmallForParallelIntervals() throws IOException {
+        final String workspace = createTempDir("genomicsdb-tests-").getAbsolutePath() + "/workspace";
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addArgument(GenomicsDBImport.WORKSPACE_ARG_LONG_NAME, workspace);
+        MULTIPLE_INTERVALS.forEach(interval -> args.addArgument("L", IntervalUtils.locatableToString(interval)));
+        LOCAL_GVCFS.forEach(vcf -> args.addArgument("V", vcf));
+        args.addArgument(GenomicsDBImport.MAX_NUM_INTERVALS_TO_IMPORT_IN_PARALLEL, String.valueOf(MULTIPLE_INTERVALS.size()));
+        args.addArgument(GenomicsDBImport.MAX_TOTAL_VCF_BUFFER_SIZE_ARG_NAME, "1024");
+        runCommandLine(args);
+    }
+
+    @Test
+    public void testGenomicsDBIncrementalImport() throws IOException {
+        final String workspace = createTempDir("genomicsdb-incremental-tests-").getAbsolutePath() + "/workspace";
+        writeToGenomicsDB(LOCAL_GVCFS.subList(0, 2), MULTIPLE_INTERVALS, workspace, 0, false, 0, 1);
+        writeToExistingGenomicsDB(LOCAL_GVCFS.subList(2, 3), MULTIPLE_INTERVALS, workspace);
+
+        checkJSONFilesAreWritten(workspace);
+        Assert.assertFalse(BucketUtils.fileExists(IOUtils.appendPathToDir(workspace, GenomicsDBConstants.DEFAULT_CALLSETMAP_FILE_NAME + ".incremental")));
+        checkGenomicsDBAgainstExpected(workspace, MULTIPLE_INTERVALS, COMBINED_MULTI_INTERVAL, b38_reference_20_21, true, ATTRIBUTES_TO_IGNORE);
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testGenomicsDBIncrementalImportWithSampleAlreadyInWorkspace() throws IOException {
+        final String workspace = createTempDir("genomicsdb-incremental-tests-").getAbsolutePath() + "/workspace";
+        writeToGenomicsDB(LOCAL_GVCFS.subList(0, 2), INTERVAL, workspace, 0, false, 0, 1);
+        writeToExistingGenomicsDB(LOCAL_GVCFS.subList(1, 3), INTERVAL, workspace);
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testGenomicsDBIncrementalImportWithDifferentIntervals() throws IOException {
+        final String workspace = createTempDir("genomicsdb-incremental-tests-").getAbsolutePath() + "/workspace";
+        writeToGenomicsDB(LOCAL_GVCFS.subList(0, 2), INTERVAL, workspace, 0, false, 0, 1);
+        writeToExistingGenomicsDB(LOCAL_GVCFS.subList(2, 3), SMALLER_INTERVAL, workspace);
+    }
+
+    private void writeToExistingGenomicsDB(final List<String> vcfInputs, final List<SimpleInterval> intervals, final String workspace) {
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addArgument(GenomicsDBImport.INCREMENTAL_WORKSPACE_ARG_LONG_NAME, workspace);
+        intervals.forEach(interval -> args.addArgument("L", IntervalUtils.locatableToString(interval)));
+        vcfInputs.forEach(vcf -> args.addArgument("V", vcf));
+        runCommandLine(args);
+    }
+
     private void testGenomicsDBImportWith1000Intervals() throws IOException {
         final String workspace = createTempDir("genomicsdb-tests-").getAbsolutePath() + "/workspace";
         LinkedList<SimpleInterval> intervals = new LinkedList<SimpleInterval>();
@@ -7,8 +7,10 @@ import htsjdk.variant.variantcontext.VariantContext;
 import org.apache.commons.collections.IteratorUtils;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.engine.FeatureDataSource;
+import org.broadinstitute.hellbender.engine.ReferenceDataSource;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.broadinstitute.hellbender.utils.runtime.ProcessController;
 import org.broadinstitute.hellbender.utils.runtime.ProcessOutput;
 import org.broadinstitute.hellbender.utils.runtime.ProcessSettings;
@@ -413,6 +415,57 @@ public class CombineGVCFsIntegrationTest extends CommandLineProgramTest {
         Assert.assertEquals(nextcromlast.getGenotypes().size(), 2);
     }
 
+    // A fine band multiple over the long reference blocks of a whole chromosome gVCF must split each block output
+    // without bands exactly at the band boundaries, with reference alleles taken from the reference.
+    @Test
+    public void testBreakBandsInLongReferenceBlocks() throws Exception {
+        final int breakBandMultiple = 100;
+        final List<VariantContext> unbanded = runOnLongReferenceBlocks(Collections.emptyList());
+        final List<VariantContext> banded = runOnLongReferenceBlocks(Arrays.asList("--" + CombineGVCFs.BREAK_BANDS_LONG_NAME, Integer.toString(breakBandMultiple)));
+        Assert.assertTrue(banded.size() > 2500, "Observed only " + banded.size() + " records");
+
+        try (final ReferenceDataSource reference = ReferenceDataSource.of(IOUtils.getPath(b37_reference_20_21))) {
+            int bandedIndex = 0;
+            for (final VariantContext block : unbanded) {
+                while (banded.get(bandedIndex).getEnd() < block.getStart()) {
+                    bandedIndex++;
+                }
+                if (block.getNAlleles() > 2) {
+                    Assert.assertEquals(banded.get(bandedIndex).getStart(), block.getStart());
+                    Assert.assertEquals(banded.get(bandedIndex).getEnd(), block.getEnd());
+                    continue;
+                }
+                // the banded records must tile the block, ending before each multiple of the band and at the end of the block
+                int expectedStart = block.getStart();
+                while (expectedStart <= block.getEnd()) {
+                    final VariantContext piece = banded.get(bandedIndex++);
+                    final int expectedEnd = Math.min(block.getEnd(), (expectedStart / breakBandMultiple + 1) * breakBandMultiple - 1);
+                    Assert.assertEquals(piece.getStart(), expectedStart, piece.toString());
+                    Assert.assertEquals(piece.getEnd(), expectedEnd, piece.toString());
+                    Assert.assertEquals(piece.getNAlleles(), 2);
+                    if (piece.getStart() > block.getStart()) {
+                        final byte refBase = reference.queryAndPrefetch(piece.getContig(), piece.getStart(), piece.getStart()).getBases()[0];
+                        Assert.assertEquals(piece.getReference().getBases(), new byte[] {refBase}, piece.toString());
+                    }
+                    expectedStart = expectedEnd + 1;
+                }
+            }
+        }
+    }
+
+    private List<VariantContext> runOnLongReferenceBlocks(final List<String> extraArgs) throws IOException {
+        final File output = createTempFile("combinegvcfs", ".vcf");
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addReference(new File(b37_reference_20_21))
+                .addOutput(output);
+        args.addVCF(getTestFile("gvcfExample1.fullchrom.2021.vcf"));
+        args.addVCF(getTestFile("gvcfExample2.vcf"));
+        args.add(" -L 20:1-300000");
+        extraArgs.forEach(args::add);
+        runCommandLine(args);
+        return getVariantContexts(output);
+    }
+
     /** Should throw a BadInput exception as combining GVCFs with MNPs is unsupported. */
     @Test(expectedExceptions={UserException.BadInput.class})
     public void testCombineGvcfsWithMnps() throws Exception {
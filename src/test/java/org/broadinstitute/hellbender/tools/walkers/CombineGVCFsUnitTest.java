@@ -1,5 +1,9 @@
 package org.broadinstitute.hellbender.tools.walkers;
 
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import htsjdk.variant.vcf.VCFConstants;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
@@ -55,4 +59,78 @@ public class CombineGVCFsUnitTest {
         Assert.assertEquals(actualStopSites, expectedCloseSites);
     }
 
+    // the stop sites as computed before they were generated lazily: all proposed stop sites were collected in a set,
+    // sorted, and filtered to the interval being closed
+    private static List<Integer> getStopSitesByEnumeration(final SimpleInterval intervalToClose, final List<VariantContext> vcs, final int breakBandMultiple) {
+        final Set<Integer> sitesToStop = new HashSet<>();
+        if (breakBandMultiple > 0) {
+            for (int blockEndPosition = intervalToClose.getStart() < (breakBandMultiple + 1) ?
+                    Math.max(2, breakBandMultiple) :
+                    (intervalToClose.getStart() / breakBandMultiple) * breakBandMultiple;
+                 blockEndPosition <= intervalToClose.getEnd();
+                 blockEndPosition += breakBandMultiple) {
+                sitesToStop.add(blockEndPosition - 1);
+            }
+        }
+        for (final VariantContext vc : vcs) {
+            if (vc.getNAlleles() > 2) {
+                for (int i = vc.getStart(); i <= vc.getEnd(); i++) {
+                    sitesToStop.add(i);
+                }
+            } else if (vc.getEnd() <= intervalToClose.getEnd()) {
+                sitesToStop.add(vc.getEnd());
+            }
+        }
+        return sitesToStop.stream().filter(site -> site >= intervalToClose.getStart() && site <= intervalToClose.getEnd())
+                .sorted().collect(Collectors.toList());
+    }
+
+    private static VariantContext makeVariantContext(final int start, final int end, final boolean isVariant) {
+        final List<Allele> alleles = isVariant ?
+                Arrays.asList(Allele.create(String.join("", Collections.nCopies(end - start + 1, "A")), true), Allele.create("C"), Allele.NON_REF_ALLELE) :
+                Arrays.asList(Allele.create("A", true), Allele.NON_REF_ALLELE);
+        final VariantContextBuilder builder = new VariantContextBuilder("test", "contig", start, end, alleles);
+        return isVariant ? builder.make() : builder.attribute(VCFConstants.END_KEY, end).make();
+    }
+
+    @Test
+    public void testGetStopSitesMatchesEnumeration() {
+        final Random random = new Random(13);
+        for (int n = 0; n < 500; n++) {
+            final int start = 1 + random.nextInt(1000);
+            final SimpleInterval intervalToClose = new SimpleInterval("contig", start, start + random.nextInt(500));
+            final int breakBandMultiple = Arrays.asList(0, 1, 2, 7, 100, 1000).get(random.nextInt(6));
+
+            final List<VariantContext> vcs = new ArrayList<>();
+            for (int m = random.nextInt(6); m > 0; m--) {
+                final boolean isVariant = random.nextBoolean();
+                final int vcStart = Math.max(1, start - 20 + random.nextInt(intervalToClose.getLengthOnReference() + 40));
+                final int vcEnd = vcStart + (isVariant ? random.nextInt(5) : random.nextInt(600));
+                vcs.add(makeVariantContext(vcStart, vcEnd, isVariant));
+            }
+
+            final List<Integer> actualStopSites = new ArrayList<>();
+            CombineGVCFs.getStopSites(intervalToClose, vcs, breakBandMultiple).forEachRemaining((int site) -> actualStopSites.add(site));
+            Assert.assertEquals(actualStopSites, getStopSitesByEnumeration(intervalToClose, vcs, breakBandMultiple),
+                    intervalToClose + " " + breakBandMultiple + " " + vcs);
+        }
+    }
+
+    @Test
+    public void testGetStopSitesOfLongBlock() {
+        // a chromosome-length reference block with a fine band multiple
+        final SimpleInterval intervalToClose = new SimpleInterval("contig", 69792, 63025520);
+        final PrimitiveIterator.OfInt stopSites = CombineGVCFs.getStopSites(intervalToClose,
+                Collections.singletonList(makeVariantContext(69792, 63025520, false)), 10);
+        Assert.assertEquals(stopSites.nextInt(), 69799);
+        Assert.assertEquals(stopSites.nextInt(), 69809);
+        int count = 2;
+        int last = 69809;
+        while (stopSites.hasNext()) {
+            last = stopSites.nextInt();
+            count++;
+        }
+        Assert.assertEquals(last, 63025520);
+        Assert.assertEquals(count, (63025519 - 69799) / 10 + 1 + 1);
+    }
 }
@@ -209,6 +209,13 @@ public class GenotypeGVCFsIntegrationTest extends CommandLineProgramTest {
         assertVariantContextsMatch(input, expected, extraArgs, reference);
     }
 
+    @Test(dataProvider = "gvcfsToGenotype")
+    public void testEntireVariantContextWithGenotypingThreads(File input, File expected, List<String> extraArgs, String reference) throws IOException {
+        final List<String> args = new ArrayList<>(extraArgs);
+        args.addAll(Arrays.asList("--" + GenotypeGVCFs.GENOTYPING_THREADS_LONG_NAME, "4", "--" + GenotypeGVCFs.GENOTYPING_BATCH_SIZE_LONG_NAME, "7"));
+        assertVariantContextsMatch(input, expected, args, reference);
+    }
+
     private void assertVariantContextsMatch(File input, File expected, List<String> extraArgs, String reference) throws IOException {
         try {
             final VCFHeader header = VCFHeaderReader.readHeaderFrom(new SeekablePathStream(IOUtils.getPath(expected.getAbsolutePath())));
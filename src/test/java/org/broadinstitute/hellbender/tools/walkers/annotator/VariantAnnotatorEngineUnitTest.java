@@ -25,6 +25,7 @@ import org.testng.annotations.Test;
 import java.io.File;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -368,6 +369,60 @@ public final class VariantAnnotatorEngineUnitTest extends GATKBaseTest {
         Assert.assertFalse(resultVC.getCommonInfo().hasAttribute(GATKVCFConstants.SAMPLE_LIST_KEY));
     }
 
+    @Test
+    public void testSharedAnnotationData() throws Exception {
+        final Allele refAllele = Allele.create("A", true);
+        final Allele altAllele = Allele.create("T");
+        final List<GATKRead> refReads = IntStream.range(0, 20).mapToObj(n -> ArtificialAnnotationUtils.makeRead(30, 40 + n)).collect(Collectors.toList());
+        final List<GATKRead> altReads = IntStream.range(0, 10).mapToObj(n -> ArtificialAnnotationUtils.makeRead(30, 20 + n)).collect(Collectors.toList());
+        refReads.subList(0, 8).forEach(read -> read.setIsReverseStrand(true));
+        altReads.subList(0, 9).forEach(read -> read.setIsReverseStrand(true));
+        final ReadLikelihoods<Allele> likelihoods =
+                ArtificialAnnotationUtils.makeLikelihoods("sample1", refReads, altReads, -10.0, -10.0, refAllele, altAllele);
+        final VariantContext vc = makeVC(refAllele, altAllele);
+
+        final List<InfoFieldAnnotation> annotations = Arrays.asList(new FisherStrand(), new StrandOddsRatio(),
+                new MappingQualityRankSumTest());
+        final Map<String, Object> expected = new HashMap<>();
+        annotations.forEach(annotation -> expected.putAll(annotation.annotate(null, vc, likelihoods)));
+        Assert.assertEquals(expected.size(), annotations.size());
+
+        final VariantAnnotatorEngine vae = new VariantAnnotatorEngine(new ArrayList<Annotation>(annotations), null, Collections.emptyList(), false);
+        final VariantContext resultVC = vae.annotateContext(vc, new FeatureContext(), null, likelihoods, ann -> true);
+        expected.forEach((key, value) -> Assert.assertEquals(resultVC.getAttribute(key), value, key));
+
+        // products are shared only within the scope of a variant, only for the likelihoods being annotated, and only if declared
+        SharedAnnotationData.open(likelihoods, vc, EnumSet.of(SharedAnnotationData.Product.BEST_ALLELES));
+        try {
+            Assert.assertSame(SharedAnnotationData.bestAllelesBreakingTies(likelihoods, "sample1"),
+                    SharedAnnotationData.bestAllelesBreakingTies(likelihoods, "sample1"));
+            final ReadLikelihoods<Allele> otherLikelihoods =
+                    ArtificialAnnotationUtils.makeLikelihoods("sample1", refReads, altReads, -10.0, -10.0, refAllele, altAllele);
+            Assert.assertNotSame(SharedAnnotationData.bestAllelesBreakingTies(otherLikelihoods, "sample1"),
+                    SharedAnnotationData.bestAllelesBreakingTies(otherLikelihoods, "sample1"));
+            Assert.assertNotSame(SharedAnnotationData.strandCounts(likelihoods, vc, "sample1"),
+                    SharedAnnotationData.strandCounts(likelihoods, vc, "sample1"));
+        } finally {
+            SharedAnnotationData.close();
+        }
+
+        final Map<Allele, List<Integer>> mappingQualities = SharedAnnotationData.mappingQualitiesByAllele(likelihoods);
+        Assert.assertEquals(mappingQualities.get(refAllele), IntStream.range(40, 60).boxed().collect(Collectors.toList()));
+        Assert.assertEquals(mappingQualities.get(altAllele), IntStream.range(20, 30).boxed().collect(Collectors.toList()));
+        SharedAnnotationData.open(likelihoods, vc, EnumSet.of(SharedAnnotationData.Product.MAPPING_QUALITIES));
+        try {
+            Assert.assertSame(SharedAnnotationData.mappingQualitiesByAllele(likelihoods),
+                    SharedAnnotationData.mappingQualitiesByAllele(likelihoods));
+            Assert.assertSame(SharedAnnotationData.mappingQualitiesByAllele(likelihoods, "sample1"),
+                    SharedAnnotationData.mappingQualitiesByAllele(likelihoods, "sample1"));
+            Assert.assertEquals(SharedAnnotationData.mappingQualitiesByAllele(likelihoods, "sample1"), mappingQualities);
+        } finally {
+            SharedAnnotationData.close();
+        }
+        Assert.assertNotSame(SharedAnnotationData.bestAllelesBreakingTies(likelihoods, "sample1"),
+                SharedAnnotationData.bestAllelesBreakingTies(likelihoods, "sample1"));
+    }
+
     @Test
     public void testAnnotationsHaveDescriptions() throws Exception {
 
@@ -144,4 +144,45 @@ public class CalculateContaminationIntegrationTest extends CommandLineProgramTes
         final double calculatedContamination = ContaminationRecord.readFromFile(contaminationTable).get(0).getContamination();
         Assert.assertEquals(calculatedContamination, contamination, 0.01);
     }
-}
\ No newline at end of file
+
+    // the binary format and multiple threads must not change the result
+    @Test
+    public void testBinaryInputAndThreads() {
+        final File normal = NA12891_1_PCT_NA12892_99_PCT;
+        final File contaminated = NA12891_8_PCT_NA12892_92_PCT;
+        final File binaryNormal = createTempFile("normal", PileupSummary.BINARY_EXTENSION);
+        final File binaryContaminated = createTempFile("contaminated", PileupSummary.BINARY_EXTENSION);
+        PileupSummary.writeToFile(PileupSummary.readFromFile(normal), binaryNormal);
+        PileupSummary.writeToFile(PileupSummary.readFromFile(contaminated), binaryContaminated);
+
+        final File expectedTable = createTempFile("expected", ".table");
+        final File expectedSegments = createTempFile("expected-segments", ".table");
+        runCommandLine(new String[] {
+                "-I", contaminated.getAbsolutePath(),
+                "-" + CalculateContamination.MATCHED_NORMAL_SHORT_NAME, normal.getAbsolutePath(),
+                "-O", expectedTable.getAbsolutePath(),
+                "-" + CalculateContamination.TUMOR_SEGMENTATION_SHORT_NAME, expectedSegments.getAbsolutePath()
+        });
+
+        final File actualTable = createTempFile("actual", ".table");
+        final File actualSegments = createTempFile("actual-segments", ".table");
+        runCommandLine(new String[] {
+                "-I", binaryContaminated.getAbsolutePath(),
+                "-" + CalculateContamination.MATCHED_NORMAL_SHORT_NAME, binaryNormal.getAbsolutePath(),
+                "-O", actualTable.getAbsolutePath(),
+                "-" + CalculateContamination.TUMOR_SEGMENTATION_SHORT_NAME, actualSegments.getAbsolutePath(),
+                "--" + CalculateContamination.NUM_THREADS_LONG_NAME, "4"
+        });
+
+        Assert.assertEquals(ContaminationRecord.readFromFile(actualTable).get(0).getContamination(),
+                ContaminationRecord.readFromFile(expectedTable).get(0).getContamination());
+
+        final List<MinorAlleleFractionRecord> expectedMafs = MinorAlleleFractionRecord.readFromFile(expectedSegments);
+        final List<MinorAlleleFractionRecord> actualMafs = MinorAlleleFractionRecord.readFromFile(actualSegments);
+        Assert.assertEquals(actualMafs.size(), expectedMafs.size());
+        for (int n = 0; n < expectedMafs.size(); n++) {
+            Assert.assertEquals(actualMafs.get(n).getSegment(), expectedMafs.get(n).getSegment());
+            Assert.assertEquals(actualMafs.get(n).getMinorAlleleFraction(), expectedMafs.get(n).getMinorAlleleFraction());
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -37,4 +38,33 @@ public class PileupSummaryUnitTest {
         Assert.assertEquals(psCopy.get(0).getAlleleFrequency(), alleleFrequency);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testBinaryFormat() throws IOException {
+        // enough sites on one contig to span several blocks, followed by a second contig
+        final List<PileupSummary> ps = new ArrayList<>();
+        for (int n = 0; n < 2 * PileupSummaryBinaryCodec.MAX_RECORDS_PER_BLOCK + 10; n++) {
+            ps.add(new PileupSummary("chr1", n + 1, n % 50, n % 7, n % 3, (n % 100) / 100.0));
+        }
+        ps.add(new PileupSummary("chr2", 1, 20, 10, 2, 0.3));
+
+        final File binaryFile = File.createTempFile("pileup_summary", PileupSummary.BINARY_EXTENSION);
+        final File textFile = File.createTempFile("pileup_summary", ".table");
+        PileupSummary.writeToFile(ps, binaryFile);
+        PileupSummary.writeToFile(ps, textFile);
+        Assert.assertTrue(PileupSummaryBinaryCodec.isBinaryPileupSummaryFile(binaryFile));
+        Assert.assertFalse(PileupSummaryBinaryCodec.isBinaryPileupSummaryFile(textFile));
+        Assert.assertTrue(binaryFile.length() < textFile.length());
+
+        final List<PileupSummary> psCopy = PileupSummary.readFromFile(binaryFile);
+        Assert.assertEquals(psCopy.size(), ps.size());
+        for (int n = 0; n < ps.size(); n++) {
+            Assert.assertEquals(psCopy.get(n).getContig(), ps.get(n).getContig());
+            Assert.assertEquals(psCopy.get(n).getStart(), ps.get(n).getStart());
+            Assert.assertEquals(psCopy.get(n).getRefCount(), ps.get(n).getRefCount());
+            Assert.assertEquals(psCopy.get(n).getAltCount(), ps.get(n).getAltCount());
+            Assert.assertEquals(psCopy.get(n).getOtherAltCount(), ps.get(n).getOtherAltCount());
+            Assert.assertEquals(psCopy.get(n).getAlleleFrequency(), ps.get(n).getAlleleFrequency());
+        }
+    }
+
+}
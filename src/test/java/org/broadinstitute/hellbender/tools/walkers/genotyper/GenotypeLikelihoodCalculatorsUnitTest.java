@@ -75,6 +75,35 @@ public final class GenotypeLikelihoodCalculatorsUnitTest extends GATKBaseTest {
         }
     }
 
+    @Test
+    public void testInstancesAreNotShared() throws Exception {
+        final GenotypeLikelihoodCalculators calculators = new GenotypeLikelihoodCalculators();
+        final GenotypeLikelihoodCalculator outer = calculators.getInstance(2, 3);
+        final GenotypeLikelihoodCalculator inner = calculators.getInstance(2, 3);
+        Assert.assertNotSame(inner, outer);
+
+        // interleaved use must not disturb each other's scratch state
+        final int expected = outer.allelesToIndex(1, 2);
+        Assert.assertEquals(inner.allelesToIndex(0, 0), 0);
+        Assert.assertEquals(outer.allelesToIndex(1, 2), expected);
+        Assert.assertEquals(inner.genotypeCount(), outer.genotypeCount());
+    }
+
+    @Test
+    public void testConcurrentGrowth() throws Exception {
+        final GenotypeLikelihoodCalculators calculators = new GenotypeLikelihoodCalculators();
+        final List<Integer> ploidies = new ArrayList<>();
+        for (int ploidy = 1; ploidy <= 20; ploidy++) {
+            ploidies.add(ploidy);
+        }
+        ploidies.parallelStream().forEach(ploidy -> {
+            for (int alleleCount = 1; alleleCount <= 6; alleleCount++) {
+                final GenotypeLikelihoodCalculator inst = calculators.getInstance(ploidy, alleleCount);
+                Assert.assertEquals(inst.genotypeCount(), new GenotypeLikelihoodCalculators().genotypeCount(ploidy, alleleCount));
+            }
+        });
+    }
+
     @Test(expectedExceptions = IllegalArgumentException.class)
     public void testGenotypeCountOverflow() throws Exception {
         final int genotypeCount = new GenotypeLikelihoodCalculators().genotypeCount(10_000, 10_000);
@@ -7,6 +7,7 @@ import htsjdk.variant.variantcontext.Allele;
 import org.broadinstitute.gatk.nativebindings.pairhmm.PairHMMNativeArguments;
 import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.QualityUtils;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.genotyper.IndexedSampleList;
 import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
 import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
@@ -207,4 +208,56 @@ public final class PairHMMLikelihoodCalculationEngineUnitTest extends GATKBaseTe
             new File(PairHMMLikelihoodCalculationEngine.LIKELIHOODS_FILENAME).delete();
         }
     }
+
+    @Test
+    public void testIdenticalReadsShareLikelihoods() {
+        final LikelihoodEngineArgumentCollection LEAC = new LikelihoodEngineArgumentCollection();
+        final PairHMMLikelihoodCalculationEngine lce = new PairHMMLikelihoodCalculationEngine((byte) SAMUtils.MAX_PHRED_SCORE, new PairHMMNativeArguments(),
+                PairHMM.Implementation.LOGLESS_CACHING, MathUtils.logToLog10(QualityUtils.qualToErrorProbLog10(LEAC.phredScaledGlobalReadMismappingRate)),
+                PairHMMLikelihoodCalculationEngine.PCRErrorModel.CONSERVATIVE);
+
+        final byte[] quals = Utils.dupBytes((byte) 30, 10);
+        final GATKRead refRead = makeMappedRead("ref", "AAAAAAAAAA", quals);
+        final GATKRead refReadCopy = makeMappedRead("refCopy", "AAAAAAAAAA", quals);
+        final GATKRead altRead = makeMappedRead("alt", "AAAAACAAAA", quals);
+        final GATKRead refReadInOtherSample = makeMappedRead("refInOtherSample", "AAAAAAAAAA", quals);
+
+        final AssemblyResultSet assemblyResultSet = new AssemblyResultSet();
+        final Haplotype refHaplotype = new Haplotype("AAAAAAAAAAA".getBytes(), true);
+        final Haplotype altHaplotype = new Haplotype("AAAAACAAAAA".getBytes(), false);
+        refHaplotype.setGenomeLocation(refRead);
+        altHaplotype.setGenomeLocation(refRead);
+        assemblyResultSet.add(refHaplotype);
+        assemblyResultSet.add(altHaplotype);
+
+        final Map<String, List<GATKRead>> perSampleReadList = new LinkedHashMap<>();
+        perSampleReadList.put("sample1", Arrays.asList(refRead, altRead, refReadCopy));
+        perSampleReadList.put("sample2", Arrays.asList(refReadInOtherSample));
+        final ReadLikelihoods<Haplotype> likelihoods = lce.computeReadLikelihoods(assemblyResultSet, new IndexedSampleList("sample1", "sample2"), perSampleReadList);
+
+        final ReadLikelihoods<Haplotype> refReadAlone = lce.computeReadLikelihoods(assemblyResultSet, new IndexedSampleList("sample1"),
+                Collections.singletonMap("sample1", Arrays.asList(refRead)));
+        final ReadLikelihoods<Haplotype> altReadAlone = lce.computeReadLikelihoods(assemblyResultSet, new IndexedSampleList("sample1"),
+                Collections.singletonMap("sample1", Arrays.asList(altRead)));
+        lce.close();
+
+        final LikelihoodMatrix<Haplotype> sample1 = likelihoods.sampleMatrix(0);
+        final LikelihoodMatrix<Haplotype> sample2 = likelihoods.sampleMatrix(1);
+        for (int h = 0; h < 2; h++) {
+            final double refReadLikelihood = refReadAlone.sampleMatrix(0).get(h, 0);
+            Assert.assertEquals(sample1.get(h, sample1.indexOfRead(refRead)), refReadLikelihood);
+            Assert.assertEquals(sample1.get(h, sample1.indexOfRead(refReadCopy)), refReadLikelihood);
+            Assert.assertEquals(sample2.get(h, sample2.indexOfRead(refReadInOtherSample)), refReadLikelihood);
+            Assert.assertEquals(sample1.get(h, sample1.indexOfRead(altRead)), altReadAlone.sampleMatrix(0).get(h, 0));
+        }
+        Assert.assertTrue(sample1.get(0, sample1.indexOfRead(refRead)) > sample1.get(1, sample1.indexOfRead(refRead)));
+        Assert.assertTrue(sample1.get(1, sample1.indexOfRead(altRead)) > sample1.get(0, sample1.indexOfRead(altRead)));
+    }
+
+    private static GATKRead makeMappedRead(final String name, final String bases, final byte[] quals) {
+        final GATKRead read = ArtificialReadUtils.createArtificialRead(bases.getBytes(), quals, bases.length() + "M");
+        read.setName(name);
+        read.setMappingQuality(60);
+        return read;
+    }
 }
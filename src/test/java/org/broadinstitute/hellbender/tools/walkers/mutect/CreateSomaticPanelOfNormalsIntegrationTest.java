@@ -3,6 +3,7 @@ package org.broadinstitute.hellbender.tools.walkers.mutect;
 import htsjdk.variant.variantcontext.VariantContext;
 import org.apache.commons.io.FileUtils;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
+import org.broadinstitute.hellbender.testutils.ArgumentsBuilder;
 import org.broadinstitute.hellbender.testutils.VariantContextTestUtils;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -10,6 +11,7 @@ import org.testng.annotations.Test;
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -77,4 +79,35 @@ public class CreateSomaticPanelOfNormalsIntegrationTest extends CommandLineProgr
         Assert.assertEquals(vc5.getNAlleles(), 2);
         Assert.assertTrue(vc5.getAlternateAllele(0).basesMatch("C"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testHierarchicalMerge() throws IOException {
+        final File vcf1 = new File(PON_VCFS_DIR, "sample1.vcf");
+        final File vcf2 = new File(PON_VCFS_DIR, "sample2.vcf");
+        final File vcf1Copy = createTempFile("sample1_copy", ".vcf");
+        FileUtils.copyFile(vcf1, vcf1Copy);
+
+        // the five sites shared by all samples and the three others in sample1 and its copy
+        final File flatPon = runCreatePon(Arrays.asList(vcf1, vcf2, vcf1Copy), CreateSomaticPanelOfNormals.DEFAULT_MAX_VCFS_PER_MERGE);
+        final File hierarchicalPon = runCreatePon(Arrays.asList(vcf1, vcf2, vcf1Copy), 2);
+
+        final List<VariantContext> expected = VariantContextTestUtils.streamVcf(flatPon).collect(Collectors.toList());
+        final List<VariantContext> actual = VariantContextTestUtils.streamVcf(hierarchicalPon).collect(Collectors.toList());
+        Assert.assertEquals(expected.size(), 8);
+        Assert.assertEquals(actual.size(), expected.size());
+        for (int n = 0; n < expected.size(); n++) {
+            VariantContextTestUtils.assertVariantContextsAreEqual(actual.get(n), expected.get(n), Collections.emptyList());
+        }
+    }
+
+    private File runCreatePon(final List<File> vcfs, final int maxVcfsPerMerge) {
+        final File outputVcf = createTempFile("pon", ".vcf");
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        vcfs.forEach(vcf -> args.addArgument(CreateSomaticPanelOfNormals.INPUT_VCFS_LIST_LONG_NAME, vcf.getAbsolutePath()));
+        args.addArgument(CreateSomaticPanelOfNormals.DUPLICATE_SAMPLE_STRATEGY_LONG_NAME, CreateSomaticPanelOfNormals.DuplicateSampleStrategy.ALLOW_ALL.name())
+                .addArgument(CreateSomaticPanelOfNormals.MAX_VCFS_PER_MERGE_LONG_NAME, String.valueOf(maxVcfsPerMerge))
+                .addOutput(outputVcf);
+        runCommandLine(args);
+        return outputVcf;
+    }
+}
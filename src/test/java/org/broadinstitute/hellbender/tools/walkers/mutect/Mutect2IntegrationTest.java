@@ -112,6 +112,17 @@ public class Mutect2IntegrationTest extends CommandLineProgramTest {
         // run FilterMutectCalls
         new Main().instanceMain(makeCommandLineArgs(Arrays.asList("-V", unfilteredVcf.getAbsolutePath(), "-O", filteredVcf.getAbsolutePath()), FilterMutectCalls.class.getSimpleName()));
 
+        // filtering in a single pass must give the same result
+        final File singlePassFilteredVcf = createTempFile("single-pass-filtered", ".vcf");
+        new Main().instanceMain(makeCommandLineArgs(Arrays.asList("-V", unfilteredVcf.getAbsolutePath(), "-O", singlePassFilteredVcf.getAbsolutePath(),
+                "--" + FilterMutectCalls.SINGLE_PASS_LONG_NAME), FilterMutectCalls.class.getSimpleName()));
+        final List<VariantContext> twoPassVariants = VariantContextTestUtils.streamVcf(filteredVcf).collect(Collectors.toList());
+        final List<VariantContext> singlePassVariants = VariantContextTestUtils.streamVcf(singlePassFilteredVcf).collect(Collectors.toList());
+        Assert.assertEquals(singlePassVariants.size(), twoPassVariants.size());
+        for (int n = 0; n < twoPassVariants.size(); n++) {
+            VariantContextTestUtils.assertVariantContextsAreEqual(singlePassVariants.get(n), twoPassVariants.get(n), Collections.emptyList());
+        }
+
         // verify that alleles contained in likelihoods matrix but dropped from somatic calls do not show up in annotations
         // also check that alleles have been properly clipped after dropping any non-called alleles, i.e. if we had AAA AA A
         // and A got dropped, we need AAA AA -> AA A.  The condition we don't want is that all alleles share a common first base
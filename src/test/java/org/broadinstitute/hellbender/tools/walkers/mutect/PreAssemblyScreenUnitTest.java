@@ -0,0 +1,91 @@
+package org.broadinstitute.hellbender.tools.walkers.mutect;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMReadGroupRecord;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.AssemblyRegion;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+public class PreAssemblyScreenUnitTest extends GATKBaseTest {
+    private static final String TUMOR = "tumor";
+    private static final String NORMAL = "normal";
+    private static final SimpleInterval SPAN = new SimpleInterval("1", 101, 110);
+    private static final String SPAN_REFERENCE = "ACGTACGTAC";
+
+    private static SAMFileHeader makeHeader() {
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader();
+        for (final String sample : Arrays.asList(TUMOR, NORMAL)) {
+            final SAMReadGroupRecord readGroup = new SAMReadGroupRecord(sample);
+            readGroup.setSample(sample);
+            header.addReadGroup(readGroup);
+        }
+        return header;
+    }
+
+    private static GATKRead makeRead(final SAMFileHeader header, final String sample, final String bases, final String cigar,
+                                     final int mappingQuality, final int baseQuality) {
+        final byte[] quals = new byte[bases.length()];
+        Arrays.fill(quals, (byte) baseQuality);
+        final GATKRead read = ArtificialReadUtils.createArtificialRead(header, sample + bases + cigar + mappingQuality + baseQuality,
+                0, SPAN.getStart(), bases.getBytes(), quals, cigar);
+        read.setReadGroup(sample);
+        read.setMappingQuality(mappingQuality);
+        return read;
+    }
+
+    private static PreAssemblyScreen makeScreen(final SAMFileHeader header, final int minAltCount, final int auditInterval) {
+        final M2ArgumentCollection MTAC = new M2ArgumentCollection();
+        MTAC.preAssemblyScreenMinAltCount = minAltCount;
+        MTAC.preAssemblyScreenMinBaseQuality = 20;
+        MTAC.preAssemblyScreenMinMappingQuality = 30;
+        MTAC.preAssemblyScreenAuditInterval = auditInterval;
+        return new PreAssemblyScreen(MTAC, TUMOR, header);
+    }
+
+    @Test
+    public void testCountAltReads() {
+        final SAMFileHeader header = makeHeader();
+        final AssemblyRegion region = new AssemblyRegion(SPAN, 10, header);
+        // A -> T at position 105
+        final String snvBases = "ACGTTCGTAC";
+        region.add(makeRead(header, TUMOR, snvBases, "10M", 60, 30));
+        region.add(makeRead(header, TUMOR, snvBases, "10M", 10, 30));    // poorly-mapped
+        region.add(makeRead(header, TUMOR, snvBases, "10M", 60, 10));    // low base quality
+        region.add(makeRead(header, NORMAL, snvBases, "10M", 60, 30));   // wrong sample
+        // deletion of positions 105 and 106, which counts at the preceding base
+        region.add(makeRead(header, TUMOR, "ACGTGTAC", "4M2D4M", 60, 30));
+
+        final PreAssemblyScreen screen = makeScreen(header, 2, 0);
+        final int[] altCounts = screen.countAltReads(region, SPAN_REFERENCE.getBytes());
+        Assert.assertEquals(altCounts, new int[] {0, 0, 0, 1, 1, 0, 0, 0, 0, 0});
+        Assert.assertFalse(screen.passes(region, SPAN_REFERENCE.getBytes()));
+        Assert.assertTrue(makeScreen(header, 1, 0).passes(region, SPAN_REFERENCE.getBytes()));
+
+        region.add(makeRead(header, TUMOR, snvBases, "10M", 40, 25));
+        Assert.assertTrue(screen.passes(region, SPAN_REFERENCE.getBytes()));
+    }
+
+    @Test
+    public void testAudit() {
+        final SAMFileHeader header = makeHeader();
+        final AssemblyRegion region = new AssemblyRegion(SPAN, 10, header);
+        region.add(makeRead(header, TUMOR, SPAN_REFERENCE, "10M", 60, 30));
+
+        final PreAssemblyScreen screen = makeScreen(header, 1, 2);
+        final boolean[] expectedAudits = {true, false, true, false, true};
+        for (final boolean expectedAudit : expectedAudits) {
+            Assert.assertFalse(screen.passes(region, SPAN_REFERENCE.getBytes()));
+            Assert.assertEquals(screen.auditFailedRegion(), expectedAudit);
+        }
+
+        final PreAssemblyScreen noAuditScreen = makeScreen(header, 1, 0);
+        Assert.assertFalse(noAuditScreen.passes(region, SPAN_REFERENCE.getBytes()));
+        Assert.assertFalse(noAuditScreen.auditFailedRegion());
+    }
+}
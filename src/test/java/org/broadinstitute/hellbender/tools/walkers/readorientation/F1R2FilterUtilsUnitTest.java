@@ -0,0 +1,62 @@
+package org.broadinstitute.hellbender.tools.walkers.readorientation;
+
+import htsjdk.samtools.util.Histogram;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.Nucleotide;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class F1R2FilterUtilsUnitTest extends GATKBaseTest {
+    @Test
+    public void testContextIndices() {
+        final Set<Integer> indices = new HashSet<>();
+        for (final String context : F1R2FilterConstants.ALL_KMERS) {
+            final int index = F1R2FilterUtils.contextToIndex(context);
+            Assert.assertTrue(index >= 0 && index < F1R2FilterConstants.NUM_KMERS);
+            Assert.assertEquals(F1R2FilterUtils.indexToContext(index), context);
+            Assert.assertEquals(F1R2FilterUtils.contextToIndex(context.toLowerCase()), index);
+            indices.add(index);
+        }
+        Assert.assertEquals(indices.size(), F1R2FilterConstants.NUM_KMERS);
+
+        Assert.assertEquals(F1R2FilterUtils.contextToIndex("ANT"), -1);
+        Assert.assertEquals(F1R2FilterUtils.contextToIndex("NAA"), -1);
+    }
+
+    @Test
+    public void testDepthOneHistograms() {
+        final int maxDepth = 50;
+        final DepthOneHistograms histograms = new DepthOneHistograms(maxDepth);
+        histograms.increment("AGT", Nucleotide.T, ReadOrientation.F1R2, 10);
+        histograms.increment(F1R2FilterUtils.contextToIndex("AGT"), Nucleotide.T, ReadOrientation.F1R2, 10);
+        histograms.increment("AGT", Nucleotide.T, ReadOrientation.F2R1, 100);
+
+        final Histogram<Integer> f1r2 = histograms.get("AGT", Nucleotide.T, ReadOrientation.F1R2);
+        Assert.assertEquals(f1r2.getValueLabel(), F1R2FilterUtils.tripletToLabel("AGT", Nucleotide.T, ReadOrientation.F1R2));
+        Assert.assertEquals(f1r2.get(10).getValue(), 2.0);
+        Assert.assertEquals(f1r2.getSumOfValues(), 2.0);
+        Assert.assertEquals(histograms.get("AGT", Nucleotide.T, ReadOrientation.F2R1).get(maxDepth).getValue(), 1.0);
+        Assert.assertEquals(histograms.get("AGT", Nucleotide.C, ReadOrientation.F1R2).getSumOfValues(), 0.0);
+
+        Assert.assertEquals(histograms.getHistograms().size(), F1R2FilterConstants.NUM_KMERS * F1R2FilterConstants.numAltHistogramsPerContext);
+        Assert.assertEquals(histograms.getHistograms().stream().mapToDouble(Histogram::getSumOfValues).sum(), 3.0);
+    }
+
+    @Test
+    public void testFillHistogramKeepsDepthZero() {
+        final int maxDepth = 5;
+        final int[] depthCounts = new int[maxDepth + 1];
+        depthCounts[0] = 3;
+        depthCounts[2] = 1;
+        depthCounts[maxDepth] = 4;
+
+        final Histogram<Integer> h = F1R2FilterUtils.fillHistogram(F1R2FilterUtils.createRefHistogram("ACG", maxDepth), depthCounts);
+        Assert.assertEquals(h.get(0).getValue(), 3.0);
+        Assert.assertEquals(h.get(2).getValue(), 1.0);
+        Assert.assertEquals(h.get(maxDepth).getValue(), 4.0);
+        Assert.assertEquals(h.getSumOfValues(), 8.0);
+    }
+}
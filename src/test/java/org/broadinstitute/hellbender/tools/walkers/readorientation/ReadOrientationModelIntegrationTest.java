@@ -122,4 +122,75 @@ public class ReadOrientationModelIntegrationTest extends CommandLineProgramTest
                     GATKVCFConstants.ROF_TYPE_KEY, null), expectedReadOrientaiton.toString());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Learning from the outputs of CollectF1R2Counts scattered over contigs, on several threads, should give the same
+     * priors as learning from a single run
+     */
+    @Test
+    public void testScatteredInputsOnMultipleThreads() throws IOException {
+        final String hapmapBamSnippet = toolsTestDir + "read_orientation_filter/hapmap-20-plex-chr-20-21-read-orientation.bam";
+
+        final List<File[]> scatteredCounts = new ArrayList<>();
+        for (final String contig : Arrays.asList("20", "21")) {
+            scatteredCounts.add(collectF1R2Counts(hapmapBamSnippet, contig));
+        }
+        final File[] counts = collectF1R2Counts(hapmapBamSnippet, null);
+
+        final File expectedPriorTable = createTempFile("prior", ".tsv");
+        new Main().instanceMain(makeCommandLineArgs(
+                Arrays.asList(
+                        "--" + CollectF1R2Counts.ALT_DATA_TABLE_LONG_NAME, counts[0].getAbsolutePath(),
+                        "--" + CollectF1R2Counts.REF_SITE_METRICS_LONG_NAME, counts[1].getAbsolutePath(),
+                        "--" + CollectF1R2Counts.ALT_DEPTH1_HISTOGRAM_LONG_NAME, counts[2].getAbsolutePath(),
+                        "--" + StandardArgumentDefinitions.OUTPUT_LONG_NAME, expectedPriorTable.getAbsolutePath()),
+                LearnReadOrientationModel.class.getSimpleName()));
+
+        final File priorTable = createTempFile("prior", ".tsv");
+        final List<String> args = new ArrayList<>(Arrays.asList(
+                "--" + LearnReadOrientationModel.NUM_THREADS_LONG_NAME, "4",
+                "--" + StandardArgumentDefinitions.OUTPUT_LONG_NAME, priorTable.getAbsolutePath()));
+        for (final File[] shard : scatteredCounts) {
+            args.addAll(Arrays.asList(
+                    "--" + CollectF1R2Counts.ALT_DATA_TABLE_LONG_NAME, shard[0].getAbsolutePath(),
+                    "--" + CollectF1R2Counts.REF_SITE_METRICS_LONG_NAME, shard[1].getAbsolutePath(),
+                    "--" + CollectF1R2Counts.ALT_DEPTH1_HISTOGRAM_LONG_NAME, shard[2].getAbsolutePath()));
+        }
+        new Main().instanceMain(makeCommandLineArgs(args, LearnReadOrientationModel.class.getSimpleName()));
+
+        final ArtifactPriorCollection expected = ArtifactPriorCollection.readArtifactPriors(expectedPriorTable);
+        final ArtifactPriorCollection actual = ArtifactPriorCollection.readArtifactPriors(priorTable);
+        Assert.assertEquals(actual.getNumUniqueContexts(), expected.getNumUniqueContexts());
+        for (final String context : F1R2FilterConstants.CANONICAL_KMERS) {
+            Assert.assertEquals(actual.get(context).isPresent(), expected.get(context).isPresent());
+            if (expected.get(context).isPresent()) {
+                Assert.assertEquals(actual.get(context).get().getNumExamples(), expected.get(context).get().getNumExamples());
+                final double[] expectedPi = expected.get(context).get().getPi();
+                final double[] actualPi = actual.get(context).get().getPi();
+                for (int i = 0; i < expectedPi.length; i++) {
+                    Assert.assertEquals(actualPi[i], expectedPi[i], 1e-6);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the alt table, ref histograms, and alt depth one histograms
+     */
+    private File[] collectF1R2Counts(final String bam, final String interval) {
+        final File altTable = createTempFile("alt", ".table");
+        final File refMetrics = createTempFile("ref", ".table");
+        final File altMetrics = createTempFile("alt", ".table");
+        final List<String> args = new ArrayList<>(Arrays.asList(
+                "-R", b37_reference_20_21,
+                "-I", bam,
+                "--" + CollectF1R2Counts.ALT_DATA_TABLE_LONG_NAME, altTable.getAbsolutePath(),
+                "--" + CollectF1R2Counts.REF_SITE_METRICS_LONG_NAME, refMetrics.getAbsolutePath(),
+                "--" + CollectF1R2Counts.ALT_DEPTH1_HISTOGRAM_LONG_NAME, altMetrics.getAbsolutePath()));
+        if (interval != null) {
+            args.addAll(Arrays.asList("-L", interval));
+        }
+        new Main().instanceMain(makeCommandLineArgs(args, CollectF1R2Counts.class.getSimpleName()));
+        return new File[] {altTable, refMetrics, altMetrics};
+    }
+}
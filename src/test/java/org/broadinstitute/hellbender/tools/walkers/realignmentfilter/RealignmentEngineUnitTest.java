@@ -5,15 +5,21 @@ import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.VariantContextBuilder;
 import org.apache.commons.math3.util.Pair;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.ReferenceFileSource;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.bwa.BwaMemAlignment;
 import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Random;
 
 public class RealignmentEngineUnitTest {
     private static final SAMFileHeader HEADER = ArtificialReadUtils.createArtificialSamHeader();
@@ -21,6 +27,7 @@ public class RealignmentEngineUnitTest {
     private static final String SOURCE = "source";
     private static final String CONTIG = "chr1";
     private static final int TOL = 1;
+    private static final String BWA_MEM_INDEX_IMAGE = GATKBaseTest.toolsTestDir + "mutect/human_g1k_v37.20.2000000.3000000.img";
 
     @Test
     public void testSupportsVariant() {
@@ -101,6 +108,46 @@ public class RealignmentEngineUnitTest {
         Assert.assertEquals(pairs3.size(),4);
     }
 
+    @Test
+    public void testBatchRealignmentMatchesSingleReads() {
+        final List<GATKRead> reads = new ArrayList<>();
+        try (final ReferenceFileSource reference = new ReferenceFileSource(Paths.get(GATKBaseTest.b37_reference_20_21))) {
+            for (int start = 2100000; start < 2900000; start += 50000) {
+                final String bases = new String(reference.queryAndPrefetch(new SimpleInterval("20", start, start + 99)).getBases());
+                reads.add(makeRead("read" + start, start, bases, "100M"));
+            }
+        }
+        final Random random = new Random(13);
+        final byte[] randomBases = new byte[100];
+        for (int n = 0; n < randomBases.length; n++) {
+            randomBases[n] = "ACGT".getBytes()[random.nextInt(4)];
+        }
+        reads.add(makeRead("random", 1, new String(randomBases), "100M"));
+        reads.add(reads.get(0));
+
+        final RealignmentArgumentCollection rfac = new RealignmentArgumentCollection();
+        rfac.bwaMemIndexImage = BWA_MEM_INDEX_IMAGE;
+        rfac.bwaThreads = 2;
+        final List<RealignmentEngine.RealignmentResult> batchResults = new RealignmentEngine(rfac).realign(reads);
+
+        rfac.bwaThreads = 1;
+        rfac.realignmentCacheSize = 0;
+        final RealignmentEngine singleReadEngine = new RealignmentEngine(rfac);
+
+        Assert.assertEquals(batchResults.size(), reads.size());
+        Assert.assertSame(batchResults.get(reads.size() - 1), batchResults.get(0));
+        for (int n = 0; n < reads.size(); n++) {
+            final RealignmentEngine.RealignmentResult expected = singleReadEngine.realign(reads.get(n));
+            final RealignmentEngine.RealignmentResult actual = batchResults.get(n);
+            Assert.assertEquals(actual.isGood(), expected.isGood());
+            Assert.assertEquals(actual.getRealignments().size(), expected.getRealignments().size());
+            for (int m = 0; m < actual.getRealignments().size(); m++) {
+                Assert.assertEquals(actual.getRealignments().get(m).getRefStart(), expected.getRealignments().get(m).getRefStart());
+                Assert.assertEquals(actual.getRealignments().get(m).getAlignerScore(), expected.getRealignments().get(m).getAlignerScore());
+            }
+        }
+    }
+
     private GATKRead makeRead(final String name, final int alignmentStart, final String baseString, final String cigar ) {
         final byte[] bases = baseString.getBytes();
         final byte[] qual = new byte[bases.length];
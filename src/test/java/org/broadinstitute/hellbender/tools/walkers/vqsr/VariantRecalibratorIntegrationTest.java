@@ -1,9 +1,13 @@
 package org.broadinstitute.hellbender.tools.walkers.vqsr;
 
+import htsjdk.variant.variantcontext.VariantContext;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.testutils.IntegrationTestSpec;
+import org.broadinstitute.hellbender.testutils.VariantContextTestUtils;
+import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
@@ -107,6 +111,76 @@ public class VariantRecalibratorIntegrationTest extends CommandLineProgramTest {
         doSNPTest(params, getLargeVQSRTestDataDir() + "expected/SNPDefaultTranches.txt");
     }
 
+    @Test(dataProvider = "VarRecalSNP")
+    public void testVariantRecalibratorSNPMultithreaded(final String[] params) throws IOException {
+        // same as testVariantRecalibratorSNP but with the models fit and evaluated on several threads
+        final List<String> args = new ArrayList<>(Arrays.asList(params));
+        args.addAll(Arrays.asList("--threads", "4"));
+        doSNPTest(args.toArray(new String[args.size()]), getLargeVQSRTestDataDir() + "expected/SNPDefaultTranches.txt");
+    }
+
+    private static final int TEST_RESERVOIR_SIZE = 5000;
+
+    private VariantRecalibrator runWithReservoir(final String[] params, final File recalOut, final File tranchesOut) {
+        final List<String> args = new ArrayList<>(Arrays.asList(params));
+        args.addAll(Arrays.asList("--reservoir-size", String.valueOf(TEST_RESERVOIR_SIZE)));
+        args.addAll(addTempFileArgs(recalOut, tranchesOut));
+
+        final VariantRecalibrator varRecalTool = new VariantRecalibrator();
+        Assert.assertEquals(varRecalTool.instanceMain(args.toArray(new String[args.size()])), true);
+        return varRecalTool;
+    }
+
+    @Test(dataProvider = "VarRecalSNP")
+    public void testVariantRecalibratorSNPWithReservoir(final String[] params) throws IOException {
+        // the models are fit to a sample of the sites, so the scores differ from those of testVariantRecalibratorSNP,
+        // but every site must still be written to the recal file
+        final File recalOut = createTempFile("testVarRecalSnpReservoir", ".vcf");
+        final File tranchesOut = createTempFile("testVarRecalSnpReservoir", ".txt");
+        final VariantRecalibrator varRecalTool = runWithReservoir(params, recalOut, tranchesOut);
+
+        final List<VariantContext> actual = VariantContextTestUtils.readEntireVCFIntoMemory(recalOut.getAbsolutePath()).getRight();
+        final List<VariantContext> expected = VariantContextTestUtils.readEntireVCFIntoMemory(getLargeVQSRTestDataDir() + "snpRecal.vcf").getRight();
+        Assert.assertEquals(actual.size(), expected.size());
+        for (int i = 0; i < actual.size(); i++) {
+            Assert.assertEquals(actual.get(i).getContig(), expected.get(i).getContig());
+            Assert.assertEquals(actual.get(i).getStart(), expected.get(i).getStart());
+            Assert.assertTrue(actual.get(i).hasAttribute(GATKVCFConstants.VQS_LOD_KEY));
+        }
+        Assert.assertEquals(TruthSensitivityTranche.readTranches(tranchesOut).size(), 4);
+
+        // the reservoirs must be smaller than the data for the sampling to be exercised
+        final VariantRecalibrator.DatumReservoir trainingReservoir = varRecalTool.getTrainingReservoir();
+        final VariantRecalibrator.DatumReservoir otherReservoir = varRecalTool.getOtherReservoir();
+        Assert.assertEquals(trainingReservoir.getNumSeen() + otherReservoir.getNumSeen(), actual.size());
+        Assert.assertTrue(otherReservoir.getNumSeen() > TEST_RESERVOIR_SIZE);
+        Assert.assertEquals(otherReservoir.getSampleSize(), TEST_RESERVOIR_SIZE);
+        Assert.assertEquals(trainingReservoir.getSampleSize(), Math.min(trainingReservoir.getNumSeen(), TEST_RESERVOIR_SIZE));
+    }
+
+    @Test(dataProvider = "VarRecalSNP")
+    public void testVariantRecalibratorSNPWithReservoirIsDeterministic(final String[] params) throws IOException {
+        final File recalOut = createTempFile("testVarRecalSnpReservoir", ".vcf");
+        final File tranchesOut = createTempFile("testVarRecalSnpReservoir", ".txt");
+        runWithReservoir(params, recalOut, tranchesOut);
+
+        Utils.resetRandomGenerator();
+        final File secondRecalOut = createTempFile("testVarRecalSnpReservoir", ".vcf");
+        final File secondTranchesOut = createTempFile("testVarRecalSnpReservoir", ".txt");
+        runWithReservoir(params, secondRecalOut, secondTranchesOut);
+
+        IntegrationTestSpec.assertEqualTextFiles(secondRecalOut, recalOut);
+        IntegrationTestSpec.assertEqualTextFiles(secondTranchesOut, tranchesOut);
+    }
+
+    @Test(dataProvider = "VarRecalSNP", expectedExceptions = CommandLineException.class)
+    public void testReservoirWithMaxAttempts(final String[] params) throws IOException {
+        final List<String> args = new ArrayList<>(Arrays.asList(params));
+        args.addAll(Arrays.asList("--reservoir-size", String.valueOf(TEST_RESERVOIR_SIZE), "--max-attempts", "4"));
+        args.addAll(addTempFileArgs(createTempFile("testVarRecalSnpReservoir", ".vcf"), createTempFile("testVarRecalSnpReservoir", ".txt")));
+        new VariantRecalibrator().instanceMain(args.toArray(new String[args.size()]));
+    }
+
     @Test(dataProvider = "VarRecalSNP")
     public void testVariantRecalibratorSNPAlternateTranches(final String[] params) throws IOException {
         // same as testVariantRecalibratorSNP but with specific tranches
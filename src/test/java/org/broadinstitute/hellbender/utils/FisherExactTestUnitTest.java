@@ -53,5 +53,7 @@ public final class FisherExactTestUnitTest{
         contingencyTable[1][1] = altneg;
         final double pvalue = FisherExactTest.twoSidedPValue(contingencyTable);
         Assert.assertEquals(pvalue, expectedPvalue, DELTA_PRECISION, "Pvalues");
+        // the second call uses the cached distribution
+        Assert.assertEquals(FisherExactTest.twoSidedPValue(contingencyTable), pvalue, "Pvalues from cache");
     }
 }
@@ -10,6 +10,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 public class MannWhitneyUUnitTest extends GATKBaseTest {
     private static double DELTA_PRECISION = 0.00001;
@@ -97,6 +98,44 @@ public class MannWhitneyUUnitTest extends GATKBaseTest {
         Assert.assertEquals(rst.transformTies(64890, listOfNumberOfTies), 8.41378729572e+12);
     }
 
+    // the exact distribution must agree with brute-force enumeration of every assignment of ranks to the first series
+    @Test
+    public void testExactDistributionMatchesEnumeration() {
+        final Random random = new Random(17);
+        for (int trial = 0; trial < 50; trial++) {
+            final double[] series1 = random.ints(1 + random.nextInt(7), 0, 6).asDoubleStream().toArray();
+            final double[] series2 = random.ints(1 + random.nextInt(7), 0, 6).asDoubleStream().toArray();
+            final double u = rst.calculateOneSidedU(series1.clone(), series2.clone(), MannWhitneyU.TestType.FIRST_DOMINATES).getTrueU();
+
+            final double[] pooled = Doubles.concat(series1, series2);
+            Arrays.sort(pooled);
+            final int n = pooled.length;
+            final int n1 = series1.length;
+            final double[] ranks = new double[n];
+            for (int i = 0; i < n; ) {
+                int j = i;
+                while (j < n && pooled[j] == pooled[i]) j++;
+                for (int k = i; k < j; k++) ranks[k] = (i + j + 1) / 2.0;
+                i = j;
+            }
+
+            double smaller = 0, equal = 0, total = 0;
+            for (int subset = 0; subset < (1 << n); subset++) {
+                if (Integer.bitCount(subset) != n1) continue;
+                double rankSum = 0;
+                for (int k = 0; k < n; k++) {
+                    if ((subset & (1 << k)) != 0) rankSum += ranks[k];
+                }
+                final double permutedU = rankSum - n1 * (n1 + 1) / 2.0;
+                total++;
+                if (permutedU < u) smaller++;
+                else if (permutedU == u) equal++;
+            }
+
+            Assert.assertEquals(rst.permutationTest(series1.clone(), series2.clone(), u), (smaller + equal / 2) / total, 1.0e-12);
+        }
+    }
+
     @DataProvider(name = "DistributionData")
     public Object[][] makeDistributionData() {
         List<Object[]> tests = new ArrayList<>();
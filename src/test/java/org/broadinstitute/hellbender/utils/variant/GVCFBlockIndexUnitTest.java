@@ -0,0 +1,193 @@
+package org.broadinstitute.hellbender.utils.variant;
+
+import com.google.common.collect.Lists;
+import htsjdk.tribble.CloseableTribbleIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFCodec;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.FeatureDataSource;
+import org.broadinstitute.hellbender.testutils.VariantContextTestUtils;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.List;
+
+public final class GVCFBlockIndexUnitTest extends GATKBaseTest {
+
+    private static final String GVCF = largeFileTestDir + "gvcfs/HG00096.g.vcf.gz";
+
+    @DataProvider
+    public Object[][] getEndData() {
+        return new Object[][] {
+                {100, "A", ".", 100},
+                {100, "ACG", "DP=10", 102},
+                {100, "A", "END=250", 250},
+                {100, "A", "DP=3;END=250;MQ=60", 250},
+                {100, "A", "DP=3;BLOCKEND=7", 100},
+        };
+    }
+
+    @Test(dataProvider = "getEndData")
+    public void testGetEnd(final int start, final String ref, final String info, final int expectedEnd) {
+        Assert.assertEquals(GVCFBlockIndex.getEnd(start, ref, info), expectedEnd);
+    }
+
+    @DataProvider
+    public Object[][] getQueryIntervals() {
+        return new Object[][] {
+                {new SimpleInterval("chr20", 17960187, 17960187)},
+                {new SimpleInterval("chr20", 17965000, 17965000)},
+                {new SimpleInterval("chr20", 17970000, 17975000)},
+                {new SimpleInterval("chr20", 17960187, 17981445)},
+                {new SimpleInterval("chr20", 1, 10)},
+                {new SimpleInterval("chr21", 1, 10)},
+        };
+    }
+
+    @Test(dataProvider = "getQueryIntervals")
+    public void testQueriesMatchTabixQueries(final SimpleInterval interval) throws IOException {
+        final Path gvcf = copyGVCFWithTabixIndex();
+        final List<VariantContext> expected;
+        try (final FeatureDataSource<VariantContext> tabixSource = new FeatureDataSource<>(gvcf.toString())) {
+            expected = tabixSource.queryAndPrefetch(interval);
+        }
+
+        final Path indexPath = GVCFBlockIndex.getIndexPath(gvcf);
+        GVCFBlockIndex.create(gvcf).write(indexPath);
+        try (final FeatureDataSource<VariantContext> blockIndexedSource = new FeatureDataSource<>(gvcf.toString())) {
+            final List<VariantContext> actual = blockIndexedSource.queryAndPrefetch(interval);
+            // the results must have come from the block index rather than from tabix
+            Assert.assertTrue(blockIndexedSource.getQueryReader() instanceof GVCFBlockIndexedReader);
+            Assert.assertEquals(((GVCFBlockIndexedReader) blockIndexedSource.getQueryReader()).getNumQueries(), 1);
+            Assert.assertEquals(actual.size(), expected.size());
+            for (int i = 0; i < actual.size(); i++) {
+                VariantContextTestUtils.assertVariantContextsAreEqual(actual.get(i), expected.get(i), Collections.emptyList());
+            }
+        }
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        final Path gvcf = copyGVCFWithTabixIndex();
+        final GVCFBlockIndex index = GVCFBlockIndex.create(gvcf);
+        final long numRecords = index.getNumRecords("chr20");
+        Assert.assertTrue(numRecords > GVCFBlockIndex.RECORDS_PER_ENTRY);
+        // one entry per group of records, not one per record
+        Assert.assertEquals(index.getNumEntries("chr20"), (numRecords + GVCFBlockIndex.RECORDS_PER_ENTRY - 1) / GVCFBlockIndex.RECORDS_PER_ENTRY);
+
+        final Path indexPath = GVCFBlockIndex.getIndexPath(gvcf);
+        index.write(indexPath);
+        final GVCFBlockIndex read = GVCFBlockIndex.read(indexPath);
+        Assert.assertEquals(read.getNumRecords("chr20"), numRecords);
+        Assert.assertEquals(read.getNumEntries("chr20"), index.getNumEntries("chr20"));
+        for (int position = 17960000; position < 17982000; position += 97) {
+            Assert.assertEquals(read.getQueryStartOffset("chr20", position), index.getQueryStartOffset("chr20", position));
+        }
+        Assert.assertEquals(read.getQueryStartOffset("chrNotThere", 1), -1);
+        Assert.assertEquals(read.getQueryStartOffset("chr20", Integer.MAX_VALUE), -1);
+    }
+
+    @Test
+    public void testStaleIndexIsIgnored() throws IOException {
+        final Path gvcf = copyGVCFWithTabixIndex();
+        final SimpleInterval interval = new SimpleInterval("chr20", 17960187, 17981445);
+        final List<VariantContext> expected;
+        try (final FeatureDataSource<VariantContext> tabixSource = new FeatureDataSource<>(gvcf.toString())) {
+            expected = tabixSource.queryAndPrefetch(interval);
+        }
+
+        final Path indexPath = GVCFBlockIndex.getIndexPath(gvcf);
+        GVCFBlockIndex.create(gvcf).write(indexPath);
+        Assert.assertTrue(GVCFBlockIndex.read(indexPath).matches(gvcf));
+
+        // as if the GVCF had been regenerated after the block index was created
+        Files.setLastModifiedTime(gvcf, FileTime.fromMillis(Files.getLastModifiedTime(gvcf).toMillis() + 60000));
+        Assert.assertFalse(GVCFBlockIndex.read(indexPath).matches(gvcf));
+        try (final FeatureDataSource<VariantContext> source = new FeatureDataSource<>(gvcf.toString())) {
+            Assert.assertFalse(source.getQueryReader() instanceof GVCFBlockIndexedReader);
+            final List<VariantContext> actual = source.queryAndPrefetch(interval);
+            Assert.assertEquals(actual.size(), expected.size());
+            for (int i = 0; i < actual.size(); i++) {
+                VariantContextTestUtils.assertVariantContextsAreEqual(actual.get(i), expected.get(i), Collections.emptyList());
+            }
+        }
+    }
+
+    @Test
+    public void testIteratorReadsWholeFile() throws IOException {
+        final Path gvcf = copyGVCFWithTabixIndex();
+        final List<VariantContext> expected;
+        try (final FeatureDataSource<VariantContext> tabixSource = new FeatureDataSource<>(gvcf.toString())) {
+            expected = Lists.newArrayList(tabixSource.iterator());
+        }
+
+        try (final GVCFBlockIndexedReader reader = new GVCFBlockIndexedReader(gvcf, GVCFBlockIndex.create(gvcf), new VCFCodec());
+             final CloseableTribbleIterator<VariantContext> iterator = reader.iterator()) {
+            final List<VariantContext> actual = Lists.newArrayList(iterator.iterator());
+            Assert.assertEquals(actual.size(), expected.size());
+            for (int i = 0; i < actual.size(); i++) {
+                VariantContextTestUtils.assertVariantContextsAreEqual(actual.get(i), expected.get(i), Collections.emptyList());
+            }
+            // queries still use the block index after iterating
+            Assert.assertEquals(Lists.newArrayList(reader.query("chr20", 17960187, 17960187).iterator()).size(), 1);
+        }
+    }
+
+    @Test
+    public void testInterleavedQueries() throws IOException {
+        final Path gvcf = copyGVCFWithTabixIndex();
+        final SimpleInterval first = new SimpleInterval("chr20", 17960187, 17965000);
+        final SimpleInterval second = new SimpleInterval("chr20", 17970000, 17975000);
+        final List<VariantContext> expectedFirst;
+        final List<VariantContext> expectedSecond;
+        try (final FeatureDataSource<VariantContext> tabixSource = new FeatureDataSource<>(gvcf.toString())) {
+            expectedFirst = tabixSource.queryAndPrefetch(first);
+            expectedSecond = tabixSource.queryAndPrefetch(second);
+        }
+        Assert.assertTrue(expectedFirst.size() > 1);
+
+        try (final GVCFBlockIndexedReader reader = new GVCFBlockIndexedReader(gvcf, GVCFBlockIndex.create(gvcf), new VCFCodec());
+             final CloseableTribbleIterator<VariantContext> firstIterator = reader.query(first.getContig(), first.getStart(), first.getEnd())) {
+            // a second query and an iteration over the file opened while the first query is open must not move it
+            final VariantContext firstRecord = firstIterator.next();
+            final List<VariantContext> actualSecond;
+            try (final CloseableTribbleIterator<VariantContext> secondIterator = reader.query(second.getContig(), second.getStart(), second.getEnd())) {
+                actualSecond = Lists.newArrayList(secondIterator.iterator());
+            }
+            try (final CloseableTribbleIterator<VariantContext> iterator = reader.iterator()) {
+                Assert.assertTrue(iterator.hasNext());
+                iterator.next();
+            }
+            final List<VariantContext> actualFirst = Lists.newArrayList(firstIterator.iterator());
+            actualFirst.add(0, firstRecord);
+
+            Assert.assertEquals(reader.getNumQueries(), 2);
+            assertVariantContextsAreEqual(actualFirst, expectedFirst);
+            assertVariantContextsAreEqual(actualSecond, expectedSecond);
+        }
+    }
+
+    private static void assertVariantContextsAreEqual(final List<VariantContext> actual, final List<VariantContext> expected) {
+        Assert.assertEquals(actual.size(), expected.size());
+        for (int i = 0; i < actual.size(); i++) {
+            VariantContextTestUtils.assertVariantContextsAreEqual(actual.get(i), expected.get(i), Collections.emptyList());
+        }
+    }
+
+    private static Path copyGVCFWithTabixIndex() throws IOException {
+        final File dir = createTempDir("gvcfBlockIndex");
+        final Path gvcf = dir.toPath().resolve(Paths.get(GVCF).getFileName());
+        Files.copy(Paths.get(GVCF), gvcf);
+        Files.copy(Paths.get(GVCF + ".tbi"), gvcf.resolveSibling(gvcf.getFileName() + ".tbi"));
+        return gvcf;
+    }
+}
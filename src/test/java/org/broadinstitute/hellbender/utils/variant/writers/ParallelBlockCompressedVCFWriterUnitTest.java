@@ -0,0 +1,140 @@
+package org.broadinstitute.hellbender.utils.variant.writers;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import htsjdk.samtools.util.BlockCompressedStreamConstants;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.GenotypeBuilder;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import htsjdk.variant.variantcontext.writer.Options;
+import htsjdk.variant.variantcontext.writer.VariantContextWriter;
+import htsjdk.variant.vcf.VCFConstants;
+import htsjdk.variant.vcf.VCFHeader;
+import htsjdk.variant.vcf.VCFHeaderLine;
+import htsjdk.variant.vcf.VCFStandardHeaderLines;
+import org.apache.commons.io.IOUtils;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.FeatureDataSource;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.zip.Deflater;
+
+public final class ParallelBlockCompressedVCFWriterUnitTest extends GATKBaseTest {
+
+    private static final int NUM_RECORDS_PER_CONTIG = 20000;
+
+    private static SAMSequenceDictionary getDictionary() {
+        return new SAMSequenceDictionary(Arrays.asList(new SAMSequenceRecord("1", 10000000), new SAMSequenceRecord("2", 10000000)));
+    }
+
+    private static VCFHeader getHeader() {
+        final Set<VCFHeaderLine> lines = new LinkedHashSet<>();
+        lines.add(VCFStandardHeaderLines.getFormatLine(VCFConstants.GENOTYPE_KEY));
+        lines.add(VCFStandardHeaderLines.getInfoLine(VCFConstants.DEPTH_KEY));
+        final VCFHeader header = new VCFHeader(lines, Collections.singletonList("sample"));
+        header.setSequenceDictionary(getDictionary());
+        return header;
+    }
+
+    private static List<VariantContext> getVariants() {
+        final Allele ref = Allele.create("A", true);
+        final Allele alt = Allele.create("C");
+        final List<VariantContext> variants = new ArrayList<>();
+        for (final String contig : Arrays.asList("1", "2")) {
+            for (int i = 1; i <= NUM_RECORDS_PER_CONTIG; i++) {
+                final int position = 10 * i;
+                variants.add(new VariantContextBuilder("test", contig, position, position, Arrays.asList(ref, alt))
+                        .attribute(VCFConstants.DEPTH_KEY, i % 50)
+                        .genotypes(new GenotypeBuilder("sample", i % 3 == 0 ? Arrays.asList(ref, alt) : Arrays.asList(alt, alt)).make())
+                        .make());
+            }
+        }
+        return variants;
+    }
+
+    private static void writeVariants(final VariantContextWriter writer, final List<VariantContext> variants) {
+        try (final VariantContextWriter w = writer) {
+            w.writeHeader(getHeader());
+            variants.forEach(w::add);
+        }
+    }
+
+    private static byte[] decompress(final File file) throws IOException {
+        try (final InputStream in = new BlockCompressedInputStream(new FileInputStream(file))) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    @DataProvider
+    public Object[][] getNumThreads() {
+        return new Object[][] {{1}, {2}, {4}};
+    }
+
+    @Test(dataProvider = "getNumThreads")
+    public void testOutputMatchesSerialWriter(final int numThreads) throws IOException {
+        final File dir = createTempDir("parallelVCFWriter");
+        final File expectedFile = new File(dir, "expected.vcf.gz");
+        final File actualFile = new File(dir, "actual.vcf.gz");
+        final List<VariantContext> variants = getVariants();
+
+        writeVariants(GATKVariantContextUtils.createVCFWriter(expectedFile, getDictionary(), false, Options.INDEX_ON_THE_FLY), variants);
+        writeVariants(new ParallelBlockCompressedVCFWriter(actualFile, getDictionary(), numThreads, 5, false, Options.INDEX_ON_THE_FLY), variants);
+
+        Assert.assertEquals(decompress(actualFile), decompress(expectedFile));
+        Assert.assertTrue(new File(actualFile.getAbsolutePath() + ".tbi").exists());
+    }
+
+    @Test
+    public void testIndexedQueries() throws IOException {
+        final File output = new File(createTempDir("parallelVCFWriter"), "indexed.vcf.gz");
+        final List<VariantContext> variants = getVariants();
+        writeVariants(new ParallelBlockCompressedVCFWriter(output, getDictionary(), 4, 5, false, Options.INDEX_ON_THE_FLY), variants);
+
+        try (final FeatureDataSource<VariantContext> source = new FeatureDataSource<>(output)) {
+            for (final SimpleInterval interval : Arrays.asList(new SimpleInterval("1", 1, 10),
+                    new SimpleInterval("1", 99995, 150000), new SimpleInterval("2", 123450, 123460), new SimpleInterval("2", 199990, 300000))) {
+                final long expected = variants.stream().filter(vc -> interval.overlaps(vc)).count();
+                final List<VariantContext> actual = source.queryAndPrefetch(interval);
+                Assert.assertEquals(actual.size(), expected, "wrong number of records in " + interval);
+                actual.forEach(vc -> Assert.assertTrue(interval.overlaps(vc)));
+            }
+        }
+    }
+
+    @Test
+    public void testCompressBlockRoundTrips() throws IOException {
+        final Random random = new Random(42);
+        final byte[] incompressible = new byte[ParallelBlockCompressedVCFWriter.UNCOMPRESSED_BLOCK_SIZE];
+        random.nextBytes(incompressible);
+        final byte[] compressible = new byte[ParallelBlockCompressedVCFWriter.UNCOMPRESSED_BLOCK_SIZE];
+        Arrays.fill(compressible, (byte) 'A');
+
+        for (final byte[] data : Arrays.asList(incompressible, compressible)) {
+            for (final int level : new int[] {Deflater.NO_COMPRESSION, 5, Deflater.BEST_COMPRESSION}) {
+                final Deflater deflater = new Deflater(level, true);
+                final byte[] block;
+                try {
+                    block = ParallelBlockCompressedVCFWriter.compressBlock(deflater, data, data.length);
+                } finally {
+                    deflater.end();
+                }
+                Assert.assertTrue(block.length <= BlockCompressedStreamConstants.MAX_COMPRESSED_BLOCK_SIZE);
+                try (final InputStream in = new BlockCompressedInputStream(new ByteArrayInputStream(block))) {
+                    Assert.assertEquals(IOUtils.toByteArray(in), data);
+                }
+            }
+        }
+    }
+}